@@ -0,0 +1,39 @@
+// Writes a .gz file next to each static asset so that Spring's EncodedResourceResolver
+// can serve it without compressing on every request.
+// Usage: node scripts/compress-assets.mjs <directory>
+import { readdirSync, readFileSync, statSync, writeFileSync } from 'node:fs';
+import { join } from 'node:path';
+import { constants, gzipSync } from 'node:zlib';
+
+const EXTENSIONS = ['.js', '.css', '.svg', '.json'];
+const MIN_SIZE = 1024; // bytes; smaller files are not worth a separate variant
+
+function walk(dir) {
+  for (const name of readdirSync(dir)) {
+    const path = join(dir, name);
+    if (statSync(path).isDirectory()) {
+      walk(path);
+    } else if (EXTENSIONS.some((ext) => name.endsWith(ext))) {
+      compress(path);
+    }
+  }
+}
+
+function compress(path) {
+  const source = readFileSync(path);
+  if (source.length < MIN_SIZE) {
+    return;
+  }
+  const gzipped = gzipSync(source, { level: constants.Z_BEST_COMPRESSION });
+  if (gzipped.length < source.length) {
+    writeFileSync(`${path}.gz`, gzipped);
+    console.log(`${path}.gz ${source.length} -> ${gzipped.length} bytes`);
+  }
+}
+
+const root = process.argv[2];
+if (!root) {
+  console.error('usage: node scripts/compress-assets.mjs <directory>');
+  process.exit(1);
+}
+walk(root);
@@ -0,0 +1,113 @@
+// Measures the time from JVM launch to the first successful (HTTP 200) response of
+// /admin/api/mail/list, for a normal start and for the fast-startup settings
+// (Spring AOT + CDS archive + lazy initialization) of the same build.
+// Build first: mvn -Pfast-startup -DskipTests package
+// Usage: node scripts/startup-benchmark.mjs [--runs N] [--port P] [-- <application arguments>]
+//   e.g. node scripts/startup-benchmark.mjs --runs 5 -- --spring.datasource.url=jdbc:postgresql://db:5432/admin_app
+// Results are printed and written to target/startup-benchmark.json.
+import { spawn } from 'node:child_process';
+import { existsSync, readdirSync, writeFileSync } from 'node:fs';
+import { join } from 'node:path';
+
+const APP_DIR = 'target/application';
+const ARCHIVE = join(APP_DIR, 'application.jsa');
+const PATH = '/admin/api/mail/list?page=1&size=20';
+const POLL_MS = 20;
+const TIMEOUT_MS = 120000;
+
+const MODES = {
+  default: { jvm: [], app: [] },
+  'fast-startup': {
+    jvm: [`-XX:SharedArchiveFile=${ARCHIVE}`, '-Dspring.aot.enabled=true'],
+    app: ['--spring.profiles.active=fast-startup'],
+  },
+};
+
+function parseArgs(argv) {
+  const options = { runs: 5, port: 18080, app: [] };
+  for (let i = 0; i < argv.length; i++) {
+    if (argv[i] === '--') {
+      options.app = argv.slice(i + 1);
+      break;
+    } else if (argv[i] === '--runs') {
+      options.runs = Number(argv[++i]);
+    } else if (argv[i] === '--port') {
+      options.port = Number(argv[++i]);
+    } else {
+      throw new Error(`unknown option: ${argv[i]}`);
+    }
+  }
+  return options;
+}
+
+function findJar() {
+  const jar = existsSync(APP_DIR) ? readdirSync(APP_DIR).find((name) => name.endsWith('.jar')) : undefined;
+  if (!jar || !existsSync(ARCHIVE)) {
+    throw new Error(`${APP_DIR} is not built; run: mvn -Pfast-startup -DskipTests package`);
+  }
+  return join(APP_DIR, jar);
+}
+
+const sleep = (ms) => new Promise((resolve) => setTimeout(resolve, ms));
+
+async function measure(jar, mode, options) {
+  const args = [...mode.jvm, '-jar', jar, `--server.port=${options.port}`, ...mode.app, ...options.app];
+  const started = performance.now();
+  const child = spawn('java', args, { stdio: ['ignore', 'pipe', 'pipe'] });
+  let output = '';
+  const keep = (chunk) => {
+    output = (output + chunk).slice(-4000);
+  };
+  child.stdout.on('data', keep);
+  child.stderr.on('data', keep);
+  let exited = false;
+  const exit = new Promise((resolve) => child.on('exit', () => {
+    exited = true;
+    resolve();
+  }));
+
+  try {
+    while (performance.now() - started < TIMEOUT_MS) {
+      if (exited) {
+        throw new Error(`application exited before responding:\n${output}`);
+      }
+      try {
+        const response = await fetch(`http://localhost:${options.port}${PATH}`);
+        await response.arrayBuffer();
+        if (response.ok) {
+          return Math.round(performance.now() - started);
+        }
+      } catch {
+        // not listening yet
+      }
+      await sleep(POLL_MS);
+    }
+    throw new Error(`no successful response within ${TIMEOUT_MS} ms:\n${output}`);
+  } finally {
+    child.kill('SIGTERM');
+    await exit;
+  }
+}
+
+function summarize(times) {
+  const sorted = [...times].sort((a, b) => a - b);
+  return { runs: times, min: sorted[0], median: sorted[Math.floor(sorted.length / 2)], max: sorted[sorted.length - 1] };
+}
+
+const options = parseArgs(process.argv.slice(2));
+const jar = findJar();
+const times = Object.fromEntries(Object.keys(MODES).map((name) => [name, []]));
+// alternate the modes so that machine noise affects both equally
+for (let run = 1; run <= options.runs; run++) {
+  for (const [name, mode] of Object.entries(MODES)) {
+    const ms = await measure(jar, mode, options);
+    times[name].push(ms);
+    console.log(`run ${run} ${name}: ${ms} ms`);
+  }
+}
+
+const result = Object.fromEntries(Object.entries(times).map(([name, values]) => [name, summarize(values)]));
+for (const [name, summary] of Object.entries(result)) {
+  console.log(`${name}: median ${summary.median} ms (min ${summary.min}, max ${summary.max})`);
+}
+writeFileSync('target/startup-benchmark.json', `${JSON.stringify(result, null, 2)}\n`);
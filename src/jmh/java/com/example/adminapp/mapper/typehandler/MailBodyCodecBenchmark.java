@@ -0,0 +1,105 @@
+package com.example.adminapp.mapper.typehandler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MailBodyCodecBenchmark Class
+ * 本文の圧縮・展開の処理量(MailBodyCodec)
+ *
+ * 保存サイズ(未圧縮の UTF-8 バイト数 → 保存値のバイト数)は Setup 時に標準出力へ出力する。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MailBodyCodecBenchmark {
+
+    @Param({"TEXT", "HTML"})
+    private String kind; // 本文の種類
+
+    private String text;   // 本文
+    private String stored; // 保存値
+
+    @Setup
+    public void setUp() {
+        text = "HTML".equals(kind) ? html() : plainText();
+        stored = MailBodyCodec.encode(text);
+        int raw = text.getBytes(StandardCharsets.UTF_8).length;
+        int saved = stored.getBytes(StandardCharsets.UTF_8).length;
+        System.out.printf("%n[%s] %d chars: %d bytes -> %d bytes (%.1f%% saved)%n",
+                kind, text.length(), raw, saved, 100.0 * (raw - saved) / raw);
+    }
+
+    @Benchmark
+    public String encode() {
+        return MailBodyCodec.encode(text);
+    }
+
+    @Benchmark
+    public String decode() {
+        return MailBodyCodec.decode(stored);
+    }
+
+    /**
+     * テキストメール(約700文字)
+     */
+    private static String plainText() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("株式会社サンプル\n山田 太郎 様\n\nいつもご利用いただき、誠にありがとうございます。\n");
+        sb.append("ご注文の商品を発送いたしましたので、お知らせいたします。\n\n");
+        sb.append("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n");
+        for (int i = 1; i <= 12; i++) {
+            sb.append("■商品").append(i).append("：サンプル商品 ").append(i * 7)
+              .append(" 数量：").append(i % 3 + 1).append(" 金額：").append(i * 1280).append("円\n");
+        }
+        sb.append("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n\n");
+        sb.append("詳細は以下のURLよりご確認ください。\nhttps://example.com/orders/20240101-000123\n\n");
+        sb.append("※本メールは送信専用アドレスから配信しています。ご返信いただいてもお答えできませんのでご了承ください。\n");
+        sb.append("お問い合わせ先：カスタマーサポート 受付時間：平日 9:00～18:00（土日祝日・年末年始を除く）\n");
+        sb.append("今後ともどうぞよろしくお願いいたします。\n");
+        return sb.toString();
+    }
+
+    /**
+     * HTML メール(約4,000文字)
+     */
+    private static String html() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<!DOCTYPE html PUBLIC \"-//W3C//DTD XHTML 1.0 Transitional//EN\" ")
+          .append("\"http://www.w3.org/TR/xhtml1/DTD/xhtml1-transitional.dtd\">\n")
+          .append("<html xmlns=\"http://www.w3.org/1999/xhtml\" lang=\"ja\"><head>")
+          .append("<meta http-equiv=\"Content-Type\" content=\"text/html; charset=UTF-8\">")
+          .append("<meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\"><title>発送のお知らせ</title></head>\n")
+          .append("<body style=\"margin:0;padding:0;background-color:#f4f4f4;-webkit-text-size-adjust:100%;\">\n")
+          .append("<table role=\"presentation\" width=\"600\" cellpadding=\"0\" cellspacing=\"0\" border=\"0\" align=\"center\" ")
+          .append("style=\"max-width:600px;background-color:#ffffff;\">\n");
+        for (int i = 1; sb.length() < 3600; i++) {
+            sb.append("<tr><td align=\"center\" valign=\"top\" style=\"padding:20px 30px;font-family:'Hiragino Kaku Gothic ProN',")
+              .append("Meiryo,sans-serif;font-size:14px;line-height:1.7;color:#333333;\">\n")
+              .append("<p style=\"margin:0 0 16px 0;font-size:14px;line-height:1.7;color:#333333;\">")
+              .append("<span style=\"font-weight:bold;\">商品").append(i).append("</span> サンプル商品 ")
+              .append(i * 7).append(" / ").append(i * 1280).append("円</p>\n")
+              .append("<a href=\"https://example.com/items/").append(i * 31)
+              .append("\" target=\"_blank\" rel=\"noopener\" style=\"color:#1a73e8;text-decoration:underline;\">詳細はこちら</a>\n")
+              .append("</td></tr>\n");
+        }
+        sb.append("</table>\n<div style=\"font-family:sans-serif;font-size:12px;color:#999999;text-align:center;\">")
+          .append("※本メールは送信専用アドレスから配信しています。ご返信いただいてもお答えできませんのでご了承ください。</div>\n")
+          .append("</body></html>\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.adminapp.service.mail;
+
+import com.example.adminapp.service.mail.dto.MailSearchConditionDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MailSearchParamsBenchmark Class
+ * MailSearchService の入力値変換(buildCondition / parseDateTime / parseInteger)の処理時間
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MailSearchParamsBenchmark {
+
+    // 入力値変換は Mapper 等を使用しないため未設定で生成する
+    private final MailSearchService service =
+            new MailSearchService(null, null, null, null, new MailMetrics(new SimpleMeterRegistry()), "EXACT", false, false);
+
+    private Map<String, String> params;        // 全項目指定
+    private Map<String, String> invalidParams; // 変換エラー(null となる値)
+
+    @Setup
+    public void setUp() {
+        params = new HashMap<>();
+        params.put("sentAtFrom", "2024/01/01 00:00");
+        params.put("sentAtTo", "2024/12/31 23:59");
+        params.put("status", "SUCCESS");
+        params.put("toAddress", "example.com");
+        params.put("subjectKeyword", "レポート");
+        params.put("page", "3");
+        params.put("size", "50");
+
+        invalidParams = new HashMap<>();
+        invalidParams.put("sentAtFrom", "2024/01/01");
+        invalidParams.put("page", "abc");
+    }
+
+    @Benchmark
+    public MailSearchConditionDto buildCondition() {
+        return service.buildCondition(params);
+    }
+
+    @Benchmark
+    public LocalDateTime parseDateTime() {
+        return service.parseDateTime(params, "sentAtFrom");
+    }
+
+    @Benchmark
+    public LocalDateTime parseDateTimeInvalid() {
+        return service.parseDateTime(invalidParams, "sentAtFrom");
+    }
+
+    @Benchmark
+    public Integer parseInteger() {
+        return service.parseInteger(params, "page");
+    }
+
+    @Benchmark
+    public Integer parseIntegerInvalid() {
+        return service.parseInteger(invalidParams, "page");
+    }
+}
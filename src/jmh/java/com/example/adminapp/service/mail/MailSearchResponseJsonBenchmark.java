@@ -0,0 +1,71 @@
+package com.example.adminapp.service.mail;
+
+import com.example.adminapp.service.mail.dto.MailSearchResponseDto;
+import com.example.adminapp.service.mail.dto.MailSendListDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * MailSearchResponseJsonBenchmark Class
+ * 検索結果(MailSearchResponseDto)の JSON 変換時間(頁件数別)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MailSearchResponseJsonBenchmark {
+
+    @Param({"20", "200", "2000"})
+    private int size; // 頁件数
+
+    // Spring MVC と同じ既定設定(JavaTimeModule 登録・日時は文字列)
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private MailSearchResponseDto response;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 9, 0);
+        List<MailSendListDto> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocalDateTime sentAt = base.plusMinutes(i);
+            items.add(new MailSendListDto((long) i + 1,
+                    "user" + i + "@example.com",
+                    i % 3 == 0 ? "cc" + i + "@example.com" : null,
+                    null,
+                    "月次レポートのご案内 #" + i,
+                    i % 10 == 0 ? "FAILED" : "SUCCESS",
+                    i % 2 == 0,
+                    i % 10 == 0 ? "550 mailbox unavailable" : null,
+                    sentAt,
+                    sentAt,
+                    0));
+        }
+        response = new MailSearchResponseDto(items, 10_000, true, 10_000 / size + 1, 0, size,
+                true, false, "TnwyMDI0LTAxLTAxVDA5OjAwfDEwMA", null);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.adminapp.validation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * FormValidatorBenchmark Class
+ * FormValidator.validate(MailSendField) の処理時間
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormValidatorBenchmark {
+
+    private final FormValidator validator = new FormValidator();
+
+    private Map<String, String> validParams;   // エラーなし
+    private Map<String, String> invalidParams; // 全項目エラー
+
+    @Setup
+    public void setUp() {
+        validParams = new HashMap<>();
+        validParams.put("toAddress", "user1@example.com, user2@example.co.jp, user3@example.org");
+        validParams.put("replyTo", "reply@example.com");
+        validParams.put("ccAddress", "cc@example.com");
+        validParams.put("bccAddress", "");
+        validParams.put("subject", "月次レポートのご案内");
+        validParams.put("body", "本文".repeat(200));
+        validParams.put("isHtml", "false");
+
+        invalidParams = new HashMap<>();
+        invalidParams.put("toAddress", "user1@example.com, invalid-address");
+        invalidParams.put("replyTo", " ");
+        invalidParams.put("ccAddress", "cc@example.com,".repeat(80));
+        invalidParams.put("bccAddress", "bcc@example");
+        invalidParams.put("subject", "件".repeat(300));
+        invalidParams.put("isHtml", "true");
+    }
+
+    @Benchmark
+    public Map<String, String> valid() {
+        return validator.validate(MailSendField.class, validParams);
+    }
+
+    @Benchmark
+    public Map<String, String> invalid() {
+        return validator.validate(MailSendField.class, invalidParams);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.adminapp.config;
+
+import com.example.adminapp.controller.api.MailController;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * LazyInitializationConfig Class
+ * 遅延初期化(spring.main.lazy-initialization=true)時に起動時に生成する Bean
+ *
+ * 一覧検索(/admin/api/mail/list)を処理する MailController と、その依存(検索処理・Mapper・MyBatis の設定)は
+ * 起動時に生成し、初回の検索応答を遅らせない。それ以外の Bean は初回使用時に生成する。
+ * @Scheduled を持つ Bean は Spring Boot が遅延初期化の対象外とする。
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    /**
+     * 遅延初期化の対象外とする Bean
+     */
+    @Bean
+    static LazyInitializationExcludeFilter eagerMailSearchBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(MailController.class);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.adminapp.config;
+
+import org.mybatis.spring.mapper.MapperFactoryBean;
+import org.mybatis.spring.mapper.MapperScannerConfigurer;
+import org.springframework.beans.factory.aot.BeanRegistrationExcludeFilter;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.RegisteredBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+
+/**
+ * MyBatisAotConfig Class
+ * Spring AOT(mvn -Pfast-startup)で MyBatis の Mapper を使用するための設定
+ *
+ * MapperScannerConfigurer が登録する Mapper の Bean 定義は、Mapper のクラスを文字列で保持するため、
+ * AOT の生成コードからは MapperFactoryBean を生成できない。ビルド時に Mapper のクラスを確定させ、
+ * 生成コードに含まれた Mapper を実行時に再度検出しないよう MapperScannerConfigurer を生成対象から除く。
+ * AOT を使用しない通常の起動では Bean 定義の内容は変わらない。
+ */
+@Configuration
+public class MyBatisAotConfig {
+
+    /**
+     * BeanFactoryPostProcessor(Mapper の Bean 定義のクラスの確定)
+     */
+    @Bean
+    static BeanFactoryPostProcessor mapperFactoryBeanTypeResolver() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (!(definition instanceof AbstractBeanDefinition bean) || !bean.hasBeanClass()
+                        || !MapperFactoryBean.class.isAssignableFrom(bean.getBeanClass())) {
+                    continue;
+                }
+                ConstructorArgumentValues.ValueHolder argument = bean.getConstructorArgumentValues()
+                        .getGenericArgumentValue(null);
+                if (argument == null || !(argument.getValue() instanceof String mapperName)) {
+                    continue;
+                }
+                Class<?> mapperInterface = ClassUtils.resolveClassName(mapperName, beanFactory.getBeanClassLoader());
+                ConstructorArgumentValues arguments = new ConstructorArgumentValues();
+                arguments.addGenericArgumentValue(mapperInterface);
+                bean.setConstructorArgumentValues(arguments);
+            }
+        };
+    }
+
+    /**
+     * BeanRegistrationExcludeFilter(AOT の生成対象から MapperScannerConfigurer を除く)
+     * META-INF/spring/aot.factories で登録する。
+     */
+    public static class MapperScannerExcludeFilter implements BeanRegistrationExcludeFilter {
+
+        @Override
+        public boolean isExcludedFromAotProcessing(RegisteredBean registeredBean) {
+            return MapperScannerConfigurer.class.isAssignableFrom(registeredBean.getBeanClass());
+        }
+    }
+}
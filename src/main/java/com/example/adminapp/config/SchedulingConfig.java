@@ -0,0 +1,13 @@
+package com.example.adminapp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * SchedulingConfig Class
+ * 定期処理(@Scheduled)の有効化
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
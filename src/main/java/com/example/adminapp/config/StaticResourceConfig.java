@@ -0,0 +1,65 @@
+package com.example.adminapp.config;
+
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+/**
+ * StaticResourceConfig Class
+ * 静的ファイル(/js, /img)の配信
+ *
+ * テンプレートの @{...} で出力した URL は、ResourceUrlEncodingFilter が内容のハッシュ付きの URL
+ * (例: /js/mail/mail-list-{hash}.js)に書き換える。内容が変わると URL も変わるため、
+ * Cache-Control: immutable で長期間キャッシュさせ、再表示時はブラウザが再検証しない。
+ * ハッシュなしの URL で要求された場合は Cache-Control: no-cache とし、配備後も古い内容が使われないようにする。
+ * ビルド時に作成した .gz がある場合は、Accept-Encoding: gzip の要求に .gz を返す。
+ * 静的ファイルはテンプレートから @{...} で参照すること。
+ */
+@Configuration
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+    private static final String[] DIRECTORIES = {"js", "img"}; // ハッシュ付きの URL で配信するディレクトリ
+
+    private final long    maxAgeDays; // キャッシュ期間(日)
+    private final boolean cache;      // ハッシュ・解決結果の保持有無(devtools 使用時は false)
+
+    /**
+     * constructor
+     */
+    public StaticResourceConfig(
+        @Value("${web.static.cache-days:365}") long maxAgeDays,
+        @Value("${spring.web.resources.chain.cache:true}") boolean cache)
+    {
+        this.maxAgeDays = maxAgeDays;
+        this.cache = cache;
+    }
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        CacheControl cacheControl = CacheControl.maxAge(maxAgeDays, TimeUnit.DAYS).cachePublic().immutable();
+        for (String directory : DIRECTORIES) {
+            registry.addResourceHandler("/" + directory + "/**")
+                    .addResourceLocations("classpath:/static/" + directory + "/")
+                    .setCacheControl(cacheControl)
+                    .resourceChain(cache)
+                    .addResolver(new UnversionedResourceResolver())
+                    .addResolver(new EncodedResourceResolver())
+                    .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+        }
+    }
+
+    /**
+     * Filter(@{...} の URL をハッシュ付きの URL に書き換える)
+     */
+    @Bean
+    public ResourceUrlEncodingFilter resourceUrlEncodingFilter() {
+        return new ResourceUrlEncodingFilter();
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.adminapp.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+/**
+ * UnversionedResourceResolver Class
+ * ハッシュなしの URL で要求された静的ファイルを Cache-Control: no-cache で返す
+ *
+ * ハッシュ付きの URL(mail-list-{hash}.js)は解決後のファイル名と要求のファイル名が異なるため区別できる。
+ * ハッシュなしの URL は内容が変わっても URL が変わらないため、長期間のキャッシュ(immutable)を上書きし、
+ * ブラウザに再検証(Last-Modified / ETag)させる。
+ */
+class UnversionedResourceResolver implements ResourceResolver {
+
+    private static final String NO_CACHE = CacheControl.noCache().getHeaderValue();
+
+    @Override
+    @Nullable
+    public Resource resolveResource(
+        @Nullable HttpServletRequest request,
+        String requestPath,
+        List<? extends Resource> locations,
+        ResourceResolverChain chain)
+    {
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        if (resource == null || request == null) {
+            return resource;
+        }
+        String filename = resource.getFilename();
+        if (filename == null || !filename.equals(StringUtils.getFilename(requestPath))) {
+            return resource;
+        }
+        return new NoCacheResource(resource);
+    }
+
+    @Override
+    @Nullable
+    public String resolveUrlPath(String resourcePath, List<? extends Resource> locations, ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourcePath, locations);
+    }
+
+    /**
+     * Cache-Control: no-cache を付与する Resource(他の応答ヘッダ・内容は元の Resource のまま)
+     */
+    static final class NoCacheResource extends AbstractResource implements HttpResource {
+
+        private final Resource original;
+
+        NoCacheResource(Resource original) {
+            this.original = original;
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            if (original instanceof HttpResource httpResource) {
+                headers.putAll(httpResource.getResponseHeaders());
+            }
+            headers.set(HttpHeaders.CACHE_CONTROL, NO_CACHE);
+            return headers;
+        }
+
+        @Override
+        public boolean exists() {
+            return original.exists();
+        }
+
+        @Override
+        public boolean isReadable() {
+            return original.isReadable();
+        }
+
+        @Override
+        public boolean isFile() {
+            return original.isFile();
+        }
+
+        @Override
+        public URL getURL() throws IOException {
+            return original.getURL();
+        }
+
+        @Override
+        public URI getURI() throws IOException {
+            return original.getURI();
+        }
+
+        @Override
+        public File getFile() throws IOException {
+            return original.getFile();
+        }
+
+        @Override
+        public ReadableByteChannel readableChannel() throws IOException {
+            return original.readableChannel();
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return original.contentLength();
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return original.lastModified();
+        }
+
+        @Override
+        public Resource createRelative(String relativePath) throws IOException {
+            return original.createRelative(relativePath);
+        }
+
+        @Override
+        @Nullable
+        public String getFilename() {
+            return original.getFilename();
+        }
+
+        /**
+         * 説明(Resource の同値判定に使用されるため、元の Resource と区別する)
+         */
+        @Override
+        public String getDescription() {
+            return original.getDescription() + " (no-cache)";
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return original.getInputStream();
+        }
+    }
+}
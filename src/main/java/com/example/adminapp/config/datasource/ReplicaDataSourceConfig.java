@@ -0,0 +1,82 @@
+package com.example.adminapp.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * ReplicaDataSourceConfig Class
+ * 参照用 DB(レプリカ)への振分け(datasource.replica.enabled=true の場合のみ)
+ *
+ * spring.datasource.* を primary、datasource.replica.urls の各 URL をレプリカとする DataSource を登録する。
+ * 接続プールの設定は spring.datasource.hikari.* を共通とし、レプリカのみ datasource.replica.hikari.* で上書きできる。
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    /**
+     * DataSource(primary / レプリカの振分け)
+     */
+    @Bean
+    public ReplicaRoutingDataSource dataSource(
+        DataSourceProperties properties,
+        Environment          environment,
+        @Value("${datasource.replica.urls}") String[] urls,
+        @Value("${datasource.replica.username:}") String username,
+        @Value("${datasource.replica.password:}") String password,
+        @Value("${datasource.replica.balance:ROUND_ROBIN}") String balance,
+        @Value("${datasource.replica.retry-ms:30000}") long retryMillis,
+        @Value("${datasource.replica.sticky-ms:5000}") long stickyMillis)
+    {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                    .url(url.trim())
+                    .username(username.isEmpty() ? properties.determineUsername() : username)
+                    .password(username.isEmpty() ? properties.determinePassword() : password)
+                    .build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            binder.bind("datasource.replica.hikari", Bindable.ofInstance(replica));
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replicas.add(replica);
+        }
+
+        ReplicaRouting.configure(stickyMillis);
+        return new ReplicaRoutingDataSource(primary, replicas, ReplicaRoutingDataSource.Balance.of(balance), retryMillis);
+    }
+
+    /**
+     * MyBatis Plugin(@ReplicaRead の SQL をレプリカで実行する)
+     */
+    @Bean
+    public ReplicaReadInterceptor replicaReadInterceptor() {
+        return new ReplicaReadInterceptor();
+    }
+
+    /**
+     * Filter(書込を行った利用者の参照を一定時間 primary で行う)
+     */
+    @Bean
+    public ReplicaRoutingFilter replicaRoutingFilter(@Value("${datasource.replica.sticky-ms:5000}") long stickyMillis) {
+        return new ReplicaRoutingFilter(stickyMillis);
+    }
+}
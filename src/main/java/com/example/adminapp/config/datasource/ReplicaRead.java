@@ -0,0 +1,20 @@
+package com.example.adminapp.config.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * ReplicaRead Annotation
+ * 参照用 DB(レプリカ)で実行してよい Mapper メソッド
+ *
+ * 書込直後の値を読む必要がある処理(更新前の値の取得など)からは ReplicaRouting.primary() 内で呼び出すこと。
+ * トランザクション内で呼び出した場合は、トランザクションの接続(primary)で実行する。
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReplicaRead {
+}
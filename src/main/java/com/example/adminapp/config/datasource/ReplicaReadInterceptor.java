@@ -0,0 +1,82 @@
+package com.example.adminapp.config.datasource;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * ReplicaReadInterceptor Class
+ * MyBatis の SQL 実行時に primary / 参照用 DB(レプリカ)の振分け状態を設定する
+ *
+ * Mapper メソッドに @ReplicaRead が付いた SELECT の実行中のみレプリカでの参照とする。
+ * INSERT / UPDATE / DELETE と flushCache="true" の SELECT(RETURNING 付きの更新)は書込として ReplicaRouting に通知する。
+ */
+@Intercepts({
+    @Signature(type = Executor.class, method = "query",
+            args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+    @Signature(type = Executor.class, method = "query",
+            args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+    @Signature(type = Executor.class, method = "update",
+            args = {MappedStatement.class, Object.class})
+})
+public class ReplicaReadInterceptor implements Interceptor {
+
+    // MappedStatement の ID → @ReplicaRead の有無
+    private final Map<String, Boolean> replicaReads = new ConcurrentHashMap<>();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        if (statement.getSqlCommandType() != SqlCommandType.SELECT || statement.isFlushCacheRequired()) {
+            try {
+                return invocation.proceed();
+            } finally {
+                ReplicaRouting.written();
+            }
+        }
+        if (!replicaReads.computeIfAbsent(statement.getId(), ReplicaReadInterceptor::isReplicaRead)) {
+            return invocation.proceed();
+        }
+        Boolean previous = ReplicaRouting.beginRead();
+        try {
+            return invocation.proceed();
+        } finally {
+            ReplicaRouting.endRead(previous);
+        }
+    }
+
+    /**
+     * @ReplicaRead 有無判定処理
+     * @param statementId MappedStatement の ID(Mapper のクラス名.メソッド名)
+     * @return Mapper メソッドに @ReplicaRead が付いている場合 true
+     */
+    static boolean isReplicaRead(String statementId) {
+        int separator = statementId.lastIndexOf('.');
+        if (separator < 0) {
+            return false;
+        }
+        try {
+            Class<?> mapper = Resources.classForName(statementId.substring(0, separator));
+            String name = statementId.substring(separator + 1);
+            for (Method method : mapper.getMethods()) {
+                if (method.getName().equals(name) && method.isAnnotationPresent(ReplicaRead.class)) {
+                    return true;
+                }
+            }
+        } catch (ClassNotFoundException e) {
+        }
+        return false;
+    }
+}
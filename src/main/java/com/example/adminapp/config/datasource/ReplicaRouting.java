@@ -0,0 +1,180 @@
+package com.example.adminapp.config.datasource;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * ReplicaRouting Class
+ * primary / 参照用 DB(レプリカ)の振分け状態
+ *
+ * ReplicaReadInterceptor が @ReplicaRead の SQL 実行中のみ参照中とし、ReplicaRoutingDataSource は
+ * 参照中かつ primary 固定でない場合のみレプリカの接続を返す。
+ * 書込を行った要求(Scope)は以降の参照も primary で行い、自身の書込を読めるようにする。
+ * 要求単位の状態はスレッドプールへ引き継がれないよう通常の ThreadLocal とし、
+ * 要求内で別スレッドに処理を渡す場合は inheritScope() で明示的に引き継ぐ。
+ */
+public final class ReplicaRouting {
+
+    // 実行中の SQL がレプリカで実行できるか
+    private static final ThreadLocal<Boolean> READ = new ThreadLocal<>();
+
+    // primary 固定(primary() の実行中)
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    // 要求単位の状態(ReplicaRoutingFilter を通る要求スレッドのみ)
+    private static final ThreadLocal<Scope> SCOPE = new ThreadLocal<>();
+
+    private static volatile long    stickyNanos;    // 書込後に primary で参照する時間(0 はレプリカ未使用)
+    private static volatile long    lastWriteNanos; // 要求内の最終書込時刻(System.nanoTime)
+    private static volatile boolean written;        // 起動後の要求内の書込有無
+
+    private ReplicaRouting() {
+    }
+
+    /**
+     * 設定処理
+     * @param stickyMillis 書込後に primary で参照する時間(ミリ秒)
+     */
+    static void configure(long stickyMillis) {
+        stickyNanos = Math.max(0, stickyMillis) * 1_000_000L;
+    }
+
+    /**
+     * primary 固定実行処理
+     * 書込直後の値を読む必要がある参照(更新前の値の取得など)に使用する。
+     * @param action 処理
+     * @return 処理結果
+     */
+    public static <T> T primary(Supplier<T> action) {
+        Boolean previous = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY.set(previous);
+        }
+    }
+
+    /**
+     * 要求単位の状態の引継ぎ処理
+     * 呼出元スレッドの要求単位の状態を、別スレッドで実行する処理に引き継ぐ(件数取得の並行実行等)。
+     * @param task 処理
+     * @return 要求単位の状態を引き継いで実行する処理
+     */
+    public static <T> Callable<T> inheritScope(Callable<T> task) {
+        Scope scope = SCOPE.get();
+        if (scope == null) {
+            return task;
+        }
+        return () -> {
+            Scope previous = SCOPE.get();
+            SCOPE.set(scope);
+            try {
+                return task.call();
+            } finally {
+                if (previous == null) {
+                    SCOPE.remove();
+                } else {
+                    SCOPE.set(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * レプリカ遅延有無判定処理
+     * 要求内の書込後 stickyNanos 以内はレプリカの参照結果に書込が反映されていない可能性がある。
+     * 配信結果の反映・再送・集計等のバックグラウンドの書込は対象としない。
+     * @return レプリカ使用時に、直近の要求内の書込から stickyNanos 以内の場合 true
+     */
+    public static boolean mayBeStale() {
+        long sticky = stickyNanos;
+        return sticky > 0 && written && System.nanoTime() - lastWriteNanos < sticky;
+    }
+
+    /**
+     * 参照開始処理(ReplicaReadInterceptor)
+     * @return 開始前の状態
+     */
+    static Boolean beginRead() {
+        Boolean previous = READ.get();
+        READ.set(Boolean.TRUE);
+        return previous;
+    }
+
+    /**
+     * 参照終了処理(ReplicaReadInterceptor)
+     * @param previous 開始前の状態
+     */
+    static void endRead(Boolean previous) {
+        READ.set(previous);
+    }
+
+    /**
+     * 書込通知処理(ReplicaReadInterceptor)
+     * 以降、同じ要求の参照は primary で行う。要求外(バックグラウンド)の書込は記録しない。
+     */
+    static void written() {
+        Scope scope = SCOPE.get();
+        if (scope == null) {
+            return;
+        }
+        lastWriteNanos = System.nanoTime();
+        written = true;
+        scope.written();
+    }
+
+    /**
+     * レプリカ使用可否判定処理(ReplicaRoutingDataSource)
+     * @return レプリカの接続を返す場合 true
+     */
+    static boolean isReplicaRead() {
+        if (!Boolean.TRUE.equals(READ.get()) || Boolean.TRUE.equals(PRIMARY.get())) {
+            return false;
+        }
+        Scope scope = SCOPE.get();
+        return scope == null || !scope.pinned;
+    }
+
+    /**
+     * 要求開始処理(ReplicaRoutingFilter)
+     * @param pinned  primary で参照する場合 true(直前の要求で書込済み)
+     * @param onWrite 要求内で最初に書込を行った時の処理
+     */
+    static void begin(boolean pinned, Runnable onWrite) {
+        SCOPE.set(new Scope(pinned, onWrite));
+    }
+
+    /**
+     * 要求終了処理(ReplicaRoutingFilter)
+     */
+    static void end() {
+        SCOPE.remove();
+    }
+
+    /**
+     * 要求単位の状態
+     */
+    private static final class Scope {
+        private volatile boolean pinned;  // primary で参照する
+        private boolean          notified; // onWrite 実行済み
+        private final Runnable   onWrite;
+
+        Scope(boolean pinned, Runnable onWrite) {
+            this.pinned = pinned;
+            this.onWrite = onWrite;
+        }
+
+        void written() {
+            boolean first;
+            synchronized (this) {
+                first = !notified;
+                notified = true;
+                pinned = true;
+            }
+            if (first && onWrite != null) {
+                onWrite.run();
+            }
+        }
+    }
+}
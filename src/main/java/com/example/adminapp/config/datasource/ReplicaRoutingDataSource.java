@@ -0,0 +1,227 @@
+package com.example.adminapp.config.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * ReplicaRoutingDataSource Class
+ * primary / 参照用 DB(レプリカ)の振分け
+ *
+ * ReplicaRouting が参照中(@ReplicaRead の SQL 実行中)の場合のみレプリカの接続を返し、それ以外は primary の接続を返す。
+ * レプリカはラウンドロビン、または使用中の接続数が最も少ないものを選択する。
+ * 接続に失敗したレプリカは retryNanos の間使用せず、使用できるレプリカが無い場合は primary の接続を返す。
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    /**
+     * レプリカの選択方式
+     */
+    public enum Balance {
+        ROUND_ROBIN,       // 順番に選択する
+        LEAST_CONNECTIONS; // 使用中の接続数が最も少ないものを選択する
+
+        /**
+         * 選択方式変換処理
+         * @param value 設定値
+         * @return 選択方式(未指定・不正な場合は ROUND_ROBIN)
+         */
+        public static Balance of(String value) {
+            try {
+                if (value != null && !value.isBlank()) {
+                    return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+                }
+            } catch (IllegalArgumentException e) {
+            }
+            return ROUND_ROBIN;
+        }
+    }
+
+    private final DataSource    primary;
+    private final List<Replica> replicas;
+    private final Balance       balance;
+    private final long          retryNanos; // 接続に失敗したレプリカを再度使用するまでの時間
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * constructor
+     */
+    public ReplicaRoutingDataSource(
+        DataSource       primary,
+        List<DataSource> replicas,
+        Balance          balance,
+        long             retryMillis)
+    {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.balance = balance;
+        this.retryNanos = Math.max(0, retryMillis) * 1_000_000L;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (!replicas.isEmpty() && ReplicaRouting.isReplicaRead()) {
+            Connection connection = replicaConnection(username, password);
+            if (connection != null) {
+                return connection;
+            }
+        }
+        return connect(primary, username, password);
+    }
+
+    /**
+     * レプリカ接続取得処理
+     * @param username ユーザー名(null の場合は DataSource の設定値)
+     * @param password パスワード
+     * @return 接続(使用できるレプリカが無い場合は null)
+     */
+    private Connection replicaConnection(String username, String password) {
+        long now = System.nanoTime();
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        if (balance == Balance.LEAST_CONNECTIONS) {
+            start = leastConnections(start, now);
+        }
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.isAvailable(now)) {
+                continue;
+            }
+            try {
+                return replica.connect(username, password);
+            } catch (SQLException e) {
+                replica.downUntil = now + retryNanos;
+                log.warn("replica connection failed, retrying after {} ms: {}", retryNanos / 1_000_000L, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 使用中の接続数が最も少ないレプリカの位置取得処理
+     * 同数の場合は start から順に最初のものを選択する。
+     * @param start 開始位置
+     * @param now   現在時刻(System.nanoTime)
+     * @return 位置
+     */
+    private int leastConnections(int start, long now) {
+        int size = replicas.size();
+        int selected = start;
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            int index = (start + i) % size;
+            Replica replica = replicas.get(index);
+            int active = replica.active.get();
+            if (replica.isAvailable(now) && active < min) {
+                selected = index;
+                min = active;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * 使用中の接続数取得処理
+     * @param index レプリカの位置
+     * @return 使用中の接続数
+     */
+    public int activeConnections(int index) {
+        return replicas.get(index).active.get();
+    }
+
+    /**
+     * 停止処理
+     * 接続元の DataSource(HikariDataSource 等)を閉じる。
+     */
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static Connection connect(DataSource dataSource, String username, String password) throws SQLException {
+        return username == null ? dataSource.getConnection() : dataSource.getConnection(username, password);
+    }
+
+    /**
+     * レプリカ(接続元と使用中の接続数)
+     */
+    private static final class Replica {
+        private final DataSource    dataSource;
+        private final AtomicInteger active = new AtomicInteger(); // 使用中の接続数
+        private volatile long       downUntil;                    // 接続失敗時、再度使用する時刻(System.nanoTime)
+
+        Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        boolean isAvailable(long now) {
+            return downUntil == 0 || downUntil - now <= 0;
+        }
+
+        Connection connect(String username, String password) throws SQLException {
+            Connection connection = ReplicaRoutingDataSource.connect(dataSource, username, password);
+            downUntil = 0;
+            active.incrementAndGet();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, new CountingHandler(connection, active));
+        }
+    }
+
+    /**
+     * 接続を閉じた時に使用中の接続数を減らす Proxy
+     */
+    private static final class CountingHandler implements InvocationHandler {
+        private final Connection    target;
+        private final AtomicInteger active;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        CountingHandler(Connection target, AtomicInteger active) {
+            this.target = target;
+            this.active = active;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals"   -> { return proxy == args[0]; }
+                case "hashCode" -> { return System.identityHashCode(proxy); }
+                case "close"    -> {
+                    if (closed.compareAndSet(false, true)) {
+                        active.decrementAndGet();
+                    }
+                }
+                default -> { }
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.adminapp.config.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * ReplicaRoutingFilter Class
+ * 書込を行った利用者の参照を一定時間 primary で行う
+ *
+ * 要求内で書込を行った場合は、primary で参照する期限を Cookie に設定する。
+ * 期限内の要求は @ReplicaRead の SQL も primary で実行し、レプリカの遅延で自身の書込が見えない状態を避ける。
+ */
+public class ReplicaRoutingFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "ADMINAPP_PRIMARY_UNTIL";
+
+    private final long stickyMillis; // 書込後に primary で参照する時間
+
+    /**
+     * constructor
+     */
+    public ReplicaRoutingFilter(long stickyMillis) {
+        this.stickyMillis = Math.max(0, stickyMillis);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException
+    {
+        ReplicaRouting.begin(isPinned(request), () -> pin(response));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRouting.end();
+        }
+    }
+
+    /**
+     * primary 参照期限内判定処理
+     * @param request Request
+     * @return 期限内の場合 true
+     */
+    private boolean isPinned(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * primary 参照期限設定処理
+     * 応答の送信開始後は設定しない(同じ要求内の参照は ReplicaRouting で primary に固定済み)。
+     * @param response Response
+     */
+    private void pin(HttpServletResponse response) {
+        if (stickyMillis == 0 || response.isCommitted()) {
+            return;
+        }
+        Cookie cookie = new Cookie(COOKIE_NAME, String.valueOf(System.currentTimeMillis() + stickyMillis));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, (stickyMillis + 999) / 1000));
+        response.addCookie(cookie);
+    }
+}
@@ -1,8 +1,13 @@
 package com.example.adminapp.controller;
 
+import com.example.adminapp.service.mail.report.MailReportService;
+import com.example.adminapp.service.mail.stats.MailStatistics;
+
+import java.util.Map;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 /**
  * AdminController Class
@@ -10,6 +15,17 @@ import org.springframework.web.bind.annotation.GetMapping;
 @Controller
 public class AdminController {
 
+  private final MailStatistics    statistics;
+  private final MailReportService report;
+
+  /**
+   * constructor
+   */
+  public AdminController(MailStatistics statistics, MailReportService report) {
+    this.statistics = statistics;
+    this.report = report;
+  }
+
   /**
    * Dashboard画面表示処理
    * @param model Model
@@ -17,6 +33,7 @@ public class AdminController {
    */
   @GetMapping({"/", "/admin", "/admin/dashboard"})
   public String dashboard(Model model) {
+    model.addAttribute("mailStats", statistics.snapshot());
     return render(model, "Dashboard", "dashboard", "dashboard");
   }
 
@@ -42,11 +59,13 @@ public class AdminController {
 
   /**
    * Reports画面表示処理
-   * @param model Model
+   * @param model  Model
+   * @param params 入力値(granularity / from / to)
    * @return layout.html + reports.html
    */
   @GetMapping("/admin/reports")
-  public String reports(Model model) {
+  public String reports(Model model, @RequestParam Map<String, String> params) {
+    model.addAttribute("mailReport", report.report(params));
     return render(model, "Reports", "reports", "reports");
   }
 
@@ -1,15 +1,49 @@
 package com.example.adminapp.controller.api;
 
+import com.example.adminapp.service.mail.MailBulkOperationService;
+import com.example.adminapp.service.mail.MailExportFormat;
+import com.example.adminapp.service.mail.MailExportService;
+import com.example.adminapp.service.mail.MailQueueFullException;
 import com.example.adminapp.service.mail.MailSearchService;
 import com.example.adminapp.service.mail.MailSendService;
+import com.example.adminapp.service.mail.admission.MailRateLimitException;
+import com.example.adminapp.service.mail.admission.MailSendAdmission;
+import com.example.adminapp.service.mail.dto.MailBulkOperationRequestDto;
+import com.example.adminapp.service.mail.dto.MailBulkOperationResponseDto;
+import com.example.adminapp.service.mail.dto.MailBulkSendResponseDto;
+import com.example.adminapp.service.mail.dto.MailReportDto;
 import com.example.adminapp.service.mail.dto.MailSearchResponseDto;
 import com.example.adminapp.service.mail.dto.MailSendResponseDto;
+import com.example.adminapp.service.mail.dto.MailSendStatusDto;
+import com.example.adminapp.service.mail.dto.MailStatisticsDto;
+import com.example.adminapp.service.mail.idempotency.MailIdempotencyException;
+import com.example.adminapp.service.mail.idempotency.MailIdempotencyService;
+import com.example.adminapp.service.mail.report.MailReportService;
+import com.example.adminapp.service.mail.stats.MailStatistics;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * MailController Class
@@ -17,15 +51,45 @@ import java.util.Map;
 @RestController
 public class MailController {
 
-    private final MailSearchService search;
-    private final MailSendService   send;
+    // 出力ファイル名の日時形式
+    private static final DateTimeFormatter EXPORT_FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024; // 圧縮バッファ
+
+    // 保持していた応答を再送した場合の応答ヘッダー
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final MailSearchService        search;
+    private final MailSendService          send;
+    private final MailExportService        export;
+    private final MailStatistics           statistics;
+    private final MailReportService        report;
+    private final MailIdempotencyService   idempotency;
+    private final MailSendAdmission        admission;
+    private final MailBulkOperationService bulkOperation;
 
     /**
      * constructor
+     * 一覧検索以外の処理は @Lazy とし、遅延初期化時は初回使用時に生成する(LazyInitializationConfig)
      */
-    public MailController(MailSearchService search, MailSendService send) {
+    public MailController(
+              MailSearchService        search,
+        @Lazy MailSendService          send,
+        @Lazy MailExportService        export,
+        @Lazy MailStatistics           statistics,
+        @Lazy MailReportService        report,
+        @Lazy MailIdempotencyService   idempotency,
+        @Lazy MailSendAdmission        admission,
+        @Lazy MailBulkOperationService bulkOperation)
+    {
         this.search = search;
         this.send = send;
+        this.export = export;
+        this.statistics = statistics;
+        this.report = report;
+        this.idempotency = idempotency;
+        this.admission = admission;
+        this.bulkOperation = bulkOperation;
     }
 
     /**
@@ -39,12 +103,184 @@ public class MailController {
     }
 
     /**
-     * 送信処理
+     * 統計取得処理
+     * @return 時間別・日別の送信ステータス別件数(メモリ上の件数)
+     */
+    @GetMapping("/admin/api/mail/stats")
+    public MailStatisticsDto stats() {
+        return statistics.snapshot();
+    }
+
+    /**
+     * レポート取得処理
+     * granularity=MONTHLY(既定)/DAILY、from・to は yyyy-MM-dd。
      * @param params 入力値
+     * @return 期間毎・ドメイン毎の送信ステータス別件数(集計テーブルの件数)
+     */
+    @GetMapping("/admin/api/mail/report")
+    public MailReportDto report(@RequestParam Map<String, String> params) {
+        return report.report(params);
+    }
+
+    /**
+     * 出力処理
+     * 検索条件は一覧検索と同じ。format=csv(既定)/ndjson、gzip=true で gzip 圧縮して出力する。
+     * @param params   入力値
+     * @param response 出力先
+     * @throws IOException
+     */
+    @GetMapping("/admin/api/mail/export")
+    public void export(@RequestParam Map<String, String> params, HttpServletResponse response) throws IOException {
+        MailExportFormat format = MailExportFormat.of(params.get("format"), MailExportFormat.CSV);
+        boolean gzip = "true".equalsIgnoreCase(params.get("gzip"));
+        String filename = "mail_log_" + LocalDateTime.now().format(EXPORT_FILE_TIMESTAMP)
+                + "." + format.extension() + (gzip ? ".gz" : "");
+
+        response.setContentType(gzip ? "application/gzip" : format.contentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename).build().toString());
+
+        OutputStream out = response.getOutputStream();
+        if (!gzip) {
+            export.export(params, format, out);
+            return;
+        }
+        try (GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER_SIZE)) {
+            export.export(params, format, compressed);
+        }
+    }
+
+    /**
+     * 送信処理
+     * 非同期モードで受け付けた場合は 202 Accepted を返却する。
+     * Idempotency-Key を指定した場合、同じ送信元・同じ Key の再要求には送信済みの応答を返却する(Idempotent-Replayed: true)。
+     * @param params         入力値
+     * @param idempotencyKey Idempotency-Key(任意)
+     * @param request        HTTP 要求(送信元の識別)
      * @return 送信結果
      */
     @PostMapping("/admin/api/mail/send")
-    public MailSendResponseDto sendMail(@RequestParam Map<String, String> params) {
-        return send.send(params);
+    public ResponseEntity<MailSendResponseDto> sendMail(
+        @RequestParam Map<String, String> params,
+        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+        HttpServletRequest request)
+    {
+        String client = clientOf(request);
+        try (MailSendAdmission.Permit permit = admission.acquire(client)) {
+            if (idempotencyKey == null) {
+                return toResponse(send.send(params));
+            }
+            MailIdempotencyService.Outcome outcome = idempotency.execute(client, idempotencyKey, params,
+                    () -> send.send(params));
+            ResponseEntity<MailSendResponseDto> rtn = toResponse(outcome.response());
+            if (!outcome.replayed()) {
+                return rtn;
+            }
+            return ResponseEntity.status(rtn.getStatusCode())
+                    .header(IDEMPOTENT_REPLAYED_HEADER, "true")
+                    .body(rtn.getBody());
+        }
+    }
+
+    /**
+     * 送信結果の応答生成処理
+     * @param rtn 送信結果
+     * @return 200 OK / 202 Accepted(非同期モードで受け付けた場合)
+     */
+    private ResponseEntity<MailSendResponseDto> toResponse(MailSendResponseDto rtn) {
+        HttpStatus status = rtn.getTrackingId() != null ? HttpStatus.ACCEPTED : HttpStatus.OK;
+        return ResponseEntity.status(status).body(rtn);
+    }
+
+    /**
+     * 一括送信処理
+     * @param request JSON 配列 / NDJSON
+     * @return 送信結果(エラーは入力位置毎)
+     * @throws IOException
+     */
+    @PostMapping(
+        value = "/admin/api/mail/send/bulk",
+        consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public MailBulkSendResponseDto sendBulk(HttpServletRequest request) throws IOException {
+        try (MailSendAdmission.Permit permit = admission.acquire(clientOf(request))) {
+            return send.sendBulk(request.getInputStream());
+        }
+    }
+
+    /**
+     * 一括操作処理(再送・取消・失敗に変更)
+     * @param request 対象(ID・バージョン)または検索条件
+     * @return 処理結果(更新できなかった行は ID 毎の理由)
+     */
+    @PostMapping(value = "/admin/api/mail/bulk-operation", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public MailBulkOperationResponseDto bulkOperation(@RequestBody MailBulkOperationRequestDto request) {
+        return bulkOperation.execute(request);
+    }
+
+    /**
+     * 送信元取得処理
+     * @param request HTTP 要求
+     * @return 接続元アドレス(X-API-Key 等の要求ヘッダは検証していないため使用しない。
+     *         プロキシ経由の場合は server.forward-headers-strategy の設定により X-Forwarded-For の値となる)
+     */
+    private static String clientOf(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+
+    /**
+     * 処理状況取得処理(非同期モード)
+     * @param trackingId 受付番号
+     * @return 処理状況
+     */
+    @GetMapping("/admin/api/mail/send/{trackingId}")
+    public ResponseEntity<MailSendStatusDto> sendStatus(@PathVariable String trackingId) {
+        MailSendStatusDto rtn = send.status(trackingId);
+        if (rtn == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(rtn);
+    }
+
+    /**
+     * 送信キュー満杯時処理
+     * @param e 例外
+     * @return 503 Service Unavailable
+     */
+    @ExceptionHandler(MailQueueFullException.class)
+    public ResponseEntity<MailSendResponseDto> handleQueueFull(MailQueueFullException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(MailSendResponseDto.failure(e.getMessage(), Collections.emptyMap(), null));
+    }
+
+    /**
+     * 送信 API 受付制限時処理
+     * @param e 例外
+     * @return 429 Too Many Requests
+     */
+    @ExceptionHandler(MailRateLimitException.class)
+    public ResponseEntity<MailSendResponseDto> handleRateLimit(MailRateLimitException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(MailSendResponseDto.failure(e.getMessage(), Collections.emptyMap(), null));
+    }
+
+    /**
+     * Idempotency-Key 受付拒否時処理
+     * @param e 例外
+     * @return 400 Bad Request(Key 不正) / 409 Conflict(実行中) / 422 Unprocessable Entity(入力値不一致)
+     */
+    @ExceptionHandler(MailIdempotencyException.class)
+    public ResponseEntity<MailSendResponseDto> handleIdempotency(MailIdempotencyException e) {
+        HttpStatus status = switch (e.getReason()) {
+            case INVALID_KEY -> HttpStatus.BAD_REQUEST;
+            case IN_PROGRESS -> HttpStatus.CONFLICT;
+            case KEY_REUSED  -> HttpStatus.UNPROCESSABLE_ENTITY;
+        };
+        ResponseEntity.BodyBuilder rtn = ResponseEntity.status(status);
+        if (e.getReason() == MailIdempotencyException.Reason.IN_PROGRESS) {
+            rtn.header(HttpHeaders.RETRY_AFTER, "1");
+        }
+        return rtn.body(MailSendResponseDto.failure(e.getMessage(), Collections.emptyMap(), null));
     }
 }
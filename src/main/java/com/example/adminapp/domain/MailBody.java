@@ -0,0 +1,80 @@
+package com.example.adminapp.domain;
+
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * MailBody Class
+ * メール本文(mail_log.body)
+ *
+ * DB から読み込んだ保存値(圧縮済みの場合あり)は、本文が参照されるまで展開しない。
+ * 保存値の形式・展開処理は読み込んだ側(MailBodyTypeHandler)が指定し、本クラスは関知しない。
+ * 本文を変更せずに更新する場合は、読み込んだ保存値をそのまま書き戻す(再圧縮しない)。
+ */
+public final class MailBody {
+
+    private volatile String text;                 // 本文(未展開の場合はnull)
+    private final String stored;                  // 読み込んだ保存値(本文から生成した場合はnull)
+    private final UnaryOperator<String> decoder;  // 保存値の展開処理
+
+    private MailBody(String text, String stored, UnaryOperator<String> decoder) {
+        this.text = text;
+        this.stored = stored;
+        this.decoder = decoder;
+    }
+
+    /**
+     * 生成処理(本文)
+     * @param text 本文
+     * @return MailBody(本文がnullの場合はnull)
+     */
+    public static MailBody of(String text) {
+        return text == null ? null : new MailBody(text, null, null);
+    }
+
+    /**
+     * 生成処理(保存値)
+     * @param stored  保存値
+     * @param decoder 保存値の展開処理(本文の初回参照時に呼び出す)
+     * @return MailBody(保存値がnullの場合はnull)
+     */
+    public static MailBody stored(String stored, UnaryOperator<String> decoder) {
+        return stored == null ? null : new MailBody(null, stored, decoder);
+    }
+
+    /**
+     * 本文取得処理(初回参照時に展開する)
+     * @return 本文
+     */
+    public String text() {
+        String rtn = text;
+        if (rtn == null) {
+            rtn = decoder.apply(stored);
+            text = rtn;
+        }
+        return rtn;
+    }
+
+    /**
+     * 保存値取得処理
+     * @return 読み込んだ保存値(本文から生成した場合はnull)
+     */
+    public String stored() {
+        return stored;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof MailBody other && text().equals(other.text());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(text());
+    }
+
+    @Override
+    public String toString() {
+        return text();
+    }
+}
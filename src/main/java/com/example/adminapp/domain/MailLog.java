@@ -17,7 +17,7 @@ public class MailLog {                  // メール送信ログ(mail_log)
     private String ccAddress;           // CCアドレス
     private String bccAddress;          // BCCアドレス
     private String subject;             // 件名
-    private String body;                // 本文
+    private MailBody body;              // 本文(読込時は参照されるまで展開しない)
     private Boolean isHtml;             // HTMLメールフラグ
     private String status;              // 送信ステータス
     private String errorMessage;        // エラーメッセージ
@@ -25,4 +25,38 @@ public class MailLog {                  // メール送信ログ(mail_log)
     private LocalDateTime createdAt;    // 作成日時
     private LocalDateTime updatedAt;    // 更新日時
     private Integer version;            // バージョン
+    private Integer retryCount;         // 再送回数(db/mail_log_retry.sql)
+    private LocalDateTime nextRetryAt;  // 次回再送日時(db/mail_log_retry.sql)
+
+    /**
+     * 本文取得処理
+     * @return 本文
+     */
+    public String getBody() {
+        return body == null ? null : body.text();
+    }
+
+    /**
+     * 本文設定処理
+     * @param body 本文
+     */
+    public void setBody(String body) {
+        this.body = MailBody.of(body);
+    }
+
+    /**
+     * 本文取得処理(MyBatis 用、保存値を保持)
+     * @return 本文
+     */
+    public MailBody getStoredBody() {
+        return body;
+    }
+
+    /**
+     * 本文設定処理(MyBatis 用、保存値を保持)
+     * @param body 本文
+     */
+    public void setStoredBody(MailBody body) {
+        this.body = body;
+    }
 }
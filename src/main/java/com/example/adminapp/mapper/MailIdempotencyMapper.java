@@ -0,0 +1,87 @@
+package com.example.adminapp.mapper;
+
+import com.example.adminapp.service.mail.dto.MailIdempotencyRecordDto;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * MailIdempotencyMapper Interface
+ * 送信 API の Idempotency-Key 記録(mail_idempotency_key)
+ */
+@Mapper
+public interface MailIdempotencyMapper {
+
+    /**
+     * SQL実行処理(実行権の取得)
+     * @param key         Idempotency-Key
+     * @param requestHash 入力値の SHA-256
+     * @param now         現在日時
+     * @return 登録行数(登録済みの場合は 0)
+     */
+    int claim(
+            @Param("key") String key,
+            @Param("requestHash") String requestHash,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * SQL実行処理(実行権の引継ぎ)
+     * 実行中のまま一定時間更新されていない(実行したノードが停止した)行の実行権を取得する。
+     * @param key         Idempotency-Key
+     * @param requestHash 入力値の SHA-256
+     * @param now         現在日時
+     * @param staleBefore この日時より前に更新された実行中の行を引き継ぐ
+     * @return 更新行数
+     */
+    int takeover(
+            @Param("key") String key,
+            @Param("requestHash") String requestHash,
+            @Param("now") LocalDateTime now,
+            @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * SQL実行処理(実行中の更新日時の延長)
+     * 実行中の行の更新日時を更新し、他ノードに引き継がれないようにする。
+     * @param keys Idempotency-Key
+     * @param now  現在日時
+     * @return 更新行数
+     */
+    int renew(
+            @Param("keys") Collection<String> keys,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * SQL実行処理(取得)
+     * @param key Idempotency-Key
+     * @return 記録(該当なしの場合はnull)
+     */
+    MailIdempotencyRecordDto findByKey(@Param("key") String key);
+
+    /**
+     * SQL実行処理(完了)
+     * @param key      Idempotency-Key
+     * @param response 応答内容(JSON)
+     * @param now      現在日時
+     * @return 更新行数
+     */
+    int complete(
+            @Param("key") String key,
+            @Param("response") String response,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * SQL実行処理(実行権の解放)
+     * @param key Idempotency-Key
+     * @return 削除行数
+     */
+    int release(@Param("key") String key);
+
+    /**
+     * SQL実行処理(有効期間切れの削除)
+     * @param before この日時より前に作成された行を削除する
+     * @return 削除行数
+     */
+    int deleteExpired(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,61 @@
+package com.example.adminapp.mapper;
+
+import java.time.LocalDate;
+import java.util.List;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * MailLogPartitionMapper Interface
+ * mail_log 月次パーティションの管理(PostgreSQL)
+ */
+@Mapper
+public interface MailLogPartitionMapper {
+
+    /**
+     * SQL実行処理(パーティションテーブル判定)
+     * @return mail_log がパーティションテーブルの場合 True
+     */
+    boolean isPartitioned();
+
+    /**
+     * SQL実行処理(パーティション一覧)
+     * @return パーティション名(切離し中のパーティションを除く)
+     */
+    List<String> findPartitionNames();
+
+    /**
+     * SQL実行処理(切離し中のパーティション一覧)
+     * @return パーティション名
+     */
+    List<String> findDetachPendingNames();
+
+    /**
+     * SQL実行処理(パーティション作成)
+     * @param name パーティション名
+     * @param from 範囲開始日(この日を含む)
+     * @param to   範囲終了日(この日を含まない)
+     */
+    void createPartition(
+            @Param("name") String name,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    /**
+     * SQL実行処理(パーティション切離し、CONCURRENTLY)
+     * @param name パーティション名
+     */
+    void detachPartition(@Param("name") String name);
+
+    /**
+     * SQL実行処理(中断された切離しの完了)
+     * @param name パーティション名
+     */
+    void finalizeDetach(@Param("name") String name);
+
+    /**
+     * SQL実行処理(パーティション削除)
+     * @param name パーティション名
+     */
+    void dropPartition(@Param("name") String name);
+}
@@ -0,0 +1,41 @@
+package com.example.adminapp.mapper;
+
+import com.example.adminapp.domain.MailLog;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * MailRetryMapper Interface
+ * 配信失敗の再送対象の確保・結果の書戻し(db/mail_log_retry.sql)
+ */
+@Mapper
+public interface MailRetryMapper {
+
+    /**
+     * SQL実行処理(再送対象の確保)
+     * 期限が到来した行を FOR UPDATE SKIP LOCKED で選択し、配信中(SENDING)への変更・再送回数の加算・確保期限の設定を1文で行う。
+     * 他ノードが確保中の行は選択しない。
+     * @param since      対象とする作成日時の下限
+     * @param firstDue   初回の再送対象とする更新日時の上限
+     * @param now        現在日時
+     * @param leaseUntil 確保期限
+     * @param limit      最大件数
+     * @return 確保した行(送信ステータス・バージョンは更新後)
+     */
+    List<MailLog> claim(
+            @Param("since") LocalDateTime since,
+            @Param("firstDue") LocalDateTime firstDue,
+            @Param("now") LocalDateTime now,
+            @Param("leaseUntil") LocalDateTime leaseUntil,
+            @Param("limit") int limit);
+
+    /**
+     * SQL実行処理(再送結果の一括書戻し)
+     * @param mailLogs 再送結果(status / error_message / sent_at / next_retry_at / updated_at、バージョンは確保時の値)
+     * @return 書き戻した ID(バージョン不一致・配信中でない行は含まない)
+     */
+    List<Long> writeBack(@Param("list") List<MailLog> mailLogs);
+}
@@ -0,0 +1,127 @@
+package com.example.adminapp.mapper;
+
+import com.example.adminapp.service.mail.dto.MailRollupCountDto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * MailRollupMapper Interface
+ * mail_log 集計テーブル(日次・月次 × 送信ステータス × 宛先ドメイン)の更新・参照
+ */
+@Mapper
+public interface MailRollupMapper {
+
+    /**
+     * SQL実行処理(ウォーターマーク取得・行ロック)
+     * 複数インスタンスで同時に集計しないよう、トランザクション終了までロックする。
+     * @return 集計済みの最大 mail_log.id(未登録の場合はnull)
+     */
+    Long lockWatermark();
+
+    /**
+     * SQL実行処理(集計可能な最大 ID)
+     * @param lastId        集計済みの最大 ID
+     * @param settledBefore 集計対象とする作成日時の上限(この日時を含まない)
+     * @return lastId より後で、作成日時が settledBefore 以降の行より前にある最大 ID
+     */
+    long findSettledUpperId(
+            @Param("lastId") long lastId,
+            @Param("settledBefore") LocalDateTime settledBefore);
+
+    /**
+     * SQL実行処理(日次集計の加算)
+     * @param fromId ID 範囲開始(この ID を含まない)
+     * @param toId   ID 範囲終了(この ID を含む)
+     * @return 更新行数
+     */
+    int rollupDaily(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * SQL実行処理(月次集計の加算)
+     * @param fromId ID 範囲開始(この ID を含まない)
+     * @param toId   ID 範囲終了(この ID を含む)
+     * @return 更新行数
+     */
+    int rollupMonthly(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * SQL実行処理(ウォーターマーク更新)
+     * @param lastId 集計済みの最大 ID
+     * @return 更新行数
+     */
+    int updateWatermark(@Param("lastId") long lastId);
+
+    /**
+     * SQL実行処理(再集計済みの更新日時取得・行ロック)
+     * @return 再集計済みの更新日時(未登録の場合はnull)
+     */
+    LocalDateTime lockReaggregatedUntil();
+
+    /**
+     * SQL実行処理(集計後に更新された行の作成日)
+     * @param lastId 集計済みの最大 ID(この ID 以前の行のみ対象)
+     * @param since  更新日時の下限(この日時を含まない)
+     * @param until  更新日時の上限(この日時を含む)
+     * @return 作成日
+     */
+    List<LocalDate> findChangedDays(
+            @Param("lastId") long lastId,
+            @Param("since") LocalDateTime since,
+            @Param("until") LocalDateTime until);
+
+    /**
+     * SQL実行処理(日次集計の削除)
+     * @param day 作成日
+     * @return 削除行数
+     */
+    int deleteDaily(@Param("day") LocalDate day);
+
+    /**
+     * SQL実行処理(日次集計の再作成)
+     * @param day    作成日
+     * @param lastId 集計済みの最大 ID(この ID 以前の行のみ集計する)
+     * @return 登録行数
+     */
+    int rollupDay(@Param("day") LocalDate day, @Param("lastId") long lastId);
+
+    /**
+     * SQL実行処理(月次集計の削除)
+     * @param month 月初日
+     * @return 削除行数
+     */
+    int deleteMonthly(@Param("month") LocalDate month);
+
+    /**
+     * SQL実行処理(月次集計の再作成)
+     * @param month 月初日
+     * @return 登録行数(日次集計から作成する)
+     */
+    int rollupMonthFromDaily(@Param("month") LocalDate month);
+
+    /**
+     * SQL実行処理(再集計済みの更新日時更新)
+     * @param until 再集計済みの更新日時
+     * @return 更新行数
+     */
+    int updateReaggregatedUntil(@Param("until") LocalDateTime until);
+
+    /**
+     * SQL実行処理(日次集計の取得)
+     * @param from 開始日(この日を含む)
+     * @param to   終了日(この日を含まない)
+     * @return 日・送信ステータス・ドメイン別件数
+     */
+    List<MailRollupCountDto> findDaily(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * SQL実行処理(月次集計の取得)
+     * @param from 開始月の月初日(この月を含む)
+     * @param to   終了月の月初日(この月を含まない)
+     * @return 月・送信ステータス・ドメイン別件数
+     */
+    List<MailRollupCountDto> findMonthly(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
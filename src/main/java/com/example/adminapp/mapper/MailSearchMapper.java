@@ -1,10 +1,16 @@
 package com.example.adminapp.mapper;
 
+import com.example.adminapp.config.datasource.ReplicaRead;
+import com.example.adminapp.service.mail.dto.MailBulkTargetDto;
 import com.example.adminapp.service.mail.dto.MailSearchConditionDto;
+import com.example.adminapp.service.mail.dto.MailSearchCursorDto;
 import com.example.adminapp.service.mail.dto.MailSendListDto;
+import com.example.adminapp.service.mail.dto.MailStatusCountDto;
+import java.time.LocalDateTime;
 import java.util.List;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 /**
  * MailSearchMapper Interface
@@ -19,8 +25,17 @@ public interface MailSearchMapper {
      * @param limit     取得件数
      * @return 検索結果
      */
+    @ReplicaRead
     long countByCondition(@Param("condition") MailSearchConditionDto condition);
 
+    /**
+     * SQL実行処理(実行計画)
+     * @param condition 検索条件
+     * @return 実行計画(EXPLAIN)
+     */
+    @ReplicaRead
+    List<String> explainByCondition(@Param("condition") MailSearchConditionDto condition);
+
     /**
      * SQL実行処理(検索)
      * @param condition 検索条件
@@ -28,8 +43,64 @@ public interface MailSearchMapper {
      * @param limit     取得件数
      * @return 検索結果
      */
+    @ReplicaRead
     List<MailSendListDto> findByCondition(
             @Param("condition") MailSearchConditionDto condition,
             @Param("offset") int offset,
             @Param("limit") int limit);
+
+    /**
+     * SQL実行処理(検索 Keyset方式)
+     * @param condition 検索条件
+     * @param cursor    基準行
+     * @param limit     取得件数
+     * @return 検索結果
+     */
+    @ReplicaRead
+    List<MailSendListDto> findByCursor(
+            @Param("condition") MailSearchConditionDto condition,
+            @Param("cursor") MailSearchCursorDto cursor,
+            @Param("limit") int limit);
+
+    /**
+     * SQL実行処理(一括操作の対象 ID 順)
+     * @param condition 検索条件(頁・件数は使用しない)
+     * @param statuses  対象とする送信ステータス
+     * @param afterId   取得開始 ID(この ID より後)
+     * @param limit     取得件数
+     * @return ID・バージョン
+     */
+    List<MailBulkTargetDto> findBulkTargets(
+            @Param("condition") MailSearchConditionDto condition,
+            @Param("statuses") List<String> statuses,
+            @Param("afterId") long afterId,
+            @Param("limit") int limit);
+
+    /**
+     * SQL実行処理(索引構築用 全件読込)
+     * @param afterId 読込開始 ID(この ID より後)
+     * @param handler 1行毎の処理
+     */
+    void scanForIndex(
+            @Param("afterId") long afterId,
+            ResultHandler<MailSendListDto> handler);
+
+    /**
+     * SQL実行処理(出力用 全件読込)
+     * @param condition 検索条件(頁・件数は使用しない)
+     * @param handler   1行毎の処理
+     */
+    void exportByCondition(
+            @Param("condition") MailSearchConditionDto condition,
+            ResultHandler<MailSendListDto> handler);
+
+    /**
+     * SQL実行処理(時間帯・送信ステータス別件数)
+     * @param from 集計開始日時(作成日時、この日時を含む)
+     * @param to   集計終了日時(作成日時、この日時を含まない)
+     * @return 件数
+     */
+    List<MailStatusCountDto> countByHourAndStatus(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
 }
@@ -1,6 +1,11 @@
 package com.example.adminapp.mapper;
 
+import com.example.adminapp.config.datasource.ReplicaRead;
 import com.example.adminapp.domain.MailLog;
+import com.example.adminapp.service.mail.dto.MailBulkTargetDto;
+import com.example.adminapp.service.mail.dto.MailRecipientDto;
+import com.example.adminapp.service.mail.dto.MailStatusChangeDto;
+import java.time.LocalDateTime;
 import java.util.List;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -17,6 +22,7 @@ public interface MailSendMapper {
      * @param id ID
      * @return 検索結果
      */
+    @ReplicaRead
     List<MailLog> findAll(
             @Param("limit") int limit,
             @Param("offset") int offset);
@@ -26,6 +32,7 @@ public interface MailSendMapper {
      * @param id ID
      * @return 検索結果
      */
+    @ReplicaRead
     MailLog findById(@Param("id") Long id);
 
     /**
@@ -35,17 +42,128 @@ public interface MailSendMapper {
      */
     int insert(MailLog mailLog);
 
+    /**
+     * SQL実行処理(一括登録)
+     * @param mailLogs 登録内容(採番された ID を各要素に設定)
+     * @return 処理結果
+     */
+    int insertAll(List<MailLog> mailLogs);
+
     /**
      * SQL実行処理(更新)
+     * 配信中(SENDING)の行は更新しない。
      * @param id ID
      * @return 処理結果
      */
     int update(MailLog mailLog);
 
+    /**
+     * SQL実行処理(配信対象の確保)
+     * 配信待ち(PENDING)の行のみ配信中(SENDING)に変更し、確保期限を設定する。
+     * 取消・更新・他ノードの確保などで配信待ちでなくなった行は返却しない。
+     * @param ids        ID
+     * @param leaseUntil 確保期限
+     * @param now        更新日時
+     * @return 確保した行(確保後の内容・バージョン)
+     */
+    List<MailLog> claimPending(
+            @Param("ids") long[] ids,
+            @Param("leaseUntil") LocalDateTime leaseUntil,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * SQL実行処理(配信結果の書戻し)
+     * 確保時のバージョンと一致する配信中(SENDING)の行のみ更新し、確保期限を解除する。
+     * @param mailLog 配信結果(status / error_message / sent_at / updated_at、バージョンは確保後の値)
+     * @return 処理結果
+     */
+    int writeBackDelivery(MailLog mailLog);
+
+    /**
+     * SQL実行処理(一括状態変更)
+     * ID・バージョンの組と一致し、送信ステータスが fromStatuses に含まれる行のみ1文で更新する。
+     * 配信中(SENDING)の行は fromStatuses に含めないこと(配信・再送が確保中のため)。
+     * @param ids          ID
+     * @param versions     バージョン(ids と同じ位置の値)
+     * @param fromStatuses 更新対象とする送信ステータス
+     * @param status       更新後の送信ステータス
+     * @param errorMessage エラーメッセージ(null の場合は変更しない)
+     * @param clearError   エラーメッセージを消去する場合 True
+     * @param sentAt       送信日時(null の場合は変更しない)
+     * @param resetRetry   再送回数・次回再送日時を初期化する場合 True(再送: 配信に失敗した場合は初回の再送対象となる)
+     * @param stopRetry    再送の対象外とする場合 True(失敗に変更)
+     * @param now          更新日時
+     * @return 更新した行
+     */
+    List<MailStatusChangeDto> updateStatusAll(
+            @Param("ids") long[] ids,
+            @Param("versions") long[] versions,
+            @Param("fromStatuses") List<String> fromStatuses,
+            @Param("status") String status,
+            @Param("errorMessage") String errorMessage,
+            @Param("clearError") boolean clearError,
+            @Param("sentAt") LocalDateTime sentAt,
+            @Param("resetRetry") boolean resetRetry,
+            @Param("stopRetry") boolean stopRetry,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * SQL実行処理(中断した配信待ちの配信失敗への変更)
+     * 更新日時が before より前の配信待ち(PENDING)を1文で配信失敗(FAILED)に変更する。
+     * @param before       対象とする更新日時の上限(この日時を含まない)
+     * @param errorMessage エラーメッセージ
+     * @param now          更新日時
+     * @return 更新した行
+     */
+    List<MailStatusChangeDto> failStalePending(
+            @Param("before") LocalDateTime before,
+            @Param("errorMessage") String errorMessage,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * SQL実行処理(確保期限切れの配信失敗への変更)
+     * 確保期限を過ぎた配信中(SENDING)の行を1文で配信失敗(FAILED)に変更する。
+     * 再送で確保した行(retry_count が 1 以上)は次回再送日時を now とし、再送の対象に戻す。
+     * @param now          現在日時(更新日時)
+     * @param errorMessage エラーメッセージ
+     * @return 更新した行
+     */
+    List<MailStatusChangeDto> failExpiredLeases(
+            @Param("now") LocalDateTime now,
+            @Param("errorMessage") String errorMessage);
+
+    /**
+     * SQL実行処理(送信ステータス・バージョン取得)
+     * @param ids ID
+     * @return 存在する行の ID・送信ステータス・バージョン
+     */
+    List<MailBulkTargetDto> findStatesByIds(@Param("ids") long[] ids);
+
+    /**
+     * SQL実行処理(検索)
+     * @param ids ID
+     * @return 検索結果
+     */
+    List<MailLog> findByIds(@Param("ids") long[] ids);
+
     /**
      * SQL実行処理(削除)
      * @param id ID
      * @return 処理結果
      */
     int delete(@Param("id") Long id);
+
+    /**
+     * SQL実行処理(宛先一括登録)
+     * @param recipients 登録内容(db/mail_recipient.sql)
+     * @return 処理結果
+     */
+    int insertRecipients(List<MailRecipientDto> recipients);
+
+    /**
+     * SQL実行処理(宛先削除)
+     * @param mailLogId メール送信ログID
+     * @return 処理結果
+     */
+    int deleteRecipients(@Param("mailLogId") Long mailLogId);
 }
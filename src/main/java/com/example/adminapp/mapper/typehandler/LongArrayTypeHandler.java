@@ -0,0 +1,87 @@
+package com.example.adminapp.mapper.typehandler;
+
+import java.sql.Array;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedJdbcTypes;
+import org.apache.ibatis.type.MappedTypes;
+
+/**
+ * LongArrayTypeHandler Class
+ * long[] ⇔ bigint[] 変換(標準の ArrayTypeHandler はプリミティブ配列に非対応)
+ */
+@MappedTypes(long[].class)
+@MappedJdbcTypes(JdbcType.ARRAY)
+public class LongArrayTypeHandler extends BaseTypeHandler<long[]> {
+
+    /**
+     * パラメータ設定処理
+     */
+    @Override
+    public void setNonNullParameter(
+        PreparedStatement ps,
+        int i,
+        long[] parameter,
+        JdbcType jdbcType) throws SQLException
+    {
+        Long[] boxed = new Long[parameter.length];
+        for (int n = 0; n < parameter.length; n++) {
+            boxed[n] = parameter[n];
+        }
+        Array array = ps.getConnection().createArrayOf("bigint", boxed);
+        try {
+            ps.setArray(i, array);
+        } finally {
+            array.free();
+        }
+    }
+
+    /**
+     * 取得処理(列名)
+     */
+    @Override
+    public long[] getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return extract(rs.getArray(columnName));
+    }
+
+    /**
+     * 取得処理(列番号)
+     */
+    @Override
+    public long[] getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return extract(rs.getArray(columnIndex));
+    }
+
+    /**
+     * 取得処理(ストアド)
+     */
+    @Override
+    public long[] getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return extract(cs.getArray(columnIndex));
+    }
+
+    /**
+     * 配列変換処理
+     * @param array SQL配列
+     * @return long[]
+     */
+    private long[] extract(Array array) throws SQLException {
+        if (array == null) {
+            return null;
+        }
+        try {
+            Object[] values = (Object[]) array.getArray();
+            long[] rtn = new long[values.length];
+            for (int n = 0; n < values.length; n++) {
+                rtn[n] = ((Number) values[n]).longValue();
+            }
+            return rtn;
+        } finally {
+            array.free();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.adminapp.mapper.typehandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * MailBodyCodec Class
+ * 本文(mail_log.body)の圧縮・展開
+ *
+ * 圧縮した本文は「接頭辞 + zlib 形式(事前辞書付き Deflate)の Base64」として text 列にそのまま保存する。
+ * 接頭辞の無い値は未圧縮の本文として扱うため、既存の行はそのまま読み込める。
+ * 事前辞書は代表的な HTML メールの定型部分から作成したもの(mail/body-dictionary-v1.txt)。
+ * 辞書を変更する場合は接頭辞の版を上げ、旧版の辞書も展開用に残すこと。
+ */
+public final class MailBodyCodec {
+
+    // 圧縮済みの接頭辞(制御文字 + 辞書の版)
+    static final String PREFIX = "\u0001z1:";
+
+    private static final int MIN_LENGTH = 128; // 圧縮対象とする最小文字数
+
+    private static final byte[] DICTIONARY = loadDictionary("mail/body-dictionary-v1.txt");
+
+    private MailBodyCodec() {
+    }
+
+    /**
+     * 圧縮処理
+     * 短い本文・圧縮しても小さくならない本文は未圧縮のまま返却する。
+     * (接頭辞で始まる本文は、読込時に圧縮済みと誤認しないよう常に圧縮する)
+     * @param text 本文
+     * @return 保存値
+     */
+    public static String encode(String text) {
+        if (text == null) {
+            return null;
+        }
+        boolean escape = text.startsWith(PREFIX);
+        if (text.length() < MIN_LENGTH && !escape) {
+            return text;
+        }
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        String encoded = PREFIX + Base64.getEncoder().withoutPadding().encodeToString(deflate(raw));
+        if (encoded.length() >= raw.length && !escape) {
+            return text;
+        }
+        return encoded;
+    }
+
+    /**
+     * 展開処理
+     * @param stored 保存値
+     * @return 本文
+     */
+    public static String decode(String stored) {
+        if (!isCompressed(stored)) {
+            return stored;
+        }
+        byte[] compressed = Base64.getDecoder().decode(stored.substring(PREFIX.length()));
+        return new String(inflate(compressed), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 圧縮済み判定処理
+     * @param stored 保存値
+     * @return 圧縮済みの場合 True
+     */
+    public static boolean isCompressed(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    /**
+     * Deflate 処理(事前辞書付き)
+     * @param raw 本文(UTF-8)
+     * @return zlib 形式
+     */
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setDictionary(DICTIONARY);
+            deflater.setInput(raw);
+            deflater.finish();
+            byte[] buffer = new byte[raw.length + 64];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            return Arrays.copyOf(buffer, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Inflate 処理(事前辞書付き)
+     * @param compressed zlib 形式
+     * @return 本文(UTF-8)
+     */
+    private static byte[] inflate(byte[] compressed) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0) {
+                    if (inflater.needsDictionary()) {
+                        inflater.setDictionary(DICTIONARY);
+                    } else if (inflater.needsInput()) {
+                        throw new IllegalStateException("mail body is truncated");
+                    }
+                }
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("mail body is corrupted", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 事前辞書読込処理
+     * @param resource クラスパス上のファイル
+     * @return 辞書
+     */
+    private static byte[] loadDictionary(String resource) {
+        try (InputStream in = MailBodyCodec.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("dictionary not found: " + resource);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
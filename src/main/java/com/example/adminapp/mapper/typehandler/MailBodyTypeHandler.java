@@ -0,0 +1,61 @@
+package com.example.adminapp.mapper.typehandler;
+
+import com.example.adminapp.domain.MailBody;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedJdbcTypes;
+import org.apache.ibatis.type.MappedTypes;
+
+/**
+ * MailBodyTypeHandler Class
+ * MailBody ⇔ text 変換(保存時に圧縮、読込時は展開せず保存値のまま保持する)
+ * 圧縮・展開(MailBodyCodec)は本クラスで行い、MailBody には展開処理のみを渡す。
+ * 読み込んだ保存値を変更せずに書き戻す場合は再圧縮しない。
+ */
+@MappedTypes(MailBody.class)
+@MappedJdbcTypes(JdbcType.VARCHAR)
+public class MailBodyTypeHandler extends BaseTypeHandler<MailBody> {
+
+    /**
+     * パラメータ設定処理
+     */
+    @Override
+    public void setNonNullParameter(
+        PreparedStatement ps,
+        int i,
+        MailBody parameter,
+        JdbcType jdbcType) throws SQLException
+    {
+        String stored = parameter.stored();
+        ps.setString(i, stored != null ? stored : MailBodyCodec.encode(parameter.text()));
+    }
+
+    /**
+     * 取得処理(列名)
+     */
+    @Override
+    public MailBody getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return MailBody.stored(rs.getString(columnName), MailBodyCodec::decode);
+    }
+
+    /**
+     * 取得処理(列番号)
+     */
+    @Override
+    public MailBody getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return MailBody.stored(rs.getString(columnIndex), MailBodyCodec::decode);
+    }
+
+    /**
+     * 取得処理(ストアド)
+     */
+    @Override
+    public MailBody getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return MailBody.stored(cs.getString(columnIndex), MailBodyCodec::decode);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.adminapp.service.mail;
+
+import com.example.adminapp.service.mail.delivery.MailDeliveryEngine;
+
+import java.util.List;
+
+/**
+ * MailBulkAction Enum
+ * メール一覧の一括操作
+ */
+public enum MailBulkAction {
+
+    // 配信中(SENDING)の行は配信・再送が確保しているため、いずれの操作も対象としない
+
+    // 再送(配信失敗・取消の行を配信待ちに戻し、再送回数を初期化する)
+    RESEND(List.of(MailDeliveryEngine.STATUS_FAILED, MailDeliveryEngine.STATUS_CANCELED)),
+
+    // 取消(配信待ち・配信失敗の行を再送・配信の対象外とする)
+    CANCEL(List.of(MailDeliveryEngine.STATUS_PENDING, MailDeliveryEngine.STATUS_FAILED)),
+
+    // 失敗に変更(配信待ちのまま残った行を配信失敗とし、再送の対象外とする)
+    MARK_FAILED(List.of(MailDeliveryEngine.STATUS_PENDING));
+
+    private final List<String> fromStatuses; // 操作対象とする送信ステータス
+
+    MailBulkAction(List<String> fromStatuses) {
+        this.fromStatuses = fromStatuses;
+    }
+
+    public List<String> fromStatuses() {
+        return fromStatuses;
+    }
+
+    /**
+     * 変換処理
+     * @param value 入力値
+     * @return 操作(不正な場合はnull)
+     */
+    public static MailBulkAction of(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (MailBulkAction action : values()) {
+            if (action.name().equalsIgnoreCase(value.trim())) {
+                return action;
+            }
+        }
+        return null;
+    }
+}
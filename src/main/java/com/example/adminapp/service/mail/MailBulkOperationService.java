@@ -0,0 +1,289 @@
+package com.example.adminapp.service.mail;
+
+import com.example.adminapp.domain.MailLog;
+import com.example.adminapp.mapper.MailSearchMapper;
+import com.example.adminapp.mapper.MailSendMapper;
+import com.example.adminapp.service.mail.delivery.MailDeliveryEngine;
+import com.example.adminapp.service.mail.dto.MailBulkConflictDto;
+import com.example.adminapp.service.mail.dto.MailBulkOperationRequestDto;
+import com.example.adminapp.service.mail.dto.MailBulkOperationResponseDto;
+import com.example.adminapp.service.mail.dto.MailBulkTargetDto;
+import com.example.adminapp.service.mail.dto.MailSearchConditionDto;
+import com.example.adminapp.service.mail.dto.MailStatusChangeDto;
+import com.example.adminapp.service.mail.index.MailNgramIndex;
+import com.example.adminapp.service.mail.stats.MailStatistics;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * MailBulkOperationService Class
+ * メール一覧の一括操作(再送・取消・失敗に変更)
+ *
+ * 対象は ID とバージョン(一覧取得時の値)の組、または検索条件で指定する。
+ * chunkSize 件毎に1文(MailSendMapper.updateStatusAll)で更新し、バージョン・送信ステータスが
+ * 一致しなかった行は更新せずに理由(NOT_FOUND / VERSION_CONFLICT / INVALID_STATUS)を返却する。
+ * 1文毎に確定するため、途中で失敗した場合もそれまでの更新は取り消さない。
+ */
+@Service
+public class MailBulkOperationService {
+
+    public static final String NOT_FOUND        = "NOT_FOUND";        // 該当なし(削除済み)
+    public static final String VERSION_CONFLICT = "VERSION_CONFLICT"; // 一覧取得後に更新された
+    public static final String INVALID_STATUS   = "INVALID_STATUS";   // 操作できない送信ステータス
+
+    private static final int MAX_CONFLICTS = 1000; // 応答に含める更新不可の行数
+
+    // 失敗に変更した行のエラーメッセージ
+    private static final String MARK_FAILED_MESSAGE = "管理画面から失敗に変更しました。";
+
+    private final MailSendMapper     sendMapper;
+    private final MailSearchMapper   searchMapper;
+    private final MailSearchService  search;
+    private final MailNgramIndex     ngramIndex;
+    private final MailDeliveryEngine deliveryEngine;
+    private final MailStatistics     statistics;
+    private final MailLogVersion     version;
+    private final int                chunkSize; // 1文で更新する件数
+    private final int                maxRows;   // 1回の操作で対象とする件数の上限
+
+    /**
+     * constructor
+     */
+    public MailBulkOperationService(
+        MailSendMapper     sendMapper,
+        MailSearchMapper   searchMapper,
+        MailSearchService  search,
+        MailNgramIndex     ngramIndex,
+        MailDeliveryEngine deliveryEngine,
+        MailStatistics     statistics,
+        MailLogVersion     version,
+        @Value("${mail.bulk-operation.chunk-size:1000}") int chunkSize,
+        @Value("${mail.bulk-operation.max-rows:50000}") int maxRows)
+    {
+        this.sendMapper = sendMapper;
+        this.searchMapper = searchMapper;
+        this.search = search;
+        this.ngramIndex = ngramIndex;
+        this.deliveryEngine = deliveryEngine;
+        this.statistics = statistics;
+        this.version = version;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxRows = Math.max(1, maxRows);
+    }
+
+    /**
+     * 一括操作処理
+     * @param request 要求
+     * @return 処理結果
+     */
+    public MailBulkOperationResponseDto execute(MailBulkOperationRequestDto request) {
+        MailBulkOperationResponseDto rtn = new MailBulkOperationResponseDto();
+        MailBulkAction action = MailBulkAction.of(request.getAction());
+        if (action == null) {
+            return invalid(rtn, "操作(RESEND / CANCEL / MARK_FAILED)を指定してください。");
+        }
+        rtn.setAction(action.name());
+
+        if (request.getItems() != null) {
+            Map<Long, Integer> targets = new LinkedHashMap<>();
+            for (MailBulkTargetDto item : request.getItems()) {
+                if (item == null || item.getId() == null || item.getVersion() == null) {
+                    return invalid(rtn, "対象には ID とバージョンを指定してください。");
+                }
+                targets.put(item.getId(), item.getVersion());
+            }
+            if (targets.isEmpty()) {
+                return invalid(rtn, "対象を選択してください。");
+            }
+            if (targets.size() > maxRows) {
+                return invalid(rtn, "一度に操作できるのは " + maxRows + " 件までです。");
+            }
+            List<MailBulkTargetDto> chunk = new ArrayList<>(Math.min(chunkSize, targets.size()));
+            for (Map.Entry<Long, Integer> target : targets.entrySet()) {
+                chunk.add(new MailBulkTargetDto(target.getKey(), target.getValue(), null));
+                if (chunk.size() == chunkSize) {
+                    apply(action, chunk, rtn);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                apply(action, chunk, rtn);
+            }
+        } else if (request.getFilter() != null) {
+            applyToFilter(action, request.getFilter(), rtn);
+        } else {
+            return invalid(rtn, "対象(items)または検索条件(filter)を指定してください。");
+        }
+
+        rtn.setSuccess(rtn.getConflicted() == 0);
+        rtn.setMessage(rtn.getUpdated() + " 件を更新しました。"
+                + (rtn.getConflicted() > 0 ? rtn.getConflicted() + " 件は更新できませんでした。" : "")
+                + (rtn.isTruncated() ? "対象件数が上限(" + maxRows + " 件)に達したため、残りは処理していません。" : ""));
+        return rtn;
+    }
+
+    /**
+     * 一括操作処理(検索条件)
+     * 条件に一致する操作可能な行を ID 順に chunkSize 件ずつ読み、読込時のバージョンで更新する。
+     * @param action 操作
+     * @param params 検索条件
+     * @param rtn    処理結果
+     */
+    private void applyToFilter(MailBulkAction action, Map<String, String> params, MailBulkOperationResponseDto rtn) {
+        MailSearchConditionDto condition = search.buildCondition(params);
+        long[] candidateIds = ngramIndex.candidates(condition.getToAddress(), condition.getSubjectKeyword());
+        if (candidateIds != null && candidateIds.length == 0) {
+            return;
+        }
+        condition.setCandidateIds(candidateIds);
+
+        long afterId = 0;
+        while (rtn.getRequested() < maxRows) {
+            int limit = (int) Math.min(chunkSize, maxRows - rtn.getRequested());
+            List<MailBulkTargetDto> chunk = searchMapper.findBulkTargets(condition, action.fromStatuses(), afterId, limit);
+            if (chunk.isEmpty()) {
+                return;
+            }
+            apply(action, chunk, rtn);
+            afterId = chunk.get(chunk.size() - 1).getId();
+            if (chunk.size() < limit) {
+                return;
+            }
+        }
+        rtn.setTruncated(!searchMapper.findBulkTargets(condition, action.fromStatuses(), afterId, 1).isEmpty());
+    }
+
+    /**
+     * 更新処理(1文分)
+     * @param action  操作
+     * @param targets 対象(ID・バージョン)
+     * @param rtn     処理結果
+     */
+    private void apply(MailBulkAction action, List<MailBulkTargetDto> targets, MailBulkOperationResponseDto rtn) {
+        long[] ids = new long[targets.size()];
+        long[] versions = new long[targets.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = targets.get(i).getId();
+            versions[i] = targets.get(i).getVersion();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        String status = statusOf(action);
+        // 再送の列(db/mail_log_delivery_lease.sql)は配信が有効な場合のみ更新する
+        boolean delivery = deliveryEngine.isEnabled();
+        List<MailStatusChangeDto> changed = sendMapper.updateStatusAll(ids, versions, action.fromStatuses(), status,
+                action == MailBulkAction.MARK_FAILED ? MARK_FAILED_MESSAGE : null,
+                action == MailBulkAction.RESEND,
+                action == MailBulkAction.RESEND ? now : null,
+                delivery && action == MailBulkAction.RESEND,
+                delivery && action == MailBulkAction.MARK_FAILED,
+                now);
+        rtn.setRequested(rtn.getRequested() + targets.size());
+        rtn.setUpdated(rtn.getUpdated() + changed.size());
+
+        if (!changed.isEmpty()) {
+            version.bump();
+            for (MailStatusChangeDto row : changed) {
+                statistics.statusChanged(row.getCreatedAt(), row.getPreviousStatus(), status);
+            }
+            if (action == MailBulkAction.RESEND && deliveryEngine.isEnabled()) {
+                submit(changed);
+            }
+        }
+        if (changed.size() < targets.size()) {
+            conflicts(action, targets, changed, rtn);
+        }
+    }
+
+    /**
+     * 配信依頼処理(再送)
+     * @param changed 更新した行
+     */
+    private void submit(List<MailStatusChangeDto> changed) {
+        long[] ids = new long[changed.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = changed.get(i).getId();
+        }
+        for (MailLog mailLog : sendMapper.findByIds(ids)) {
+            deliveryEngine.submit(mailLog);
+        }
+    }
+
+    /**
+     * 更新不可の理由設定処理
+     * @param action  操作
+     * @param targets 対象
+     * @param changed 更新した行
+     * @param rtn     処理結果
+     */
+    private void conflicts(
+        MailBulkAction               action,
+        List<MailBulkTargetDto>      targets,
+        List<MailStatusChangeDto>    changed,
+        MailBulkOperationResponseDto rtn)
+    {
+        Set<Long> updated = new HashSet<>(changed.size() * 2);
+        changed.forEach(row -> updated.add(row.getId()));
+        List<MailBulkTargetDto> rejected = targets.stream().filter(target -> !updated.contains(target.getId())).toList();
+        rtn.setConflicted(rtn.getConflicted() + rejected.size());
+        if (rtn.getConflicts().size() >= MAX_CONFLICTS) {
+            return;
+        }
+
+        long[] ids = rejected.stream().mapToLong(MailBulkTargetDto::getId).toArray();
+        Map<Long, MailBulkTargetDto> current = new HashMap<>();
+        sendMapper.findStatesByIds(ids).forEach(row -> current.put(row.getId(), row));
+        for (MailBulkTargetDto target : rejected) {
+            if (rtn.getConflicts().size() >= MAX_CONFLICTS) {
+                return;
+            }
+            MailBulkTargetDto row = current.get(target.getId());
+            String reason;
+            if (row == null) {
+                reason = NOT_FOUND;
+            } else if (!action.fromStatuses().contains(row.getStatus())) {
+                reason = INVALID_STATUS;
+            } else {
+                reason = VERSION_CONFLICT;
+            }
+            rtn.getConflicts().add(new MailBulkConflictDto(target.getId(), reason,
+                    row == null ? null : row.getStatus(), row == null ? null : row.getVersion()));
+        }
+    }
+
+    /**
+     * 更新後の送信ステータス取得処理
+     * 配信無効時の再送は、送信処理と同じく登録のみで配信済みとする。
+     * @param action 操作
+     * @return 送信ステータス
+     */
+    private String statusOf(MailBulkAction action) {
+        return switch (action) {
+            case RESEND      -> deliveryEngine.isEnabled() ? MailDeliveryEngine.STATUS_PENDING : MailDeliveryEngine.STATUS_SUCCESS;
+            case CANCEL      -> MailDeliveryEngine.STATUS_CANCELED;
+            case MARK_FAILED -> MailDeliveryEngine.STATUS_FAILED;
+        };
+    }
+
+    /**
+     * 要求不正時処理
+     * @param rtn     処理結果
+     * @param message Message
+     * @return 処理結果
+     */
+    private static MailBulkOperationResponseDto invalid(MailBulkOperationResponseDto rtn, String message) {
+        rtn.setSuccess(false);
+        rtn.setMessage(message);
+        rtn.getGlobalErrors().add(message);
+        return rtn;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.adminapp.service.mail;
+
+/**
+ * MailCountStrategy Enum
+ * 検索時の総件数取得方式
+ */
+public enum MailCountStrategy {
+
+    // 正確な件数(COUNT)
+    EXACT,
+
+    // 検索条件毎にキャッシュした件数(COUNT + TTL)
+    CACHED,
+
+    // 実行計画の推定件数(EXPLAIN)
+    ESTIMATED,
+
+    // 件数取得なし(次頁有無は limit + 1 件取得で判定)
+    NONE;
+
+    /**
+     * 変換処理
+     * @param value    入力値
+     * @param fallback 既定値
+     * @return 件数取得方式
+     */
+    public static MailCountStrategy of(String value, MailCountStrategy fallback) {
+        if (value == null) {
+            return fallback;
+        }
+        for (MailCountStrategy strategy : values()) {
+            if (strategy.name().equalsIgnoreCase(value.trim())) {
+                return strategy;
+            }
+        }
+        return fallback;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.adminapp.service.mail;
+
+/**
+ * MailExportFormat Enum
+ * メール送信ログの出力形式
+ */
+public enum MailExportFormat {
+
+    // CSV(ヘッダー行あり、RFC 4180 形式)
+    CSV("text/csv", "csv"),
+
+    // NDJSON(1行1件の JSON)
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType; // Content-Type
+    private final String extension;   // ファイル拡張子
+
+    MailExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * 変換処理
+     * @param value    入力値
+     * @param fallback 既定値
+     * @return 出力形式
+     */
+    public static MailExportFormat of(String value, MailExportFormat fallback) {
+        if (value == null) {
+            return fallback;
+        }
+        for (MailExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value.trim())) {
+                return format;
+            }
+        }
+        return fallback;
+    }
+}
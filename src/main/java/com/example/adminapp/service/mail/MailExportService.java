@@ -0,0 +1,252 @@
+package com.example.adminapp.service.mail;
+
+import com.example.adminapp.mapper.MailSearchMapper;
+import com.example.adminapp.service.mail.dto.MailSearchConditionDto;
+import com.example.adminapp.service.mail.dto.MailSendListDto;
+import com.example.adminapp.service.mail.index.MailNgramIndex;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * MailExportService Class
+ * メール送信ログの出力(CSV / NDJSON)
+ *
+ * 検索条件に一致する行を DB カーソルから1行ずつ読み込み、そのまま出力先へ書き込む。
+ * 結果をメモリに保持しないため、出力件数に関わらず使用メモリは一定となる。
+ */
+@Service
+public class MailExportService {
+
+    // CSV 日時形式
+    private static final DateTimeFormatter CSV_DATE_TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // CSV ヘッダー
+    private static final String CSV_HEADER =
+            "id,to_address,cc_address,bcc_address,subject,status,is_html,error_message,sent_at,created_at\r\n";
+
+    // 表計算ソフトで数式として解釈される先頭文字(値の前に ' を付与して文字列として扱わせる)
+    private static final String CSV_FORMULA_PREFIXES = "=+-@\t\r";
+
+    private static final int BUFFER_SIZE = 64 * 1024; // 書込バッファ
+
+    private final MailSearchService   search;
+    private final MailSearchMapper    mapper;
+    private final MailNgramIndex      ngramIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectWriter        jsonWriter;
+
+    /**
+     * constructor
+     */
+    public MailExportService(
+        MailSearchService   search,
+        MailSearchMapper    mapper,
+        MailNgramIndex      ngramIndex,
+        TransactionTemplate transactionTemplate,
+        ObjectMapper        objectMapper)
+    {
+        this.search = search;
+        this.mapper = mapper;
+        this.ngramIndex = ngramIndex;
+        this.transactionTemplate = transactionTemplate;
+        // 1行毎の flush を行わず、書込バッファが満杯になった時点で出力する
+        this.jsonWriter = objectMapper.writerFor(MailSendListDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * 出力処理
+     * @param params 入力値(検索条件。頁・件数は使用しない)
+     * @param format 出力形式
+     * @param out    出力先(呼出元で close する)
+     * @return 出力件数
+     * @throws IOException 出力先への書込失敗(クライアント切断等)の場合
+     */
+    public long export(Map<String, String> params, MailExportFormat format, OutputStream out) throws IOException {
+        MailSearchConditionDto condition = search.buildCondition(params);
+
+        // 部分一致条件を索引で候補 ID に絞り込む
+        long[] candidateIds = ngramIndex.candidates(condition.getToAddress(), condition.getSubjectKeyword());
+        condition.setCandidateIds(candidateIds);
+        boolean noCandidate = candidateIds != null && candidateIds.length == 0;
+
+        RowWriter writer = format == MailExportFormat.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+        try {
+            if (!noCandidate) {
+                // fetchSize を有効にするためトランザクション内でカーソル読込する
+                transactionTemplate.executeWithoutResult(status ->
+                    mapper.exportByCondition(condition, writer));
+            }
+            writer.finish();
+        } catch (RuntimeException e) {
+            // MyBatis・Spring の例外に包まれた書込失敗を取り出す
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof UncheckedIOException io) {
+                    throw io.getCause();
+                }
+            }
+            throw e;
+        }
+        return writer.count;
+    }
+
+    /**
+     * 1行毎の書込処理
+     */
+    private abstract static class RowWriter implements ResultHandler<MailSendListDto> {
+
+        private long count; // 出力件数
+
+        @Override
+        public void handleResult(ResultContext<? extends MailSendListDto> context) {
+            try {
+                write(context.getResultObject());
+                count++;
+            } catch (IOException e) {
+                // 切断時は読込を中断する
+                context.stop();
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        abstract void write(MailSendListDto row) throws IOException;
+
+        abstract void finish() throws IOException;
+    }
+
+    /**
+     * CSV 書込
+     */
+    private static final class CsvRowWriter extends RowWriter {
+
+        private final Writer writer;
+
+        private CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            writer.write(CSV_HEADER);
+        }
+
+        @Override
+        void write(MailSendListDto row) throws IOException {
+            writer.write(String.valueOf(row.getId()));
+            writer.write(',');
+            writeField(row.getToAddress());
+            writer.write(',');
+            writeField(row.getCcAddress());
+            writer.write(',');
+            writeField(row.getBccAddress());
+            writer.write(',');
+            writeField(row.getSubject());
+            writer.write(',');
+            writeField(row.getStatus());
+            writer.write(',');
+            writeField(row.getIsHtml() == null ? null : row.getIsHtml().toString());
+            writer.write(',');
+            writeField(row.getErrorMessage());
+            writer.write(',');
+            writeDateTime(row.getSentAt());
+            writer.write(',');
+            writeDateTime(row.getCreatedAt());
+            writer.write("\r\n");
+        }
+
+        @Override
+        void finish() throws IOException {
+            writer.flush();
+        }
+
+        /**
+         * 項目書込処理
+         * カンマ・ダブルクォート・改行を含む場合のみダブルクォートで囲む。
+         * 数式として解釈される文字(= + - @ タブ 復帰)で始まる場合は先頭に ' を付与する(CSV インジェクション対策)。
+         * @param value 値
+         * @throws IOException
+         */
+        private void writeField(String value) throws IOException {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            boolean formula = CSV_FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0;
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+            }
+            if (!quote) {
+                if (formula) {
+                    writer.write('\'');
+                }
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            if (formula) {
+                writer.write('\'');
+            }
+            int from = 0;
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) == '"') {
+                    writer.write(value, from, i - from + 1);
+                    writer.write('"');
+                    from = i + 1;
+                }
+            }
+            writer.write(value, from, value.length() - from);
+            writer.write('"');
+        }
+
+        /**
+         * 日時書込処理
+         * @param value 日時
+         * @throws IOException
+         */
+        private void writeDateTime(LocalDateTime value) throws IOException {
+            if (value != null) {
+                CSV_DATE_TIME_FORMATTER.formatTo(value, writer);
+            }
+        }
+    }
+
+    /**
+     * NDJSON 書込
+     */
+    private final class NdjsonRowWriter extends RowWriter {
+
+        private final JsonGenerator generator;
+
+        private NdjsonRowWriter(OutputStream out) throws IOException {
+            this.generator = jsonWriter.createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void write(MailSendListDto row) throws IOException {
+            jsonWriter.writeValue(generator, row);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void finish() throws IOException {
+            generator.close();
+        }
+    }
+}
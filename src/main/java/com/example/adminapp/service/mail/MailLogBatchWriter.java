@@ -0,0 +1,90 @@
+package com.example.adminapp.service.mail;
+
+import com.example.adminapp.domain.MailLog;
+import com.example.adminapp.service.mail.delivery.MailDeliveryEngine;
+import com.example.adminapp.service.mail.index.MailNgramIndex;
+import com.example.adminapp.service.mail.stats.MailStatistics;
+
+import java.util.BitSet;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * MailLogBatchWriter Class
+ * メール送信ログの一括登録(複数行 INSERT)
+ */
+@Component
+public class MailLogBatchWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(MailLogBatchWriter.class);
+
+    // 1文あたりの最大行数(PostgreSQL のバインド変数上限 32767 / 1行の項目数 12)
+    public static final int MAX_ROWS_PER_INSERT = 32767 / 12;
+
+    private final MailRecipientWriter writer;
+    private final MailNgramIndex ngramIndex;
+    private final MailDeliveryEngine deliveryEngine;
+    private final MailMetrics metrics;
+    private final MailStatistics statistics;
+    private final MailLogVersion version;
+
+    /**
+     * constructor
+     */
+    public MailLogBatchWriter(
+        MailRecipientWriter writer,
+        MailNgramIndex ngramIndex,
+        MailDeliveryEngine deliveryEngine,
+        MailMetrics metrics,
+        MailStatistics statistics,
+        MailLogVersion version)
+    {
+        this.writer = writer;
+        this.ngramIndex = ngramIndex;
+        this.deliveryEngine = deliveryEngine;
+        this.metrics = metrics;
+        this.statistics = statistics;
+        this.version = version;
+    }
+
+    /**
+     * 一括登録処理
+     * 複数行 INSERT 1文で登録し、失敗した場合は1件ずつ登録し直して失敗行を特定する。
+     * 登録できた行には採番された ID が設定され、配信有効時は配信を依頼する。
+     * @param rows 登録内容(MAX_ROWS_PER_INSERT 件以下で渡すこと)
+     * @return 登録に失敗した行の位置
+     */
+    public BitSet insertAll(List<MailLog> rows) {
+        BitSet failed = new BitSet(rows.size());
+        if (rows.isEmpty()) {
+            return failed;
+        }
+        try {
+            metrics.insertAll(() -> writer.insertAll(rows));
+            version.bump();
+            rows.forEach(ngramIndex::add);
+            rows.forEach(statistics::inserted);
+            rows.forEach(deliveryEngine::submit);
+            return failed;
+        } catch (Exception e) {
+            log.warn("mail log batch insert failed, retrying {} rows one by one", rows.size(), e);
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            MailLog row = rows.get(i);
+            try {
+                metrics.insert(() -> writer.insert(row));
+                version.bump();
+                ngramIndex.add(row);
+                statistics.inserted(row);
+                deliveryEngine.submit(row);
+            } catch (Exception e) {
+                log.warn("mail log insert failed: index={}", i, e);
+                failed.set(i);
+            }
+        }
+        metrics.insertFailure(failed.cardinality());
+        return failed;
+    }
+}
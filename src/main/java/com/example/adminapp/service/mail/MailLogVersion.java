@@ -0,0 +1,32 @@
+package com.example.adminapp.service.mail;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+
+/**
+ * MailLogVersion Class
+ * mail_log の更新世代
+ *
+ * mail_log を登録・更新・削除する処理は、SQL 実行後(コミット後)に bump() を呼び出すこと。
+ * 検索結果キャッシュは世代が変わった時点で保持内容を破棄する。
+ */
+@Component
+public class MailLogVersion {
+
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * 現在世代取得処理
+     * @return 世代
+     */
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * 世代更新処理
+     */
+    public void bump() {
+        version.incrementAndGet();
+    }
+}
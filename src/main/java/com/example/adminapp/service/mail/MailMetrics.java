@@ -0,0 +1,238 @@
+package com.example.adminapp.service.mail;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * MailMetrics Class
+ * メール送信・検索の計測値(Micrometer)
+ *
+ * 計測値は /actuator/prometheus に出力される。
+ * パーセンタイル用ヒストグラムは management.metrics.distribution.percentiles-histogram.mail で有効化する。
+ */
+@Component
+public class MailMetrics {
+
+    private final MeterRegistry registry;
+
+    private final Timer searchTimer;      // 検索処理
+    private final Timer countTimer;       // 件数取得(countByCondition)
+    private final Timer findOffsetTimer;  // 一覧取得(findByCondition)
+    private final Timer findKeysetTimer;  // 一覧取得(findByCursor)
+    private final Timer sendTimer;        // 送信処理
+    private final Timer insertTimer;      // 登録(insert)
+    private final Timer insertAllTimer;   // 一括登録(insertAll)
+    private final Counter insertFailures; // 登録失敗件数
+    private final Counter cacheHits;      // 検索結果キャッシュ(該当あり)
+    private final Counter cacheMisses;    // 検索結果キャッシュ(該当なし)
+    private final Counter admitted;       // 送信 API の受付
+    private final Counter rateLimited;    // 送信 API の拒否(送信頻度)
+    private final Counter concurrencyLimited; // 送信 API の拒否(同時実行数)
+    private final DistributionSummary resultItems;   // 検索結果件数(頁内)
+    private final DistributionSummary resultMatched; // 検索結果総件数
+
+    /**
+     * constructor
+     */
+    public MailMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.searchTimer = Timer.builder("mail.search")
+                .description("MailSearchService.search の処理時間").register(registry);
+        this.countTimer = Timer.builder("mail.search.count")
+                .description("countByCondition の実行時間").register(registry);
+        this.findOffsetTimer = Timer.builder("mail.search.find").tag("mode", "offset")
+                .description("findByCondition の実行時間").register(registry);
+        this.findKeysetTimer = Timer.builder("mail.search.find").tag("mode", "keyset")
+                .description("findByCursor の実行時間").register(registry);
+        this.sendTimer = Timer.builder("mail.send")
+                .description("MailSendService.send の処理時間").register(registry);
+        this.insertTimer = Timer.builder("mail.send.insert").tag("mode", "single")
+                .description("insert の実行時間").register(registry);
+        this.insertAllTimer = Timer.builder("mail.send.insert").tag("mode", "batch")
+                .description("insertAll の実行時間").register(registry);
+        this.insertFailures = Counter.builder("mail.send.insert.failures")
+                .description("メール送信ログの登録失敗件数").register(registry);
+        this.cacheHits = Counter.builder("mail.search.cache.requests").tag("result", "hit")
+                .description("検索結果キャッシュの参照件数").register(registry);
+        this.cacheMisses = Counter.builder("mail.search.cache.requests").tag("result", "miss")
+                .description("検索結果キャッシュの参照件数").register(registry);
+        this.admitted = Counter.builder("mail.send.admission.requests").tag("result", "admitted")
+                .description("送信 API の受付判定件数").register(registry);
+        this.rateLimited = Counter.builder("mail.send.admission.requests").tag("result", "rate_limited")
+                .description("送信 API の受付判定件数").register(registry);
+        this.concurrencyLimited = Counter.builder("mail.send.admission.requests").tag("result", "concurrency_limited")
+                .description("送信 API の受付判定件数").register(registry);
+        // ヒストグラム有効時の区間数を抑えるため、想定する最大値を指定する
+        this.resultItems = DistributionSummary.builder("mail.search.result.items")
+                .maximumExpectedValue(1_000.0)
+                .description("検索結果件数(頁内)").register(registry);
+        this.resultMatched = DistributionSummary.builder("mail.search.result.matched")
+                .maximumExpectedValue(100_000_000.0)
+                .description("検索結果総件数").register(registry);
+    }
+
+    /**
+     * 検索処理時間計測処理
+     * @param task 検索処理
+     * @return 検索処理の戻り値
+     */
+    public <T> T search(Supplier<T> task) {
+        return searchTimer.record(task);
+    }
+
+    /**
+     * 件数取得時間計測処理
+     * @param task 件数取得(countByCondition)
+     * @return 件数取得の戻り値
+     */
+    public <T> T count(Supplier<T> task) {
+        return countTimer.record(task);
+    }
+
+    /**
+     * 一覧取得時間計測処理(OFFSET 方式)
+     * @param task 一覧取得(findByCondition)
+     * @return 一覧取得の戻り値
+     */
+    public <T> T findByOffset(Supplier<T> task) {
+        return findOffsetTimer.record(task);
+    }
+
+    /**
+     * 一覧取得時間計測処理(Keyset 方式)
+     * @param task 一覧取得(findByCursor)
+     * @return 一覧取得の戻り値
+     */
+    public <T> T findByKeyset(Supplier<T> task) {
+        return findKeysetTimer.record(task);
+    }
+
+    /**
+     * 送信処理時間計測処理
+     * @param task 送信処理
+     * @return 送信処理の戻り値
+     */
+    public <T> T send(Supplier<T> task) {
+        return sendTimer.record(task);
+    }
+
+    /**
+     * 登録時間計測処理
+     * @param task 登録(insert)
+     * @return 登録の戻り値
+     */
+    public <T> T insert(Supplier<T> task) {
+        return insertTimer.record(task);
+    }
+
+    /**
+     * 一括登録時間計測処理
+     * @param task 一括登録(insertAll)
+     */
+    public void insertAll(Runnable task) {
+        insertAllTimer.record(task);
+    }
+
+    /**
+     * 検索結果件数記録処理
+     * @param items 頁内件数
+     * @param total 総件数
+     */
+    public void searchResult(int items, long total) {
+        resultItems.record(items);
+        resultMatched.record(total);
+    }
+
+    /**
+     * 入力エラー記録処理
+     * @param field 項目名
+     */
+    public void validationFailure(String field) {
+        registry.counter("mail.send.validation.failures", "field", field).increment();
+    }
+
+    /**
+     * 登録失敗記録処理
+     * @param count 失敗件数
+     */
+    public void insertFailure(int count) {
+        insertFailures.increment(count);
+    }
+
+    /**
+     * 検索結果キャッシュ該当あり記録処理
+     */
+    public void resultCacheHit() {
+        cacheHits.increment();
+    }
+
+    /**
+     * 検索結果キャッシュ該当なし記録処理
+     */
+    public void resultCacheMiss() {
+        cacheMisses.increment();
+    }
+
+    /**
+     * 検索結果キャッシュ破棄記録処理
+     * @param cause 破棄理由(size:上限超過 / expired:期限切れ / stale:書込による世代変更)
+     * @param count 破棄件数
+     */
+    public void resultCacheEviction(String cause, int count) {
+        registry.counter("mail.search.cache.evictions", "cause", cause).increment(count);
+    }
+
+    /**
+     * 受付制御の状態登録処理
+     * @param inFlight      実行中の数
+     * @param maxConcurrent 同時実行数の上限
+     * @param clients       保持している送信元の数
+     */
+    public void admissionState(IntSupplier inFlight, int maxConcurrent, IntSupplier clients) {
+        Gauge.builder("mail.send.admission.in.flight", inFlight, IntSupplier::getAsInt)
+                .description("送信 API の実行中の数").strongReference(true).register(registry);
+        Gauge.builder("mail.send.admission.limit", () -> maxConcurrent)
+                .description("送信 API の同時実行数の上限").register(registry);
+        Gauge.builder("mail.send.admission.clients", clients, IntSupplier::getAsInt)
+                .description("トークンバケットを保持している送信元の数").strongReference(true).register(registry);
+    }
+
+    /**
+     * 送信 API 受付記録処理
+     */
+    public void admitted() {
+        admitted.increment();
+    }
+
+    /**
+     * 送信 API 拒否記録処理(送信頻度)
+     */
+    public void rateLimited() {
+        rateLimited.increment();
+    }
+
+    /**
+     * 送信 API 拒否記録処理(同時実行数)
+     */
+    public void concurrencyLimited() {
+        concurrencyLimited.increment();
+    }
+
+    /**
+     * 再送結果記録処理
+     * @param succeeded 配信済み件数
+     * @param failed    再度失敗した件数
+     * @param conflicts 書き戻せなかった件数(バージョン不一致)
+     */
+    public void retried(int succeeded, int failed, int conflicts) {
+        registry.counter("mail.delivery.retries", "result", "success").increment(succeeded);
+        registry.counter("mail.delivery.retries", "result", "failed").increment(failed);
+        registry.counter("mail.delivery.retries", "result", "conflict").increment(conflicts);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.adminapp.service.mail;
+
+/**
+ * MailQueueFullException Class
+ * 送信キュー満杯時の受付拒否
+ */
+public class MailQueueFullException extends RuntimeException {
+
+    /**
+     * constructor
+     * @param message Message
+     */
+    public MailQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.adminapp.service.mail;
+
+import com.example.adminapp.domain.MailLog;
+
+import java.util.function.Function;
+
+/**
+ * MailRecipientRole Enum
+ * 宛先の種別(mail_recipient.role)
+ */
+public enum MailRecipientRole {
+
+    TO("toAddress", MailLog::getToAddress),    // 宛先
+    CC("ccAddress", MailLog::getCcAddress),    // CC
+    BCC("bccAddress", MailLog::getBccAddress); // BCC
+
+    private final String                    paramName; // 検索条件の入力項目名
+    private final Function<MailLog, String> addresses; // メール送信ログの該当列(カンマ区切り)
+
+    MailRecipientRole(String paramName, Function<MailLog, String> addresses) {
+        this.paramName = paramName;
+        this.addresses = addresses;
+    }
+
+    public String paramName() {
+        return paramName;
+    }
+
+    /**
+     * 宛先取得処理
+     * @param mailLog メール送信ログ
+     * @return 該当列の値(カンマ区切り)
+     */
+    public String addresses(MailLog mailLog) {
+        return addresses.apply(mailLog);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.adminapp.service.mail;
+
+import com.example.adminapp.domain.MailLog;
+import com.example.adminapp.mapper.MailSendMapper;
+import com.example.adminapp.service.mail.dto.MailRecipientDto;
+
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * MailRecipientWriter Class
+ * メール送信ログ(mail_log)と宛先(mail_recipient)の登録・更新・削除
+ *
+ * 有効時(mail.recipient.enabled=true)は、宛先・CC・BCC を1アドレス1行として mail_recipient に
+ * mail_log と同じトランザクションで書き込む。無効時は mail_log のみ書き込む。
+ * db/mail_recipient.sql で表を作成してから有効化すること。
+ */
+@Component
+public class MailRecipientWriter {
+
+    private final MailSendMapper      mapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean             enabled;   // mail_recipient への書込有無
+    private final int                 chunkSize; // 1文あたりの登録行数(PostgreSQL のバインド変数上限のため)
+
+    /**
+     * constructor
+     */
+    public MailRecipientWriter(
+        MailSendMapper      mapper,
+        TransactionTemplate transactionTemplate,
+        @Value("${mail.recipient.enabled:false}") boolean enabled,
+        @Value("${mail.recipient.chunk-size:5000}") int chunkSize)
+    {
+        this.mapper = mapper;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * 有効判定処理
+     * @return mail_recipient へ書き込む場合 True
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 登録処理
+     * @param mailLog 登録内容(採番された ID を設定)
+     * @return 処理結果
+     */
+    public int insert(MailLog mailLog) {
+        if (!enabled) {
+            return mapper.insert(mailLog);
+        }
+        return transactionTemplate.execute(status -> {
+            int rtn = mapper.insert(mailLog);
+            insertRecipients(List.of(mailLog));
+            return rtn;
+        });
+    }
+
+    /**
+     * 一括登録処理
+     * @param mailLogs 登録内容(採番された ID を各要素に設定)
+     * @return 処理結果
+     */
+    public int insertAll(List<MailLog> mailLogs) {
+        if (!enabled) {
+            return mapper.insertAll(mailLogs);
+        }
+        return transactionTemplate.execute(status -> {
+            int rtn = mapper.insertAll(mailLogs);
+            insertRecipients(mailLogs);
+            return rtn;
+        });
+    }
+
+    /**
+     * 更新処理
+     * 更新できた場合は宛先を登録し直す。
+     * @param mailLog 更新内容(version は更新前の値)
+     * @return 処理結果
+     */
+    public int update(MailLog mailLog) {
+        if (!enabled) {
+            return mapper.update(mailLog);
+        }
+        return transactionTemplate.execute(status -> {
+            int rtn = mapper.update(mailLog);
+            if (rtn == 1) {
+                mapper.deleteRecipients(mailLog.getId());
+                insertRecipients(List.of(mailLog));
+            }
+            return rtn;
+        });
+    }
+
+    /**
+     * 削除処理
+     * @param id ID
+     * @return 処理結果
+     */
+    public int delete(Long id) {
+        if (!enabled) {
+            return mapper.delete(id);
+        }
+        return transactionTemplate.execute(status -> {
+            mapper.deleteRecipients(id);
+            return mapper.delete(id);
+        });
+    }
+
+    /**
+     * 宛先登録処理
+     * @param mailLogs 登録済みのメール送信ログ
+     */
+    private void insertRecipients(List<MailLog> mailLogs) {
+        List<MailRecipientDto> rows = MailRecipients.rowsOf(mailLogs);
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            mapper.insertRecipients(rows.subList(from, Math.min(from + chunkSize, rows.size())));
+        }
+    }
+}
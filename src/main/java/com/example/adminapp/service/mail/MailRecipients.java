@@ -0,0 +1,103 @@
+package com.example.adminapp.service.mail;
+
+import com.example.adminapp.domain.MailLog;
+import com.example.adminapp.service.mail.dto.MailRecipientDto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * MailRecipients Class
+ * 宛先・CC・BCC(カンマ区切り)と mail_recipient の行・検索条件の変換
+ *
+ * アドレスは前後の空白を除いて小文字とする(登録・検索で同じ変換を行い、完全一致で比較する)。
+ */
+final class MailRecipients {
+
+    private MailRecipients() {
+    }
+
+    /**
+     * 行生成処理
+     * 各種別の列をカンマで分割し、1アドレス1行とする(同じ種別内の重複は1行)。
+     * @param mailLogs メール送信ログ(ID 採番済み)
+     * @return mail_recipient の行
+     */
+    static List<MailRecipientDto> rowsOf(List<MailLog> mailLogs) {
+        List<MailRecipientDto> rtn = new ArrayList<>();
+        for (MailLog mailLog : mailLogs) {
+            for (MailRecipientRole role : MailRecipientRole.values()) {
+                for (String address : split(role.addresses(mailLog))) {
+                    rtn.add(new MailRecipientDto(mailLog.getId(), role.name(), address, domainOf(address)));
+                }
+            }
+        }
+        return rtn;
+    }
+
+    /**
+     * 検索条件生成処理
+     * "user@example.com" はアドレスの完全一致、"@example.com" はドメインの一致とする。
+     * @param role  種別
+     * @param value 入力値
+     * @return 検索条件(上記以外の入力値の場合は null、従来どおり部分一致で検索する)
+     */
+    static MailRecipientDto filterOf(MailRecipientRole role, String value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = normalize(value);
+        int at = normalized.indexOf('@');
+        if (at < 0 || at != normalized.lastIndexOf('@') || at == normalized.length() - 1
+                || !isAddressText(normalized)) {
+            return null;
+        }
+        String domain = normalized.substring(at + 1);
+        return new MailRecipientDto(null, role.name(), at == 0 ? null : normalized, domain);
+    }
+
+    /**
+     * 分割処理
+     * @param addresses カンマ区切りのアドレス
+     * @return 正規化したアドレス(重複・空要素を除く)
+     */
+    private static Set<String> split(String addresses) {
+        Set<String> rtn = new LinkedHashSet<>();
+        if (addresses == null) {
+            return rtn;
+        }
+        for (String address : addresses.split(",")) {
+            String normalized = normalize(address);
+            if (!normalized.isEmpty()) {
+                rtn.add(normalized);
+            }
+        }
+        return rtn;
+    }
+
+    private static String normalize(String address) {
+        return address.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String domainOf(String address) {
+        return address.substring(address.lastIndexOf('@') + 1);
+    }
+
+    /**
+     * 文字種判定処理(空白・カンマを含まない)
+     * @param value 判定対象
+     * @return アドレスとして扱える場合 True
+     */
+    private static boolean isAddressText(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c <= ' ' || c == ',') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.adminapp.service.mail;
+
+import com.example.adminapp.service.mail.dto.MailSearchConditionDto;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * MailSearchCountCache Class
+ * 検索条件(頁・件数を除く)毎の総件数キャッシュ
+ */
+@Component
+public class MailSearchCountCache {
+
+    private final long ttlNanos;   // 有効期間
+    private final int  maxEntries; // 最大保持数
+
+    // 検索条件 → 総件数
+    private final Map<MailSearchConditionDto, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * constructor
+     */
+    public MailSearchCountCache(
+        @Value("${mail.search.count-cache.ttl-seconds:60}") long ttlSeconds,
+        @Value("${mail.search.count-cache.max-entries:1000}") int maxEntries)
+    {
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * 件数取得処理
+     * キャッシュに有効な件数が無い場合のみ loader で集計する。
+     * @param condition 検索条件
+     * @param loader    集計処理
+     * @return 件数(cached:キャッシュから取得した場合 True)
+     */
+    public Result get(MailSearchConditionDto condition, ToLongFunction<MailSearchConditionDto> loader) {
+        Long cached = peek(condition);
+        if (cached != null) {
+            return new Result(cached, true);
+        }
+
+        long count = loader.applyAsLong(condition);
+        put(condition, count);
+        return new Result(count, false);
+    }
+
+    /**
+     * 件数参照処理(集計は行わない)
+     * @param condition 検索条件
+     * @return 件数(キャッシュに有効な件数が無い場合はnull)
+     */
+    public Long peek(MailSearchConditionDto condition) {
+        Entry entry = entries.get(normalize(condition));
+        if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+            return entry.count;
+        }
+        return null;
+    }
+
+    /**
+     * 件数登録処理
+     * @param condition 検索条件
+     * @param count     件数
+     */
+    public void put(MailSearchConditionDto condition, long count) {
+        long now = System.nanoTime();
+        if (entries.size() >= maxEntries) {
+            evict(now);
+        }
+        entries.put(normalize(condition), new Entry(count, now + ttlNanos));
+    }
+
+    /**
+     * 全件破棄処理
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * 期限切れ破棄処理
+     * 期限切れを除いても上限を超える場合は全件破棄する。
+     * @param now 現在時刻(nanoTime)
+     */
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt - now <= 0);
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * キー正規化処理(頁・件数を除外)
+     * @param condition 検索条件
+     * @return キャッシュキー
+     */
+    private MailSearchConditionDto normalize(MailSearchConditionDto condition) {
+        MailSearchConditionDto key = new MailSearchConditionDto();
+        key.setToAddress(condition.getToAddress());
+        key.setCcAddress(condition.getCcAddress());
+        key.setBccAddress(condition.getBccAddress());
+        key.setRecipients(condition.getRecipients());
+        key.setSubjectKeyword(condition.getSubjectKeyword());
+        key.setStatus(condition.getStatus());
+        key.setSentAtFrom(condition.getSentAtFrom());
+        key.setSentAtTo(condition.getSentAtTo());
+        return key;
+    }
+
+    /**
+     * 取得結果
+     * @param count  件数
+     * @param cached キャッシュ取得有無
+     */
+    public record Result(long count, boolean cached) {}
+
+    /**
+     * 保持値
+     * @param count     件数
+     * @param expiresAt 有効期限(nanoTime)
+     */
+    private record Entry(long count, long expiresAt) {}
+}
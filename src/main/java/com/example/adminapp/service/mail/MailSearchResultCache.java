@@ -0,0 +1,171 @@
+package com.example.adminapp.service.mail;
+
+import com.example.adminapp.config.datasource.ReplicaRouting;
+import com.example.adminapp.service.mail.dto.MailSearchConditionDto;
+import com.example.adminapp.service.mail.dto.MailSearchResponseDto;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * MailSearchResultCache Class
+ * 検索結果キャッシュ(検索条件・頁・件数毎)
+ *
+ * 保持数の上限を超えた場合は最も古く参照された結果から、有効期間を過ぎた結果は参照時に破棄する。
+ * mail_log の更新世代(MailLogVersion)が変わった場合は全件破棄するため、このノードでの書込後に古い結果を返すことはない。
+ * 更新世代はノード毎に保持するため、他ノードでの書込は反映されず有効期間まで古い結果を返す(単一ノード構成専用)。
+ * 返却する検索結果はキャッシュと共有するため、呼出元で変更しないこと。
+ */
+@Component
+public class MailSearchResultCache {
+
+    private final MailLogVersion version;
+    private final MailMetrics    metrics;
+
+    private final boolean enabled;    // キャッシュ有無
+    private final long    ttlNanos;   // 有効期間
+    private final int     maxEntries; // 最大保持数
+
+    // 検索条件 → 検索結果(参照順、entries で同期する)
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long entriesVersion; // 保持内容の世代
+
+    /**
+     * constructor
+     */
+    public MailSearchResultCache(
+        MailLogVersion version,
+        MailMetrics    metrics,
+        @Value("${mail.search.result-cache.enabled:false}") boolean enabled,
+        @Value("${mail.search.result-cache.ttl-seconds:30}") long ttlSeconds,
+        @Value("${mail.search.result-cache.max-entries:500}") int maxEntries)
+    {
+        this.version = version;
+        this.metrics = metrics;
+        this.enabled = enabled && maxEntries > 0 && ttlSeconds > 0;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.maxEntries = maxEntries;
+        this.entriesVersion = version.current();
+    }
+
+    /**
+     * 検索結果取得処理
+     * キャッシュに有効な結果が無い場合のみ loader で検索する。
+     * @param key    キャッシュキー
+     * @param loader 検索処理
+     * @return 検索結果
+     */
+    public MailSearchResponseDto get(Key key, Supplier<MailSearchResponseDto> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        long current = version.current();
+        long now = System.nanoTime();
+        synchronized (entries) {
+            invalidateIfStale(current);
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt - now > 0) {
+                    metrics.resultCacheHit();
+                    return entry.response;
+                }
+                entries.remove(key);
+                metrics.resultCacheEviction("expired", 1);
+            }
+        }
+
+        metrics.resultCacheMiss();
+        MailSearchResponseDto response = loader.get();
+
+        synchronized (entries) {
+            // 検索中に書込があった場合・レプリカに直近の書込が反映されていない可能性がある場合は保持しない
+            if (version.current() == current && !ReplicaRouting.mayBeStale()) {
+                invalidateIfStale(current);
+                entries.put(key, new Entry(response, now + ttlNanos));
+                evictOverflow();
+            }
+        }
+        return response;
+    }
+
+    /**
+     * 全件破棄処理
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * 世代変更時の全件破棄処理(entries で同期して呼び出すこと)
+     * @param current 現在世代
+     */
+    private void invalidateIfStale(long current) {
+        if (entriesVersion == current) {
+            return;
+        }
+        if (!entries.isEmpty()) {
+            metrics.resultCacheEviction("stale", entries.size());
+            entries.clear();
+        }
+        entriesVersion = current;
+    }
+
+    /**
+     * 上限超過分の破棄処理(entries で同期して呼び出すこと)
+     */
+    private void evictOverflow() {
+        Iterator<Entry> it = entries.values().iterator();
+        int overflow = entries.size() - maxEntries;
+        for (int i = 0; i < overflow && it.hasNext(); i++) {
+            it.next();
+            it.remove();
+        }
+        if (overflow > 0) {
+            metrics.resultCacheEviction("size", overflow);
+        }
+    }
+
+    /**
+     * キャッシュキー生成処理
+     * 検索前の検索条件(候補 ID 設定前)から、検索結果に影響する項目のみを複製する。
+     * @param condition 検索条件
+     * @param strategy  件数取得方式
+     * @param cursor    Cursor(未指定の場合はnull)
+     * @return キャッシュキー
+     */
+    public static Key key(MailSearchConditionDto condition, MailCountStrategy strategy, String cursor) {
+        MailSearchConditionDto copy = new MailSearchConditionDto();
+        copy.setToAddress(condition.getToAddress());
+        copy.setCcAddress(condition.getCcAddress());
+        copy.setBccAddress(condition.getBccAddress());
+        copy.setRecipients(condition.getRecipients());
+        copy.setSubjectKeyword(condition.getSubjectKeyword());
+        copy.setStatus(condition.getStatus());
+        copy.setSentAtFrom(condition.getSentAtFrom());
+        copy.setSentAtTo(condition.getSentAtTo());
+        copy.setPage(condition.getPage());
+        copy.setSize(condition.getSize());
+        return new Key(copy, strategy, cursor);
+    }
+
+    /**
+     * キャッシュキー
+     * @param condition 検索条件(頁・件数を含む)
+     * @param strategy  件数取得方式
+     * @param cursor    Cursor
+     */
+    public record Key(MailSearchConditionDto condition, MailCountStrategy strategy, String cursor) {}
+
+    /**
+     * 保持値
+     * @param response  検索結果
+     * @param expiresAt 有効期限(nanoTime)
+     */
+    private record Entry(MailSearchResponseDto response, long expiresAt) {}
+}
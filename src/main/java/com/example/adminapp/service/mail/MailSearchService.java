@@ -1,15 +1,31 @@
 package com.example.adminapp.service.mail;
 
+import com.example.adminapp.config.datasource.ReplicaRouting;
 import com.example.adminapp.mapper.MailSearchMapper;
+import com.example.adminapp.service.mail.dto.MailRecipientDto;
 import com.example.adminapp.service.mail.dto.MailSearchConditionDto;
+import com.example.adminapp.service.mail.dto.MailSearchCursorDto;
 import com.example.adminapp.service.mail.dto.MailSearchResponseDto;
 import com.example.adminapp.service.mail.dto.MailSendListDto;
+import com.example.adminapp.service.mail.index.MailNgramIndex;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
@@ -18,6 +34,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class MailSearchService {
 
+    private static final Logger log = LoggerFactory.getLogger(MailSearchService.class);
+
     // 日時形式
     private static final DateTimeFormatter DATE_TIME_FORMATTER =
             DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm");
@@ -25,14 +43,51 @@ public class MailSearchService {
     private static final int DEFAULT_PAGE = 0;  // 頁初期値
     private static final int DEFAULT_SIZE = 20; // 件数初期値
 
+    private static final String CURSOR_NEXT     = "N"; // Cursor方向(次頁)
+    private static final String CURSOR_PREVIOUS = "P"; // Cursor方向(前頁)
+    private static final String CURSOR_SEPARATOR = "|"; // Cursor区切文字
+
+    // 実行計画の推定件数(EXPLAIN 先頭行の rows=)
+    private static final Pattern PLAN_ROWS_PATTERN = Pattern.compile("rows=(\\d+)");
+
     // MyBatis(Mapper)
     private final MailSearchMapper mapper;
+    // 件数キャッシュ
+    private final MailSearchCountCache countCache;
+    // 検索結果キャッシュ
+    private final MailSearchResultCache resultCache;
+    // 部分一致検索用索引
+    private final MailNgramIndex ngramIndex;
+    // 件数取得方式(既定値)
+    private final MailCountStrategy defaultCountStrategy;
+    // 計測値
+    private final MailMetrics metrics;
+    // 件数取得と一覧取得の同時実行有無
+    private final boolean concurrentCount;
+    // 宛先の完全一致・ドメイン検索に mail_recipient を使用する有無
+    private final boolean recipientIndex;
 
     /**
      * constructor
      */
-    public MailSearchService(MailSearchMapper mapper) {
+    public MailSearchService(
+        MailSearchMapper mapper,
+        MailSearchCountCache countCache,
+        MailSearchResultCache resultCache,
+        MailNgramIndex ngramIndex,
+        MailMetrics metrics,
+        @Value("${mail.search.count-strategy:EXACT}") String countStrategy,
+        @Value("${mail.search.concurrent-count:${spring.threads.virtual.enabled:false}}") boolean concurrentCount,
+        @Value("${mail.recipient.enabled:false}") boolean recipientIndex)
+    {
         this.mapper = mapper;
+        this.countCache = countCache;
+        this.resultCache = resultCache;
+        this.ngramIndex = ngramIndex;
+        this.defaultCountStrategy = MailCountStrategy.of(countStrategy, MailCountStrategy.EXACT);
+        this.metrics = metrics;
+        this.concurrentCount = concurrentCount;
+        this.recipientIndex = recipientIndex;
     }
 
     /**
@@ -41,64 +96,364 @@ public class MailSearchService {
      * @return 検索結果
      */
     public MailSearchResponseDto search(Map<String, String> params) {
+        MailSearchResponseDto rtn = metrics.search(() -> {
+            MailSearchConditionDto condition = buildCondition(params);
+            MailCountStrategy strategy = MailCountStrategy.of(
+                    getString(params, "countStrategy"), defaultCountStrategy);
+            String cursor = getString(params, "cursor");
+            return resultCache.get(MailSearchResultCache.key(condition, strategy, cursor),
+                    () -> execute(condition, strategy, cursor));
+        });
+        metrics.searchResult(rtn.getItems().size(), rtn.getTotalSize());
+        return rtn;
+    }
+
+    /**
+     * 検索処理(本体)
+     * @param condition 検索条件
+     * @param strategy  件数取得方式
+     * @param cursorValue Cursor(未指定の場合はnull)
+     * @return 検索結果
+     */
+    private MailSearchResponseDto execute(
+        MailSearchConditionDto condition,
+        MailCountStrategy strategy,
+        String cursorValue)
+    {
+        Integer page = condition.getPage();
+        Integer size = condition.getSize();
+
+        // 部分一致条件を索引で候補 ID に絞り込む(候補なしの場合は SQL を実行しない)
+        long[] candidateIds = ngramIndex.candidates(condition.getToAddress(), condition.getSubjectKeyword());
+        if (candidateIds != null && candidateIds.length == 0) {
+            return buildResponse(Collections.emptyList(), new TotalCount(0, true), size, DEFAULT_PAGE, false);
+        }
+        condition.setCandidateIds(candidateIds);
+
+        MailSearchCursorDto cursor = decodeCursor(cursorValue);
+        if (concurrentCount && cursor == null && strategy != MailCountStrategy.NONE) {
+            return searchConcurrently(condition, strategy);
+        }
+
+        // Cursor での移動時は総件数を集計せず、先頭頁で集計した件数(キャッシュ)のみを使用する
+        TotalCount total = cursor != null ? cachedCount(condition, strategy) : count(condition, strategy);
+        if (total != null) {
+            int totalpage = getTotalPage(total.size(), size);
+            if (totalpage == 0 && total.exact()) {
+                return buildResponse(Collections.emptyList(), total, size, DEFAULT_PAGE, false);
+            }
+            // 推定・キャッシュ件数は実際より少ない場合があるため、正確な件数の場合のみ最終頁に戻す
+            if (total.exact() && totalpage > 0 && page >= totalpage) {
+                page = totalpage - 1;
+                condition.setPage(page);
+            }
+        }
+
+        if (cursor != null) {
+            return searchByCursor(condition, cursor, total);
+        }
+
+        // 1件多く取得し、次頁の有無を判定する
+        List<MailSendListDto> rows = findByCondition(condition, page * size, size + 1);
+        boolean more = rows.size() > size;
+        List<MailSendListDto> items = more ? rows.subList(0, size) : rows;
+
+        MailSearchResponseDto rtn = buildResponse(items, total, size, page, more);
+        applyCursors(rtn);
+        return rtn;
+    }
+
+    /**
+     * 検索処理(件数取得と一覧取得の同時実行)
+     * 件数取得を仮想スレッドで実行し、その間に要求された頁を取得する。
+     * 要求された頁が正確な総件数を超えていた場合のみ、最終頁を取得し直す。
+     * @param condition 検索条件
+     * @param strategy  件数取得方式
+     * @return 検索結果
+     */
+    private MailSearchResponseDto searchConcurrently(MailSearchConditionDto condition, MailCountStrategy strategy) {
+        Integer page = condition.getPage();
+        Integer size = condition.getSize();
+
+        List<MailSendListDto> rows;
+        TotalCount total;
+        try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<TotalCount> counting = scope.submit(ReplicaRouting.inheritScope(() -> count(condition, strategy)));
+            try {
+                rows = findByCondition(condition, page * size, size + 1);
+            } catch (RuntimeException e) {
+                counting.cancel(true);
+                throw e;
+            }
+            total = join(counting);
+        }
+
+        if (rows.isEmpty() && total != null) {
+            int totalpage = getTotalPage(total.size(), size);
+            if (totalpage == 0 && total.exact()) {
+                return buildResponse(Collections.emptyList(), total, size, DEFAULT_PAGE, false);
+            }
+            if (total.exact() && totalpage > 0 && page >= totalpage) {
+                page = totalpage - 1;
+                condition.setPage(page);
+                rows = findByCondition(condition, page * size, size + 1);
+            }
+        }
+
+        // 1件多く取得し、次頁の有無を判定する
+        boolean more = rows.size() > size;
+        List<MailSendListDto> items = more ? rows.subList(0, size) : rows;
+
+        MailSearchResponseDto rtn = buildResponse(items, total, size, page, more);
+        applyCursors(rtn);
+        return rtn;
+    }
+
+    /**
+     * 件数取得結果の待機処理
+     * @param counting 件数取得処理
+     * @return 総件数
+     */
+    private TotalCount join(Future<TotalCount> counting) {
+        try {
+            return counting.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            counting.cancel(true);
+            throw new IllegalStateException(e);
+        }
+    }
 
-        MailSearchConditionDto condition = buildCondition(params);
+    /**
+     * 検索処理(Keyset方式)
+     * OFFSET を使用せず基準行(sent_at, id)からシークするため、深い頁でも取得コストが一定となる。
+     * @param condition 検索条件
+     * @param cursor    基準行
+     * @param total     総件数(件数取得なしの場合はnull)
+     * @return 検索結果
+     */
+    private MailSearchResponseDto searchByCursor(
+        MailSearchConditionDto condition,
+        MailSearchCursorDto cursor,
+        TotalCount total)
+    {
         Integer page = condition.getPage();
         Integer size = condition.getSize();
 
-        long totalsize = mapper.countByCondition(condition);
-        int totalpage  = getTotalPage(totalsize, size);
+        // 1件多く取得し、その先の頁の有無を判定する
+        List<MailSendListDto> rows = findByCursor(condition, cursor, size + 1);
+        boolean more = rows.size() > size;
+        List<MailSendListDto> items = new ArrayList<>(more ? rows.subList(0, size) : rows);
 
-        if (totalpage > 0 && page >= totalpage) {
-            page = totalpage - 1;
-            condition.setPage(page);
+        MailSearchResponseDto rtn;
+        if (cursor.isBackward()) {
+            if (!more) {
+                // 先頭頁まで戻った場合は先頭頁を取得し直す
+                rows = findByCondition(condition, 0, size + 1);
+                more = rows.size() > size;
+                rtn = buildResponse(more ? rows.subList(0, size) : rows, total, size, DEFAULT_PAGE, more);
+                applyCursors(rtn);
+                return rtn;
+            }
+            Collections.reverse(items);
+            rtn = buildResponse(items, total, size, Math.max(page, 1), true);
+        } else {
+            rtn = buildResponse(items, total, size, page, more);
         }
+        rtn.setHasPrevious(true);
+        applyCursors(rtn);
+        return rtn;
+    }
 
-        List<MailSendListDto> items = totalsize == 0
-                ? Collections.emptyList()
-                : mapper.findByCondition(condition, page * size, size);
+    /**
+     * 件数取得処理
+     * @param condition 検索条件
+     * @param strategy  件数取得方式
+     * @return 総件数(件数取得なしの場合はnull)
+     */
+    private TotalCount count(MailSearchConditionDto condition, MailCountStrategy strategy) {
+        switch (strategy) {
+            case NONE:
+                return null;
+            case CACHED:
+                MailSearchCountCache.Result cached = countCache.get(condition, this::countByCondition);
+                return new TotalCount(cached.count(), !cached.cached());
+            case ESTIMATED:
+                Long estimated = estimateCount(condition);
+                if (estimated != null) {
+                    return new TotalCount(estimated, false);
+                }
+                // 推定件数が取得できない場合は正確な件数で代替する
+                return exactCount(condition);
+            default:
+                return exactCount(condition);
+        }
+    }
 
-        return buildResponse(items, totalsize, size, totalpage, page);
+    /**
+     * 件数取得処理(正確な件数)
+     * Cursor での移動時に再集計しないよう、件数キャッシュにも登録する。
+     * @param condition 検索条件
+     * @return 総件数
+     */
+    private TotalCount exactCount(MailSearchConditionDto condition) {
+        long count = countByCondition(condition);
+        countCache.put(condition, count);
+        return new TotalCount(count, true);
     }
 
     /**
-     * 検索条件生成処理
+     * 件数取得処理(Cursor での移動時)
+     * @param condition 検索条件
+     * @param strategy  件数取得方式
+     * @return 件数キャッシュの総件数(件数取得なし・キャッシュに無い場合はnull)
+     */
+    private TotalCount cachedCount(MailSearchConditionDto condition, MailCountStrategy strategy) {
+        if (strategy == MailCountStrategy.NONE) {
+            return null;
+        }
+        Long cached = countCache.peek(condition);
+        return cached == null ? null : new TotalCount(cached, false);
+    }
+
+    /**
+     * SQL実行処理(件数)
+     * @param condition 検索条件
+     * @return 件数
+     */
+    private long countByCondition(MailSearchConditionDto condition) {
+        return metrics.count(() -> mapper.countByCondition(condition));
+    }
+
+    /**
+     * SQL実行処理(検索)
+     * @param condition 検索条件
+     * @param offset    取得開始位置
+     * @param limit     取得件数
+     * @return 検索結果
+     */
+    private List<MailSendListDto> findByCondition(MailSearchConditionDto condition, int offset, int limit) {
+        return metrics.findByOffset(() -> mapper.findByCondition(condition, offset, limit));
+    }
+
+    /**
+     * SQL実行処理(検索 Keyset方式)
+     * @param condition 検索条件
+     * @param cursor    基準行
+     * @param limit     取得件数
+     * @return 検索結果
+     */
+    private List<MailSendListDto> findByCursor(MailSearchConditionDto condition, MailSearchCursorDto cursor, int limit) {
+        return metrics.findByKeyset(() -> mapper.findByCursor(condition, cursor, limit));
+    }
+
+    /**
+     * 推定件数取得処理
+     * @param condition 検索条件
+     * @return 推定件数(取得できない場合はnull)
+     */
+    private Long estimateCount(MailSearchConditionDto condition) {
+        Long rtn = null;
+        try {
+            List<String> plan = mapper.explainByCondition(condition);
+            if (plan != null && !plan.isEmpty()) {
+                Matcher matcher = PLAN_ROWS_PATTERN.matcher(plan.get(0));
+                if (matcher.find()) {
+                    rtn = Long.valueOf(matcher.group(1));
+                }
+            }
+        } catch (Exception e) {
+            log.debug("count estimate failed, falling back to exact count", e);
+        }
+        return rtn;
+    }
+
+    /**
+     * 検索条件生成処理(ベンチマークから参照するため package-private)
      * @param params 入力値
      * @return 検索条件
      */
-    private MailSearchConditionDto buildCondition(Map<String, String> params) {
+    MailSearchConditionDto buildCondition(Map<String, String> params) {
         MailSearchConditionDto dto = new MailSearchConditionDto();
         dto.setSentAtFrom(parseDateTime(params, "sentAtFrom"));
         dto.setSentAtTo(parseDateTime(params, "sentAtTo"));
         dto.setStatus(getString(params, "status"));
         dto.setToAddress(getString(params, "toAddress"));
+        dto.setCcAddress(getString(params, "ccAddress"));
+        dto.setBccAddress(getString(params, "bccAddress"));
         dto.setSubjectKeyword(resolveSubjectKeyword(params));
         dto.setPage(getPage(params));
         dto.setSize(getSize(params));
+        if (recipientIndex) {
+            applyRecipientFilters(dto);
+        }
         return dto;
     }
 
+    /**
+     * 宛先条件変換処理
+     * アドレス全体("user@example.com")・ドメイン("@example.com")の入力は mail_recipient の索引で検索し、
+     * 部分一致(LIKE)・n-gram 索引の条件から除く。それ以外の入力は従来どおり部分一致とする。
+     * @param dto 検索条件
+     */
+    private void applyRecipientFilters(MailSearchConditionDto dto) {
+        List<MailRecipientDto> recipients = new ArrayList<>();
+        MailRecipientDto to = MailRecipients.filterOf(MailRecipientRole.TO, dto.getToAddress());
+        if (to != null) {
+            recipients.add(to);
+            dto.setToAddress(null);
+        }
+        MailRecipientDto cc = MailRecipients.filterOf(MailRecipientRole.CC, dto.getCcAddress());
+        if (cc != null) {
+            recipients.add(cc);
+            dto.setCcAddress(null);
+        }
+        MailRecipientDto bcc = MailRecipients.filterOf(MailRecipientRole.BCC, dto.getBccAddress());
+        if (bcc != null) {
+            recipients.add(bcc);
+            dto.setBccAddress(null);
+        }
+        if (!recipients.isEmpty()) {
+            dto.setRecipients(recipients);
+        }
+    }
+
     /**
      * 検索結果生成処理
-     * @param items      SQL実行結果
-     * @param totalsize  総件数
-     * @param size       件数
-     * @param totalpage  総頁数
-     * @param page       頁数
+     * 総件数が正確でない場合は、取得済みの頁から確定している件数を下限とする。
+     * @param items    SQL実行結果
+     * @param total    総件数(件数取得なしの場合はnull)
+     * @param size     件数
+     * @param page     頁数
+     * @param hasNext  次頁有無
      * @return 検索結果
      */
     private MailSearchResponseDto buildResponse(
         List<MailSendListDto> items,
-        long totalsize,
+        TotalCount total,
         int  size,
-        int  totalpage,
-        int  page)
+        int  page,
+        boolean hasNext)
     {
+        boolean exact = total != null && total.exact();
+        long lowerBound = items.isEmpty() ? 0 : (long) page * size + items.size() + (hasNext ? 1 : 0);
+        long totalsize = exact ? total.size()
+                : Math.max(total == null ? 0 : total.size(), lowerBound);
+        int totalpage = getTotalPage(totalsize, size);
+        if (!items.isEmpty()) {
+            totalpage = Math.max(totalpage, page + (hasNext ? 2 : 1));
+        }
+
         MailSearchResponseDto rtn = new MailSearchResponseDto();
         boolean hasPrevious = page > 0;
-        boolean hasNext = page + 1 < totalpage;
         rtn.setItems(items);
         rtn.setTotalSize(totalsize);
+        rtn.setTotalSizeExact(exact);
         rtn.setSize(size);
         rtn.setTotalPages(totalpage);
         rtn.setPage(page);
@@ -147,12 +502,12 @@ public class MailSearchService {
     }
 
     /**
-     * 数値変換処理
+     * 数値変換処理(ベンチマークから参照するため package-private)
      * @param params 入力値
      * @param key    Key値
      * @return 数値
      */
-    private Integer parseInteger(Map<String, String> params, String key) {
+    Integer parseInteger(Map<String, String> params, String key) {
         Integer rtn = null;
         try {
             String value = getString(params, key);
@@ -165,12 +520,12 @@ public class MailSearchService {
     }
 
     /**
-     * 日時変換処理
+     * 日時変換処理(ベンチマークから参照するため package-private)
      * @param params 入力値
      * @param key    Key値
      * @return 日時
      */
-    private LocalDateTime parseDateTime(Map<String, String> params, String key) {
+    LocalDateTime parseDateTime(Map<String, String> params, String key) {
         LocalDateTime rtn = null;
         try {
             String value = getString(params, key);
@@ -195,6 +550,66 @@ public class MailSearchService {
         return getString(params, "subject");
     }
 
+    /**
+     * Cursor設定処理
+     * 検索結果の先頭行・末尾行から前頁・次頁の Cursor を生成する。
+     * @param response 検索結果
+     */
+    private void applyCursors(MailSearchResponseDto response) {
+        List<MailSendListDto> items = response.getItems();
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+        if (response.isHasNext()) {
+            response.setNextCursor(encodeCursor(items.get(items.size() - 1), false));
+        }
+        if (response.isHasPrevious()) {
+            response.setPreviousCursor(encodeCursor(items.get(0), true));
+        }
+    }
+
+    /**
+     * Cursor生成処理
+     * @param item     基準行
+     * @param backward 方向(True:前頁、False：次頁)
+     * @return Cursor(Base64URL)
+     */
+    private String encodeCursor(MailSendListDto item, boolean backward) {
+        if (item.getId() == null) {
+            return null;
+        }
+        // 送信日時が無い行(配信待ち)は空文字とする
+        String raw = (backward ? CURSOR_PREVIOUS : CURSOR_NEXT)
+                + CURSOR_SEPARATOR + (item.getSentAt() == null ? "" : item.getSentAt())
+                + CURSOR_SEPARATOR + item.getId();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Cursor解析処理
+     * @param token Cursor(Base64URL)
+     * @return 基準行(不正な場合はnull)
+     */
+    private MailSearchCursorDto decodeCursor(String token) {
+        MailSearchCursorDto rtn = null;
+        try {
+            if (token != null) {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\" + CURSOR_SEPARATOR, -1);
+                if (parts.length == 3
+                        && (CURSOR_NEXT.equals(parts[0]) || CURSOR_PREVIOUS.equals(parts[0]))) {
+                    rtn = new MailSearchCursorDto(
+                            parts[1].isEmpty() ? null : LocalDateTime.parse(parts[1]),
+                            Long.valueOf(parts[2]),
+                            CURSOR_PREVIOUS.equals(parts[0]));
+                }
+            }
+        } catch (Exception e) {
+        }
+        return rtn;
+    }
+
     /**
      * 入力値取得処理
      * @param params 入力値
@@ -214,4 +629,11 @@ public class MailSearchService {
                 .filter(value -> !value.isEmpty())
                 .orElse(null);
     }
+
+    /**
+     * 総件数
+     * @param size  件数
+     * @param exact 正確な件数か否か
+     */
+    private record TotalCount(long size, boolean exact) {}
 }
@@ -0,0 +1,230 @@
+package com.example.adminapp.service.mail;
+
+import com.example.adminapp.domain.MailLog;
+import com.example.adminapp.service.mail.dto.MailSendStatusDto;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * MailSendQueue Class
+ * 送信受付後のメール送信ログ登録キュー(非同期モード)
+ *
+ * 受付処理はキューへの投入のみ行い、Worker スレッドがまとめて一括登録する。
+ * キュー満杯時は一定時間待機後 MailQueueFullException で受付を拒否する。
+ * 停止時は受付を止め、キューが空になるまで登録してから終了する。
+ * 受付(キューへの投入)と停止は排他とし、停止後に投入された登録待ちが残らないようにする。
+ */
+@Component
+public class MailSendQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(MailSendQueue.class);
+
+    public static final String STATUS_QUEUED    = "QUEUED";    // 登録待ち
+    public static final String STATUS_PERSISTED = "PERSISTED"; // 登録済み
+    public static final String STATUS_FAILED    = "FAILED";    // 登録失敗
+
+    private static final long POLL_TIMEOUT_MS = 200; // Worker 待機時間
+
+    private final MailLogBatchWriter writer;
+
+    private final boolean enabled;           // 非同期モード有無
+    private final int     workerCount;       // Worker 数
+    private final int     batchSize;         // 一括登録件数
+    private final long    offerTimeoutMs;    // キュー満杯時の待機時間
+    private final long    shutdownTimeoutMs; // 停止時の待機時間
+
+    private final BlockingQueue<PendingMail> queue;
+    private final Map<String, MailSendStatusDto> statuses; // 受付番号 → 処理状況(上限件数を超えた古いものから破棄)
+    private final List<Thread> workers = new ArrayList<>();
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock(); // 受付(read)・停止(write)の排他
+
+    private volatile boolean accepting; // 受付中
+    private volatile boolean running;   // Worker 稼働中
+
+    /**
+     * constructor
+     */
+    public MailSendQueue(
+        MailLogBatchWriter writer,
+        @Value("${mail.send.async.enabled:false}") boolean enabled,
+        @Value("${mail.send.async.queue-capacity:10000}") int queueCapacity,
+        @Value("${mail.send.async.workers:2}") int workerCount,
+        @Value("${mail.send.async.batch-size:500}") int batchSize,
+        @Value("${mail.send.async.offer-timeout-ms:100}") long offerTimeoutMs,
+        @Value("${mail.send.async.shutdown-timeout-ms:30000}") long shutdownTimeoutMs,
+        @Value("${mail.send.async.tracking-capacity:100000}") int trackingCapacity)
+    {
+        this.writer = writer;
+        this.enabled = enabled;
+        this.workerCount = workerCount;
+        this.batchSize = Math.min(Math.max(1, batchSize), MailLogBatchWriter.MAX_ROWS_PER_INSERT);
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.statuses = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MailSendStatusDto> eldest) {
+                return size() > trackingCapacity;
+            }
+        });
+    }
+
+    /**
+     * Worker 起動処理
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        accepting = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(Thread.ofPlatform().name("mail-send-worker-" + i).start(this::drainLoop));
+        }
+    }
+
+    /**
+     * 停止処理
+     * 受付を止め、キュー内の残件を登録し終えるまで待機する。
+     */
+    @PreDestroy
+    public void stop() {
+        if (!enabled) {
+            return;
+        }
+        acceptLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        running = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+        for (Thread worker : workers) {
+            try {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                worker.join(Math.max(remaining, 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!queue.isEmpty()) {
+            log.warn("mail send queue stopped with {} unsaved entries", queue.size());
+        }
+    }
+
+    /**
+     * 非同期モード判定処理
+     * @return 非同期モード有無
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 受付処理
+     * @param mailLog 登録内容
+     * @return 受付番号
+     * @throws MailQueueFullException キュー満杯・停止中の場合
+     */
+    public String submit(MailLog mailLog) {
+        String trackingId = UUID.randomUUID().toString();
+        boolean offered;
+        acceptLock.readLock().lock();
+        try {
+            if (!accepting) {
+                throw new MailQueueFullException("送信キューは停止中です。");
+            }
+            statuses.put(trackingId, new MailSendStatusDto(trackingId, STATUS_QUEUED, null));
+            offered = queue.offer(new PendingMail(trackingId, mailLog), offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            offered = false;
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+        if (!offered) {
+            statuses.remove(trackingId);
+            throw new MailQueueFullException("送信キューが満杯です。時間をおいて再度お試しください。");
+        }
+        return trackingId;
+    }
+
+    /**
+     * 処理状況取得処理
+     * @param trackingId 受付番号
+     * @return 処理状況(該当なしの場合はnull)
+     */
+    public MailSendStatusDto status(String trackingId) {
+        return statuses.get(trackingId);
+    }
+
+    /**
+     * Worker 処理
+     * 停止指示後もキューが空になるまで登録を続ける。
+     */
+    private void drainLoop() {
+        List<PendingMail> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMail first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                persist(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 一括登録処理
+     * @param batch 登録対象
+     */
+    private void persist(List<PendingMail> batch) {
+        List<MailLog> rows = new ArrayList<>(batch.size());
+        for (PendingMail pending : batch) {
+            rows.add(pending.mailLog());
+        }
+        BitSet failed = writer.insertAll(rows);
+        for (int i = 0; i < batch.size(); i++) {
+            PendingMail pending = batch.get(i);
+            MailSendStatusDto status = failed.get(i)
+                    ? new MailSendStatusDto(pending.trackingId(), STATUS_FAILED, null)
+                    : new MailSendStatusDto(pending.trackingId(), STATUS_PERSISTED, pending.mailLog().getId());
+            statuses.computeIfPresent(pending.trackingId(), (key, value) -> status);
+        }
+    }
+
+    /**
+     * 登録待ち
+     * @param trackingId 受付番号
+     * @param mailLog    登録内容
+     */
+    private record PendingMail(String trackingId, MailLog mailLog) {}
+}
@@ -1,17 +1,35 @@
 package com.example.adminapp.service.mail;
 
+import com.example.adminapp.config.datasource.ReplicaRouting;
 import com.example.adminapp.domain.MailLog;
 import com.example.adminapp.mapper.MailSendMapper;
+import com.example.adminapp.service.mail.dto.MailBulkSendItemErrorDto;
+import com.example.adminapp.service.mail.dto.MailBulkSendResponseDto;
 import com.example.adminapp.service.mail.dto.MailSendResponseDto;
+import com.example.adminapp.service.mail.dto.MailSendStatusDto;
+import com.example.adminapp.service.mail.delivery.MailDeliveryEngine;
+import com.example.adminapp.service.mail.index.MailNgramIndex;
+import com.example.adminapp.service.mail.stats.MailStatistics;
 import com.example.adminapp.validation.FormValidator;
 import com.example.adminapp.validation.MailSendField;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
@@ -20,15 +38,56 @@ import org.springframework.stereotype.Service;
 @Service
 public class MailSendService {
 
+    private static final Logger log = LoggerFactory.getLogger(MailSendService.class);
+
+    private static final int MAX_BULK_ERRORS = 1000; // 応答に含める一括送信のエラー件数
+
     private final FormValidator  validator;
     private final MailSendMapper mapper;
+    private final MailNgramIndex ngramIndex;
+    private final MailSendQueue  queue;
+    private final MailLogBatchWriter batchWriter;
+    private final MailDeliveryEngine deliveryEngine;
+    private final MailMetrics    metrics;
+    private final MailStatistics statistics;
+    private final MailLogVersion version;
+    private final MailRecipientWriter writer;
+    private final ObjectReader   bulkReader;     // 一括送信の1件分(JSON Object)読込
+    private final int            bulkChunkSize;  // 一括送信の登録単位
+    private final int            bulkMaxItems;   // 一括送信1回の件数上限
 
     /**
      * constructor
      */
-    public MailSendService(FormValidator validator, MailSendMapper mapper) {
+    public MailSendService(
+        FormValidator  validator,
+        MailSendMapper mapper,
+        MailNgramIndex ngramIndex,
+        MailSendQueue  queue,
+        MailLogBatchWriter batchWriter,
+        MailDeliveryEngine deliveryEngine,
+        MailMetrics    metrics,
+        MailStatistics statistics,
+        MailLogVersion version,
+        MailRecipientWriter writer,
+        ObjectMapper   objectMapper,
+        @Value("${mail.send.bulk.chunk-size:500}") int bulkChunkSize,
+        @Value("${mail.send.bulk.max-items:100000}") int bulkMaxItems)
+    {
         this.validator = validator;
         this.mapper = mapper;
+        this.ngramIndex = ngramIndex;
+        this.queue = queue;
+        this.batchWriter = batchWriter;
+        this.deliveryEngine = deliveryEngine;
+        this.metrics = metrics;
+        this.statistics = statistics;
+        this.version = version;
+        this.writer = writer;
+        this.bulkReader = objectMapper.readerFor(new TypeReference<Map<String, Object>>() {});
+        // 複数行 INSERT 1文のバインド変数上限を超えないよう制限する
+        this.bulkChunkSize = Math.max(1, Math.min(bulkChunkSize, MailLogBatchWriter.MAX_ROWS_PER_INSERT));
+        this.bulkMaxItems = Math.max(1, bulkMaxItems);
     }
 
     /**
@@ -37,6 +96,15 @@ public class MailSendService {
      * @return 処理結果
      */
     public MailSendResponseDto send(Map<String, String> params) {
+        return metrics.send(() -> execute(params));
+    }
+
+    /**
+     * 送信処理(本体)
+     * @param params 入力値
+     * @return 処理結果
+     */
+    private MailSendResponseDto execute(Map<String, String> params) {
 
         // validation処理
         Map<String, String> errors = validate(params);
@@ -50,6 +118,13 @@ public class MailSendService {
             return MailSendResponseDto.failure("入力内容にエラーがあります。", errors, null);
         }
 
+        // 非同期モード: キュー投入のみ行い、受付番号を返却する
+        if (queue.isEnabled()) {
+            String trackingId = queue.submit(buildMailLog(params));
+            return MailSendResponseDto.accepted(
+                   "メール送信処理を受け付けました。（受付番号：" + trackingId + "）", trackingId);
+        }
+
         // insert処理
         Integer result = insert(params);
         if (result == null){
@@ -64,9 +139,122 @@ public class MailSendService {
                    List.of("登録件数異常です。[" + result + "]"));
         }
 
+        if (deliveryEngine.isEnabled()) {
+            return MailSendResponseDto.success("メール送信処理を受け付けました。");
+        }
         return MailSendResponseDto.success("メール送信処理を受け付けました。（ダミー）");
     }
 
+    /**
+     * 一括送信処理
+     * JSON 配列または NDJSON を1件ずつ読み込んで検証し、正常な行を chunkSize 件毎に一括登録する。
+     * 入力全体をメモリに展開しないため、件数が多くても使用メモリは登録単位分に収まる。
+     * 件数上限を超えた分は読み込まず、それまでの登録結果を truncated として返す。
+     * @param body 入力値(JSON 配列 / NDJSON)
+     * @return 処理結果(エラーは入力位置毎)
+     */
+    public MailBulkSendResponseDto sendBulk(InputStream body) {
+
+        MailBulkSendResponseDto rtn = new MailBulkSendResponseDto();
+        List<MailLog> chunk = new ArrayList<>(bulkChunkSize);
+        long[] chunkIndexes = new long[bulkChunkSize];
+        long index = 0;
+
+        try (MappingIterator<Map<String, Object>> items = bulkReader.readValues(body)) {
+            while (items.hasNextValue()) {
+                if (index >= bulkMaxItems) {
+                    rtn.setTruncated(true);
+                    break;
+                }
+                Map<String, String> params = toParams(items.nextValue());
+                long current = index++;
+
+                // validation処理
+                Map<String, String> errors = validate(params);
+                if (errors == null) {
+                    error(rtn, new MailBulkSendItemErrorDto(current, null,
+                            List.of("システムエラーが発生しました。")));
+                    continue;
+                }
+                if (!errors.isEmpty()) {
+                    error(rtn, new MailBulkSendItemErrorDto(current, errors, null));
+                    continue;
+                }
+
+                chunkIndexes[chunk.size()] = current;
+                chunk.add(buildMailLog(params));
+                if (chunk.size() == bulkChunkSize) {
+                    insertChunk(chunk, chunkIndexes, rtn);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            rtn.getGlobalErrors().add("入力形式が不正です。[" + (index + 1) + "件目]");
+        }
+        insertChunk(chunk, chunkIndexes, rtn);
+
+        if (rtn.isTruncated()) {
+            rtn.getGlobalErrors().add("一度に送信できるのは " + bulkMaxItems + " 件までです。"
+                    + (bulkMaxItems + 1) + "件目以降は処理していません。");
+        }
+        rtn.setTotal(index);
+        rtn.setSuccess(rtn.getFailed() == 0 && rtn.getGlobalErrors().isEmpty());
+        rtn.setMessage(rtn.isSuccess()
+                ? "メール一括送信処理を受け付けました。（" + rtn.getInserted() + "件）"
+                : "メール一括送信処理にエラーがあります。（登録" + rtn.getInserted()
+                        + "件 / エラー" + rtn.getFailed() + "件）");
+        return rtn;
+    }
+
+    /**
+     * エラー設定処理(一括送信)
+     * エラー件数は全件数えるが、応答に含めるエラーは先頭から上限件数までとする。
+     * @param rtn   処理結果(参照値)
+     * @param error エラー
+     */
+    private void error(MailBulkSendResponseDto rtn, MailBulkSendItemErrorDto error) {
+        rtn.setFailed(rtn.getFailed() + 1);
+        if (rtn.getErrors().size() < MAX_BULK_ERRORS) {
+            rtn.getErrors().add(error);
+        }
+    }
+
+    /**
+     * 一括登録処理(一括送信)
+     * @param chunk        登録内容
+     * @param chunkIndexes 登録内容の入力位置
+     * @param rtn          処理結果(参照値)
+     */
+    private void insertChunk(List<MailLog> chunk, long[] chunkIndexes, MailBulkSendResponseDto rtn) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        BitSet failed = batchWriter.insertAll(chunk);
+        for (int i = failed.nextSetBit(0); i >= 0; i = failed.nextSetBit(i + 1)) {
+            error(rtn, new MailBulkSendItemErrorDto(chunkIndexes[i], null,
+                    List.of("メール送信ログの登録に失敗しました。")));
+        }
+        rtn.setInserted(rtn.getInserted() + chunk.size() - failed.cardinality());
+        chunk.clear();
+    }
+
+    /**
+     * 入力値変換処理(一括送信)
+     * @param item 1件分(JSON Object)
+     * @return 入力値
+     */
+    private Map<String, String> toParams(Map<String, Object> item) {
+        Map<String, String> rtn = new HashMap<>();
+        if (item == null) {
+            return rtn;
+        }
+        item.forEach((key, value) -> {
+            if (value != null) {
+                rtn.put(key, String.valueOf(value));
+            }
+        });
+        return rtn;
+    }
+
     /**
      * validation処理
      * @param params 入力値
@@ -76,10 +264,9 @@ public class MailSendService {
         Map<String, String> rtn = null;
         try{
             rtn = validator.validate(MailSendField.class, params);
+            rtn.keySet().forEach(metrics::validationFailure);
         } catch (Exception e) {
-            StringWriter sw = new StringWriter();
-            e.printStackTrace(new PrintWriter(sw));
-            System.out.println(sw.toString());
+            log.error("mail send validation failed", e);
         }
         return rtn;
     }
@@ -92,34 +279,107 @@ public class MailSendService {
     public Integer insert(Map<String, String> params) {
         Integer rtn = null;
         try{
-            LocalDateTime now = LocalDateTime.now();
+            MailLog maillog = buildMailLog(params);
+
+            rtn = metrics.insert(() -> writer.insert(maillog));
+            if (rtn == 1) {
+                version.bump();
+                ngramIndex.add(maillog);
+                statistics.inserted(maillog);
+                deliveryEngine.submit(maillog);
+            } else {
+                metrics.insertFailure(1);
+            }
+
+        } catch (Exception e) {
+            metrics.insertFailure(1);
+            log.error("mail log insert failed", e);
+        }
 
-            MailLog maillog = new MailLog();
-            maillog.setToAddress(params.get(MailSendField.TO.paramName()));
-            maillog.setCcAddress(params.get(MailSendField.CC.paramName()));
-            maillog.setBccAddress(params.get(MailSendField.BCC.paramName()));
-            maillog.setSubject(params.get(MailSendField.SUBJECT.paramName()));
-            maillog.setBody(params.get(MailSendField.BODY.paramName()));
+        return rtn;
+    }
 
-            String isHtmlParam = params.get(MailSendField.IS_HTML.paramName());
-            boolean isHtml = "true".equalsIgnoreCase(isHtmlParam);
-            maillog.setIsHtml(isHtml);
+    /**
+     * 処理状況取得処理(非同期モード)
+     * @param trackingId 受付番号
+     * @return 処理状況(該当なしの場合はnull)
+     */
+    public MailSendStatusDto status(String trackingId) {
+        return queue.status(trackingId);
+    }
 
-            maillog.setStatus("SUCCESS");
-            maillog.setErrorMessage(null);
-            maillog.setSentAt(now);
-            maillog.setCreatedAt(now);
-            maillog.setUpdatedAt(now);
-            maillog.setVersion(0);
+    /**
+     * 登録内容生成処理
+     * @param params 入力値
+     * @return 登録内容
+     */
+    private MailLog buildMailLog(Map<String, String> params) {
+        LocalDateTime now = LocalDateTime.now();
 
-            rtn = mapper.insert(maillog);
+        MailLog maillog = new MailLog();
+        maillog.setToAddress(params.get(MailSendField.TO.paramName()));
+        maillog.setCcAddress(params.get(MailSendField.CC.paramName()));
+        maillog.setBccAddress(params.get(MailSendField.BCC.paramName()));
+        maillog.setSubject(params.get(MailSendField.SUBJECT.paramName()));
+        maillog.setBody(params.get(MailSendField.BODY.paramName()));
 
+        String isHtmlParam = params.get(MailSendField.IS_HTML.paramName());
+        boolean isHtml = "true".equalsIgnoreCase(isHtmlParam);
+        maillog.setIsHtml(isHtml);
+
+        // 配信有効時は配信結果を MailDeliveryEngine が書き戻す
+        maillog.setStatus(deliveryEngine.isEnabled() ? MailDeliveryEngine.STATUS_PENDING : "SUCCESS");
+        maillog.setErrorMessage(null);
+        maillog.setSentAt(now);
+        maillog.setCreatedAt(now);
+        maillog.setUpdatedAt(now);
+        maillog.setVersion(0);
+        return maillog;
+    }
+
+    /**
+     * update処理
+     * @param maillog 更新内容(version は更新前の値)
+     * @return 処理結果
+     */
+    public Integer update(MailLog maillog) {
+        Integer rtn = null;
+        try{
+            MailLog before = ReplicaRouting.primary(() -> mapper.findById(maillog.getId()));
+            rtn = writer.update(maillog);
+            if (rtn == 1) {
+                version.bump();
+                ngramIndex.replace(before, maillog);
+                if (before != null) {
+                    statistics.statusChanged(before.getCreatedAt(), before.getStatus(), maillog.getStatus());
+                }
+            }
         } catch (Exception e) {
-            StringWriter sw = new StringWriter();
-            e.printStackTrace(new PrintWriter(sw));
-            System.out.println(sw.toString());
+            log.error("mail log update failed: id={}", maillog.getId(), e);
         }
+        return rtn;
+    }
 
+    /**
+     * delete処理
+     * @param id ID
+     * @return 処理結果
+     */
+    public Integer delete(Long id) {
+        Integer rtn = null;
+        try{
+            MailLog before = ReplicaRouting.primary(() -> mapper.findById(id));
+            rtn = writer.delete(id);
+            if (rtn == 1) {
+                version.bump();
+                ngramIndex.remove(before);
+                if (before != null) {
+                    statistics.deleted(before);
+                }
+            }
+        } catch (Exception e) {
+            log.error("mail log delete failed: id={}", id, e);
+        }
         return rtn;
     }
 }
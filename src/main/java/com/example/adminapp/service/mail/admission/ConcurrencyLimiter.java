@@ -0,0 +1,52 @@
+package com.example.adminapp.service.mail.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ConcurrencyLimiter Class
+ * 同時実行数の上限(ロックなし、待たずに拒否する)
+ */
+final class ConcurrencyLimiter {
+
+    private final int           limit;                         // 上限
+    private final AtomicInteger inFlight = new AtomicInteger(); // 実行中の数
+
+    /**
+     * constructor
+     * @param limit 上限
+     */
+    ConcurrencyLimiter(int limit) {
+        this.limit = Math.max(1, limit);
+    }
+
+    /**
+     * 取得処理
+     * @return 取得できた場合 True
+     */
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 解放処理
+     */
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    int limit() {
+        return limit;
+    }
+}
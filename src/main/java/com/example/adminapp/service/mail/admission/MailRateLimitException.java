@@ -0,0 +1,24 @@
+package com.example.adminapp.service.mail.admission;
+
+/**
+ * MailRateLimitException Class
+ * 送信 API の受付制限(送信頻度・同時実行数の超過)
+ */
+public class MailRateLimitException extends RuntimeException {
+
+    private final long retryAfterSeconds; // 再試行までの秒数
+
+    /**
+     * constructor
+     * @param message           Message
+     * @param retryAfterSeconds 再試行までの秒数
+     */
+    public MailRateLimitException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.adminapp.service.mail.admission;
+
+import com.example.adminapp.service.mail.MailMetrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * MailSendAdmission Class
+ * 送信 API の受付制御
+ *
+ * 送信元(接続元アドレス)毎のトークンバケットと、全体の同時実行数の上限で受付を制限する。
+ * 一括送信などで DB 接続を使い切り、管理画面が応答しなくなることを防ぐ。
+ * いずれも CAS のみで更新し、受付処理でロックを取得しない。
+ * 送信元の数が上限に達した場合は満杯のバケットを破棄し、それでも空きがなければ新しい送信元の受付を拒否する
+ * (既存の送信元の受付は継続し、共用のバケットに寄せない)。
+ * 送信元は要求の接続元アドレスのため、リバースプロキシ・ロードバランサー経由の場合は server.forward-headers-strategy を
+ * 設定して X-Forwarded-For の接続元を使用すること(未設定の場合は全要求が同じ送信元となる)。既定では無効とする。
+ */
+@Component
+public class MailSendAdmission {
+
+    // 送信元不明の場合のバケットのキー
+    private static final String UNKNOWN_CLIENT = "";
+
+    private final MailMetrics        metrics;
+    private final boolean            enabled;
+    private final double             permitsPerSecond; // 送信元毎の1秒あたりの受付数
+    private final int                burst;            // 送信元毎の連続受付数
+    private final int                maxClients;       // 保持する送信元の数
+    private final ConcurrencyLimiter concurrency;      // 全体の同時実行数
+
+    // 送信元毎のトークンバケット(満杯のものは定期的に破棄する)
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * constructor
+     */
+    public MailSendAdmission(
+        MailMetrics metrics,
+        @Value("${mail.send.rate-limit.enabled:false}") boolean enabled,
+        @Value("${mail.send.rate-limit.permits-per-second:20}") double permitsPerSecond,
+        @Value("${mail.send.rate-limit.burst:40}") int burst,
+        @Value("${mail.send.rate-limit.max-clients:10000}") int maxClients,
+        @Value("${mail.send.rate-limit.max-concurrent:8}") int maxConcurrent)
+    {
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.permitsPerSecond = permitsPerSecond > 0 ? permitsPerSecond : 1;
+        this.burst = Math.max(1, burst);
+        this.maxClients = Math.max(1, maxClients);
+        this.concurrency = new ConcurrencyLimiter(maxConcurrent);
+        metrics.admissionState(concurrency::inFlight, concurrency.limit(), buckets::size);
+    }
+
+    /**
+     * 受付処理
+     * 同時実行数を確保してから送信元のトークンを取得する(同時実行数で拒否した場合はトークンを消費しない)。
+     * @param client 送信元
+     * @return 受付(処理完了後に close すること)
+     * @throws MailRateLimitException 送信頻度・同時実行数の上限を超えた場合
+     */
+    public Permit acquire(String client) {
+        if (!enabled) {
+            return Permit.NONE;
+        }
+        if (!concurrency.tryAcquire()) {
+            metrics.concurrencyLimited();
+            throw new MailRateLimitException("送信処理が混み合っています。しばらくしてから再度お試しください。", 1);
+        }
+        long now = System.nanoTime();
+        TokenBucket bucket = bucketOf(client, now);
+        if (bucket == null) {
+            concurrency.release();
+            metrics.rateLimited();
+            throw new MailRateLimitException("送信元の数が上限に達しました。しばらくしてから再度お試しください。", 1);
+        }
+        long wait = bucket.tryAcquire(now);
+        if (wait > 0) {
+            concurrency.release();
+            metrics.rateLimited();
+            throw new MailRateLimitException("送信回数が上限を超えました。しばらくしてから再度お試しください。",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1)));
+        }
+        metrics.admitted();
+        return concurrency::release;
+    }
+
+    /**
+     * バケット取得処理
+     * @param client 送信元
+     * @param now    現在時刻(nanoTime)
+     * @return トークンバケット(送信元の数が上限に達している場合はnull)
+     */
+    private TokenBucket bucketOf(String client, long now) {
+        String key = client == null ? UNKNOWN_CLIENT : client;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxClients) {
+            evictFull(now);
+            if (buckets.size() >= maxClients) {
+                return null;
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(permitsPerSecond, burst, now));
+    }
+
+    /**
+     * 定期処理(満杯になったバケットの破棄)
+     */
+    @Scheduled(fixedDelayString = "${mail.send.rate-limit.cleanup-ms:60000}")
+    public void cleanup() {
+        evictFull(System.nanoTime());
+    }
+
+    /**
+     * 満杯になったバケットの破棄処理(破棄しても受付数は変わらない)
+     * @param now 現在時刻(nanoTime)
+     */
+    private void evictFull(long now) {
+        buckets.forEach((client, bucket) -> {
+            if (bucket.isFull(now)) {
+                buckets.remove(client, bucket);
+            }
+        });
+    }
+
+    /**
+     * 受付(close で同時実行数を解放する)
+     */
+    @FunctionalInterface
+    public interface Permit extends AutoCloseable {
+
+        Permit NONE = () -> { };
+
+        @Override
+        void close();
+    }
+}
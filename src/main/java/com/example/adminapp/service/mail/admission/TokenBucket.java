@@ -0,0 +1,57 @@
+package com.example.adminapp.service.mail.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TokenBucket Class
+ * トークンバケット(ロックなし)
+ *
+ * 残トークン数の代わりに「次のトークンが補充される理論時刻」(GCRA)を1つの long で保持し、CAS で更新する。
+ * 補充処理のスレッドやロックは持たない。
+ */
+final class TokenBucket {
+
+    private final long intervalNanos; // トークン1個の補充間隔
+    private final long burstNanos;    // 満杯までの補充時間(intervalNanos × 容量)
+    private final AtomicLong tat;     // 理論到着時刻(nanoTime、現在時刻以前なら満杯)
+
+    /**
+     * constructor
+     * @param permitsPerSecond 1秒あたりの補充数
+     * @param burst            容量(連続して受け付ける最大数)
+     * @param now              現在時刻(nanoTime)
+     */
+    TokenBucket(double permitsPerSecond, int burst, long now) {
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstNanos = intervalNanos * Math.max(1, burst);
+        this.tat = new AtomicLong(now);
+    }
+
+    /**
+     * 取得処理
+     * @param now 現在時刻(nanoTime)
+     * @return 取得できた場合は0、できない場合は次に取得できるまでの時間(ナノ秒)
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - burstNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 満杯判定処理(未使用の状態と同じであれば破棄してよい)
+     * @param now 現在時刻(nanoTime)
+     * @return 満杯の場合 True
+     */
+    boolean isFull(long now) {
+        return tat.get() - now <= 0;
+    }
+}
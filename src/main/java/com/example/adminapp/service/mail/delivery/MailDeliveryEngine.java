@@ -0,0 +1,537 @@
+package com.example.adminapp.service.mail.delivery;
+
+import com.example.adminapp.domain.MailLog;
+import com.example.adminapp.mapper.MailSendMapper;
+import com.example.adminapp.service.mail.MailLogVersion;
+import com.example.adminapp.service.mail.dto.MailStatusChangeDto;
+import com.example.adminapp.service.mail.stats.MailStatistics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * MailDeliveryEngine Class
+ * メール配信処理(SMTP)
+ *
+ * 配信依頼は宛先ドメイン毎のキューに積まれ、ドメイン毎の同時実行数上限の範囲で Worker が処理する。
+ * Worker はプールから接続を1本借り、同一ドメイン宛てのメッセージを batchSize 件まで同じ接続で続けて送信する。
+ * 送信前に配信待ち(PENDING)の行を配信中(SENDING)に変更して確保し(MailSendMapper.claimPending)、
+ * 確保できた行のみ、確保時に読み直した内容で送信する。取消・更新・他ノードの確保などで配信待ちでなくなった行は送信しない。
+ * 配信結果(status / error_message)は MailSendMapper.writeBackDelivery で mail_log に書き戻す。
+ * 再送(MailRetryScheduler)は自身で確保した行を deliverNow で送信のみ行い、結果は呼出元がまとめて書き戻す。
+ * 列・索引の追加は db/mail_log_delivery_lease.sql で行うこと。
+ *
+ * 送信先は中継サーバー(mail.delivery.host)1台のみで、宛先ドメインの MX への配送は中継サーバーが行う。
+ * ドメインは先頭の To の宛先で決め、1通の CC・BCC・2件目以降の To は別ドメインでも同じメッセージで送信する
+ * (ドメイン毎のキューは中継サーバー経由の同時送信数を宛先ドメイン毎に抑えるためのもの)。
+ *
+ * 定期処理で、確保期限を過ぎても書き戻されない配信中の行と、ノード停止などで確保されないまま
+ * stalePendingMinutes 経過した配信待ちの行を配信失敗に変更する(再送が有効な場合は MailRetryScheduler の再送対象となる)。
+ * 配信失敗に変更した配信待ちの行が他ノードのキューに残っていても、確保できないため送信されない。
+ */
+@Component
+public class MailDeliveryEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(MailDeliveryEngine.class);
+
+    public static final String STATUS_PENDING = "PENDING"; // 配信待ち
+    public static final String STATUS_SENDING = "SENDING"; // 配信中(確保済み)
+    public static final String STATUS_SUCCESS = "SUCCESS"; // 配信済み
+    public static final String STATUS_FAILED  = "FAILED";  // 配信失敗
+    public static final String STATUS_CANCELED = "CANCELED"; // 取消(一括操作)
+
+    private static final int    ERROR_MESSAGE_LENGTH = 1000; // error_message 最大長
+    private static final String UNKNOWN_DOMAIN = "";         // 宛先ドメイン不明
+
+    // 中断した配信待ちのエラーメッセージ
+    private static final String STALE_PENDING_MESSAGE = "配信処理が中断されたため配信できませんでした。";
+
+    // 確保期限を過ぎた配信中のエラーメッセージ
+    private static final String EXPIRED_LEASE_MESSAGE = "配信処理が中断されたため配信結果が不明です。";
+
+    private final MailSendMapper mapper;
+    private final MailStatistics statistics;
+    private final MailLogVersion version;
+
+    private final boolean enabled;              // 配信有無
+    private final String  host;                 // SMTP Host
+    private final int     port;                 // SMTP Port
+    private final String  username;             // SMTP 認証ユーザー(空の場合は認証なし)
+    private final String  password;             // SMTP 認証パスワード
+    private final boolean starttls;             // STARTTLS 使用有無
+    private final String  from;                 // 送信元アドレス
+    private final int     poolSize;             // 最大接続数
+    private final int     perDomainConcurrency; // ドメイン毎の同時実行数
+    private final int     batchSize;            // 1接続で続けて送信する件数
+    private final int     threads;              // Worker 数
+    private final long    timeoutMs;            // SMTP タイムアウト
+    private final long    shutdownTimeoutMs;    // 停止時の待機時間
+    private final long    stalePendingMinutes;  // 配信待ちを中断とみなすまでの時間(分)
+    private final long    leaseSeconds;         // 確保期限(秒)
+
+    private final Map<String, DomainQueue> domains = new ConcurrentHashMap<>();
+    private final AtomicLong inFlight = new AtomicLong(); // 配信待ち + 配信中の件数
+
+    private Session            session;
+    private SmtpConnectionPool pool;
+    private ExecutorService    executor;
+    private volatile boolean   accepting;
+
+    /**
+     * constructor
+     */
+    public MailDeliveryEngine(
+        MailSendMapper mapper,
+        MailStatistics statistics,
+        MailLogVersion version,
+        @Value("${mail.delivery.enabled:false}") boolean enabled,
+        @Value("${mail.delivery.host:localhost}") String host,
+        @Value("${mail.delivery.port:25}") int port,
+        @Value("${mail.delivery.username:}") String username,
+        @Value("${mail.delivery.password:}") String password,
+        @Value("${mail.delivery.starttls:false}") boolean starttls,
+        @Value("${mail.delivery.from:noreply@localhost}") String from,
+        @Value("${mail.delivery.pool-size:8}") int poolSize,
+        @Value("${mail.delivery.per-domain-concurrency:2}") int perDomainConcurrency,
+        @Value("${mail.delivery.batch-size:50}") int batchSize,
+        @Value("${mail.delivery.threads:8}") int threads,
+        @Value("${mail.delivery.timeout-ms:10000}") long timeoutMs,
+        @Value("${mail.delivery.shutdown-timeout-ms:30000}") long shutdownTimeoutMs,
+        @Value("${mail.delivery.stale-pending-minutes:30}") long stalePendingMinutes,
+        @Value("${mail.delivery.lease-seconds:600}") long leaseSeconds)
+    {
+        this.mapper = mapper;
+        this.statistics = statistics;
+        this.version = version;
+        this.enabled = enabled;
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.starttls = starttls;
+        this.from = from;
+        this.poolSize = poolSize;
+        this.perDomainConcurrency = perDomainConcurrency;
+        this.batchSize = batchSize;
+        this.threads = threads;
+        this.timeoutMs = timeoutMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.stalePendingMinutes = Math.max(1, stalePendingMinutes);
+        // 1回の確保分(batchSize 件)が全て接続・書込・読込のタイムアウトとなっても期限切れにならない長さとする
+        this.leaseSeconds = Math.max(leaseSeconds, (long) Math.max(1, batchSize) * timeoutMs * 3 / 1000);
+    }
+
+    /**
+     * 起動処理
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Properties props = new Properties();
+        props.put("mail.smtp.host", host);
+        props.put("mail.smtp.port", String.valueOf(port));
+        props.put("mail.smtp.auth", String.valueOf(!username.isEmpty()));
+        props.put("mail.smtp.starttls.enable", String.valueOf(starttls));
+        props.put("mail.smtp.connectiontimeout", String.valueOf(timeoutMs));
+        props.put("mail.smtp.timeout", String.valueOf(timeoutMs));
+        props.put("mail.smtp.writetimeout", String.valueOf(timeoutMs));
+        session = Session.getInstance(props);
+
+        pool = new SmtpConnectionPool(session, host, port,
+                username.isEmpty() ? null : username,
+                username.isEmpty() ? null : password,
+                poolSize, 30_000L, timeoutMs);
+        executor = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().name("mail-delivery-", 0).factory());
+        accepting = true;
+    }
+
+    /**
+     * 停止処理
+     * 受付を止め、配信待ちが無くなるまで待機してから接続を切断する。
+     */
+    @PreDestroy
+    public void stop() {
+        if (!enabled) {
+            return;
+        }
+        accepting = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+        try {
+            while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            executor.shutdown();
+            executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (inFlight.get() > 0) {
+            log.warn("mail delivery stopped with {} undelivered messages", inFlight.get());
+        }
+        pool.close();
+    }
+
+    /**
+     * 配信有無判定処理
+     * @return 配信有無
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 配信依頼処理
+     * @param mailLog 登録済みのメール送信ログ(ID 採番済み)
+     */
+    public void submit(MailLog mailLog) {
+        if (!enabled) {
+            return;
+        }
+        if (!accepting) {
+            try {
+                claim(List.of(mailLog)).forEach(claimed ->
+                        writeBack(claimed, STATUS_FAILED, "配信処理が停止中のため配信できませんでした。"));
+            } catch (RuntimeException e) {
+                log.warn("mail delivery result not written: id={}", mailLog.getId(), e);
+            }
+            return;
+        }
+        inFlight.incrementAndGet();
+        // 空になったキューの破棄(release)と同じロック内で追加し、破棄済みのキューには追加しない
+        DomainQueue queue = domains.compute(domainOf(mailLog.getToAddress()), (domain, current) -> {
+            DomainQueue target = current == null ? new DomainQueue(domain) : current;
+            target.pending.add(mailLog);
+            return target;
+        });
+        schedule(queue);
+    }
+
+    /**
+     * 定期処理(中断した配信の回収)
+     * 確保期限を過ぎた配信中の行と、作成・更新から stalePendingMinutes 経過しても配信待ちのままの行を配信失敗に変更する。
+     * @return 変更した件数
+     */
+    @Scheduled(initialDelayString = "${mail.delivery.recovery-ms:300000}", fixedDelayString = "${mail.delivery.recovery-ms:300000}")
+    public int recoverStalePending() {
+        if (!enabled) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            List<MailStatusChangeDto> changed = new ArrayList<>(mapper.failExpiredLeases(now, EXPIRED_LEASE_MESSAGE));
+            int expired = changed.size();
+            changed.addAll(mapper.failStalePending(now.minusMinutes(stalePendingMinutes), STALE_PENDING_MESSAGE, now));
+            if (changed.isEmpty()) {
+                return 0;
+            }
+            version.bump();
+            for (MailStatusChangeDto row : changed) {
+                statistics.statusChanged(row.getCreatedAt(), row.getPreviousStatus(), STATUS_FAILED);
+            }
+            log.warn("mail delivery recovered {} expired sending and {} stale pending messages as failed",
+                    expired, changed.size() - expired);
+            return changed.size();
+        } catch (Exception e) {
+            log.warn("mail delivery stale pending recovery failed", e);
+            return 0;
+        }
+    }
+
+    /**
+     * 配信待ちのドメイン数取得処理(監視用)
+     * @return 配信待ち・配信中のあるドメイン数
+     */
+    int queuedDomains() {
+        return domains.size();
+    }
+
+    /**
+     * 即時配信処理(呼出元のスレッドで送信し、mail_log には書き戻さない)
+     * @param batch    同一ドメイン宛ての配信対象(呼出元で確保済み)
+     * @param listener 配信結果の通知先
+     */
+    public void deliverNow(List<MailLog> batch, DeliveryListener listener) {
+        if (!enabled) {
+            return;
+        }
+        deliver(batch, listener);
+    }
+
+    /**
+     * Worker 割当処理
+     * ドメイン毎の同時実行数上限に達していない場合のみ Worker を追加する。
+     * @param queue ドメイン毎の配信待ち
+     */
+    private void schedule(DomainQueue queue) {
+        while (!queue.pending.isEmpty()) {
+            int active = queue.active.get();
+            if (active >= perDomainConcurrency) {
+                return;
+            }
+            if (queue.active.compareAndSet(active, active + 1)) {
+                executor.execute(() -> drain(queue));
+                return;
+            }
+        }
+    }
+
+    /**
+     * 配信処理(Worker)
+     * 接続を1本借り、同一ドメイン宛てを batchSize 件まで続けて送信する。
+     * @param queue ドメイン毎の配信待ち
+     */
+    private void drain(DomainQueue queue) {
+        List<MailLog> batch = new ArrayList<>(batchSize);
+        try {
+            MailLog next;
+            while (batch.size() < batchSize && (next = queue.pending.poll()) != null) {
+                batch.add(next);
+            }
+            if (!batch.isEmpty()) {
+                List<MailLog> claimed = claim(batch);
+                if (!claimed.isEmpty()) {
+                    deliver(claimed, this::writeBack);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("mail delivery worker failed: domain={}", queue.domain, e);
+        } finally {
+            inFlight.addAndGet(-batch.size());
+            queue.active.decrementAndGet();
+            schedule(queue);
+            release(queue);
+        }
+    }
+
+    /**
+     * 確保処理
+     * 配信待ちの行を配信中に変更し、確保できた行を確保時の内容で返す。
+     * 確保できなかった行(取消・失敗に変更・他ノードが確保済みなど)は送信しない。
+     * @param batch 配信待ち
+     * @return 確保した行
+     */
+    private List<MailLog> claim(List<MailLog> batch) {
+        long[] ids = new long[batch.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = batch.get(i).getId();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<MailLog> claimed = mapper.claimPending(ids, now.plusSeconds(leaseSeconds), now);
+        if (!claimed.isEmpty()) {
+            version.bump();
+            for (MailLog mailLog : claimed) {
+                statistics.statusChanged(mailLog.getCreatedAt(), STATUS_PENDING, STATUS_SENDING);
+            }
+        }
+        if (claimed.size() < batch.size()) {
+            log.debug("mail delivery skipped {} messages no longer pending", batch.size() - claimed.size());
+        }
+        return claimed;
+    }
+
+    /**
+     * 破棄処理(空になったドメイン毎の配信待ち)
+     * 受付(submit)と同じロック内で空であることを確認してから破棄するため、受付済みの配信依頼は失われない。
+     * @param queue ドメイン毎の配信待ち
+     */
+    private void release(DomainQueue queue) {
+        if (queue.active.get() != 0 || !queue.pending.isEmpty()) {
+            return;
+        }
+        domains.computeIfPresent(queue.domain, (domain, current) ->
+                current == queue && current.active.get() == 0 && current.pending.isEmpty() ? null : current);
+    }
+
+    /**
+     * 送信処理(同一接続)
+     * 接続に異常があった場合は切断して新しい接続で残りを送信する。
+     * @param batch    同一ドメイン宛ての配信待ち
+     * @param listener 配信結果の通知先
+     */
+    private void deliver(List<MailLog> batch, DeliveryListener listener) {
+        Transport transport = null;
+        try {
+            for (MailLog mailLog : batch) {
+                MimeMessage message;
+                try {
+                    message = buildMessage(mailLog);
+                } catch (MessagingException | RuntimeException e) {
+                    listener.delivered(mailLog, STATUS_FAILED, "メッセージの作成に失敗しました。" + e.getMessage());
+                    continue;
+                }
+
+                try {
+                    if (transport == null) {
+                        transport = pool.borrow();
+                    }
+                    transport.sendMessage(message, message.getAllRecipients());
+                    listener.delivered(mailLog, STATUS_SUCCESS, null);
+                } catch (SendFailedException e) {
+                    // 宛先拒否: 接続は引き続き使用できる
+                    listener.delivered(mailLog, STATUS_FAILED, e.getMessage());
+                } catch (MessagingException e) {
+                    listener.delivered(mailLog, STATUS_FAILED, e.getMessage());
+                    if (transport != null) {
+                        pool.release(transport, true);
+                        transport = null;
+                    }
+                }
+            }
+        } finally {
+            if (transport != null) {
+                pool.release(transport, false);
+            }
+        }
+    }
+
+    /**
+     * メッセージ作成処理
+     * @param mailLog メール送信ログ
+     * @return MimeMessage
+     * @throws MessagingException
+     */
+    private MimeMessage buildMessage(MailLog mailLog) throws MessagingException {
+        MimeMessage message = new MimeMessage(session);
+        message.setFrom(new InternetAddress(from));
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(mailLog.getToAddress(), false));
+        if (hasText(mailLog.getCcAddress())) {
+            message.setRecipients(Message.RecipientType.CC, InternetAddress.parse(mailLog.getCcAddress(), false));
+        }
+        if (hasText(mailLog.getBccAddress())) {
+            message.setRecipients(Message.RecipientType.BCC, InternetAddress.parse(mailLog.getBccAddress(), false));
+        }
+        message.setSubject(mailLog.getSubject(), StandardCharsets.UTF_8.name());
+        String body = mailLog.getBody() == null ? "" : mailLog.getBody();
+        if (Boolean.TRUE.equals(mailLog.getIsHtml())) {
+            message.setText(body, StandardCharsets.UTF_8.name(), "html");
+        } else {
+            message.setText(body, StandardCharsets.UTF_8.name());
+        }
+        message.saveChanges();
+        return message;
+    }
+
+    /**
+     * 配信結果書戻処理
+     * @param mailLog      確保したメール送信ログ
+     * @param status       送信ステータス
+     * @param errorMessage エラーメッセージ
+     */
+    private void writeBack(MailLog mailLog, String status, String errorMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        String previous = mailLog.getStatus();
+        mailLog.setStatus(status);
+        mailLog.setErrorMessage(truncate(errorMessage));
+        if (STATUS_SUCCESS.equals(status)) {
+            mailLog.setSentAt(now);
+        }
+        mailLog.setUpdatedAt(now);
+        try {
+            int updated = mapper.writeBackDelivery(mailLog);
+            if (updated == 1) {
+                mailLog.setVersion(mailLog.getVersion() + 1);
+                version.bump();
+                statistics.statusChanged(mailLog.getCreatedAt(), previous, status);
+            } else {
+                log.warn("mail delivery result not written (version conflict): id={}", mailLog.getId());
+            }
+        } catch (Exception e) {
+            log.warn("mail delivery result not written: id={}", mailLog.getId(), e);
+        }
+    }
+
+    /**
+     * 文字列丸め処理(error_message)
+     * @param value 文字列
+     * @return error_message 最大長以内の文字列
+     */
+    static String truncate(String value) {
+        if (value == null || value.length() <= ERROR_MESSAGE_LENGTH) {
+            return value;
+        }
+        return value.substring(0, ERROR_MESSAGE_LENGTH);
+    }
+
+    /**
+     * 宛先ドメイン取得処理(先頭の宛先)
+     * 配信の振分け・同時実行数の単位にのみ使用する(送信先は宛先によらず中継サーバー)。
+     * @param toAddress 宛先アドレス(カンマ区切り)
+     * @return ドメイン(小文字)
+     */
+    static String domainOf(String toAddress) {
+        if (toAddress == null) {
+            return UNKNOWN_DOMAIN;
+        }
+        int end = toAddress.indexOf(',');
+        String first = (end < 0 ? toAddress : toAddress.substring(0, end)).trim();
+        int at = first.lastIndexOf('@');
+        return at < 0 ? UNKNOWN_DOMAIN : first.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 文字列有無判定処理
+     * @param value 文字列
+     * @return 空白以外の文字を含む場合 True
+     */
+    private boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    /**
+     * 配信結果の通知先
+     */
+    @FunctionalInterface
+    public interface DeliveryListener {
+
+        /**
+         * 配信結果通知処理
+         * @param mailLog      メール送信ログ
+         * @param status       送信ステータス
+         * @param errorMessage エラーメッセージ
+         */
+        void delivered(MailLog mailLog, String status, String errorMessage);
+    }
+
+    /**
+     * ドメイン毎の配信待ち
+     */
+    private static final class DomainQueue {
+        private final String domain;
+        private final Queue<MailLog> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger active = new AtomicInteger(); // 処理中の Worker 数
+
+        private DomainQueue(String domain) {
+            this.domain = domain;
+        }
+    }
+}
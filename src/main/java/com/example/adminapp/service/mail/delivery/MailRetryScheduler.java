@@ -0,0 +1,283 @@
+package com.example.adminapp.service.mail.delivery;
+
+import com.example.adminapp.domain.MailLog;
+import com.example.adminapp.mapper.MailRetryMapper;
+import com.example.adminapp.service.mail.MailLogVersion;
+import com.example.adminapp.service.mail.MailMetrics;
+import com.example.adminapp.service.mail.stats.MailStatistics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * MailRetryScheduler Class
+ * 配信失敗の再送(指数バックオフ)
+ *
+ * 期限が到来した配信失敗の行を FOR UPDATE SKIP LOCKED で batchSize 件ずつ配信中(SENDING)に変更して確保し、
+ * 宛先ドメイン毎に分けて並列に再送する。結果は1文でまとめて書き戻す。複数ノードで同時に実行しても、各ノードは異なる行を確保する。
+ * 確保期限までに書き戻されない行は MailDeliveryEngine の定期処理で配信失敗に戻され、再度確保される。
+ * 列・索引の追加は db/mail_log_retry.sql・db/mail_log_delivery_lease.sql で行うこと。
+ */
+@Component
+public class MailRetryScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(MailRetryScheduler.class);
+
+    private final MailRetryMapper    mapper;
+    private final MailDeliveryEngine engine;
+    private final MailStatistics     statistics;
+    private final MailLogVersion     version;
+    private final MailMetrics        metrics;
+
+    private final boolean enabled;          // 再送有無
+    private final int     batchSize;        // 1回に確保する件数
+    private final int     maxBatches;       // 1回の実行で処理する確保回数の上限
+    private final int     parallelism;      // 並列数
+    private final int     chunkSize;        // 1接続で続けて再送する件数
+    private final int     maxAttempts;      // 最大再送回数
+    private final long    baseDelaySeconds; // 初回の再送までの待ち時間(以降は倍々)
+    private final long    maxDelaySeconds;  // 再送間隔の上限
+    private final long    leaseSeconds;     // 確保期限(結果が書き戻されない場合に再確保するまでの時間)
+    private final long    maxAgeHours;      // 再送対象とする作成後の経過時間
+
+    private ExecutorService executor;
+
+    /**
+     * constructor
+     */
+    public MailRetryScheduler(
+        MailRetryMapper    mapper,
+        MailDeliveryEngine engine,
+        MailStatistics     statistics,
+        MailLogVersion     version,
+        MailMetrics        metrics,
+        @Value("${mail.retry.enabled:false}") boolean enabled,
+        @Value("${mail.retry.batch-size:200}") int batchSize,
+        @Value("${mail.retry.max-batches:10}") int maxBatches,
+        @Value("${mail.retry.parallelism:4}") int parallelism,
+        @Value("${mail.retry.chunk-size:50}") int chunkSize,
+        @Value("${mail.retry.max-attempts:5}") int maxAttempts,
+        @Value("${mail.retry.base-delay-seconds:60}") long baseDelaySeconds,
+        @Value("${mail.retry.max-delay-seconds:3600}") long maxDelaySeconds,
+        @Value("${mail.retry.lease-seconds:600}") long leaseSeconds,
+        @Value("${mail.retry.max-age-hours:72}") long maxAgeHours)
+    {
+        this.mapper = mapper;
+        this.engine = engine;
+        this.statistics = statistics;
+        this.version = version;
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatches = Math.max(1, maxBatches);
+        this.parallelism = Math.max(1, parallelism);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelaySeconds = Math.max(1, baseDelaySeconds);
+        this.maxDelaySeconds = Math.max(this.baseDelaySeconds, maxDelaySeconds);
+        this.leaseSeconds = Math.max(1, leaseSeconds);
+        this.maxAgeHours = Math.max(1, maxAgeHours);
+    }
+
+    /**
+     * 起動処理
+     */
+    @PostConstruct
+    public void start() {
+        if (!isActive()) {
+            return;
+        }
+        executor = Executors.newFixedThreadPool(parallelism,
+                Thread.ofPlatform().daemon().name("mail-retry-", 0).factory());
+    }
+
+    /**
+     * 停止処理
+     */
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 定期処理(再送)
+     */
+    @Scheduled(fixedDelayString = "${mail.retry.poll-ms:30000}")
+    public void run() {
+        if (executor == null) {
+            return;
+        }
+        try {
+            int retried = 0;
+            for (int i = 0; i < maxBatches; i++) {
+                int count = retryBatch();
+                retried += count;
+                if (count < batchSize) {
+                    break;
+                }
+            }
+            if (retried > 0) {
+                log.debug("mail retry processed: {} messages", retried);
+            }
+        } catch (Exception e) {
+            log.warn("mail retry failed", e);
+        }
+    }
+
+    /**
+     * 再送処理(1回の確保分)
+     * @return 確保した件数
+     */
+    int retryBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<MailLog> claimed = mapper.claim(now.minusHours(maxAgeHours), now.minusSeconds(baseDelaySeconds),
+                now, now.plusSeconds(leaseSeconds), batchSize);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        version.bump();
+        for (MailLog mailLog : claimed) {
+            statistics.statusChanged(mailLog.getCreatedAt(), MailDeliveryEngine.STATUS_FAILED,
+                    MailDeliveryEngine.STATUS_SENDING);
+        }
+
+        // 宛先ドメイン毎に chunkSize 件ずつ分けて並列に再送する
+        Map<String, List<MailLog>> domains = new LinkedHashMap<>();
+        for (MailLog mailLog : claimed) {
+            domains.computeIfAbsent(MailDeliveryEngine.domainOf(mailLog.getToAddress()), key -> new ArrayList<>())
+                    .add(mailLog);
+        }
+        Queue<MailLog> results = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (List<MailLog> domain : domains.values()) {
+            for (int from = 0; from < domain.size(); from += chunkSize) {
+                List<MailLog> chunk = domain.subList(from, Math.min(domain.size(), from + chunkSize));
+                futures.add(CompletableFuture.runAsync(() -> deliver(chunk, results), executor));
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        writeBack(new ArrayList<>(results));
+        return claimed.size();
+    }
+
+    /**
+     * 再送処理(同一ドメイン宛て)
+     * 結果が得られなかった行は確保期限の経過後に配信失敗に戻され、再度確保される。
+     * @param chunk   同一ドメイン宛ての確保した行
+     * @param results 再送結果の格納先
+     */
+    private void deliver(List<MailLog> chunk, Queue<MailLog> results) {
+        try {
+            engine.deliverNow(chunk, (mailLog, status, errorMessage) -> results.add(result(mailLog, status, errorMessage)));
+        } catch (RuntimeException e) {
+            log.warn("mail retry worker failed: domain={}", MailDeliveryEngine.domainOf(chunk.get(0).getToAddress()), e);
+        }
+    }
+
+    /**
+     * 再送結果設定処理
+     * 失敗した場合は次回再送日時を設定する(最大再送回数に達した場合は設定しない)。
+     * @param mailLog      確保した行
+     * @param status       送信ステータス
+     * @param errorMessage エラーメッセージ
+     * @return 再送結果
+     */
+    private MailLog result(MailLog mailLog, String status, String errorMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        mailLog.setStatus(status);
+        mailLog.setErrorMessage(MailDeliveryEngine.truncate(errorMessage));
+        mailLog.setUpdatedAt(now);
+        if (MailDeliveryEngine.STATUS_SUCCESS.equals(status)) {
+            mailLog.setSentAt(now);
+            mailLog.setNextRetryAt(null);
+        } else if (mailLog.getRetryCount() >= maxAttempts) {
+            mailLog.setNextRetryAt(null);
+        } else {
+            mailLog.setNextRetryAt(now.plusSeconds(withJitter(
+                    backoffSeconds(mailLog.getRetryCount(), baseDelaySeconds, maxDelaySeconds))));
+        }
+        return mailLog;
+    }
+
+    /**
+     * 再送結果書戻処理
+     * @param results 再送結果
+     */
+    private void writeBack(List<MailLog> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        Set<Long> written = new HashSet<>(mapper.writeBack(results));
+        if (!written.isEmpty()) {
+            version.bump();
+        }
+        int succeeded = 0;
+        for (MailLog mailLog : results) {
+            if (!written.contains(mailLog.getId())) {
+                continue;
+            }
+            statistics.statusChanged(mailLog.getCreatedAt(), MailDeliveryEngine.STATUS_SENDING, mailLog.getStatus());
+            if (MailDeliveryEngine.STATUS_SUCCESS.equals(mailLog.getStatus())) {
+                succeeded++;
+            }
+        }
+        metrics.retried(succeeded, written.size() - succeeded, results.size() - written.size());
+        if (written.size() < results.size()) {
+            log.warn("mail retry results not written (version conflict): {} messages", results.size() - written.size());
+        }
+    }
+
+    /**
+     * 再送間隔算出処理
+     * @param retryCount       再送回数(1回目の再送後は 1)
+     * @param baseDelaySeconds 初回の再送までの待ち時間
+     * @param maxDelaySeconds  上限
+     * @return 次回の再送までの待ち時間(秒、baseDelaySeconds × 2^retryCount)
+     */
+    static long backoffSeconds(int retryCount, long baseDelaySeconds, long maxDelaySeconds) {
+        long delay = baseDelaySeconds;
+        for (int i = 0; i < retryCount && delay < maxDelaySeconds; i++) {
+            delay *= 2;
+        }
+        return Math.min(delay, maxDelaySeconds);
+    }
+
+    /**
+     * 揺らぎ付与処理(各ノードの再送時刻を分散させる)
+     * @param seconds 待ち時間
+     * @return 待ち時間の 1/2 ～ 1 倍
+     */
+    private static long withJitter(long seconds) {
+        long half = seconds / 2;
+        return half + ThreadLocalRandom.current().nextLong(seconds - half + 1);
+    }
+
+    /**
+     * 実行有無判定処理
+     * @return 再送が有効かつ配信処理が有効な場合 True
+     */
+    private boolean isActive() {
+        return enabled && engine.isEnabled();
+    }
+}
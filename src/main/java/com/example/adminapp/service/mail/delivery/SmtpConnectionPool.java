@@ -0,0 +1,137 @@
+package com.example.adminapp.service.mail.delivery;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SmtpConnectionPool Class
+ * 接続済み SMTP Transport の再利用プール
+ *
+ * 接続・EHLO・AUTH をメッセージ毎に行わず、返却された接続を次の送信で使い回す。
+ * 一定時間使用されなかった接続は貸出前に NOOP で生存確認する。
+ */
+public class SmtpConnectionPool implements AutoCloseable {
+
+    private final Session session;
+    private final String  host;
+    private final int     port;
+    private final String  username;
+    private final String  password;
+    private final long    validateAfterNanos;  // 生存確認を行う未使用時間
+    private final long    borrowTimeoutMs;     // 貸出待機時間
+
+    private final Semaphore permits;           // 同時接続数上限
+    private final ConcurrentLinkedDeque<Idle> idle = new ConcurrentLinkedDeque<>();
+    private volatile boolean closed;
+
+    /**
+     * constructor
+     */
+    public SmtpConnectionPool(
+        Session session,
+        String  host,
+        int     port,
+        String  username,
+        String  password,
+        int     maxConnections,
+        long    validateAfterMs,
+        long    borrowTimeoutMs)
+    {
+        this.session = session;
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.validateAfterNanos = TimeUnit.MILLISECONDS.toNanos(validateAfterMs);
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.permits = new Semaphore(maxConnections, true);
+    }
+
+    /**
+     * 貸出処理
+     * 直近に返却された接続を優先して使用し、無い場合は新規接続する。
+     * @return 接続済み Transport
+     * @throws MessagingException 接続失敗・待機時間超過の場合
+     */
+    public Transport borrow() throws MessagingException {
+        if (closed) {
+            throw new MessagingException("SMTP connection pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new MessagingException("SMTP connection pool exhausted");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("interrupted while waiting for SMTP connection", e);
+        }
+
+        try {
+            Idle entry;
+            while ((entry = idle.pollFirst()) != null) {
+                if (System.nanoTime() - entry.since() < validateAfterNanos
+                        || entry.transport().isConnected()) {
+                    return entry.transport();
+                }
+                closeQuietly(entry.transport());
+            }
+            Transport transport = session.getTransport("smtp");
+            transport.connect(host, port, username, password);
+            return transport;
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 返却処理
+     * @param transport 貸出した Transport
+     * @param broken    通信異常があった場合 True(再利用せず切断する)
+     */
+    public void release(Transport transport, boolean broken) {
+        try {
+            if (broken || closed) {
+                closeQuietly(transport);
+            } else {
+                idle.offerFirst(new Idle(transport, System.nanoTime()));
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 全接続切断処理
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Idle entry;
+        while ((entry = idle.pollFirst()) != null) {
+            closeQuietly(entry.transport());
+        }
+    }
+
+    /**
+     * 切断処理
+     * @param transport Transport
+     */
+    private void closeQuietly(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+        }
+    }
+
+    /**
+     * 未使用接続
+     * @param transport Transport
+     * @param since     返却時刻(nanoTime)
+     */
+    private record Idle(Transport transport, long since) {}
+}
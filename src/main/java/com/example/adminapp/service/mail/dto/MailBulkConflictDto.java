@@ -0,0 +1,23 @@
+package com.example.adminapp.service.mail.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+/**
+ * MailBulkConflictDto Class
+ * 一括操作で更新できなかった行
+ */
+public class MailBulkConflictDto {
+    private Long id;         // ID
+    private String reason;   // 理由(NOT_FOUND / VERSION_CONFLICT / INVALID_STATUS)
+    private String status;   // 現在の送信ステータス
+    private Integer version; // 現在のバージョン
+}
@@ -0,0 +1,21 @@
+package com.example.adminapp.service.mail.dto;
+
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+/**
+ * MailBulkOperationRequestDto Class
+ * 一括操作の要求(items / filter のいずれかを指定)
+ */
+public class MailBulkOperationRequestDto {
+    private String action;                  // 操作(RESEND / CANCEL / MARK_FAILED)
+    private List<MailBulkTargetDto> items;  // 対象(ID・一覧取得時のバージョン)
+    private Map<String, String> filter;     // 検索条件(一致するすべての行が対象)
+}
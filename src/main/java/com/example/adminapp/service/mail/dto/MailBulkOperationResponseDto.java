@@ -0,0 +1,38 @@
+package com.example.adminapp.service.mail.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@Getter
+@Setter
+
+/**
+ * MailBulkOperationResponseDto Class
+ * 一括操作の処理結果
+ */
+public class MailBulkOperationResponseDto {
+
+    // 処理結果(True:全件更新、False：1件以上更新不可)
+    private boolean success;
+    // Message
+    private String message;
+    // 操作
+    private String action;
+    // 対象件数
+    private long requested;
+    // 更新件数
+    private long updated;
+    // 更新不可件数
+    private long conflicted;
+    // 対象件数の上限に達したため、検索条件に一致する行の一部のみ処理した場合 True
+    private boolean truncated;
+    // 更新不可の行(先頭から上限件数まで)
+    private List<MailBulkConflictDto> conflicts = new ArrayList<>();
+    // Error Message(全体)
+    private List<String> globalErrors = new ArrayList<>();
+}
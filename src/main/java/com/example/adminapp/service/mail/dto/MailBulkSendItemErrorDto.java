@@ -0,0 +1,24 @@
+package com.example.adminapp.service.mail.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+/**
+ * MailBulkSendItemErrorDto Class
+ * 一括送信のエラー(1件分)
+ */
+public class MailBulkSendItemErrorDto {
+    private long index;                      // 位置(0始まり)
+    private Map<String, String> fieldErrors; // Error Message(各入力項目)
+    private List<String> globalErrors;       // Error Message(全体)
+}
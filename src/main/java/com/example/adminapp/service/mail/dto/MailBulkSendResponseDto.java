@@ -0,0 +1,36 @@
+package com.example.adminapp.service.mail.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@Getter
+@Setter
+
+/**
+ * MailBulkSendResponseDto Class
+ * 一括送信の処理結果
+ */
+public class MailBulkSendResponseDto {
+
+    // 処理結果(True:全件OK、False：1件以上NG)
+    private boolean success;
+    // Message
+    private String message;
+    // 受信件数
+    private long total;
+    // 登録件数
+    private long inserted;
+    // エラー件数
+    private long failed;
+    // 件数の上限に達したため、入力の一部のみ処理した場合 True
+    private boolean truncated;
+    // Error Message(各件。先頭から上限件数まで)
+    private List<MailBulkSendItemErrorDto> errors = new ArrayList<>();
+    // Error Message(全体)
+    private List<String> globalErrors = new ArrayList<>();
+}
@@ -0,0 +1,22 @@
+package com.example.adminapp.service.mail.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+/**
+ * MailBulkTargetDto Class
+ * 一括操作の対象(1件分)
+ */
+public class MailBulkTargetDto {
+    private Long id;         // ID
+    private Integer version; // バージョン(一覧取得時の値)
+    private String status;   // 送信ステータス(DB 参照時のみ)
+}
@@ -0,0 +1,23 @@
+package com.example.adminapp.service.mail.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+/**
+ * MailIdempotencyRecordDto Class
+ * Idempotency-Key 記録(mail_idempotency_key)
+ */
+public class MailIdempotencyRecordDto {
+    private String idempotencyKey;    // Idempotency-Key
+    private String requestHash;       // 入力値の SHA-256
+    private String status;            // 状態(IN_PROGRESS / COMPLETED)
+    private String response;          // 応答内容(JSON)
+    private LocalDateTime createdAt;  // 作成日時
+    private LocalDateTime updatedAt;  // 更新日時
+}
@@ -0,0 +1,20 @@
+package com.example.adminapp.service.mail.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+/**
+ * MailRecipientDto Class
+ * 宛先(mail_recipient の1行、または宛先の完全一致・ドメイン検索条件)
+ */
+public class MailRecipientDto {
+    private Long mailLogId; // メール送信ログID(検索条件の場合は null)
+    private String role;    // 種別(TO / CC / BCC)
+    private String address; // アドレス(小文字、ドメイン検索条件の場合は null)
+    private String domain;  // ドメイン(小文字)
+}
@@ -0,0 +1,25 @@
+package com.example.adminapp.service.mail.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+/**
+ * MailReportDto Class
+ * 送信件数・エラーレポート
+ */
+public class MailReportDto {
+    private String granularity;              // 集計単位(DAILY / MONTHLY)
+    private LocalDate from;                  // 集計開始日
+    private LocalDate to;                    // 集計終了日(この日を含む)
+    private MailReportRowDto summary;        // 期間全体
+    private List<MailReportRowDto> rows;     // 期間毎(古い順)
+    private List<MailReportRowDto> domains;  // ドメイン毎(件数の多い順、上位のみ)
+    private long rollupRows;                 // 読込んだ集計テーブルの行数
+}
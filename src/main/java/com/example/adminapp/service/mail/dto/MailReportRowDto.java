@@ -0,0 +1,24 @@
+package com.example.adminapp.service.mail.dto;
+
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+/**
+ * MailReportRowDto Class
+ * レポートの1行(期間毎 / ドメイン毎の送信ステータス別件数)
+ */
+public class MailReportRowDto {
+    private LocalDate period;         // 期間(日 / 月初日、ドメイン毎の場合はnull)
+    private String domain;            // 宛先ドメイン(期間毎の場合はnull)
+    private long success;             // 件数(SUCCESS)
+    private long failed;              // 件数(FAILED)
+    private long other;               // 件数(その他)
+    private long total;               // 件数(合計)
+    private double failureRate;       // 失敗率(FAILED / (SUCCESS + FAILED))
+}
@@ -0,0 +1,21 @@
+package com.example.adminapp.service.mail.dto;
+
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+/**
+ * MailRollupCountDto Class
+ * 集計テーブルの1行(期間・送信ステータス・ドメイン別件数)
+ */
+public class MailRollupCountDto {
+    private LocalDate period;         // 期間(日 / 月初日)
+    private String status;            // 送信ステータス
+    private String domain;            // 宛先ドメイン
+    private long count;               // 件数
+}
@@ -1,6 +1,7 @@
 package com.example.adminapp.service.mail.dto;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -23,4 +24,6 @@ public class MailSearchConditionDto {
     private LocalDateTime sentAtTo;   // 送信日時(終了)
     private Integer page;             //頁数
     private Integer size;             //件数
+    private long[] candidateIds;       // 候補ID(n-gram索引による絞込、null:絞込なし)
+    private List<MailRecipientDto> recipients; // 宛先の完全一致・ドメイン条件(mail_recipient、null:条件なし)
 }
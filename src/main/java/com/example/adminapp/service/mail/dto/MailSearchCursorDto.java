@@ -0,0 +1,21 @@
+package com.example.adminapp.service.mail.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+/**
+ * MailSearchCursorDto Class
+ * Keyset(Seek)方式ページングの基準行
+ */
+public class MailSearchCursorDto {
+    private LocalDateTime sentAt;     // 基準行 送信日時(送信日時が無い行の場合はnull)
+    private Long id;                  // 基準行 ID
+    private boolean backward;         // 方向(True:前頁、False：次頁)
+}
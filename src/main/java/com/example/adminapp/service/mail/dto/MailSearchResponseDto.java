@@ -15,9 +15,12 @@ import lombok.NoArgsConstructor;
 public class MailSearchResponseDto {
     private List<MailSendListDto> items; // 検索結果
     private long totalSize;              // 総件数
+    private boolean totalSizeExact;      // 総件数が正確か否か(False:推定値・下限値)
     private int  totalPages;             // 総頁数
     private int page;                    // 頁数
     private int size;                    // 件数
     private boolean hasNext;             // 次頁有無
     private boolean hasPrevious;         // 前頁有無
+    private String nextCursor;           // 次頁Cursor
+    private String previousCursor;       // 前頁Cursor
 }
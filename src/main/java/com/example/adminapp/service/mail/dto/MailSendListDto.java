@@ -23,4 +23,5 @@ public class MailSendListDto {
     private String errorMessage;      // エラーメッセージ
     private LocalDateTime sentAt;     // 送信日時
     private LocalDateTime createdAt;  // 作成日時
+    private Integer version;          // バージョン(一括操作の楽観ロック)
 }
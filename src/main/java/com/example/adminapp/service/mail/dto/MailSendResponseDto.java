@@ -26,6 +26,8 @@ public class MailSendResponseDto {
     private Map<String, String> fieldErrors;
     // Error Message(全体)
     private List<String> globalErrors;
+    // 受付番号(非同期モード)
+    private String trackingId;
 
     /**
      * 処理結果(正常)
@@ -39,6 +41,18 @@ public class MailSendResponseDto {
         return response;
     }
 
+    /**
+     * 処理結果(受付)
+     * @param message    Message
+     * @param trackingId 受付番号
+     * @return 処理結果
+     */
+    public static MailSendResponseDto accepted(String message, String trackingId) {
+        MailSendResponseDto response = success(message);
+        response.setTrackingId(trackingId);
+        return response;
+    }
+
     /**
      * 処理結果(異常)
      * @param message Message
@@ -0,0 +1,22 @@
+package com.example.adminapp.service.mail.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+/**
+ * MailSendStatusDto Class
+ * 非同期受付分の処理状況
+ */
+public class MailSendStatusDto {
+    private String trackingId;        // 受付番号
+    private String status;            // 処理状況(QUEUED / PERSISTED / FAILED)
+    private Long id;                  // 登録 ID(PERSISTED の場合)
+}
@@ -0,0 +1,24 @@
+package com.example.adminapp.service.mail.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+/**
+ * MailStatisticsBucketDto Class
+ * 集計期間毎の送信ステータス別件数
+ */
+public class MailStatisticsBucketDto {
+    private LocalDateTime start;      // 集計期間開始日時
+    private long success;             // 件数(SUCCESS)
+    private long failed;              // 件数(FAILED)
+    private long pending;             // 件数(PENDING)
+    private long other;               // 件数(その他)
+    private long total;               // 件数(合計)
+    private double failureRate;       // 失敗率(FAILED / (SUCCESS + FAILED))
+}
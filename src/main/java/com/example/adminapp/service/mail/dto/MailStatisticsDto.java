@@ -0,0 +1,24 @@
+package com.example.adminapp.service.mail.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+/**
+ * MailStatisticsDto Class
+ * メール送信統計(ダッシュボード表示用)
+ */
+public class MailStatisticsDto {
+    private LocalDateTime generatedAt;             // 集計日時
+    private boolean loaded;                        // 初期読込完了有無(False の場合は起動後の件数のみ)
+    private MailStatisticsBucketDto today;         // 本日
+    private MailStatisticsBucketDto last24Hours;   // 直近24時間
+    private List<MailStatisticsBucketDto> hourly;  // 時間別(直近24時間、新しい順)
+    private List<MailStatisticsBucketDto> daily;   // 日別(直近30日、新しい順)
+}
@@ -0,0 +1,21 @@
+package com.example.adminapp.service.mail.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+/**
+ * MailStatusChangeDto Class
+ * 一括操作で更新した行
+ */
+public class MailStatusChangeDto {
+    private Long id;                 // ID
+    private String previousStatus;   // 更新前の送信ステータス
+    private LocalDateTime createdAt; // 作成日時
+    private Integer version;         // 更新後のバージョン
+}
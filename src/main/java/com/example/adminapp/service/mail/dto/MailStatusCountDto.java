@@ -0,0 +1,20 @@
+package com.example.adminapp.service.mail.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+/**
+ * MailStatusCountDto Class
+ * 時間帯・送信ステータス別件数
+ */
+public class MailStatusCountDto {
+    private LocalDateTime hour;       // 時間帯(作成日時の時単位切捨て)
+    private String status;            // 送信ステータス
+    private long count;               // 件数
+}
@@ -0,0 +1,37 @@
+package com.example.adminapp.service.mail.idempotency;
+
+/**
+ * MailIdempotencyException Class
+ * Idempotency-Key による受付拒否
+ */
+public class MailIdempotencyException extends RuntimeException {
+
+    /**
+     * 拒否理由
+     */
+    public enum Reason {
+        INVALID_KEY, // Key の形式不正
+        IN_PROGRESS, // 同じ Key の送信が実行中
+        KEY_REUSED   // 同じ Key が異なる入力値で使用された
+    }
+
+    private final Reason reason;
+
+    /**
+     * constructor
+     * @param reason  拒否理由
+     * @param message Message
+     */
+    public MailIdempotencyException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    /**
+     * 拒否理由取得処理
+     * @return 拒否理由
+     */
+    public Reason getReason() {
+        return reason;
+    }
+}
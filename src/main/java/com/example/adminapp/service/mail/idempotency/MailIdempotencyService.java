@@ -0,0 +1,440 @@
+package com.example.adminapp.service.mail.idempotency;
+
+import com.example.adminapp.mapper.MailIdempotencyMapper;
+import com.example.adminapp.service.mail.dto.MailIdempotencyRecordDto;
+import com.example.adminapp.service.mail.dto.MailSendResponseDto;
+import com.example.adminapp.service.mail.idempotency.MailIdempotencyException.Reason;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * MailIdempotencyService Class
+ * 送信 API の Idempotency-Key 処理
+ *
+ * Key は送信元(受付制限と同じ接続元アドレス)毎に区別し、他の送信元の応答は返却しない。
+ * 同じ Key の同時要求は実行中の処理(CompletableFuture)の完了を待ち、1回だけ実行する。
+ * 完了した応答は有効期間付きで保持し(最大保持数を超えた場合は最も古く参照されたものから破棄)、
+ * 同じ Key の再要求には実行せずに同じ応答を返却する。
+ * DB 記録(mail_idempotency_key)を有効にした場合は、他ノードで実行済み・実行中の Key も検出する。
+ * 実行中の記録は定期的に更新日時を延長し(heartbeat)、更新の途絶えた記録(ノード停止)のみ他ノードが引き継ぐ。
+ * 完了の記録に失敗した場合も、記録できるまで延長と再記録を続ける(他ノードで再実行させない)。
+ * 登録に至らなかった応答(入力エラー等)は保持せず、同じ Key で再実行できる。
+ */
+@Service
+public class MailIdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(MailIdempotencyService.class);
+
+    private static final int MAX_KEY_LENGTH = 255; // Key の最大文字数
+
+    private static final String STATUS_COMPLETED = "COMPLETED";
+
+    private final MailIdempotencyMapper mapper;
+    private final ObjectMapper          objectMapper;
+
+    private final long    ttlSeconds;         // 応答の有効期間
+    private final int     maxEntries;         // 応答の最大保持数(ノード内)
+    private final long    waitTimeoutMs;      // 実行中の同じ Key の完了待ち時間
+    private final long    staleSeconds;       // 実行中のまま更新が途絶えた DB 記録を引き継ぐまでの時間
+    private final boolean dbEnabled;          // DB 記録有無
+
+    // 実行中の Key → 処理結果
+    private final Map<String, CompletableFuture<Completed>> inFlight = new ConcurrentHashMap<>();
+    // 完了した Key → 処理結果(参照順、completed で同期する)
+    private final LinkedHashMap<String, Completed> completed = new LinkedHashMap<>(16, 0.75f, true);
+    // DB 実行権を保持して実行中の Key
+    private final Set<String> executing = ConcurrentHashMap.newKeySet();
+    // 送信済みで DB 記録の完了に失敗した Key → 応答内容(JSON)
+    private final Map<String, Uncompleted> uncompleted = new ConcurrentHashMap<>();
+
+    /**
+     * constructor
+     */
+    public MailIdempotencyService(
+        MailIdempotencyMapper mapper,
+        ObjectMapper          objectMapper,
+        @Value("${mail.send.idempotency.ttl-seconds:86400}") long ttlSeconds,
+        @Value("${mail.send.idempotency.max-entries:10000}") int maxEntries,
+        @Value("${mail.send.idempotency.wait-timeout-ms:30000}") long waitTimeoutMs,
+        @Value("${mail.send.idempotency.stale-seconds:60}") long staleSeconds,
+        @Value("${mail.send.idempotency.heartbeat-ms:15000}") long heartbeatMs,
+        @Value("${mail.send.idempotency.db-enabled:false}") boolean dbEnabled)
+    {
+        this.mapper = mapper;
+        this.objectMapper = objectMapper;
+        this.ttlSeconds = ttlSeconds;
+        this.maxEntries = maxEntries;
+        this.waitTimeoutMs = waitTimeoutMs;
+        // 延長が1～2回遅れても引き継がれないよう、延長間隔の3倍以上とする
+        this.staleSeconds = Math.max(staleSeconds, heartbeatMs * 3 / 1000);
+        this.dbEnabled = dbEnabled;
+    }
+
+    /**
+     * 実行処理
+     * @param client         送信元(接続元アドレス)
+     * @param idempotencyKey Idempotency-Key
+     * @param params         入力値(同じ Key で異なる入力値の場合は拒否する)
+     * @param action         送信処理
+     * @return 処理結果
+     * @throws MailIdempotencyException Key の形式不正・実行中・入力値不一致の場合
+     */
+    public Outcome execute(
+        String                        client,
+        String                        idempotencyKey,
+        Map<String, String>           params,
+        Supplier<MailSendResponseDto> action)
+    {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new MailIdempotencyException(Reason.INVALID_KEY,
+                    "Idempotency-Key は1～" + MAX_KEY_LENGTH + "文字で指定してください。");
+        }
+        // 接続元アドレスは空白を含まないため、最初の空白までが送信元
+        String key = client + " " + idempotencyKey;
+        String requestHash = hash(params);
+
+        Completed cached = findCompleted(key);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+
+        CompletableFuture<Completed> mine = new CompletableFuture<>();
+        CompletableFuture<Completed> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return replay(await(running), requestHash);
+        }
+        try {
+            // 初回の確認後に他の要求が完了して inFlight から外れた場合(完了済みの保持は inFlight の削除より先に行う)
+            Completed done = findCompleted(key);
+            if (done != null) {
+                mine.complete(done);
+                return replay(done, requestHash);
+            }
+            Completed other = dbEnabled ? claim(key, requestHash) : null;
+            if (other != null) {
+                mine.complete(other);
+                return replay(other, requestHash);
+            }
+            Completed result = executeOnce(key, requestHash, action);
+            mine.complete(result);
+            return new Outcome(result.response(), false);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * 実行処理(1回分、DB 実行権は取得済み)
+     * @param key         Idempotency-Key(送信元付き)
+     * @param requestHash 入力値の SHA-256
+     * @param action      送信処理
+     * @return 処理結果
+     */
+    private Completed executeOnce(String key, String requestHash, Supplier<MailSendResponseDto> action) {
+        MailSendResponseDto response;
+        if (dbEnabled) {
+            executing.add(key);
+        }
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(key);
+            throw e;
+        } finally {
+            executing.remove(key);
+        }
+        Completed result = new Completed(requestHash, response, expiresAt());
+        if (!response.isSuccess()) {
+            release(key);
+            return result;
+        }
+        if (dbEnabled) {
+            complete(key, response);
+        }
+        putCompleted(key, result);
+        return result;
+    }
+
+    /**
+     * DB 記録の完了処理
+     * 失敗した場合は延長処理で再記録する(送信は完了しているため応答は返却する)。
+     * @param key      Idempotency-Key(送信元付き)
+     * @param response 応答
+     */
+    private void complete(String key, MailSendResponseDto response) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            log.warn("idempotency record not completed: key={}", key, e);
+            return;
+        }
+        // 完了の記録より先に登録し、記録までの間も延長の対象とする
+        uncompleted.put(key, new Uncompleted(json, expiresAt()));
+        try {
+            mapper.complete(key, json, LocalDateTime.now());
+            uncompleted.remove(key);
+        } catch (RuntimeException e) {
+            log.warn("idempotency record not completed, retrying: key={}", key, e);
+        }
+    }
+
+    /**
+     * DB 実行権取得処理
+     * @param key         Idempotency-Key
+     * @param requestHash 入力値の SHA-256
+     * @return 他ノードで完了済みの処理結果(実行権を取得した場合はnull)
+     * @throws MailIdempotencyException 他ノードで実行中の場合
+     */
+    private Completed claim(String key, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        if (mapper.claim(key, requestHash, now) == 1) {
+            return null;
+        }
+        MailIdempotencyRecordDto record = mapper.findByKey(key);
+        if (record == null) {
+            // 他ノードが失敗して解放した直後
+            if (mapper.claim(key, requestHash, now) == 1) {
+                return null;
+            }
+            record = mapper.findByKey(key);
+        }
+        if (record != null && STATUS_COMPLETED.equals(record.getStatus())) {
+            Completed result = new Completed(record.getRequestHash(), readResponse(record.getResponse()), expiresAt());
+            putCompleted(key, result);
+            return result;
+        }
+        if (record != null && mapper.takeover(key, requestHash, now, now.minusSeconds(staleSeconds)) == 1) {
+            log.warn("idempotency key taken over from stale execution: key={}", key);
+            return null;
+        }
+        throw new MailIdempotencyException(Reason.IN_PROGRESS,
+                "同じ Idempotency-Key の送信を処理中です。しばらくしてから再度お試しください。");
+    }
+
+    /**
+     * DB 実行権解放処理
+     * @param key Idempotency-Key
+     */
+    private void release(String key) {
+        if (!dbEnabled) {
+            return;
+        }
+        try {
+            mapper.release(key);
+        } catch (RuntimeException e) {
+            log.warn("idempotency record not released: key={}", key, e);
+        }
+    }
+
+    /**
+     * 実行中の DB 記録の延長処理
+     * 実行中の記録の更新日時を延長し、完了の記録に失敗した記録を再記録する。
+     */
+    @Scheduled(fixedDelayString = "${mail.send.idempotency.heartbeat-ms:15000}")
+    public void heartbeat() {
+        if (!dbEnabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            for (Map.Entry<String, Uncompleted> entry : uncompleted.entrySet()) {
+                mapper.complete(entry.getKey(), entry.getValue().response(), now);
+                uncompleted.remove(entry.getKey(), entry.getValue());
+            }
+        } catch (RuntimeException e) {
+            log.warn("idempotency record not completed, retrying: {} keys", uncompleted.size(), e);
+        }
+        Set<String> keys = new HashSet<>(executing);
+        keys.addAll(uncompleted.keySet());
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            mapper.renew(keys, now);
+        } catch (RuntimeException e) {
+            log.warn("idempotency records not renewed: {} keys", keys.size(), e);
+        }
+    }
+
+    /**
+     * 実行中の処理の完了待ち
+     * @param running 実行中の処理
+     * @return 処理結果
+     */
+    private Completed await(CompletableFuture<Completed> running) {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new MailIdempotencyException(Reason.IN_PROGRESS,
+                    "同じ Idempotency-Key の送信を処理中です。しばらくしてから再度お試しください。");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 応答再送処理
+     * @param result      処理結果
+     * @param requestHash 入力値の SHA-256
+     * @return 処理結果
+     */
+    private Outcome replay(Completed result, String requestHash) {
+        if (!result.requestHash().equals(requestHash)) {
+            throw new MailIdempotencyException(Reason.KEY_REUSED,
+                    "Idempotency-Key が異なる入力内容で使用されています。");
+        }
+        return new Outcome(result.response(), true);
+    }
+
+    /**
+     * 完了済み取得処理
+     * @param key Idempotency-Key
+     * @return 処理結果(該当なし・有効期間切れの場合はnull)
+     */
+    private Completed findCompleted(String key) {
+        synchronized (completed) {
+            Completed result = completed.get(key);
+            if (result != null && result.expiresAt() - System.nanoTime() <= 0) {
+                completed.remove(key);
+                return null;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 完了済み保持処理
+     * @param key    Idempotency-Key
+     * @param result 処理結果
+     */
+    private void putCompleted(String key, Completed result) {
+        synchronized (completed) {
+            completed.put(key, result);
+            Iterator<Completed> it = completed.values().iterator();
+            for (int overflow = completed.size() - maxEntries; overflow > 0 && it.hasNext(); overflow--) {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * 有効期間切れの削除処理
+     */
+    @Scheduled(fixedDelayString = "${mail.send.idempotency.cleanup-ms:600000}")
+    public void cleanup() {
+        long now = System.nanoTime();
+        synchronized (completed) {
+            completed.values().removeIf(result -> result.expiresAt() - now <= 0);
+        }
+        // 有効期間内に完了を記録できなかったものは破棄する(DB 記録も有効期間切れで削除される)
+        uncompleted.values().removeIf(pending -> pending.expiresAt() - now <= 0);
+        if (!dbEnabled) {
+            return;
+        }
+        try {
+            int deleted = mapper.deleteExpired(LocalDateTime.now().minusSeconds(ttlSeconds));
+            if (deleted > 0) {
+                log.debug("idempotency records expired: {}", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("idempotency record cleanup failed", e);
+        }
+    }
+
+    /**
+     * 有効期限算出処理
+     * @return 有効期限(nanoTime)
+     */
+    private long expiresAt() {
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    /**
+     * 応答読込処理
+     * @param json 応答内容(JSON)
+     * @return 応答
+     */
+    private MailSendResponseDto readResponse(String json) {
+        try {
+            return objectMapper.readValue(json, MailSendResponseDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("idempotency response is corrupted", e);
+        }
+    }
+
+    /**
+     * 入力値の SHA-256 生成処理(項目名順、長さ付きで連結)
+     * @param params 入力値
+     * @return SHA-256(16進数)
+     */
+    static String hash(Map<String, String> params) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (Map.Entry<String, String> entry : new TreeMap<>(params).entrySet()) {
+            String value = entry.getValue() == null ? "" : entry.getValue();
+            digest.update((entry.getKey().length() + ":" + entry.getKey() + "="
+                    + value.length() + ":" + value + ";").getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * 処理結果
+     * @param response 応答
+     * @param replayed 保持していた応答の再送の場合 True
+     */
+    public record Outcome(MailSendResponseDto response, boolean replayed) {}
+
+    /**
+     * 完了した処理結果
+     * @param requestHash 入力値の SHA-256
+     * @param response    応答
+     * @param expiresAt   有効期限(nanoTime)
+     */
+    private record Completed(String requestHash, MailSendResponseDto response, long expiresAt) {}
+
+    /**
+     * 完了の記録に失敗した処理結果
+     * @param response  応答内容(JSON)
+     * @param expiresAt 有効期限(nanoTime)
+     */
+    private record Uncompleted(String response, long expiresAt) {}
+}
@@ -0,0 +1,102 @@
+package com.example.adminapp.service.mail.index;
+
+import java.util.Arrays;
+
+/**
+ * LongPostingList Class
+ * 昇順・重複なしの ID 一覧(long[] 保持、Boxing なし)
+ * 排他制御は呼出側で行うこと。
+ */
+final class LongPostingList {
+
+    private static final int INITIAL_CAPACITY = 4; // 初期容量
+
+    private long[] ids = new long[INITIAL_CAPACITY]; // ID一覧
+    private int size;                                 // 件数
+
+    /**
+     * 追加処理
+     * ID は採番順に追加されることが多いため、末尾追加を優先する。
+     * @param id ID
+     */
+    void add(long id) {
+        if (size == 0 || ids[size - 1] < id) {
+            ensureCapacity();
+            ids[size++] = id;
+            return;
+        }
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos >= 0) {
+            return;
+        }
+        int insertAt = -(pos + 1);
+        ensureCapacity();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+    }
+
+    /**
+     * 削除処理
+     * @param id ID
+     */
+    void remove(long id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) {
+            return;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        size--;
+    }
+
+    /**
+     * 件数取得処理
+     * @return 件数
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * 配列変換処理
+     * @return ID一覧(昇順)
+     */
+    long[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * 積集合処理
+     * @param sorted ID一覧(昇順)
+     * @return 両方に含まれる ID 一覧(昇順)
+     */
+    long[] retainAll(long[] sorted) {
+        long[] rtn = new long[Math.min(sorted.length, size)];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < sorted.length && j < size) {
+            long a = sorted[i];
+            long b = ids[j];
+            if (a == b) {
+                rtn[n++] = a;
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return n == rtn.length ? rtn : Arrays.copyOf(rtn, n);
+    }
+
+    /**
+     * 容量拡張処理
+     */
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1) + 1);
+        }
+    }
+}
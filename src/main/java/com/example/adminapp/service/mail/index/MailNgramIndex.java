@@ -0,0 +1,362 @@
+package com.example.adminapp.service.mail.index;
+
+import com.example.adminapp.domain.MailLog;
+import com.example.adminapp.mapper.MailSearchMapper;
+import com.example.adminapp.service.mail.dto.MailSendListDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * MailNgramIndex Class
+ * 件名・宛先アドレスの部分一致検索用 trigram 転置索引(プロセス内)
+ *
+ * 索引は大文字小文字を区別せず保持するため、返却する候補 ID は LIKE 検索結果の上位集合となる。
+ * 絞込結果は必ず SQL の LIKE 条件で再評価すること。
+ *
+ * 単一ノード構成専用(既定は無効)。索引の更新は本ノードの登録・更新・削除(add / replace / remove)で行い、
+ * refresh() はアプリケーション外で登録された新しい ID の行を定期的に取り込む補助に過ぎない。
+ * 他ノードでの更新・削除や、採番から大きく遅れてコミットされた行は反映されず、
+ * 候補 ID は id = ANY(...) で使用されるため、該当行が検索結果から漏れる。複数ノード構成では有効にしないこと。
+ */
+@Component
+public class MailNgramIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(MailNgramIndex.class);
+
+    private static final int GRAM_SIZE  = 3;    // n-gram 長
+    private static final int BATCH_SIZE = 1000; // 構築時の一括反映件数
+    private static final long REFRESH_OVERLAP = 1000; // 差分取込時の再読込幅(採番後に遅れてコミットされた行の取込用)
+
+    private final MailSearchMapper    mapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;       // 索引使用有無
+    private final int     maxCandidates; // 候補 ID 上限(超過時は索引を使用しない)
+
+    // trigram → ID一覧
+    private final Map<Long, LongPostingList> toAddressIndex = new HashMap<>();
+    private final Map<Long, LongPostingList> subjectIndex   = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong lastScannedId = new AtomicLong(0); // 読込済み最大 ID
+    private volatile boolean ready;                             // 構築完了有無
+
+    /**
+     * constructor
+     */
+    public MailNgramIndex(
+        MailSearchMapper mapper,
+        TransactionTemplate transactionTemplate,
+        @Value("${mail.search.ngram-index.enabled:false}") boolean enabled,
+        @Value("${mail.search.ngram-index.max-candidates:50000}") int maxCandidates)
+    {
+        this.mapper = mapper;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * 構築処理(起動時)
+     * 起動を妨げないよう別スレッドで mail_log を先頭から読み込む。
+     * 構築完了までは candidates() が null を返し、通常の SQL 検索となる。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        Thread.ofPlatform().daemon().name("mail-ngram-index").start(() -> {
+            try {
+                long start = System.nanoTime();
+                long count = scan(0L);
+                ready = true;
+                log.info("mail n-gram index built: {} rows in {} ms",
+                        count, (System.nanoTime() - start) / 1_000_000);
+            } catch (Exception e) {
+                log.warn("mail n-gram index build failed, keyword search falls back to SQL", e);
+            }
+        });
+    }
+
+    /**
+     * 差分取込処理(定期)
+     * 読込済み最大 ID 付近以降の行を取り込む(追加は冪等のため重複読込は問題ない)。
+     * 新しい ID の行のみが対象で、既存行の更新・削除は取り込まない。
+     */
+    @Scheduled(fixedDelayString = "${mail.search.ngram-index.refresh-ms:60000}")
+    public void refresh() {
+        if (!ready) {
+            return;
+        }
+        try {
+            scan(Math.max(0L, lastScannedId.get() - REFRESH_OVERLAP));
+        } catch (Exception e) {
+            log.warn("mail n-gram index refresh failed", e);
+        }
+    }
+
+    /**
+     * 候補 ID 取得処理
+     * @param toAddress      宛先アドレス(部分一致)
+     * @param subjectKeyword 件名(部分一致)
+     * @return 候補 ID(昇順)、索引を使用できない場合はnull
+     */
+    public long[] candidates(String toAddress, String subjectKeyword) {
+        if (!ready) {
+            return null;
+        }
+        boolean useTo      = indexable(toAddress);
+        boolean useSubject = indexable(subjectKeyword);
+        if (!useTo && !useSubject) {
+            return null;
+        }
+
+        long[] rtn = null;
+        lock.readLock().lock();
+        try {
+            if (useTo) {
+                rtn = lookup(toAddressIndex, toAddress, null);
+            }
+            if (useSubject && (rtn == null || rtn.length > 0)) {
+                rtn = lookup(subjectIndex, subjectKeyword, rtn);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return rtn.length > maxCandidates ? null : rtn;
+    }
+
+    /**
+     * 追加処理
+     * @param mailLog 登録行
+     */
+    public void add(MailLog mailLog) {
+        if (!enabled || mailLog == null || mailLog.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            addRow(mailLog.getId(), mailLog.getToAddress(), mailLog.getSubject());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 置換処理
+     * 削除・追加を1回の書込ロックで行い、検索中に該当行が候補から外れないようにする。
+     * @param before 更新行(変更前の値、無い場合はnull)
+     * @param after  更新行(変更後の値)
+     */
+    public void replace(MailLog before, MailLog after) {
+        if (!enabled || after == null || after.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (before != null && before.getId() != null) {
+                removeRow(before.getId(), before.getToAddress(), before.getSubject());
+            }
+            addRow(after.getId(), after.getToAddress(), after.getSubject());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 削除処理
+     * @param mailLog 削除行(変更前の値)
+     */
+    public void remove(MailLog mailLog) {
+        if (!enabled || mailLog == null || mailLog.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeRow(mailLog.getId(), mailLog.getToAddress(), mailLog.getSubject());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 読込処理
+     * @param afterId 読込開始 ID(この ID より後)
+     * @return 読込件数
+     */
+    private long scan(long afterId) {
+        long[] count = {0};
+        List<MailSendListDto> batch = new ArrayList<>(BATCH_SIZE);
+        // fetchSize を有効にするためトランザクション内でカーソル読込する
+        transactionTemplate.executeWithoutResult(status ->
+            mapper.scanForIndex(afterId, context -> {
+                batch.add(context.getResultObject());
+                if (batch.size() >= BATCH_SIZE) {
+                    count[0] += flush(batch);
+                }
+            }));
+        count[0] += flush(batch);
+        return count[0];
+    }
+
+    /**
+     * 一括反映処理
+     * @param batch 読込行
+     * @return 反映件数
+     */
+    private int flush(List<MailSendListDto> batch) {
+        int rtn = batch.size();
+        if (rtn == 0) {
+            return rtn;
+        }
+        lock.writeLock().lock();
+        try {
+            for (MailSendListDto row : batch) {
+                addRow(row.getId(), row.getToAddress(), row.getSubject());
+                lastScannedId.accumulateAndGet(row.getId(), Math::max);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        batch.clear();
+        return rtn;
+    }
+
+    /**
+     * 行追加処理(書込ロック取得済み)
+     * @param id        ID
+     * @param toAddress 宛先アドレス
+     * @param subject   件名
+     */
+    private void addRow(long id, String toAddress, String subject) {
+        for (long gram : grams(toAddress)) {
+            toAddressIndex.computeIfAbsent(gram, key -> new LongPostingList()).add(id);
+        }
+        for (long gram : grams(subject)) {
+            subjectIndex.computeIfAbsent(gram, key -> new LongPostingList()).add(id);
+        }
+    }
+
+    /**
+     * 行削除処理(書込ロック取得済み)
+     * @param id        ID
+     * @param toAddress 宛先アドレス
+     * @param subject   件名
+     */
+    private void removeRow(long id, String toAddress, String subject) {
+        for (long gram : grams(toAddress)) {
+            removePosting(toAddressIndex, gram, id);
+        }
+        for (long gram : grams(subject)) {
+            removePosting(subjectIndex, gram, id);
+        }
+    }
+
+    /**
+     * ID削除処理(書込ロック取得済み)
+     * @param index 索引
+     * @param gram  trigram
+     * @param id    ID
+     */
+    private void removePosting(Map<Long, LongPostingList> index, long gram, long id) {
+        LongPostingList postings = index.get(gram);
+        if (postings == null) {
+            return;
+        }
+        postings.remove(id);
+        if (postings.size() == 0) {
+            index.remove(gram);
+        }
+    }
+
+    /**
+     * 索引検索処理(読込ロック取得済み)
+     * 件数の少ない ID 一覧から順に積集合を取る。
+     * @param index   索引
+     * @param keyword 検索語
+     * @param current 絞込済み ID(無い場合はnull)
+     * @return 候補 ID(昇順)
+     */
+    private long[] lookup(Map<Long, LongPostingList> index, String keyword, long[] current) {
+        long[] grams = grams(keyword);
+        List<LongPostingList> lists = new ArrayList<>(grams.length);
+        for (long gram : grams) {
+            LongPostingList postings = index.get(gram);
+            if (postings == null) {
+                return new long[0];
+            }
+            lists.add(postings);
+        }
+        lists.sort(Comparator.comparingInt(LongPostingList::size));
+
+        long[] rtn = current != null ? current : lists.get(0).toArray();
+        for (LongPostingList postings : lists) {
+            if (rtn.length == 0) {
+                break;
+            }
+            rtn = postings.retainAll(rtn);
+        }
+        return rtn;
+    }
+
+    /**
+     * 索引使用可否判定処理
+     * LIKE のワイルドカード(%, _)・エスケープ文字を含む場合は文字通りの一致とならないため使用しない。
+     * @param keyword 検索語
+     * @return 使用可否
+     */
+    private boolean indexable(String keyword) {
+        if (keyword == null || keyword.length() < GRAM_SIZE) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = keyword.charAt(i);
+            if (c == '%' || c == '_' || c == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * trigram 分割処理
+     * 3文字(各16bit)を1つの long に詰めて表現する。
+     * @param value 文字列
+     * @return trigram 一覧(重複なし)
+     */
+    private long[] grams(String value) {
+        if (value == null || value.length() < GRAM_SIZE) {
+            return new long[0];
+        }
+        long[] rtn = new long[value.length() - GRAM_SIZE + 1];
+        for (int i = 0; i < rtn.length; i++) {
+            rtn[i] = ((long) Character.toLowerCase(value.charAt(i)) << 32)
+                    | ((long) Character.toLowerCase(value.charAt(i + 1)) << 16)
+                    | Character.toLowerCase(value.charAt(i + 2));
+        }
+        Arrays.sort(rtn);
+        int n = 0;
+        for (int i = 0; i < rtn.length; i++) {
+            if (i == 0 || rtn[i] != rtn[i - 1]) {
+                rtn[n++] = rtn[i];
+            }
+        }
+        return n == rtn.length ? rtn : Arrays.copyOf(rtn, n);
+    }
+}
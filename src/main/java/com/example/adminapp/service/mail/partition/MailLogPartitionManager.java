@@ -0,0 +1,203 @@
+package com.example.adminapp.service.mail.partition;
+
+import com.example.adminapp.mapper.MailLogPartitionMapper;
+import com.example.adminapp.service.mail.MailLogVersion;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * MailLogPartitionManager Class
+ * mail_log 月次パーティションの作成・保存期間管理
+ *
+ * 当月から monthsAhead ヶ月先までのパーティションを事前に作成し、
+ * 保存期間(retentionMonths)を過ぎた月のパーティションは行単位の DELETE を行わず、
+ * パーティション単位で切り離す(DETACH)/削除(DROP)する。
+ * 切離しは DETACH PARTITION ... CONCURRENTLY(PostgreSQL 14 以降)で行い、業務中も親テーブルの読み書きを止めない。
+ * そのためトランザクション外で実行し、中断された切離しは次回の処理で FINALIZE する。
+ * mail_log のパーティション化は db/mail_log_partitioning.sql で行うこと。
+ */
+@Component
+public class MailLogPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(MailLogPartitionManager.class);
+
+    // パーティション名(mail_log_YYYYMM)
+    private static final String PARTITION_PREFIX = "mail_log_";
+    private static final Pattern PARTITION_NAME_PATTERN = Pattern.compile("^mail_log_(\\d{4})(\\d{2})$");
+    private static final DateTimeFormatter PARTITION_SUFFIX_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
+
+    /**
+     * 保存期間超過時の処理
+     */
+    public enum RetentionAction {
+        DETACH, // 切離しのみ(テーブルは残す)
+        DROP    // 切離し後に削除
+    }
+
+    private final MailLogPartitionMapper mapper;
+    private final MailLogVersion         version;
+
+    private final boolean         enabled;         // パーティション管理有無
+    private final int             monthsAhead;     // 事前作成する月数
+    private final int             retentionMonths; // 保存期間(月数、0以下は無期限)
+    private final RetentionAction retentionAction; // 保存期間超過時の処理
+
+    /**
+     * constructor
+     */
+    public MailLogPartitionManager(
+        MailLogPartitionMapper mapper,
+        MailLogVersion         version,
+        @Value("${mail.partition.enabled:false}") boolean enabled,
+        @Value("${mail.partition.months-ahead:2}") int monthsAhead,
+        @Value("${mail.partition.retention-months:0}") int retentionMonths,
+        @Value("${mail.partition.retention-action:DROP}") String retentionAction)
+    {
+        this.mapper = mapper;
+        this.version = version;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.retentionAction = RetentionAction.valueOf(retentionAction.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * 起動時処理
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        maintain();
+    }
+
+    /**
+     * 定期処理(パーティション作成・保存期間管理)
+     */
+    @Scheduled(cron = "${mail.partition.maintenance-cron:0 10 3 * * *}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (!mapper.isPartitioned()) {
+                log.warn("mail_log is not partitioned, run db/mail_log_partitioning.sql first");
+                return;
+            }
+            YearMonth current = YearMonth.now();
+            createPartitions(current);
+            if (retentionMonths > 0) {
+                expirePartitions(current.minusMonths(retentionMonths));
+            }
+        } catch (Exception e) {
+            log.warn("mail_log partition maintenance failed", e);
+        }
+    }
+
+    /**
+     * パーティション作成処理
+     * @param current 当月
+     */
+    private void createPartitions(YearMonth current) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            String name = partitionName(month);
+            try {
+                mapper.createPartition(name, month.atDay(1), month.plusMonths(1).atDay(1));
+            } catch (Exception e) {
+                // 同名のテーブルが別に存在する場合等
+                log.warn("mail_log partition create failed: {}", name, e);
+            }
+        }
+    }
+
+    /**
+     * 保存期間超過パーティションの切離し・削除処理
+     * @param oldestRetained 保存対象の最も古い月(この月より前の月が対象)
+     */
+    private void expirePartitions(YearMonth oldestRetained) {
+        for (String name : mapper.findDetachPendingNames()) {
+            YearMonth month = monthOf(name);
+            if (month == null) {
+                // DDL に埋め込むため、月次パーティション名以外は扱わない
+                log.warn("mail_log partition detach pending, not a monthly partition: {}", name);
+                continue;
+            }
+            try {
+                mapper.finalizeDetach(name);
+                version.bump();
+                log.info("mail_log partition detach finalized: {}", name);
+            } catch (Exception e) {
+                log.warn("mail_log partition finalize failed: {}", name, e);
+                continue;
+            }
+            if (month.isBefore(oldestRetained) && retentionAction == RetentionAction.DROP) {
+                dropQuietly(name);
+            }
+        }
+        for (String name : mapper.findPartitionNames()) {
+            YearMonth month = monthOf(name);
+            if (month == null || !month.isBefore(oldestRetained)) {
+                continue;
+            }
+            try {
+                mapper.detachPartition(name);
+                version.bump();
+                log.info("mail_log partition expired: {} ({})", name, retentionAction);
+            } catch (Exception e) {
+                log.warn("mail_log partition expire failed: {}", name, e);
+                continue;
+            }
+            if (retentionAction == RetentionAction.DROP) {
+                dropQuietly(name);
+            }
+        }
+    }
+
+    /**
+     * 切り離したパーティションの削除処理
+     * @param name パーティション名
+     */
+    private void dropQuietly(String name) {
+        try {
+            mapper.dropPartition(name);
+        } catch (Exception e) {
+            log.warn("mail_log partition drop failed: {}", name, e);
+        }
+    }
+
+    /**
+     * パーティション名生成処理
+     * @param month 年月
+     * @return パーティション名
+     */
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX_FORMATTER);
+    }
+
+    /**
+     * パーティション年月取得処理
+     * @param name パーティション名
+     * @return 年月(月次パーティション以外の場合はnull)
+     */
+    static YearMonth monthOf(String name) {
+        Matcher matcher = PARTITION_NAME_PATTERN.matcher(name);
+        if (!matcher.matches()) {
+            return null;
+        }
+        int month = Integer.parseInt(matcher.group(2));
+        if (month < 1 || month > 12) {
+            return null;
+        }
+        return YearMonth.of(Integer.parseInt(matcher.group(1)), month);
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.adminapp.service.mail.report;
+
+import com.example.adminapp.mapper.MailRollupMapper;
+import com.example.adminapp.service.mail.dto.MailReportDto;
+import com.example.adminapp.service.mail.dto.MailReportRowDto;
+import com.example.adminapp.service.mail.dto.MailRollupCountDto;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * MailReportService Class
+ * 送信件数・エラーレポート(日次 / 月次)
+ *
+ * mail_log は参照せず、MailRollupJob が更新する集計テーブルのみを参照する。
+ * 期間を月毎に分割して並列に取得し、期間毎・ドメイン毎に合算する。
+ */
+@Service
+public class MailReportService {
+
+    /**
+     * 集計単位
+     */
+    public enum Granularity {
+        DAILY,  // 日次(既定の期間: 直近30日)
+        MONTHLY // 月次(既定の期間: 直近12ヶ月)
+    }
+
+    private static final int DEFAULT_DAYS   = 30; // 日次の既定日数
+    private static final int DEFAULT_MONTHS = 12; // 月次の既定月数
+    private static final int MAX_DAYS       = 366;     // 日次の最大日数
+    private static final int MAX_MONTHS     = 10 * 12; // 月次の最大月数
+
+    // 件数の位置
+    private static final int SUCCESS = 0;
+    private static final int FAILED  = 1;
+    private static final int OTHER   = 2;
+
+    private final MailRollupMapper mapper;
+    private final ExecutorService  executor;   // 月毎の取得処理
+    private final int              topDomains; // ドメイン毎の表示数
+
+    /**
+     * constructor
+     */
+    public MailReportService(
+        MailRollupMapper mapper,
+        @Value("${mail.report.parallelism:4}") int parallelism,
+        @Value("${mail.report.top-domains:20}") int topDomains)
+    {
+        this.mapper = mapper;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, parallelism),
+                Thread.ofPlatform().daemon().name("mail-report-", 0).factory());
+        this.topDomains = Math.max(0, topDomains);
+    }
+
+    /**
+     * 停止処理
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * レポート作成処理
+     * @param params 入力値(granularity / from / to、日付は yyyy-MM-dd)
+     * @return レポート
+     */
+    public MailReportDto report(Map<String, String> params) {
+        Granularity granularity = parseGranularity(params.get("granularity"));
+        LocalDate today = LocalDate.now();
+        LocalDate to = parseDate(params.get("to"));
+        if (to == null || to.isAfter(today)) {
+            to = today;
+        }
+        LocalDate from = parseDate(params.get("from"));
+        if (granularity == Granularity.MONTHLY) {
+            to = YearMonth.from(to).atEndOfMonth();
+            LocalDate min = YearMonth.from(to).minusMonths(MAX_MONTHS - 1).atDay(1);
+            from = from == null ? YearMonth.from(to).minusMonths(DEFAULT_MONTHS - 1).atDay(1)
+                                : YearMonth.from(from).atDay(1);
+            from = from.isBefore(min) ? min : from;
+        } else {
+            LocalDate min = to.minusDays(MAX_DAYS - 1);
+            from = from == null ? to.minusDays(DEFAULT_DAYS - 1) : from;
+            from = from.isBefore(min) ? min : from;
+        }
+        if (from.isAfter(to)) {
+            from = to;
+        }
+        return aggregate(granularity, from, to, fetch(granularity, from, to));
+    }
+
+    /**
+     * 集計テーブル取得処理
+     * 期間を月毎に分割し、並列に取得する。
+     * @param granularity 集計単位
+     * @param from        開始日(この日を含む)
+     * @param to          終了日(この日を含む)
+     * @return 月毎の取得結果
+     */
+    private List<List<MailRollupCountDto>> fetch(Granularity granularity, LocalDate from, LocalDate to) {
+        List<CompletableFuture<List<MailRollupCountDto>>> futures = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            LocalDate bucketFrom = month.atDay(1).isBefore(from) ? from : month.atDay(1);
+            LocalDate bucketTo = month.atEndOfMonth().isAfter(to) ? to.plusDays(1) : month.plusMonths(1).atDay(1);
+            futures.add(CompletableFuture.supplyAsync(() -> granularity == Granularity.MONTHLY
+                    ? mapper.findMonthly(bucketFrom, bucketTo)
+                    : mapper.findDaily(bucketFrom, bucketTo), executor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * 合算処理
+     * @param granularity 集計単位
+     * @param from        開始日
+     * @param to          終了日
+     * @param buckets     月毎の取得結果
+     * @return レポート
+     */
+    private MailReportDto aggregate(
+        Granularity                    granularity,
+        LocalDate                      from,
+        LocalDate                      to,
+        List<List<MailRollupCountDto>> buckets)
+    {
+        Map<LocalDate, long[]> periods = new TreeMap<>();
+        Map<String, long[]> domains = new HashMap<>();
+        long[] summary = new long[3];
+        long rollupRows = 0;
+
+        // 件数0の期間も表示する
+        if (granularity == Granularity.MONTHLY) {
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusMonths(1)) {
+                periods.put(day, new long[3]);
+            }
+        } else {
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                periods.put(day, new long[3]);
+            }
+        }
+
+        for (List<MailRollupCountDto> bucket : buckets) {
+            rollupRows += bucket.size();
+            for (MailRollupCountDto row : bucket) {
+                int index = indexOf(row.getStatus());
+                periods.computeIfAbsent(row.getPeriod(), key -> new long[3])[index] += row.getCount();
+                domains.computeIfAbsent(row.getDomain(), key -> new long[3])[index] += row.getCount();
+                summary[index] += row.getCount();
+            }
+        }
+
+        List<MailReportRowDto> rows = new ArrayList<>(periods.size());
+        periods.forEach((period, counts) -> rows.add(toRow(period, null, counts)));
+
+        List<MailReportRowDto> domainRows = domains.entrySet().stream()
+                .map(entry -> toRow(null, entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(MailReportRowDto::getTotal).reversed()
+                        .thenComparing(MailReportRowDto::getDomain))
+                .limit(topDomains)
+                .toList();
+
+        return new MailReportDto(granularity.name(), from, to,
+                toRow(null, null, summary), rows, domainRows, rollupRows);
+    }
+
+    /**
+     * 行生成処理
+     * @param period 期間
+     * @param domain ドメイン
+     * @param counts 件数
+     * @return レポートの1行
+     */
+    private static MailReportRowDto toRow(LocalDate period, String domain, long[] counts) {
+        long total = counts[SUCCESS] + counts[FAILED] + counts[OTHER];
+        long completed = counts[SUCCESS] + counts[FAILED];
+        double failureRate = completed == 0 ? 0 : (double) counts[FAILED] / completed;
+        return new MailReportRowDto(period, domain,
+                counts[SUCCESS], counts[FAILED], counts[OTHER], total, failureRate);
+    }
+
+    /**
+     * 件数位置取得処理
+     * @param status 送信ステータス
+     * @return 件数の位置
+     */
+    private static int indexOf(String status) {
+        if (status == null) {
+            return OTHER;
+        }
+        return switch (status) {
+            case "SUCCESS" -> SUCCESS;
+            case "FAILED"  -> FAILED;
+            default        -> OTHER;
+        };
+    }
+
+    /**
+     * 集計単位変換処理
+     * @param value 入力値
+     * @return 集計単位(未指定・不正な場合は MONTHLY)
+     */
+    private static Granularity parseGranularity(String value) {
+        try {
+            if (value != null && !value.isBlank()) {
+                return Granularity.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            }
+        } catch (IllegalArgumentException e) {
+        }
+        return Granularity.MONTHLY;
+    }
+
+    /**
+     * 日付変換処理
+     * @param value 入力値(yyyy-MM-dd)
+     * @return 日付(未指定・不正な場合はnull)
+     */
+    private static LocalDate parseDate(String value) {
+        try {
+            if (value != null && !value.isBlank()) {
+                return LocalDate.parse(value.trim());
+            }
+        } catch (Exception e) {
+        }
+        return null;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.adminapp.service.mail.report;
+
+import com.example.adminapp.mapper.MailRollupMapper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * MailRollupJob Class
+ * mail_log 集計テーブルの差分更新
+ *
+ * ウォーターマーク(集計済みの最大 ID)より後の行だけを ID 範囲毎に集計し、日次・月次の集計テーブルへ加算する。
+ * 集計の加算とウォーターマークの更新は同一トランザクションで行うため、同じ行を二重に数えることはない。
+ * 集計後に更新された行(配信結果の書戻し・再送・一括操作)は、作成日の日次集計と同じ月の月次集計を作り直して反映する。
+ * 集計テーブルの作成は db/mail_log_rollup.sql で行うこと。
+ */
+@Component
+public class MailRollupJob {
+
+    private static final Logger log = LoggerFactory.getLogger(MailRollupJob.class);
+
+    private final MailRollupMapper    mapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;       // 集計有無
+    private final int     settleMinutes; // 作成・更新後に集計対象とするまでの待ち時間(分)
+    private final int     batchSize;     // 1トランザクションで集計する ID 数
+    private final int     maxBatches;    // 1回の実行で処理するトランザクション数の上限
+
+    /**
+     * constructor
+     */
+    public MailRollupJob(
+        MailRollupMapper    mapper,
+        TransactionTemplate transactionTemplate,
+        @Value("${mail.report.rollup.enabled:false}") boolean enabled,
+        @Value("${mail.report.rollup.settle-minutes:10}") int settleMinutes,
+        @Value("${mail.report.rollup.batch-size:50000}") int batchSize,
+        @Value("${mail.report.rollup.max-batches:100}") int maxBatches)
+    {
+        this.mapper = mapper;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.settleMinutes = Math.max(0, settleMinutes);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatches = Math.max(1, maxBatches);
+    }
+
+    /**
+     * 定期処理(差分集計)
+     */
+    @Scheduled(fixedDelayString = "${mail.report.rollup.interval-ms:60000}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long rolled = 0;
+            for (int i = 0; i < maxBatches; i++) {
+                long count = rollupBatch(LocalDateTime.now().minusMinutes(settleMinutes));
+                if (count == 0) {
+                    break;
+                }
+                rolled += count;
+            }
+            if (rolled > 0) {
+                log.debug("mail_log rollup advanced: {} ids", rolled);
+            }
+            int days = reaggregateChanged(LocalDateTime.now().minusMinutes(settleMinutes));
+            if (days > 0) {
+                log.debug("mail_log rollup re-aggregated: {} days", days);
+            }
+        } catch (Exception e) {
+            log.warn("mail_log rollup failed", e);
+        }
+    }
+
+    /**
+     * 差分集計処理(1トランザクション分)
+     * @param settledBefore 集計対象とする作成日時の上限
+     * @return 進めた ID 数(集計対象がない場合は 0)
+     */
+    long rollupBatch(LocalDateTime settledBefore) {
+        Long advanced = transactionTemplate.execute(status -> {
+            Long lastId = mapper.lockWatermark();
+            if (lastId == null) {
+                log.warn("mail_log rollup watermark not found, run db/mail_log_rollup.sql first");
+                return 0L;
+            }
+            long upperId = mapper.findSettledUpperId(lastId, settledBefore);
+            if (upperId <= lastId) {
+                return 0L;
+            }
+            long toId = Math.min(upperId, lastId + batchSize);
+            mapper.rollupDaily(lastId, toId);
+            mapper.rollupMonthly(lastId, toId);
+            mapper.updateWatermark(toId);
+            return toId - lastId;
+        });
+        return advanced == null ? 0 : advanced;
+    }
+
+    /**
+     * 再集計処理(集計後に更新された行)
+     * 前回の再集計後に更新された集計済みの行について、作成日の日次集計と同じ月の月次集計を作り直す。
+     * @param until 対象とする更新日時の上限
+     * @return 再集計した日数
+     */
+    int reaggregateChanged(LocalDateTime until) {
+        Integer days = transactionTemplate.execute(status -> {
+            Long lastId = mapper.lockWatermark();
+            LocalDateTime since = mapper.lockReaggregatedUntil();
+            if (lastId == null || since == null || !until.isAfter(since)) {
+                return 0;
+            }
+            List<LocalDate> changed = mapper.findChangedDays(lastId, since, until);
+            Set<LocalDate> months = new TreeSet<>();
+            for (LocalDate day : changed) {
+                mapper.deleteDaily(day);
+                mapper.rollupDay(day, lastId);
+                months.add(day.withDayOfMonth(1));
+            }
+            for (LocalDate month : months) {
+                mapper.deleteMonthly(month);
+                mapper.rollupMonthFromDaily(month);
+            }
+            mapper.updateReaggregatedUntil(until);
+            return changed.size();
+        });
+        return days == null ? 0 : days;
+    }
+}
@@ -0,0 +1,327 @@
+package com.example.adminapp.service.mail.stats;
+
+import com.example.adminapp.domain.MailLog;
+import com.example.adminapp.mapper.MailSearchMapper;
+import com.example.adminapp.service.mail.dto.MailStatisticsBucketDto;
+import com.example.adminapp.service.mail.dto.MailStatisticsDto;
+import com.example.adminapp.service.mail.dto.MailStatusCountDto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * MailStatistics Class
+ * メール送信統計(時間別・日別の送信ステータス別件数)
+ *
+ * 起動時に mail_log を集計して読み込み、以降は登録・ステータス変更・削除の都度メモリ上の件数を増減する。
+ * 他ノードの登録・更新や反映漏れによるずれは、定期的(mail.statistics.resync-ms)に集計し直して補正する。
+ * 件数は期間毎のリングバッファに LongAdder で保持し、期間の切替は CAS で行うためロックを使用しない。
+ * 参照時は SQL を実行せずメモリ上の件数のみを返却する。
+ * 集計の基準日時は作成日時(created_at)とする(配信により sent_at が変わっても集計期間は変わらない)。
+ */
+@Component
+public class MailStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(MailStatistics.class);
+
+    private static final int HOUR_SLOTS = 48; // 時間別の保持数
+    private static final int DAY_SLOTS  = 32; // 日別の保持数
+    private static final int HOURLY_VIEW = 24; // 時間別の表示数
+    private static final int DAILY_VIEW  = 30; // 日別の表示数
+
+    // 送信ステータス → 件数の位置
+    private static final int SUCCESS = 0;
+    private static final int FAILED  = 1;
+    private static final int PENDING = 2;
+    private static final int OTHER   = 3;
+
+    private final MailSearchMapper mapper;
+
+    private final AtomicReferenceArray<Bucket> hours = new AtomicReferenceArray<>(HOUR_SLOTS);
+    private final AtomicReferenceArray<Bucket> days  = new AtomicReferenceArray<>(DAY_SLOTS);
+    private volatile boolean loaded; // 初期読込完了
+
+    /**
+     * constructor
+     */
+    public MailStatistics(MailSearchMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * 初期読込処理
+     * 起動を遅らせないよう別スレッドで集計する。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Thread.ofPlatform().daemon().name("mail-statistics-load").start(this::resync);
+    }
+
+    /**
+     * 定期処理(再集計)
+     * mail_log を時間帯・送信ステータス別に集計し、保持範囲の件数を集計結果に合わせる。
+     * 集計前の件数との差分を加算するため、集計中に反映された増減は失われない。
+     */
+    @Scheduled(initialDelayString = "${mail.statistics.resync-ms:3600000}", fixedDelayString = "${mail.statistics.resync-ms:3600000}")
+    public synchronized void resync() {
+        long started = System.nanoTime();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            long lastHour = hourKey(now);
+            long firstHour = lastHour - HOUR_SLOTS + 1;
+            long lastDay = now.toLocalDate().toEpochDay();
+            long firstDay = lastDay - DAY_SLOTS + 1;
+
+            long[][] hourBefore = counts(hours, firstHour, HOUR_SLOTS);
+            long[][] dayBefore = counts(days, firstDay, DAY_SLOTS);
+            List<MailStatusCountDto> rows = mapper.countByHourAndStatus(LocalDate.ofEpochDay(firstDay).atStartOfDay(), now);
+
+            long[][] hourActual = new long[HOUR_SLOTS][OTHER + 1];
+            long[][] dayActual = new long[DAY_SLOTS][OTHER + 1];
+            for (MailStatusCountDto row : rows) {
+                int s = index(row.getStatus());
+                long hour = hourKey(row.getHour());
+                if (hour >= firstHour && hour <= lastHour) {
+                    hourActual[(int) (hour - firstHour)][s] += row.getCount();
+                }
+                long day = row.getHour().toLocalDate().toEpochDay();
+                if (day >= firstDay && day <= lastDay) {
+                    dayActual[(int) (day - firstDay)][s] += row.getCount();
+                }
+            }
+            correct(hours, firstHour, hourBefore, hourActual);
+            correct(days, firstDay, dayBefore, dayActual);
+            loaded = true;
+            log.info("mail statistics synchronized: {} groups in {} ms",
+                    rows.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception e) {
+            log.warn("mail statistics synchronization failed, keeping in-memory counts", e);
+        }
+    }
+
+    /**
+     * 登録反映処理
+     * @param mailLog 登録内容
+     */
+    public void inserted(MailLog mailLog) {
+        add(mailLog.getCreatedAt(), mailLog.getStatus(), 1);
+    }
+
+    /**
+     * 送信ステータス変更反映処理
+     * @param createdAt 作成日時
+     * @param from      変更前の送信ステータス
+     * @param to        変更後の送信ステータス
+     */
+    public void statusChanged(LocalDateTime createdAt, String from, String to) {
+        if (index(from) == index(to)) {
+            return;
+        }
+        add(createdAt, from, -1);
+        add(createdAt, to, 1);
+    }
+
+    /**
+     * 削除反映処理
+     * @param mailLog 削除前の内容
+     */
+    public void deleted(MailLog mailLog) {
+        add(mailLog.getCreatedAt(), mailLog.getStatus(), -1);
+    }
+
+    /**
+     * 統計取得処理
+     * @return 統計(メモリ上の件数)
+     */
+    public MailStatisticsDto snapshot() {
+        LocalDateTime now = LocalDateTime.now();
+        long currentHour = hourKey(now);
+        long currentDay = now.toLocalDate().toEpochDay();
+
+        List<MailStatisticsBucketDto> hourly = new ArrayList<>(HOURLY_VIEW);
+        long[] last24 = new long[OTHER + 1];
+        for (int i = 0; i < HOURLY_VIEW; i++) {
+            long key = currentHour - i;
+            long[] counts = counts(hours, key);
+            for (int s = 0; s < counts.length; s++) {
+                last24[s] += counts[s];
+            }
+            hourly.add(toDto(LocalDateTime.ofEpochSecond(key * 3600, 0, ZoneOffset.UTC), counts));
+        }
+
+        List<MailStatisticsBucketDto> daily = new ArrayList<>(DAILY_VIEW);
+        for (int i = 0; i < DAILY_VIEW; i++) {
+            long key = currentDay - i;
+            daily.add(toDto(LocalDate.ofEpochDay(key).atStartOfDay(), counts(days, key)));
+        }
+
+        return new MailStatisticsDto(now, loaded, daily.get(0),
+                toDto(now.truncatedTo(ChronoUnit.HOURS).minusHours(HOURLY_VIEW - 1), last24),
+                hourly, daily);
+    }
+
+    /**
+     * 件数増減処理
+     * @param createdAt 作成日時
+     * @param status    送信ステータス
+     * @param delta     増減数
+     */
+    private void add(LocalDateTime createdAt, String status, long delta) {
+        LocalDateTime at = createdAt != null ? createdAt : LocalDateTime.now();
+        int s = index(status);
+        Bucket hour = bucket(hours, hourKey(at));
+        if (hour != null) {
+            hour.counts[s].add(delta);
+        }
+        Bucket day = bucket(days, at.toLocalDate().toEpochDay());
+        if (day != null) {
+            day.counts[s].add(delta);
+        }
+    }
+
+    /**
+     * 集計期間取得処理
+     * 位置に古い期間が残っている場合は新しい期間に置き換える。
+     * @param slots 集計期間のリングバッファ
+     * @param key   集計期間
+     * @return 集計期間(保持範囲より古い場合はnull)
+     */
+    private Bucket bucket(AtomicReferenceArray<Bucket> slots, long key) {
+        int slot = (int) Math.floorMod(key, (long) slots.length());
+        while (true) {
+            Bucket current = slots.get(slot);
+            if (current != null && current.key == key) {
+                return current;
+            }
+            if (current != null && current.key > key) {
+                return null;
+            }
+            Bucket fresh = new Bucket(key);
+            if (slots.compareAndSet(slot, current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    /**
+     * 件数取得処理
+     * @param slots 集計期間のリングバッファ
+     * @param key   集計期間
+     * @return 送信ステータス別件数
+     */
+    private long[] counts(AtomicReferenceArray<Bucket> slots, long key) {
+        long[] rtn = new long[OTHER + 1];
+        Bucket bucket = slots.get((int) Math.floorMod(key, (long) slots.length()));
+        if (bucket != null && bucket.key == key) {
+            for (int s = 0; s < rtn.length; s++) {
+                rtn[s] = bucket.counts[s].sum();
+            }
+        }
+        return rtn;
+    }
+
+    /**
+     * 件数取得処理(連続する集計期間)
+     * @param slots 集計期間のリングバッファ
+     * @param first 先頭の集計期間
+     * @param size  集計期間の数
+     * @return 集計期間・送信ステータス別件数
+     */
+    private long[][] counts(AtomicReferenceArray<Bucket> slots, long first, int size) {
+        long[][] rtn = new long[size][];
+        for (int i = 0; i < size; i++) {
+            rtn[i] = counts(slots, first + i);
+        }
+        return rtn;
+    }
+
+    /**
+     * 件数補正処理
+     * @param slots  集計期間のリングバッファ
+     * @param first  先頭の集計期間
+     * @param before 集計前の件数
+     * @param actual 集計結果
+     */
+    private void correct(AtomicReferenceArray<Bucket> slots, long first, long[][] before, long[][] actual) {
+        for (int i = 0; i < actual.length; i++) {
+            for (int s = 0; s < actual[i].length; s++) {
+                long delta = actual[i][s] - before[i][s];
+                if (delta == 0) {
+                    continue;
+                }
+                Bucket bucket = bucket(slots, first + i);
+                if (bucket != null) {
+                    bucket.counts[s].add(delta);
+                }
+            }
+        }
+    }
+
+    /**
+     * 表示用変換処理
+     * @param start  集計期間開始日時
+     * @param counts 送信ステータス別件数
+     * @return 集計期間毎の件数
+     */
+    private MailStatisticsBucketDto toDto(LocalDateTime start, long[] counts) {
+        long completed = counts[SUCCESS] + counts[FAILED];
+        double failureRate = completed == 0 ? 0 : (double) counts[FAILED] / completed;
+        long total = counts[SUCCESS] + counts[FAILED] + counts[PENDING] + counts[OTHER];
+        return new MailStatisticsBucketDto(start, counts[SUCCESS], counts[FAILED], counts[PENDING],
+                counts[OTHER], total, failureRate);
+    }
+
+    /**
+     * 時間帯取得処理
+     * @param at 日時
+     * @return 時間帯(1970-01-01T00:00 からの時間数)
+     */
+    private static long hourKey(LocalDateTime at) {
+        return Math.floorDiv(at.toEpochSecond(ZoneOffset.UTC), 3600);
+    }
+
+    /**
+     * 件数位置取得処理
+     * @param status 送信ステータス
+     * @return 件数の位置
+     */
+    private static int index(String status) {
+        if (status == null) {
+            return OTHER;
+        }
+        return switch (status) {
+            case "SUCCESS" -> SUCCESS;
+            case "FAILED"  -> FAILED;
+            case "PENDING", "SENDING" -> PENDING;
+            default        -> OTHER;
+        };
+    }
+
+    /**
+     * 集計期間毎の件数
+     */
+    private static final class Bucket {
+        private final long key;          // 集計期間
+        private final LongAdder[] counts; // 送信ステータス別件数
+
+        private Bucket(long key) {
+            this.key = key;
+            this.counts = new LongAdder[OTHER + 1];
+            for (int s = 0; s < counts.length; s++) {
+                counts[s] = new LongAdder();
+            }
+        }
+    }
+}
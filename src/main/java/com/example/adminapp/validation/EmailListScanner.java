@@ -0,0 +1,114 @@
+package com.example.adminapp.validation;
+
+/**
+ * EmailListScanner Class
+ * カンマ区切りのメールアドレス一覧の形式チェック(部分文字列を生成しない1パス走査)
+ *
+ * 以下の従来処理と同じ入力を受理・拒否する。
+ *   value.split(",") の各要素を trim() し、空文字または
+ *   ^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\.[A-Za-z]{2,}$ に一致しない要素があればエラー
+ * (split の仕様により末尾の空要素は無視される)
+ */
+final class EmailListScanner {
+
+    private EmailListScanner() {
+    }
+
+    /**
+     * 形式チェック処理
+     * @param value 入力値
+     * @param from  開始位置
+     * @param to    終了位置(この位置を含まない)
+     * @return 全要素が形式どおりの場合 True
+     */
+    static boolean isValid(CharSequence value, int from, int to) {
+        if (from == to) {
+            return false;
+        }
+
+        // 末尾の空要素(連続するカンマ)は split で除かれるため対象外
+        int end = to;
+        while (end > from && value.charAt(end - 1) == ',') {
+            end--;
+        }
+        if (end == from) {
+            return true;
+        }
+
+        // 先頭・途中の空要素(",a@b.jp" / "a@b.jp, ,c@d.jp" 等)は isAddress で拒否される
+        int start = from;
+        while (true) {
+            int comma = start;
+            while (comma < end && value.charAt(comma) != ',') {
+                comma++;
+            }
+            if (!isAddress(value, start, comma)) {
+                return false;
+            }
+            if (comma == end) {
+                return true;
+            }
+            start = comma + 1;
+        }
+    }
+
+    /**
+     * 形式チェック処理(1件)
+     * @param value 入力値
+     * @param from  開始位置
+     * @param to    終了位置(この位置を含まない)
+     * @return 前後の空白を除いた内容が形式どおりの場合 True
+     */
+    private static boolean isAddress(CharSequence value, int from, int to) {
+        // String.trim() と同じ範囲(U+0020 以下)を除外
+        while (from < to && value.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && value.charAt(to - 1) <= ' ') {
+            to--;
+        }
+
+        // ローカル部: [A-Za-z0-9._%+-]+
+        int i = from;
+        while (i < to && isLocalChar(value.charAt(i))) {
+            i++;
+        }
+        if (i == from || i == to || value.charAt(i) != '@') {
+            return false;
+        }
+
+        // ドメイン部: [A-Za-z0-9.-]+\.[A-Za-z]{2,}
+        //   最後の '.' より前が1文字以上、後ろが英字のみ2文字以上であれば一致する
+        int domainStart = ++i;
+        int lastDot = -1;
+        int tldLetters = 0; // 最後の '.' 以降の英字数(英字以外を含む場合は -1)
+        for (; i < to; i++) {
+            char c = value.charAt(i);
+            if (c == '.') {
+                lastDot = i;
+                tldLetters = 0;
+            } else if (isAlpha(c)) {
+                if (tldLetters >= 0) {
+                    tldLetters++;
+                }
+            } else if (isDigit(c) || c == '-') {
+                tldLetters = -1;
+            } else {
+                return false;
+            }
+        }
+        return lastDot > domainStart && tldLetters >= 2;
+    }
+
+    private static boolean isAlpha(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLocalChar(char c) {
+        return isAlpha(c) || isDigit(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+}
@@ -7,19 +7,26 @@ import com.example.adminapp.validation.annotation.Required;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 /**
  * FormValidator Class
+ *
+ * 入力項目 enum のアノテーションは初回のみ読み込み、チェック内容(Plan)として enum 毎に保持する。
  */
 @Component
 public class FormValidator {
 
-    // Email 正規表現
-    private static final Pattern EMAIL_PATTERN =
-            Pattern.compile("^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+    // 入力項目 enum → チェック内容
+    private static final ClassValue<Plan> PLANS = new ClassValue<>() {
+        @Override
+        protected Plan computeValue(Class<?> type) {
+            return compile(type);
+        }
+    };
 
     /**
      * validation処理
@@ -33,128 +40,119 @@ public class FormValidator {
         Map<String, String> params) {
         
         Map<String, String> rtn = new LinkedHashMap<>();
-        E[] fields = fieldEnumClass.getEnumConstants();
-        if (fields == null) {
-            return rtn;
+        for (FieldCheck check : PLANS.get(fieldEnumClass).checks()) {
+            check.validate(params, rtn);
         }
+        return rtn;
+    }
 
-        for (E field : fields) {
-
-            Field enumField  = resolveField(fieldEnumClass, field);
-            String paramName = field.paramName();
-            String value     = normalize(params.get(paramName));
-
-            Required required = enumField.getAnnotation(Required.class);
-            if (required != null) {
-                validateRequired(paramName, value, required.message(), rtn);
-            }
+    /**
+     * チェック内容作成処理
+     * @param type 入力項目 enum
+     * @return チェック内容
+     * @throws IllegalStateException
+     */
+    private static Plan compile(Class<?> type) {
+        Object[] constants = type.getEnumConstants();
+        if (constants == null) {
+            return new Plan(List.of());
+        }
 
+        List<FieldCheck> checks = new ArrayList<>(constants.length);
+        for (Object constant : constants) {
+            Field enumField = resolveField(type, (Enum<?>) constant);
+            Required  required  = enumField.getAnnotation(Required.class);
             MaxLength maxLength = enumField.getAnnotation(MaxLength.class);
-            if (maxLength != null) {
-                validateLength(paramName, value, maxLength.value(), maxLength.message(), rtn);
-            }
-
             EmailList emailList = enumField.getAnnotation(EmailList.class);
-            if (emailList != null) {
-                validateEmails(paramName, value, emailList.message(), rtn);
-            }
-
+            checks.add(new FieldCheck(
+                    ((FormField) constant).paramName(),
+                    required  == null ? null : required.message(),
+                    maxLength == null ? 0    : maxLength.value(),
+                    maxLength == null ? null : maxLength.message(),
+                    emailList == null ? null : emailList.message()));
         }
-
-        return rtn;
+        return new Plan(List.copyOf(checks));
     }
 
     /**
      * Field定数取得処理
-     * @param <E>        enum型
      * @param enumClass  enum Class
      * @param constant   定数
      * @return enum定数
      * @throws IllegalStateException
      */
-    private <E extends Enum<E> & FormField> Field resolveField(
-        Class<E> enumClass, 
-        E constant) {
-        // 例) Class<E> enumClass : com.example.adminapp.validation.mail.MailSendField
-        // 例) E constant         : MailSendField.TO("toAddress")、MailSendField.CC("ccAddress")
+    private static Field resolveField(
+        Class<?> enumClass, 
+        Enum<?> constant) {
+        // 例) Class<?> enumClass : com.example.adminapp.validation.mail.MailSendField
+        // 例) Enum<?> constant   : MailSendField.TO("toAddress")、MailSendField.CC("ccAddress")
         try {
-            return enumClass.getField(((Enum<?>) constant).name());
+            return enumClass.getField(constant.name());
         } catch (NoSuchFieldException ex) {
             throw new IllegalStateException("Enum field not found: " + constant.name(), ex);
         }
     }
 
     /**
-     * Validation処理(必須項目)
-     * @param fieldName 項目名
-     * @param value     入力値
-     * @param message   Error Message
-     * @param errors    Error Message Map(参照値)
+     * チェック内容(入力項目 enum 単位)
+     * @param checks 項目毎のチェック内容(定義順)
      */
-    private void validateRequired(
-        String fieldName, 
-        String value, 
-        String message, 
-        Map<String, String> errors) {
-        if (value.isEmpty() && !errors.containsKey(fieldName)) {
-            errors.put(fieldName, message);
-        }
-    }
+    private record Plan(List<FieldCheck> checks) {}
 
     /**
-     * Validation処理(文字列長)
-     * @param fieldName 項目名
-     * @param value     入力値
-     * @param maxLength Max Length
-     * @param message   Error Message
-     * @param errors    Error Message Map(参照値)
+     * チェック内容(項目単位)
+     * 入力値は前後の空白を除いた範囲を位置で扱い、部分文字列は生成しない。
+     * @param paramName        項目名
+     * @param requiredMessage  必須 Error Message(チェックなしの場合は null)
+     * @param maxLength        Max Length
+     * @param maxLengthMessage 文字列長 Error Message(チェックなしの場合は null)
+     * @param emailMessage     Email Error Message(チェックなしの場合は null)
      */
-    private void validateLength(
-        String fieldName, 
-        String value, 
-        int maxLength, 
-        String message, 
-        Map<String, String> errors) {
-
-        if (!value.isEmpty() && value.length() > maxLength && 
-            !errors.containsKey(fieldName)) {
-            errors.put(fieldName, message);
-        }
-    }
+    private record FieldCheck(
+        String paramName,
+        String requiredMessage,
+        int    maxLength,
+        String maxLengthMessage,
+        String emailMessage) {
+
+        /**
+         * Validation処理
+         * @param params 入力値
+         * @param errors Error Message Map(参照値)
+         */
+        void validate(Map<String, String> params, Map<String, String> errors) {
+            if (errors.containsKey(paramName)) {
+                return;
+            }
+            String raw = params.get(paramName);
 
-    /**
-     * Validation処理(Email)
-     * @param fieldName 項目名
-     * @param value     入力値
-     * @param message   Error Message
-     * @param errors    Error Message Map(参照値)
-     */
-    private void validateEmails(
-        String fieldName, 
-        String value, 
-        String message, 
-        Map<String, String> errors) {
-
-        if (value.isEmpty() || errors.containsKey(fieldName)) {
-            return;
-        }
+            // 正規化処理(String.trim() と同じ範囲)
+            int from = 0;
+            int to = raw == null ? 0 : raw.length();
+            while (from < to && raw.charAt(from) <= ' ') {
+                from++;
+            }
+            while (to > from && raw.charAt(to - 1) <= ' ') {
+                to--;
+            }
+            boolean empty = from == to;
 
-        String[] candidates = value.split(",");
-        for (String candidate : candidates) {
-            String email = candidate.trim();
-            if (email.isEmpty() || !EMAIL_PATTERN.matcher(email).matches()) {
-                errors.put(fieldName, message);
+            // 必須項目
+            if (requiredMessage != null && empty) {
+                errors.put(paramName, requiredMessage);
                 return;
             }
-        }
-    }
 
-    /**
-     * 正規化処理
-     * @param params 入力値
-     * @return 入力値
-     */
-    private String normalize(String value) {
-        return value == null ? "" : value.trim();
+            // 文字列長
+            if (maxLengthMessage != null && !empty && to - from > maxLength) {
+                errors.put(paramName, maxLengthMessage);
+                return;
+            }
+
+            // Email
+            if (emailMessage != null && !empty && !EmailListScanner.isValid(raw, from, to)) {
+                errors.put(paramName, emailMessage);
+            }
+        }
     }
 }
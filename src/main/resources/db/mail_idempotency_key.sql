@@ -0,0 +1,25 @@
+-- =====================================================================
+-- 送信 API(/admin/api/mail/send)の Idempotency-Key 記録
+--
+-- 複数ノードで同じ Idempotency-Key の送信を重複実行しないよう、実行前に行を登録(IN_PROGRESS)し、
+-- 完了後に応答内容を保存(COMPLETED)する。作成後に有効化すること(mail.send.idempotency.db-enabled=true)。
+-- 有効期間(mail.send.idempotency.ttl-seconds)を過ぎた行は MailIdempotencyService が定期的に削除する。
+-- 実行中の行は実行したノードが定期的に updated_at を更新し、更新が途絶えた行のみ他ノードが引き継ぐ。
+-- idempotency_key は「送信元(接続元アドレス) + 空白 + Idempotency-Key」とする(送信元毎に区別する)。
+-- 送信元なしで記録された既存の行は参照されなくなり、有効期間を過ぎて削除される。
+-- =====================================================================
+
+CREATE TABLE IF NOT EXISTS public.mail_idempotency_key (
+    idempotency_key VARCHAR(320) PRIMARY KEY, -- 送信元 + 空白 + Idempotency-Key(255文字以内)
+    request_hash    CHAR(64)     NOT NULL,   -- 入力値の SHA-256
+    status          VARCHAR(20)  NOT NULL,   -- IN_PROGRESS / COMPLETED
+    response        TEXT,                    -- 応答内容(JSON、COMPLETED のみ)
+    created_at      TIMESTAMP    NOT NULL,
+    updated_at      TIMESTAMP    NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_mail_idempotency_key_created_at
+    ON public.mail_idempotency_key (created_at);
+
+-- 送信元付きの Key を格納できるよう拡張する(作成済みの表)
+ALTER TABLE public.mail_idempotency_key ALTER COLUMN idempotency_key TYPE VARCHAR(320);
@@ -0,0 +1,23 @@
+-- =====================================================================
+-- mail_log 配信中の確保(MailDeliveryEngine / MailRetryScheduler)
+--
+-- 送信前に行を配信中(status = 'SENDING')に変更し、確保期限(lease_until)を設定する。
+-- 変更できた(確保した)ノードのみが送信するため、同じ行を二重に送信しない。SMTP 配信を有効化する前に実行すること
+-- (mail.delivery.enabled=true)。
+--
+-- ・配信(MailDeliveryEngine)  : 配信待ち(PENDING)の行を確保する。確保時に読み直した内容を送信する。
+-- ・再送(MailRetryScheduler)  : 期限が到来した配信失敗(FAILED)の行を確保する。
+-- ・確保期限を過ぎても書き戻されない行(ノード停止など)は、MailDeliveryEngine の定期処理で配信失敗に変更する
+--   (送信済みかどうかは不明のため、再送が有効な場合は再送対象とする)。
+-- ・一括操作(取消・失敗に変更・再送)は配信中の行を対象としない。
+-- ・再送の列(db/mail_log_retry.sql)も参照するため、未作成の場合はここで追加する(再送を有効化しない場合も必要)。
+-- ・パーティション化(mail_log_partitioning.sql)の後に実行してもよい(各パーティションに作成される)。
+-- =====================================================================
+
+ALTER TABLE public.mail_log ADD COLUMN IF NOT EXISTS lease_until   TIMESTAMP;
+ALTER TABLE public.mail_log ADD COLUMN IF NOT EXISTS retry_count   INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE public.mail_log ADD COLUMN IF NOT EXISTS next_retry_at TIMESTAMP;
+
+-- 確保期限切れ
+CREATE INDEX IF NOT EXISTS mail_log_sending_lease_idx ON public.mail_log (lease_until)
+    WHERE status = 'SENDING';
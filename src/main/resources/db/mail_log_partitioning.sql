@@ -0,0 +1,143 @@
+-- =====================================================================
+-- mail_log 月次パーティション化(sent_at による範囲パーティション)
+--
+-- 既存の単一テーブル public.mail_log をパーティションテーブルへ移行する。
+-- 移行中は書込を止めること(メンテナンス時間帯に1トランザクションで実行)。
+-- 移行後は mail.partition.enabled=true とし、翌月以降のパーティション作成・
+-- 保存期間を過ぎたパーティションの切離し/削除を MailLogPartitionManager に任せる。
+--
+-- ・主キーにはパーティションキー(sent_at)を含める必要があるため (id, sent_at) とする。
+--   id は引き続き採番順で一意(シーケンス)だが、DB 上の一意制約は (id, sent_at) となる。
+-- ・sent_at は NOT NULL とする(NULL の行は created_at で補完する)。
+-- ・再送・配信確保の列(mail_log_retry.sql / mail_log_delivery_lease.sql)は未作成でも作成して移行する。
+--   それ以外の列が旧テーブルにある場合は、列が失われないよう移行を中止する(列定義を追加してから再実行すること)。
+-- ・旧テーブルの索引は旧テーブルと共に削除されるため、他のスクリプトで作成した索引も新テーブルに作成する。
+-- ・DEFAULT パーティションは作成しない(DETACH PARTITION ... CONCURRENTLY を使用できなくなるため)。
+--   範囲外の sent_at の行は INSERT エラーとなる。当月以降は MailLogPartitionManager が先行作成する。
+-- ・旧テーブルの主キー・索引は名前が重複しないよう *_unpartitioned に改名してから新テーブルを作成する。
+-- =====================================================================
+
+BEGIN;
+
+ALTER TABLE public.mail_log RENAME TO mail_log_unpartitioned;
+
+-- 再送・配信確保の列を揃える(作成済みの場合は何もしない)
+ALTER TABLE public.mail_log_unpartitioned ADD COLUMN IF NOT EXISTS retry_count   INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE public.mail_log_unpartitioned ADD COLUMN IF NOT EXISTS next_retry_at TIMESTAMP;
+ALTER TABLE public.mail_log_unpartitioned ADD COLUMN IF NOT EXISTS lease_until   TIMESTAMP;
+
+-- 移行対象外の列がある場合は中止する(INSERT ... SELECT で列が失われるため)
+DO $$
+DECLARE
+    extra TEXT;
+BEGIN
+    SELECT string_agg(column_name, ', ' ORDER BY ordinal_position)
+      INTO extra
+      FROM information_schema.columns
+     WHERE table_schema = 'public'
+       AND table_name   = 'mail_log_unpartitioned'
+       AND column_name NOT IN (
+            'id', 'to_address', 'cc_address', 'bcc_address', 'subject', 'body', 'is_html', 'status',
+            'error_message', 'sent_at', 'created_at', 'updated_at', 'version',
+            'retry_count', 'next_retry_at', 'lease_until');
+    IF extra IS NOT NULL THEN
+        RAISE EXCEPTION 'mail_log has columns not handled by this migration: %', extra;
+    END IF;
+END
+$$;
+
+-- 旧テーブルの索引(主キー制約の索引を含む)を改名する(mail_log_pkey → mail_log_unpartitioned_pkey 等)
+DO $$
+DECLARE
+    idx RECORD;
+BEGIN
+    FOR idx IN
+        SELECT indexname
+          FROM pg_indexes
+         WHERE schemaname = 'public'
+           AND tablename  = 'mail_log_unpartitioned'
+    LOOP
+        EXECUTE format('ALTER INDEX public.%I RENAME TO %I',
+            idx.indexname, left(regexp_replace(idx.indexname, '^mail_log', 'mail_log_unpartitioned'), 63));
+    END LOOP;
+END
+$$;
+
+CREATE TABLE public.mail_log (
+    id            BIGINT       NOT NULL DEFAULT nextval('public.mail_log_id_seq'),
+    to_address    TEXT         NOT NULL,
+    cc_address    TEXT,
+    bcc_address   TEXT,
+    subject       TEXT,
+    body          TEXT,
+    is_html       BOOLEAN      NOT NULL DEFAULT FALSE,
+    status        VARCHAR(20)  NOT NULL,
+    error_message TEXT,
+    sent_at       TIMESTAMP    NOT NULL,
+    created_at    TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at    TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version       INTEGER      NOT NULL DEFAULT 0,
+    retry_count   INTEGER      NOT NULL DEFAULT 0,   -- mail_log_retry.sql
+    next_retry_at TIMESTAMP,                         -- mail_log_retry.sql
+    lease_until   TIMESTAMP,                         -- mail_log_delivery_lease.sql
+    CONSTRAINT mail_log_pkey PRIMARY KEY (id, sent_at)
+) PARTITION BY RANGE (sent_at);
+
+ALTER SEQUENCE public.mail_log_id_seq OWNED BY public.mail_log.id;
+
+-- 一覧検索(ORDER BY sent_at DESC, id DESC)・Keyset 検索用
+CREATE INDEX mail_log_sent_at_id_idx ON public.mail_log (sent_at DESC, id DESC);
+-- findById / 索引構築(ORDER BY id)用
+CREATE INDEX mail_log_id_idx ON public.mail_log (id);
+CREATE INDEX mail_log_status_idx ON public.mail_log (status, sent_at DESC);
+-- 集計の再集約用(mail_log_rollup.sql)
+CREATE INDEX mail_log_updated_at_idx ON public.mail_log (updated_at);
+CREATE INDEX mail_log_created_at_idx ON public.mail_log (created_at);
+-- 再送対象・確保期限切れ(mail_log_retry.sql / mail_log_delivery_lease.sql)
+CREATE INDEX mail_log_retry_first_idx ON public.mail_log (updated_at)
+    WHERE status = 'FAILED' AND retry_count = 0 AND next_retry_at IS NULL;
+CREATE INDEX mail_log_retry_due_idx ON public.mail_log (next_retry_at)
+    WHERE status = 'FAILED' AND next_retry_at IS NOT NULL;
+CREATE INDEX mail_log_sending_lease_idx ON public.mail_log (lease_until)
+    WHERE status = 'SENDING';
+
+-- 既存データの範囲分の月次パーティションを作成(名前: mail_log_YYYYMM)
+DO $$
+DECLARE
+    first_month DATE;
+    last_month  DATE;
+    m           DATE;
+BEGIN
+    SELECT date_trunc('month', MIN(COALESCE(sent_at, created_at)))::date,
+           date_trunc('month', GREATEST(MAX(COALESCE(sent_at, created_at)), CURRENT_TIMESTAMP))::date
+      INTO first_month, last_month
+      FROM public.mail_log_unpartitioned;
+
+    first_month := COALESCE(first_month, date_trunc('month', CURRENT_DATE)::date);
+    last_month  := COALESCE(last_month, first_month) + INTERVAL '2 months';
+
+    m := first_month;
+    WHILE m <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE public.%I PARTITION OF public.mail_log FOR VALUES FROM (%L) TO (%L)',
+            'mail_log_' || to_char(m, 'YYYYMM'), m, (m + INTERVAL '1 month')::date);
+        m := (m + INTERVAL '1 month')::date;
+    END LOOP;
+END
+$$;
+
+INSERT INTO public.mail_log (
+    id, to_address, cc_address, bcc_address, subject, body, is_html, status,
+    error_message, sent_at, created_at, updated_at, version,
+    retry_count, next_retry_at, lease_until)
+SELECT
+    id, to_address, cc_address, bcc_address, subject, body, is_html, status,
+    error_message, COALESCE(sent_at, created_at), created_at, updated_at, version,
+    retry_count, next_retry_at, lease_until
+FROM public.mail_log_unpartitioned;
+
+DROP TABLE public.mail_log_unpartitioned;
+
+COMMIT;
+
+ANALYZE public.mail_log;
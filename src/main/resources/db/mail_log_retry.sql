@@ -0,0 +1,25 @@
+-- =====================================================================
+-- mail_log 配信失敗の再送(MailRetryScheduler)
+--
+-- 配信失敗(status = 'FAILED')の行を指数バックオフで再送する。作成後に有効化すること(mail.retry.enabled=true)。
+--
+-- ・retry_count   : 再送回数(再送対象として確保した時点で加算する)
+-- ・next_retry_at : 次回再送日時。再送回数が上限に達した行・配信済みの行・失敗に変更した行(一括操作)は NULL とする。
+-- ・初回の失敗は retry_count = 0 かつ next_retry_at = NULL のまま、updated_at を基準に再送する
+--   (配信時の書戻し(MailSendMapper.writeBackDelivery)はこれらの列を更新しない)。
+-- ・確保した行は配信中(status = 'SENDING')とし、確保期限(mail.retry.lease-seconds)を lease_until に設定する
+--   (db/mail_log_delivery_lease.sql)。期限までに結果が書き戻されない場合(ノード停止など)は配信失敗に戻され、再度確保される。
+-- ・複数ノードで同時に実行する場合も FOR UPDATE SKIP LOCKED で確保するため、同じ行を二重に再送しない。
+-- ・パーティション化(mail_log_partitioning.sql)の後に実行してもよい(各パーティションに作成される)。
+-- =====================================================================
+
+ALTER TABLE public.mail_log ADD COLUMN IF NOT EXISTS retry_count   INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE public.mail_log ADD COLUMN IF NOT EXISTS next_retry_at TIMESTAMP;
+
+-- 初回の再送対象(失敗後、未再送)
+CREATE INDEX IF NOT EXISTS mail_log_retry_first_idx ON public.mail_log (updated_at)
+    WHERE status = 'FAILED' AND retry_count = 0 AND next_retry_at IS NULL;
+
+-- 2回目以降の再送対象・確保期限切れ
+CREATE INDEX IF NOT EXISTS mail_log_retry_due_idx ON public.mail_log (next_retry_at)
+    WHERE status = 'FAILED' AND next_retry_at IS NOT NULL;
@@ -0,0 +1,47 @@
+-- =====================================================================
+-- mail_log 集計テーブル(レポート画面用)
+--
+-- MailRollupJob が mail_log の ID 順に、前回処理済み ID(ウォーターマーク)より
+-- 後の行だけを集計して加算する。レポートは集計テーブルのみを参照する。
+--
+-- ・ドメインは宛先(To)の先頭アドレスの @ 以降(小文字)。
+-- ・作成から mail.report.rollup.settle-minutes 分経過した行のみ集計する(未コミットの採番を待つため)。
+-- ・集計後に更新された行(配信結果の書戻し・再送・一括操作)は、updated_at が reaggregated_until より後の行の
+--   作成日を日単位で集計し直し、その月の月次集計を日次集計から作り直す。
+--   削除は再集計の契機にならない(同じ日の行が次に更新された時に反映される)。
+-- ・集計し直す場合は集計テーブルを TRUNCATE し、ウォーターマークを 0 に戻す。
+-- =====================================================================
+
+CREATE TABLE IF NOT EXISTS public.mail_log_daily_rollup (
+    created_day   DATE         NOT NULL,
+    status        VARCHAR(20)  NOT NULL,
+    domain        VARCHAR(255) NOT NULL,
+    mail_count    BIGINT       NOT NULL,
+    PRIMARY KEY (created_day, status, domain)
+);
+
+CREATE TABLE IF NOT EXISTS public.mail_log_monthly_rollup (
+    created_month DATE         NOT NULL,   -- 月初日
+    status        VARCHAR(20)  NOT NULL,
+    domain        VARCHAR(255) NOT NULL,
+    mail_count    BIGINT       NOT NULL,
+    PRIMARY KEY (created_month, status, domain)
+);
+
+CREATE TABLE IF NOT EXISTS public.mail_log_rollup_watermark (
+    name       VARCHAR(50)  PRIMARY KEY,
+    last_id    BIGINT       NOT NULL,
+    updated_at TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 再集計済みの更新日時(この日時以前の更新は集計に反映済み)
+ALTER TABLE public.mail_log_rollup_watermark
+    ADD COLUMN IF NOT EXISTS reaggregated_until TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+-- 集計後に更新された行の検索・日単位の再集計
+CREATE INDEX IF NOT EXISTS mail_log_updated_at_idx ON public.mail_log (updated_at);
+CREATE INDEX IF NOT EXISTS mail_log_created_at_idx ON public.mail_log (created_at);
+
+INSERT INTO public.mail_log_rollup_watermark (name, last_id)
+VALUES ('mail_log', 0)
+ON CONFLICT (name) DO NOTHING;
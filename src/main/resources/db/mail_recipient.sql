@@ -0,0 +1,76 @@
+-- =====================================================================
+-- mail_recipient 宛先・CC・BCC の索引表(1アドレス・1種別につき1行)
+--
+-- mail_log の to_address / cc_address / bcc_address はカンマ区切りのため、アドレス・ドメインでの検索は
+-- LIKE '%...%' の全件走査となる。アドレスを小文字で1行ずつ保持し、索引で該当するメール送信ログ ID を求める。
+-- 有効化後は MailRecipientWriter が mail_log の登録・更新・削除と同じトランザクションで書き込む。
+--
+-- 手順
+--   1. このスクリプトを実行する(表・索引・既存行の取込プロシージャを作成する)。
+--   2. mail.recipient.enabled=true で全ノードを再起動する(以降の登録・更新・削除は都度書き込まれる)。
+--   3. CALL public.mail_recipient_backfill(); で既存行を取り込む。
+--
+-- ・mail_log はパーティション化(mail_log_partitioning.sql)で主キーが (id, sent_at) となるため外部キーは設定しない。
+--   削除は MailRecipientWriter が行う。保存期間を過ぎたパーティションの削除後に残る行は検索結果に影響しない
+--   (末尾の削除文で定期的に整理してよい)。
+-- ・既存行の取込は id の範囲毎にコミットし、何度実行しても同じ結果となる(登録済みの行は ON CONFLICT で無視される)。
+--   中断した場合は、最後に出力された NOTICE の ID を指定して再実行する(例: CALL public.mail_recipient_backfill(1000000);)。
+--   取り込む行は FOR SHARE で読むため、取込中に同じ行が更新・削除されても古い宛先は残らない。
+-- =====================================================================
+
+CREATE TABLE IF NOT EXISTS public.mail_recipient (
+    mail_log_id BIGINT      NOT NULL,   -- mail_log.id
+    role        VARCHAR(3)  NOT NULL,   -- TO / CC / BCC
+    address     TEXT        NOT NULL,   -- アドレス(小文字)
+    domain      TEXT        NOT NULL,   -- ドメイン(@ より後、小文字)
+    PRIMARY KEY (mail_log_id, role, address)
+);
+
+-- アドレス全体・ドメインでの検索用(mail_log_id まで含め、表を参照せずに ID を求める)
+CREATE INDEX IF NOT EXISTS mail_recipient_address_idx ON public.mail_recipient (address, role, mail_log_id);
+CREATE INDEX IF NOT EXISTS mail_recipient_domain_idx  ON public.mail_recipient (domain, role, mail_log_id);
+
+-- 既存行の取込(有効化した後に実行する。from_id より後の ID を batch_size 件ずつ取り込む)
+CREATE OR REPLACE PROCEDURE public.mail_recipient_backfill(from_id BIGINT DEFAULT 0, batch_size INTEGER DEFAULT 10000)
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    max_id  BIGINT;
+    next_id BIGINT := from_id;
+BEGIN
+    -- 有効化後に登録された行は MailRecipientWriter が書き込むため、開始時点の最大 ID までを対象とする
+    SELECT COALESCE(MAX(id), 0) INTO max_id FROM public.mail_log;
+    WHILE next_id < max_id LOOP
+        INSERT INTO public.mail_recipient (mail_log_id, role, address, domain)
+        SELECT DISTINCT r.mail_log_id, r.role, r.address, split_part(r.address, '@', 2)
+        FROM (
+            SELECT m.id AS mail_log_id, a.role, lower(trim(a.address)) AS address
+            FROM (
+                SELECT id, to_address, cc_address, bcc_address
+                FROM public.mail_log
+                WHERE id > next_id
+                  AND id <= next_id + batch_size
+                FOR SHARE
+            ) m
+            CROSS JOIN LATERAL (
+                SELECT 'TO', regexp_split_to_table(m.to_address, ',')
+                UNION ALL
+                SELECT 'CC', regexp_split_to_table(m.cc_address, ',')
+                UNION ALL
+                SELECT 'BCC', regexp_split_to_table(m.bcc_address, ',')
+            ) AS a (role, address)
+        ) r
+        WHERE r.address <> ''
+        ON CONFLICT DO NOTHING;
+
+        next_id := next_id + batch_size;
+        COMMIT;
+        RAISE NOTICE 'mail_recipient backfilled up to id %', LEAST(next_id, max_id);
+    END LOOP;
+    ANALYZE public.mail_recipient;
+END;
+$$;
+
+-- 削除済みのメール送信ログの行の整理(パーティション削除後など、任意)
+-- DELETE FROM public.mail_recipient r
+-- WHERE NOT EXISTS (SELECT 1 FROM public.mail_log m WHERE m.id = r.mail_log_id);
@@ -1,16 +1,83 @@
 "use strict";
 const API_ENDPOINT = '/admin/api/mail/list';
+const BULK_OPERATION_ENDPOINT = '/admin/api/mail/bulk-operation';
 const DEFAULT_PAGE = 1;
 const DEFAULT_PAGE_SIZE = 20;
 const MAX_PAGINATION_DISPLAY = 5;
+const FILTER_DEBOUNCE_MS = 300;
+const PAGE_CACHE_SIZE = 20;
+const PAGE_CACHE_TTL_MS = 30000;
+const FILTER_INPUT_IDS = ['sentAtFrom', 'sentAtTo', 'status', 'toAddress', 'ccAddress', 'bccAddress', 'subject'];
+const BULK_ACTION_LABELS = {
+    RESEND: '一括再送',
+    CANCEL: '一括取消',
+    MARK_FAILED: '失敗に変更',
+};
+const BULK_CONFLICT_LABELS = {
+    NOT_FOUND: '削除済み',
+    VERSION_CONFLICT: '他の操作で更新済み',
+    INVALID_STATUS: '操作できないステータス',
+};
+/**
+ * 取得済みの検索結果をクエリ文字列ごとに保持する LRU キャッシュ。
+ * Map の挿入順を利用し、参照した項目を末尾へ移して、上限を超えた分を先頭から削除する。
+ */
+class MailLogPageCache {
+    constructor(maxEntries, ttlMs) {
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.entries = new Map();
+    }
+    /**
+     * 有効期限内の検索結果を返す。ない場合は null を返す。
+     */
+    get(key) {
+        const entry = this.entries.get(key);
+        if (!entry) {
+            return null;
+        }
+        this.entries.delete(key);
+        if (entry.expiresAt < Date.now()) {
+            return null;
+        }
+        this.entries.set(key, entry);
+        return entry.data;
+    }
+    /**
+     * 検索結果を保持し、上限を超えた場合は最も古く参照された項目を削除する。
+     */
+    set(key, data) {
+        this.entries.delete(key);
+        this.entries.set(key, { data, expiresAt: Date.now() + this.ttlMs });
+        while (this.entries.size > this.maxEntries) {
+            const oldest = this.entries.keys().next().value;
+            this.entries.delete(oldest);
+        }
+    }
+    /**
+     * 保持しているすべての検索結果を破棄する。
+     */
+    clear() {
+        this.entries.clear();
+    }
+}
 class MailLogListPage {
     constructor() {
         this.currentPage = DEFAULT_PAGE;
         this.pageSize = DEFAULT_PAGE_SIZE;
         this.lastCondition = null;
+        this.pageCache = new MailLogPageCache(PAGE_CACHE_SIZE, PAGE_CACHE_TTL_MS);
+        this.searchController = null;
+        this.prefetch = null;
+        this.searchSequence = 0;
+        this.filterTimer = null;
         this.tableBody = null;
         this.paginationContainer = null;
         this.summaryElement = null;
+        this.selectAllCheckbox = null;
+        this.selectionSummaryElement = null;
+        this.applyToFilterCheckbox = null;
+        this.bulkRunning = false;
     }
     /**
      * 画面ロード時に必要な初期化をまとめて行う。
@@ -28,9 +95,12 @@ class MailLogListPage {
         this.tableBody = document.getElementById('mailLogTableBody');
         this.paginationContainer = document.getElementById('mailLogPagination');
         this.summaryElement = document.getElementById('mailLogSummary');
+        this.selectAllCheckbox = document.getElementById('selectAllMailLogs');
+        this.selectionSummaryElement = document.getElementById('mailLogSelectionSummary');
+        this.applyToFilterCheckbox = document.getElementById('bulkApplyToFilter');
     }
     /**
-     * 検索ボタン・クリアボタン・ページネーションのイベントを登録する。
+     * 検索ボタン・クリアボタン・絞込み条件の入力・ページネーション・一括操作のイベントを登録する。
      */
     registerEventHandlers() {
         const searchButton = document.getElementById('btnSearch');
@@ -41,15 +111,150 @@ class MailLogListPage {
         if (clearButton) {
             clearButton.addEventListener('click', () => this.handleClearButton());
         }
+        FILTER_INPUT_IDS.forEach((id) => {
+            const element = document.getElementById(id);
+            if (element) {
+                element.addEventListener('input', () => this.scheduleFilterSearch());
+                element.addEventListener('change', () => this.scheduleFilterSearch());
+            }
+        });
         if (this.paginationContainer) {
             this.paginationContainer.addEventListener('click', (event) => this.handlePaginationClick(event));
         }
+        if (this.selectAllCheckbox) {
+            this.selectAllCheckbox.addEventListener('change', () => this.handleSelectAll());
+        }
+        if (this.tableBody) {
+            this.tableBody.addEventListener('change', () => this.updateSelectionSummary());
+        }
+        if (this.applyToFilterCheckbox) {
+            this.applyToFilterCheckbox.addEventListener('change', () => this.updateSelectionSummary());
+        }
+        document.querySelectorAll('[data-bulk-action]').forEach((button) => {
+            button.addEventListener('click', () => this.handleBulkAction(button.dataset.bulkAction));
+        });
+    }
+    /**
+     * 全選択チェックボックス変更時に、表示中の行の選択状態をそろえる。
+     */
+    handleSelectAll() {
+        const checked = this.selectAllCheckbox ? this.selectAllCheckbox.checked : false;
+        this.getRowCheckboxes().forEach((checkbox) => {
+            checkbox.checked = checked;
+        });
+        this.updateSelectionSummary();
+    }
+    /**
+     * 表示中の行のチェックボックスを取得する。
+     */
+    getRowCheckboxes() {
+        if (!this.tableBody) {
+            return [];
+        }
+        return Array.from(this.tableBody.querySelectorAll('input[type="checkbox"][data-id]'));
+    }
+    /**
+     * 選択件数の表示を更新する。
+     */
+    updateSelectionSummary() {
+        if (!this.selectionSummaryElement) {
+            return;
+        }
+        if (this.applyToFilterCheckbox && this.applyToFilterCheckbox.checked) {
+            this.selectionSummaryElement.textContent = '検索条件に一致するすべてが対象';
+            return;
+        }
+        const selected = this.getRowCheckboxes().filter((checkbox) => checkbox.checked).length;
+        this.selectionSummaryElement.textContent = `${selected} 件選択中`;
+    }
+    /**
+     * 一括操作ボタン押下時の処理。
+     * 選択行(ID・バージョン)または検索条件を対象として一括操作 API を呼び出し、結果を表示して再検索する。
+     */
+    async handleBulkAction(action) {
+        if (this.bulkRunning) {
+            return;
+        }
+        const label = BULK_ACTION_LABELS[action];
+        const request = { action };
+        if (this.applyToFilterCheckbox && this.applyToFilterCheckbox.checked) {
+            request.filter = this.buildFilter();
+            if (!window.confirm(`検索条件に一致するすべてのメールに「${label}」を実行しますか？`)) {
+                return;
+            }
+        }
+        else {
+            request.items = this.getRowCheckboxes()
+                .filter((checkbox) => checkbox.checked)
+                .map((checkbox) => ({ id: Number(checkbox.dataset.id), version: Number(checkbox.dataset.version) }));
+            if (request.items.length === 0) {
+                window.alert('対象のメールを選択してください。');
+                return;
+            }
+            if (!window.confirm(`選択した ${request.items.length} 件に「${label}」を実行しますか？`)) {
+                return;
+            }
+        }
+        this.bulkRunning = true;
+        try {
+            const response = await fetch(BULK_OPERATION_ENDPOINT, {
+                method: 'POST',
+                headers: {
+                    'Accept': 'application/json',
+                    'Content-Type': 'application/json',
+                },
+                body: JSON.stringify(request),
+            });
+            if (!response.ok) {
+                throw new Error(`HTTP error ${response.status}`);
+            }
+            const data = (await response.json());
+            window.alert(this.describeBulkResult(data));
+            this.pageCache.clear();
+            await this.executeSearch(this.currentPage);
+        }
+        catch (error) {
+            console.error('Failed to execute bulk operation', error);
+            window.alert('一括操作中にエラーが発生しました。時間をおいて再度お試しください。');
+        }
+        finally {
+            this.bulkRunning = false;
+        }
+    }
+    /**
+     * 現在の検索条件を一括操作 API の filter 形式に変換する。
+     */
+    buildFilter() {
+        const condition = this.lastCondition !== null ? this.lastCondition : this.collectSearchCondition();
+        const filter = {};
+        Object.keys(condition).forEach((key) => {
+            if (condition[key]) {
+                filter[key] = condition[key];
+            }
+        });
+        return filter;
+    }
+    /**
+     * 一括操作の結果を、更新できなかった理由別の件数を含むメッセージに整形する。
+     */
+    describeBulkResult(data) {
+        const lines = [data.message];
+        const counts = {};
+        (data.conflicts || []).forEach((conflict) => {
+            counts[conflict.reason] = (counts[conflict.reason] || 0) + 1;
+        });
+        Object.keys(counts).forEach((reason) => {
+            lines.push(`・${BULK_CONFLICT_LABELS[reason] || reason}: ${counts[reason]} 件`);
+        });
+        return lines.join('\n');
     }
     /**
      * 検索ボタンクリック時の処理。
-     * 現在のフォーム値を条件として保存し、1ページ目で検索する。
+     * 現在のフォーム値を条件として保存し、保持中の結果を使わずに1ページ目で検索する。
      */
     handleSearchButton() {
+        this.cancelFilterSearch();
+        this.pageCache.clear();
         this.lastCondition = this.collectSearchCondition();
         this.executeSearch(DEFAULT_PAGE);
     }
@@ -58,10 +263,37 @@ class MailLogListPage {
      * フォームをリセットし、初期条件で検索する。
      */
     handleClearButton() {
+        this.cancelFilterSearch();
+        this.pageCache.clear();
         this.resetForm();
         this.lastCondition = this.collectSearchCondition();
         this.executeSearch(DEFAULT_PAGE);
     }
+    /**
+     * 絞込み条件の入力時の処理。
+     * 入力が FILTER_DEBOUNCE_MS の間止まってから、条件が変わっている場合のみ1ページ目で検索する。
+     */
+    scheduleFilterSearch() {
+        this.cancelFilterSearch();
+        this.filterTimer = window.setTimeout(() => {
+            this.filterTimer = null;
+            const condition = this.collectSearchCondition();
+            if (this.lastCondition !== null && JSON.stringify(condition) === JSON.stringify(this.lastCondition)) {
+                return;
+            }
+            this.lastCondition = condition;
+            this.executeSearch(DEFAULT_PAGE);
+        }, FILTER_DEBOUNCE_MS);
+    }
+    /**
+     * 待機中の絞込み検索を取り消す。
+     */
+    cancelFilterSearch() {
+        if (this.filterTimer !== null) {
+            window.clearTimeout(this.filterTimer);
+            this.filterTimer = null;
+        }
+    }
     /**
      * ページネーションのリンク押下時にページ番号を取得して再検索する。
      */
@@ -79,7 +311,7 @@ class MailLogListPage {
         if (Number.isNaN(page) || page < 1 || page === this.currentPage) {
             return;
         }
-        this.executeSearch(page);
+        this.executeSearch(page, anchor.dataset.cursor);
     }
     /**
      * 各フォームから入力値を取得して検索条件オブジェクトを生成する。
@@ -90,6 +322,8 @@ class MailLogListPage {
             sentAtTo: this.getInputValue('sentAtTo'),
             status: this.getSelectValue('status'),
             toAddress: this.getInputValue('toAddress'),
+            ccAddress: this.getInputValue('ccAddress'),
+            bccAddress: this.getInputValue('bccAddress'),
             subject: this.getInputValue('subject'),
         };
     }
@@ -111,7 +345,7 @@ class MailLogListPage {
      * 検索フォームを初期状態に戻す。
      */
     resetForm() {
-        const inputIds = ['sentAtFrom', 'sentAtTo', 'toAddress', 'subject'];
+        const inputIds = ['sentAtFrom', 'sentAtTo', 'toAddress', 'ccAddress', 'bccAddress', 'subject'];
         inputIds.forEach((id) => {
             const element = document.getElementById(id);
             if (element) {
@@ -125,33 +359,112 @@ class MailLogListPage {
     }
     /**
      * 現在の条件と指定ページで検索 API を呼び出し、結果を画面に反映する。
+     * 前後ページへの移動時は Cursor を渡し、OFFSET を使わない Keyset 方式で取得する。
+     * 取得済み・先読み中のページはそれを使い、実行中の前の検索は中断して結果を反映しない。
      */
-    async executeSearch(page) {
+    async executeSearch(page, cursor) {
+        const key = this.buildQueryParams(page, cursor).toString();
+        const sequence = ++this.searchSequence;
+        this.abortSearch();
         try {
-            const params = this.buildQueryParams(page);
-            const response = await fetch(`${API_ENDPOINT}?${params.toString()}`, {
-                headers: {
-                    'Accept': 'application/json',
-                },
-            });
-            if (!response.ok) {
-                throw new Error(`HTTP error ${response.status}`);
+            let data = this.pageCache.get(key);
+            if (data === null) {
+                if (this.prefetch !== null && this.prefetch.key === key) {
+                    data = await this.prefetch.promise;
+                }
+                else {
+                    this.abortPrefetch();
+                    const controller = new AbortController();
+                    this.searchController = controller;
+                    data = await this.fetchPage(key, controller.signal);
+                }
             }
-            const data = (await response.json());
-            this.currentPage = page;
+            if (sequence !== this.searchSequence) {
+                return;
+            }
+            this.searchController = null;
+            this.currentPage = data.page + 1;
             this.renderTable(data.items);
             this.renderPagination(data);
             this.renderSummary(data);
+            this.prefetchNextPage(data);
         }
         catch (error) {
+            if (sequence !== this.searchSequence || this.isAbortError(error)) {
+                return;
+            }
             console.error('Failed to fetch mail logs', error);
             window.alert('検索中にエラーが発生しました。時間をおいて再度お試しください。');
         }
     }
+    /**
+     * 検索 API を呼び出し、取得した結果をキャッシュへ保持する。
+     */
+    async fetchPage(key, signal) {
+        const response = await fetch(`${API_ENDPOINT}?${key}`, {
+            headers: {
+                'Accept': 'application/json',
+            },
+            signal,
+        });
+        if (!response.ok) {
+            throw new Error(`HTTP error ${response.status}`);
+        }
+        const data = (await response.json());
+        this.pageCache.set(key, data);
+        return data;
+    }
+    /**
+     * 次ページがある場合、表示後にバックグラウンドで取得しておく。
+     * 「»」のリンクと同じ Cursor 付きの条件で取得するため、移動時はキャッシュか先読み中の結果を使う。
+     */
+    prefetchNextPage(data) {
+        if (!data.hasNext) {
+            return;
+        }
+        const key = this.buildQueryParams(data.page + 2, data.nextCursor || undefined).toString();
+        if (this.pageCache.get(key) !== null || (this.prefetch !== null && this.prefetch.key === key)) {
+            return;
+        }
+        this.abortPrefetch();
+        const controller = new AbortController();
+        const promise = this.fetchPage(key, controller.signal);
+        const prefetch = { key, controller, promise };
+        this.prefetch = prefetch;
+        promise.catch(() => undefined).then(() => {
+            if (this.prefetch === prefetch) {
+                this.prefetch = null;
+            }
+        });
+    }
+    /**
+     * 実行中の検索を中断する。
+     */
+    abortSearch() {
+        if (this.searchController !== null) {
+            this.searchController.abort();
+            this.searchController = null;
+        }
+    }
+    /**
+     * 実行中の先読みを中断する。
+     */
+    abortPrefetch() {
+        if (this.prefetch !== null) {
+            this.prefetch.controller.abort();
+            this.prefetch = null;
+        }
+    }
+    /**
+     * 中断による例外かどうかを判定する。
+     */
+    isAbortError(error) {
+        return error instanceof DOMException && error.name === 'AbortError';
+    }
     /**
      * フォーム条件とページ情報を組み合わせ、クエリ文字列を生成する。
      */
-    buildQueryParams(page) {
+    buildQueryParams(page, cursor) {
         const params = new URLSearchParams();
         const condition = this.lastCondition !== null ? this.lastCondition : this.collectSearchCondition();
         const append = (key, value) => {
@@ -163,9 +476,14 @@ class MailLogListPage {
         append('sentAtTo', condition.sentAtTo);
         append('status', condition.status);
         append('toAddress', condition.toAddress);
+        append('ccAddress', condition.ccAddress);
+        append('bccAddress', condition.bccAddress);
         append('subject', condition.subject);
         params.append('page', String(page));
         params.append('size', String(this.pageSize));
+        if (cursor) {
+            params.append('cursor', cursor);
+        }
         return params;
     }
     /**
@@ -177,6 +495,10 @@ class MailLogListPage {
             return;
         }
         this.tableBody.innerHTML = '';
+        if (this.selectAllCheckbox) {
+            this.selectAllCheckbox.checked = false;
+        }
+        this.updateSelectionSummary();
         if (!items || items.length === 0) {
             const row = document.createElement('tr');
             const cell = document.createElement('td');
@@ -189,7 +511,7 @@ class MailLogListPage {
         }
         items.forEach((item) => {
             const row = document.createElement('tr');
-            row.appendChild(this.createCheckboxCell());
+            row.appendChild(this.createCheckboxCell(item));
             row.appendChild(this.createTextCell(this.formatDateTime(item.sentAt)));
             row.appendChild(this.createStatusCell(item.status));
             row.appendChild(this.createTextCell(item.toAddress));
@@ -202,12 +524,15 @@ class MailLogListPage {
     }
     /**
      * 行頭のチェックボックスセルを作成する。
+     * 一括操作で使用する ID・バージョンを data 属性に保持する。
      */
-    createCheckboxCell() {
+    createCheckboxCell(item) {
         const cell = document.createElement('td');
         cell.className = 'text-center';
         const checkbox = document.createElement('input');
         checkbox.type = 'checkbox';
+        checkbox.dataset.id = String(item.id);
+        checkbox.dataset.version = String(item.version);
         cell.appendChild(checkbox);
         return cell;
     }
@@ -262,7 +587,7 @@ class MailLogListPage {
             ? data.totalPages
             : Math.max(1, Math.ceil(data.totalSize / data.size));
         const currentPage = data.page + 1;
-        const appendPageItem = (label, page, disabled = false, active = false) => {
+        const appendPageItem = (label, page, disabled = false, active = false, cursor = null) => {
             const li = document.createElement('li');
             li.className = `page-item${disabled ? ' disabled' : ''}${active ? ' active' : ''}`;
             const anchor = document.createElement('a');
@@ -270,12 +595,15 @@ class MailLogListPage {
             anchor.href = '#';
             if (!disabled) {
                 anchor.dataset.page = String(page);
+                if (cursor) {
+                    anchor.dataset.cursor = cursor;
+                }
             }
             anchor.textContent = label;
             li.appendChild(anchor);
             this.paginationContainer.appendChild(li);
         };
-        appendPageItem('«', currentPage - 1, currentPage <= 1);
+        appendPageItem('«', currentPage - 1, currentPage <= 1, false, data.previousCursor);
         const half = Math.floor(MAX_PAGINATION_DISPLAY / 2);
         let start = Math.max(1, currentPage - half);
         let end = start + MAX_PAGINATION_DISPLAY - 1;
@@ -284,9 +612,10 @@ class MailLogListPage {
             start = Math.max(1, end - MAX_PAGINATION_DISPLAY + 1);
         }
         for (let i = start; i <= end; i += 1) {
-            appendPageItem(String(i), i, false, i === currentPage);
+            const cursor = i === currentPage + 1 ? data.nextCursor : i === currentPage - 1 ? data.previousCursor : null;
+            appendPageItem(String(i), i, false, i === currentPage, cursor);
         }
-        appendPageItem('»', currentPage + 1, currentPage >= totalPages);
+        appendPageItem('»', currentPage + 1, !data.hasNext, false, data.nextCursor);
     }
     /**
      * 件数サマリのテキストを更新する。
@@ -305,7 +634,8 @@ class MailLogListPage {
         }
         const start = (pageIndex * size) + 1;
         const end = Math.min(start + itemCount - 1, totalCount);
-        this.summaryElement.textContent = `全 ${totalCount} 件中 ${start}〜${end} 件を表示`;
+        const totalLabel = data.totalSizeExact === false ? `約 ${totalCount}` : `${totalCount}`;
+        this.summaryElement.textContent = `全 ${totalLabel} 件中 ${start}〜${end} 件を表示`;
     }
     /**
      * ステータス値に応じた Bootstrap バッジのクラス名を返す。
@@ -319,6 +649,7 @@ class MailLogListPage {
             case 'ERROR':
                 return 'badge-danger';
             case 'PENDING':
+            case 'SENDING':
             case 'QUEUED':
                 return 'badge-warning';
             default:
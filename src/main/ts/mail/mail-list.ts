@@ -1,7 +1,12 @@
 const API_ENDPOINT = '/admin/api/mail/list';
+const BULK_OPERATION_ENDPOINT = '/admin/api/mail/bulk-operation';
 const DEFAULT_PAGE = 1;
 const DEFAULT_PAGE_SIZE = 20;
 const MAX_PAGINATION_DISPLAY = 5;
+const FILTER_DEBOUNCE_MS = 300;
+const PAGE_CACHE_SIZE = 20;
+const PAGE_CACHE_TTL_MS = 30000;
+const FILTER_INPUT_IDS = ['sentAtFrom', 'sentAtTo', 'status', 'toAddress', 'ccAddress', 'bccAddress', 'subject'];
 
 interface MailLogSummary {
   id: number;
@@ -11,16 +16,20 @@ interface MailLogSummary {
   subject: string;
   isHtml: boolean;
   errorMessage: string | null;
+  version: number;
 }
 
 interface MailLogSearchResponse {
   items: MailLogSummary[];
   totalSize: number;
+  totalSizeExact: boolean;
   page: number;
   size: number;
   totalPages: number;
   hasNext: boolean;
   hasPrevious: boolean;
+  nextCursor: string | null;
+  previousCursor: string | null;
 }
 
 interface MailLogSearchCondition {
@@ -28,17 +37,112 @@ interface MailLogSearchCondition {
   sentAtTo: string;
   status: string;
   toAddress: string;
+  ccAddress: string;
+  bccAddress: string;
   subject: string;
 }
 
+type MailBulkAction = 'RESEND' | 'CANCEL' | 'MARK_FAILED';
+
+interface MailBulkConflict {
+  id: number;
+  reason: string;
+}
+
+interface MailBulkOperationResponse {
+  success: boolean;
+  message: string;
+  updated: number;
+  conflicted: number;
+  truncated: boolean;
+  conflicts?: MailBulkConflict[];
+}
+
+const BULK_ACTION_LABELS: { [action in MailBulkAction]: string } = {
+  RESEND: '一括再送',
+  CANCEL: '一括取消',
+  MARK_FAILED: '失敗に変更',
+};
+
+const BULK_CONFLICT_LABELS: { [reason: string]: string } = {
+  NOT_FOUND: '削除済み',
+  VERSION_CONFLICT: '他の操作で更新済み',
+  INVALID_STATUS: '操作できないステータス',
+};
+
+interface MailLogPageCacheEntry {
+  data: MailLogSearchResponse;
+  expiresAt: number;
+}
+
+interface MailLogPrefetch {
+  key: string;
+  controller: AbortController;
+  promise: Promise<MailLogSearchResponse>;
+}
+
+/**
+ * 取得済みの検索結果をクエリ文字列ごとに保持する LRU キャッシュ。
+ * Map の挿入順を利用し、参照した項目を末尾へ移して、上限を超えた分を先頭から削除する。
+ */
+class MailLogPageCache {
+  private readonly entries = new Map<string, MailLogPageCacheEntry>();
+
+  constructor(private readonly maxEntries: number, private readonly ttlMs: number) {}
+
+  /**
+   * 有効期限内の検索結果を返す。ない場合は null を返す。
+   */
+  get(key: string): MailLogSearchResponse | null {
+    const entry = this.entries.get(key);
+    if (!entry) {
+      return null;
+    }
+    this.entries.delete(key);
+    if (entry.expiresAt < Date.now()) {
+      return null;
+    }
+    this.entries.set(key, entry);
+    return entry.data;
+  }
+
+  /**
+   * 検索結果を保持し、上限を超えた場合は最も古く参照された項目を削除する。
+   */
+  set(key: string, data: MailLogSearchResponse): void {
+    this.entries.delete(key);
+    this.entries.set(key, { data, expiresAt: Date.now() + this.ttlMs });
+    while (this.entries.size > this.maxEntries) {
+      const oldest = this.entries.keys().next().value as string;
+      this.entries.delete(oldest);
+    }
+  }
+
+  /**
+   * 保持しているすべての検索結果を破棄する。
+   */
+  clear(): void {
+    this.entries.clear();
+  }
+}
+
 class MailLogListPage {
   private currentPage = DEFAULT_PAGE;
   private readonly pageSize = DEFAULT_PAGE_SIZE;
   private lastCondition: MailLogSearchCondition | null = null;
+  private readonly pageCache = new MailLogPageCache(PAGE_CACHE_SIZE, PAGE_CACHE_TTL_MS);
+  private searchController: AbortController | null = null;
+  private prefetch: MailLogPrefetch | null = null;
+  private searchSequence = 0;
+  private filterTimer: number | null = null;
 
   private tableBody: HTMLTableSectionElement | null = null;
   private paginationContainer: HTMLElement | null = null;
   private summaryElement: HTMLElement | null = null;
+  private selectAllCheckbox: HTMLInputElement | null = null;
+  private selectionSummaryElement: HTMLElement | null = null;
+  private applyToFilterCheckbox: HTMLInputElement | null = null;
+  private bulkRunning = false;
 
   /**
    * 画面ロード時に必要な初期化をまとめて行う。
@@ -57,10 +161,13 @@ class MailLogListPage {
     this.tableBody = document.getElementById('mailLogTableBody') as HTMLTableSectionElement | null;
     this.paginationContainer = document.getElementById('mailLogPagination');
     this.summaryElement = document.getElementById('mailLogSummary');
+    this.selectAllCheckbox = document.getElementById('selectAllMailLogs') as HTMLInputElement | null;
+    this.selectionSummaryElement = document.getElementById('mailLogSelectionSummary');
+    this.applyToFilterCheckbox = document.getElementById('bulkApplyToFilter') as HTMLInputElement | null;
   }
 
   /**
-   * 検索ボタン・クリアボタン・ページネーションのイベントを登録する。
+   * 検索ボタン・クリアボタン・絞込み条件の入力・ページネーション・一括操作のイベントを登録する。
    */
   private registerEventHandlers(): void {
     const searchButton = document.getElementById('btnSearch');
@@ -72,16 +179,155 @@ class MailLogListPage {
     if (clearButton) {
       clearButton.addEventListener('click', () => this.handleClearButton());
     }
+    FILTER_INPUT_IDS.forEach((id) => {
+      const element = document.getElementById(id);
+      if (element) {
+        element.addEventListener('input', () => this.scheduleFilterSearch());
+        element.addEventListener('change', () => this.scheduleFilterSearch());
+      }
+    });
     if (this.paginationContainer) {
       this.paginationContainer.addEventListener('click', (event) => this.handlePaginationClick(event));
     }
+    if (this.selectAllCheckbox) {
+      this.selectAllCheckbox.addEventListener('change', () => this.handleSelectAll());
+    }
+    if (this.tableBody) {
+      this.tableBody.addEventListener('change', () => this.updateSelectionSummary());
+    }
+    if (this.applyToFilterCheckbox) {
+      this.applyToFilterCheckbox.addEventListener('change', () => this.updateSelectionSummary());
+    }
+    document.querySelectorAll<HTMLButtonElement>('[data-bulk-action]').forEach((button) => {
+      button.addEventListener('click', () => this.handleBulkAction(button.dataset.bulkAction as MailBulkAction));
+    });
+  }
+
+  /**
+   * 全選択チェックボックス変更時に、表示中の行の選択状態をそろえる。
+   */
+  private handleSelectAll(): void {
+    const checked = this.selectAllCheckbox ? this.selectAllCheckbox.checked : false;
+    this.getRowCheckboxes().forEach((checkbox) => {
+      checkbox.checked = checked;
+    });
+    this.updateSelectionSummary();
+  }
+
+  /**
+   * 表示中の行のチェックボックスを取得する。
+   */
+  private getRowCheckboxes(): HTMLInputElement[] {
+    if (!this.tableBody) {
+      return [];
+    }
+    return Array.from(this.tableBody.querySelectorAll<HTMLInputElement>('input[type="checkbox"][data-id]'));
+  }
+
+  /**
+   * 選択件数の表示を更新する。
+   */
+  private updateSelectionSummary(): void {
+    if (!this.selectionSummaryElement) {
+      return;
+    }
+    if (this.applyToFilterCheckbox && this.applyToFilterCheckbox.checked) {
+      this.selectionSummaryElement.textContent = '検索条件に一致するすべてが対象';
+      return;
+    }
+    const selected = this.getRowCheckboxes().filter((checkbox) => checkbox.checked).length;
+    this.selectionSummaryElement.textContent = `${selected} 件選択中`;
+  }
+
+  /**
+   * 一括操作ボタン押下時の処理。
+   * 選択行(ID・バージョン)または検索条件を対象として一括操作 API を呼び出し、結果を表示して再検索する。
+   */
+  private async handleBulkAction(action: MailBulkAction): Promise<void> {
+    if (this.bulkRunning) {
+      return;
+    }
+    const label = BULK_ACTION_LABELS[action];
+    const request: { action: MailBulkAction; items?: { id: number; version: number }[]; filter?: { [key: string]: string } } = { action };
+    if (this.applyToFilterCheckbox && this.applyToFilterCheckbox.checked) {
+      request.filter = this.buildFilter();
+      if (!window.confirm(`検索条件に一致するすべてのメールに「${label}」を実行しますか？`)) {
+        return;
+      }
+    } else {
+      request.items = this.getRowCheckboxes()
+        .filter((checkbox) => checkbox.checked)
+        .map((checkbox) => ({ id: Number(checkbox.dataset.id), version: Number(checkbox.dataset.version) }));
+      if (request.items.length === 0) {
+        window.alert('対象のメールを選択してください。');
+        return;
+      }
+      if (!window.confirm(`選択した ${request.items.length} 件に「${label}」を実行しますか？`)) {
+        return;
+      }
+    }
+
+    this.bulkRunning = true;
+    try {
+      const response = await fetch(BULK_OPERATION_ENDPOINT, {
+        method: 'POST',
+        headers: {
+          'Accept': 'application/json',
+          'Content-Type': 'application/json',
+        },
+        body: JSON.stringify(request),
+      });
+      if (!response.ok) {
+        throw new Error(`HTTP error ${response.status}`);
+      }
+      const data = (await response.json()) as MailBulkOperationResponse;
+      window.alert(this.describeBulkResult(data));
+      this.pageCache.clear();
+      await this.executeSearch(this.currentPage);
+    } catch (error) {
+      console.error('Failed to execute bulk operation', error);
+      window.alert('一括操作中にエラーが発生しました。時間をおいて再度お試しください。');
+    } finally {
+      this.bulkRunning = false;
+    }
+  }
+
+  /**
+   * 現在の検索条件を一括操作 API の filter 形式に変換する。
+   */
+  private buildFilter(): { [key: string]: string } {
+    const condition = this.lastCondition !== null ? this.lastCondition : this.collectSearchCondition();
+    const filter: { [key: string]: string } = {};
+    (Object.keys(condition) as (keyof MailLogSearchCondition)[]).forEach((key) => {
+      if (condition[key]) {
+        filter[key] = condition[key];
+      }
+    });
+    return filter;
+  }
+
+  /**
+   * 一括操作の結果を、更新できなかった理由別の件数を含むメッセージに整形する。
+   */
+  private describeBulkResult(data: MailBulkOperationResponse): string {
+    const lines = [data.message];
+    const counts: { [reason: string]: number } = {};
+    (data.conflicts || []).forEach((conflict) => {
+      counts[conflict.reason] = (counts[conflict.reason] || 0) + 1;
+    });
+    Object.keys(counts).forEach((reason) => {
+      lines.push(`・${BULK_CONFLICT_LABELS[reason] || reason}: ${counts[reason]} 件`);
+    });
+    return lines.join('\n');
   }
 
   /**
    * 検索ボタンクリック時の処理。
-   * 現在のフォーム値を条件として保存し、1ページ目で検索する。
+   * 現在のフォーム値を条件として保存し、保持中の結果を使わずに1ページ目で検索する。
    */
   private handleSearchButton(): void {
+    this.cancelFilterSearch();
+    this.pageCache.clear();
     this.lastCondition = this.collectSearchCondition();
     this.executeSearch(DEFAULT_PAGE);
   }
@@ -91,11 +337,40 @@ class MailLogListPage {
    * フォームをリセットし、初期条件で検索する。
    */
   private handleClearButton(): void {
+    this.cancelFilterSearch();
+    this.pageCache.clear();
     this.resetForm();
     this.lastCondition = this.collectSearchCondition();
     this.executeSearch(DEFAULT_PAGE);
   }
 
+  /**
+   * 絞込み条件の入力時の処理。
+   * 入力が FILTER_DEBOUNCE_MS の間止まってから、条件が変わっている場合のみ1ページ目で検索する。
+   */
+  private scheduleFilterSearch(): void {
+    this.cancelFilterSearch();
+    this.filterTimer = window.setTimeout(() => {
+      this.filterTimer = null;
+      const condition = this.collectSearchCondition();
+      if (this.lastCondition !== null && JSON.stringify(condition) === JSON.stringify(this.lastCondition)) {
+        return;
+      }
+      this.lastCondition = condition;
+      this.executeSearch(DEFAULT_PAGE);
+    }, FILTER_DEBOUNCE_MS);
+  }
+
+  /**
+   * 待機中の絞込み検索を取り消す。
+   */
+  private cancelFilterSearch(): void {
+    if (this.filterTimer !== null) {
+      window.clearTimeout(this.filterTimer);
+      this.filterTimer = null;
+    }
+  }
+
   /**
    * ページネーションのリンク押下時にページ番号を取得して再検索する。
    */
@@ -113,7 +388,7 @@ class MailLogListPage {
     if (Number.isNaN(page) || page < 1 || page === this.currentPage) {
       return;
     }
-    this.executeSearch(page);
+    this.executeSearch(page, anchor.dataset.cursor);
   }
 
   /**
@@ -125,6 +400,8 @@ class MailLogListPage {
       sentAtTo: this.getInputValue('sentAtTo'),
       status: this.getSelectValue('status'),
       toAddress: this.getInputValue('toAddress'),
+      ccAddress: this.getInputValue('ccAddress'),
+      bccAddress: this.getInputValue('bccAddress'),
       subject: this.getInputValue('subject'),
     };
   }
@@ -149,7 +426,7 @@ class MailLogListPage {
    * 検索フォームを初期状態に戻す。
    */
   private resetForm(): void {
-    const inputIds = ['sentAtFrom', 'sentAtTo', 'toAddress', 'subject'];
+    const inputIds = ['sentAtFrom', 'sentAtTo', 'toAddress', 'ccAddress', 'bccAddress', 'subject'];
     inputIds.forEach((id) => {
       const element = document.getElementById(id) as HTMLInputElement | null;
       if (element) {
@@ -164,33 +441,116 @@ class MailLogListPage {
 
   /**
    * 現在の条件と指定ページで検索 API を呼び出し、結果を画面に反映する。
+   * 前後ページへの移動時は Cursor を渡し、OFFSET を使わない Keyset 方式で取得する。
+   * 取得済み・先読み中のページはそれを使い、実行中の前の検索は中断して結果を反映しない。
    */
-  private async executeSearch(page: number): Promise<void> {
+  private async executeSearch(page: number, cursor?: string): Promise<void> {
+    const key = this.buildQueryParams(page, cursor).toString();
+    const sequence = ++this.searchSequence;
+    this.abortSearch();
     try {
-      const params = this.buildQueryParams(page);
-      const response = await fetch(`${API_ENDPOINT}?${params.toString()}`, {
-        headers: {
-          'Accept': 'application/json',
-        },
-      });
-      if (!response.ok) {
-        throw new Error(`HTTP error ${response.status}`);
+      let data = this.pageCache.get(key);
+      if (data === null) {
+        if (this.prefetch !== null && this.prefetch.key === key) {
+          data = await this.prefetch.promise;
+        } else {
+          this.abortPrefetch();
+          const controller = new AbortController();
+          this.searchController = controller;
+          data = await this.fetchPage(key, controller.signal);
+        }
       }
-      const data = (await response.json()) as MailLogSearchResponse;
-      this.currentPage = page;
+      if (sequence !== this.searchSequence) {
+        return;
+      }
+      this.searchController = null;
+      this.currentPage = data.page + 1;
       this.renderTable(data.items);
       this.renderPagination(data);
       this.renderSummary(data);
+      this.prefetchNextPage(data);
     } catch (error) {
+      if (sequence !== this.searchSequence || this.isAbortError(error)) {
+        return;
+      }
       console.error('Failed to fetch mail logs', error);
       window.alert('検索中にエラーが発生しました。時間をおいて再度お試しください。');
     }
   }
 
+  /**
+   * 検索 API を呼び出し、取得した結果をキャッシュへ保持する。
+   */
+  private async fetchPage(key: string, signal: AbortSignal): Promise<MailLogSearchResponse> {
+    const response = await fetch(`${API_ENDPOINT}?${key}`, {
+      headers: {
+        'Accept': 'application/json',
+      },
+      signal,
+    });
+    if (!response.ok) {
+      throw new Error(`HTTP error ${response.status}`);
+    }
+    const data = (await response.json()) as MailLogSearchResponse;
+    this.pageCache.set(key, data);
+    return data;
+  }
+
+  /**
+   * 次ページがある場合、表示後にバックグラウンドで取得しておく。
+   * 「»」のリンクと同じ Cursor 付きの条件で取得するため、移動時はキャッシュか先読み中の結果を使う。
+   */
+  private prefetchNextPage(data: MailLogSearchResponse): void {
+    if (!data.hasNext) {
+      return;
+    }
+    const key = this.buildQueryParams(data.page + 2, data.nextCursor || undefined).toString();
+    if (this.pageCache.get(key) !== null || (this.prefetch !== null && this.prefetch.key === key)) {
+      return;
+    }
+    this.abortPrefetch();
+    const controller = new AbortController();
+    const promise = this.fetchPage(key, controller.signal);
+    const prefetch: MailLogPrefetch = { key, controller, promise };
+    this.prefetch = prefetch;
+    promise.catch(() => undefined).then(() => {
+      if (this.prefetch === prefetch) {
+        this.prefetch = null;
+      }
+    });
+  }
+
+  /**
+   * 実行中の検索を中断する。
+   */
+  private abortSearch(): void {
+    if (this.searchController !== null) {
+      this.searchController.abort();
+      this.searchController = null;
+    }
+  }
+
+  /**
+   * 実行中の先読みを中断する。
+   */
+  private abortPrefetch(): void {
+    if (this.prefetch !== null) {
+      this.prefetch.controller.abort();
+      this.prefetch = null;
+    }
+  }
+
+  /**
+   * 中断による例外かどうかを判定する。
+   */
+  private isAbortError(error: unknown): boolean {
+    return error instanceof DOMException && error.name === 'AbortError';
+  }
+
   /**
    * フォーム条件とページ情報を組み合わせ、クエリ文字列を生成する。
    */
-  private buildQueryParams(page: number): URLSearchParams {
+  private buildQueryParams(page: number, cursor?: string): URLSearchParams {
     const params = new URLSearchParams();
     const condition = this.lastCondition !== null ? this.lastCondition : this.collectSearchCondition();
 
@@ -204,10 +564,15 @@ class MailLogListPage {
     append('sentAtTo', condition.sentAtTo);
     append('status', condition.status);
     append('toAddress', condition.toAddress);
+    append('ccAddress', condition.ccAddress);
+    append('bccAddress', condition.bccAddress);
     append('subject', condition.subject);
 
     params.append('page', String(page));
     params.append('size', String(this.pageSize));
+    if (cursor) {
+      params.append('cursor', cursor);
+    }
 
     return params;
   }
@@ -221,6 +586,10 @@ class MailLogListPage {
       return;
     }
     this.tableBody.innerHTML = '';
+    if (this.selectAllCheckbox) {
+      this.selectAllCheckbox.checked = false;
+    }
+    this.updateSelectionSummary();
 
     if (!items || items.length === 0) {
       const row = document.createElement('tr');
@@ -235,7 +604,7 @@ class MailLogListPage {
 
     items.forEach((item) => {
       const row = document.createElement('tr');
-      row.appendChild(this.createCheckboxCell());
+      row.appendChild(this.createCheckboxCell(item));
       row.appendChild(this.createTextCell(this.formatDateTime(item.sentAt)));
       row.appendChild(this.createStatusCell(item.status));
       row.appendChild(this.createTextCell(item.toAddress));
@@ -249,12 +618,15 @@ class MailLogListPage {
 
   /**
    * 行頭のチェックボックスセルを作成する。
+   * 一括操作で使用する ID・バージョンを data 属性に保持する。
    */
-  private createCheckboxCell(): HTMLTableCellElement {
+  private createCheckboxCell(item: MailLogSummary): HTMLTableCellElement {
     const cell = document.createElement('td');
     cell.className = 'text-center';
     const checkbox = document.createElement('input');
     checkbox.type = 'checkbox';
+    checkbox.dataset.id = String(item.id);
+    checkbox.dataset.version = String(item.version);
     cell.appendChild(checkbox);
     return cell;
   }
@@ -318,7 +690,7 @@ class MailLogListPage {
       : Math.max(1, Math.ceil(data.totalSize / data.size));
     const currentPage = data.page + 1;
 
-    const appendPageItem = (label: string, page: number, disabled = false, active = false) => {
+    const appendPageItem = (label: string, page: number, disabled = false, active = false, cursor: string | null = null) => {
       const li = document.createElement('li');
       li.className = `page-item${disabled ? ' disabled' : ''}${active ? ' active' : ''}`;
       const anchor = document.createElement('a');
@@ -326,13 +698,16 @@ class MailLogListPage {
       anchor.href = '#';
       if (!disabled) {
         anchor.dataset.page = String(page);
+        if (cursor) {
+          anchor.dataset.cursor = cursor;
+        }
       }
       anchor.textContent = label;
       li.appendChild(anchor);
       this.paginationContainer!.appendChild(li);
     };
 
-    appendPageItem('«', currentPage - 1, currentPage <= 1);
+    appendPageItem('«', currentPage - 1, currentPage <= 1, false, data.previousCursor);
 
     const half = Math.floor(MAX_PAGINATION_DISPLAY / 2);
     let start = Math.max(1, currentPage - half);
@@ -343,10 +718,11 @@ class MailLogListPage {
     }
 
     for (let i = start; i <= end; i += 1) {
-      appendPageItem(String(i), i, false, i === currentPage);
+      const cursor = i === currentPage + 1 ? data.nextCursor : i === currentPage - 1 ? data.previousCursor : null;
+      appendPageItem(String(i), i, false, i === currentPage, cursor);
     }
 
-    appendPageItem('»', currentPage + 1, currentPage >= totalPages);
+    appendPageItem('»', currentPage + 1, !data.hasNext, false, data.nextCursor);
   }
 
   /**
@@ -367,7 +743,8 @@ class MailLogListPage {
     }
     const start = (pageIndex * size) + 1;
     const end = Math.min(start + itemCount - 1, totalCount);
-    this.summaryElement.textContent = `全 ${totalCount} 件中 ${start}〜${end} 件を表示`;
+    const totalLabel = data.totalSizeExact === false ? `約 ${totalCount}` : `${totalCount}`;
+    this.summaryElement.textContent = `全 ${totalLabel} 件中 ${start}〜${end} 件を表示`;
   }
 
   /**
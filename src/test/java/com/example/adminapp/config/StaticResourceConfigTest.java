@@ -0,0 +1,40 @@
+package com.example.adminapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StaticResourceConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ResourceUrlProvider resourceUrlProvider;
+
+    @Test
+    void onlyHashedUrlsAreCachedAsImmutable() throws Exception {
+        String hashed = resourceUrlProvider.getForLookupPath("/js/mail/mail-list.js");
+        assertThat(hashed).matches("/js/mail/mail-list-[0-9a-f]{32}\\.js");
+
+        // 同じファイルをハッシュなし・ハッシュ付きの順に要求しても、解決結果のキャッシュで混同しない
+        mockMvc.perform(get("/js/mail/mail-list.js"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"));
+        mockMvc.perform(get(hashed))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=31536000, public, immutable"));
+        mockMvc.perform(get("/js/mail/mail-list.js"))
+                .andExpect(header().string("Cache-Control", "no-cache"));
+    }
+}
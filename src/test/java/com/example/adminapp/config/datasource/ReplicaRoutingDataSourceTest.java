@@ -0,0 +1,156 @@
+package com.example.adminapp.config.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+// primary・レプリカを別々の H2 インスタンスとし、接続先の DB に登録した名前で振分けを確認する
+class ReplicaRoutingDataSourceTest {
+
+    private static DataSource primary;
+    private static DataSource replica1;
+    private static DataSource replica2;
+
+    @BeforeAll
+    static void setUpDatabases() throws SQLException {
+        primary = database("primary");
+        replica1 = database("replica1");
+        replica2 = database("replica2");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRouting.end();
+    }
+
+    @Test
+    void onlyReplicaReadsUseReplicas() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(ReplicaRoutingDataSource.Balance.ROUND_ROBIN, replica1, replica2);
+
+        assertThat(nodeOf(routing)).isEqualTo("primary");
+        assertThat(read(() -> nodeOf(routing))).isEqualTo("replica1");
+        assertThat(read(() -> nodeOf(routing))).isEqualTo("replica2");
+        assertThat(read(() -> nodeOf(routing))).isEqualTo("replica1");
+        assertThat(read(() -> ReplicaRouting.primary(() -> nodeOf(routing)))).isEqualTo("primary");
+    }
+
+    @Test
+    void readsAfterWriteInSameRequestUsePrimary() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(ReplicaRoutingDataSource.Balance.ROUND_ROBIN, replica1);
+        int[] notified = new int[1];
+        ReplicaRouting.begin(false, () -> notified[0]++);
+
+        assertThat(read(() -> nodeOf(routing))).isEqualTo("replica1");
+        ReplicaRouting.written();
+        ReplicaRouting.written();
+        assertThat(read(() -> nodeOf(routing))).isEqualTo("primary");
+        assertThat(notified[0]).isEqualTo(1);
+
+        ReplicaRouting.end();
+        ReplicaRouting.begin(true, null);
+        assertThat(read(() -> nodeOf(routing))).isEqualTo("primary");
+    }
+
+    @Test
+    void scopeIsPassedExplicitlyAndBackgroundWritesAreNotStamped() throws Exception {
+        ReplicaRoutingDataSource routing = routing(ReplicaRoutingDataSource.Balance.ROUND_ROBIN, replica1);
+        ReplicaRouting.configure(60_000);
+        try {
+            ReplicaRouting.written();
+            assertThat(ReplicaRouting.mayBeStale()).isFalse();
+
+            ReplicaRouting.begin(false, null);
+            Callable<String> inherited = ReplicaRouting.inheritScope(() -> read(() -> nodeOf(routing)));
+            ReplicaRouting.written();
+            assertThat(ReplicaRouting.mayBeStale()).isTrue();
+
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                assertThat(executor.submit(inherited).get()).isEqualTo("primary");
+                assertThat(executor.submit(() -> read(() -> nodeOf(routing))).get()).isEqualTo("replica1");
+            } finally {
+                executor.shutdownNow();
+            }
+        } finally {
+            ReplicaRouting.configure(0);
+        }
+    }
+
+    @Test
+    void leastConnectionsPrefersIdleReplica() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(ReplicaRoutingDataSource.Balance.LEAST_CONNECTIONS, replica1, replica2);
+        Boolean previous = ReplicaRouting.beginRead();
+        try (Connection held1 = routing.getConnection(); Connection held2 = routing.getConnection()) {
+            assertThat(held1.getCatalog()).isNotEqualTo(held2.getCatalog());
+            try (Connection held3 = routing.getConnection()) {
+                int busy = held3.getCatalog().equalsIgnoreCase("replica1") ? 0 : 1;
+                assertThat(routing.activeConnections(busy)).isEqualTo(2);
+                try (Connection next = routing.getConnection()) {
+                    assertThat(next.getCatalog()).isNotEqualToIgnoringCase(held3.getCatalog());
+                }
+            }
+        } finally {
+            ReplicaRouting.endRead(previous);
+        }
+        assertThat(routing.activeConnections(0)).isZero();
+        assertThat(routing.activeConnections(1)).isZero();
+    }
+
+    @Test
+    void unavailableReplicaFallsBackToOtherReplicaOrPrimary() throws SQLException {
+        DataSource broken = new DriverManagerDataSource("jdbc:h2:mem:broken;IFEXISTS=TRUE", "sa", "");
+        ReplicaRoutingDataSource routing = routing(ReplicaRoutingDataSource.Balance.ROUND_ROBIN, broken, replica2);
+        assertThat(read(() -> nodeOf(routing))).isEqualTo("replica2");
+        assertThat(read(() -> nodeOf(routing))).isEqualTo("replica2");
+
+        ReplicaRoutingDataSource onlyBroken = routing(ReplicaRoutingDataSource.Balance.ROUND_ROBIN, broken);
+        assertThat(read(() -> nodeOf(onlyBroken))).isEqualTo("primary");
+    }
+
+    private static ReplicaRoutingDataSource routing(ReplicaRoutingDataSource.Balance balance, DataSource... replicas) {
+        return new ReplicaRoutingDataSource(primary, List.of(replicas), balance, 60_000);
+    }
+
+    private static DataSource database(String name) throws SQLException {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+            statement.execute("DELETE FROM node");
+            statement.execute("INSERT INTO node VALUES ('" + name + "')");
+        }
+        return dataSource;
+    }
+
+    private static String nodeOf(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT name FROM node")) {
+            rs.next();
+            return rs.getString(1);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String read(Supplier<String> action) {
+        Boolean previous = ReplicaRouting.beginRead();
+        try {
+            return action.get();
+        } finally {
+            ReplicaRouting.endRead(previous);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.adminapp.mapper.typehandler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class MailBodyCodecTest {
+
+    private static final String HTML = """
+            <table role="presentation" width="100%" cellpadding="0" cellspacing="0" border="0" style="border-collapse:collapse;">
+            <tr><td align="center" valign="top" style="padding:20px 30px;font-family:'Hiragino Kaku Gothic ProN',Meiryo,sans-serif;font-size:14px;line-height:1.7;color:#333333;">
+            <p style="margin:0 0 16px 0;font-size:14px;line-height:1.7;color:#333333;">山田 太郎 様</p>
+            <p style="margin:0 0 16px 0;font-size:14px;line-height:1.7;color:#333333;">いつもご利用いただき、誠にありがとうございます。</p>
+            </td></tr></table>
+            """;
+
+    @Test
+    void compressesLongBodiesAndRoundTrips() {
+        String stored = MailBodyCodec.encode(HTML);
+        assertThat(MailBodyCodec.isCompressed(stored)).isTrue();
+        assertThat(stored.length()).isLessThan(HTML.length() / 2);
+        assertThat(MailBodyCodec.decode(stored)).isEqualTo(HTML);
+    }
+
+    @Test
+    void keepsShortAndIncompressibleBodiesAsIs() {
+        assertThat(MailBodyCodec.encode("本文")).isEqualTo("本文");
+        assertThat(MailBodyCodec.encode(null)).isNull();
+
+        Random random = new Random(1);
+        StringBuilder noise = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            noise.append((char) ('!' + random.nextInt(90)));
+        }
+        assertThat(MailBodyCodec.encode(noise.toString())).isEqualTo(noise.toString());
+    }
+
+    @Test
+    void readsLegacyRowsAndEscapesPrefixedBodies() {
+        assertThat(MailBodyCodec.decode("未圧縮の本文")).isEqualTo("未圧縮の本文");
+
+        String prefixed = MailBodyCodec.PREFIX + "x";
+        String stored = MailBodyCodec.encode(prefixed);
+        assertThat(stored).isNotEqualTo(prefixed);
+        assertThat(MailBodyCodec.decode(stored)).isEqualTo(prefixed);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.adminapp.mapper.typehandler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.adminapp.domain.MailBody;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.Test;
+
+class MailBodyTypeHandlerTest {
+
+    private static final String TEXT = "<p style=\"margin:0 0 16px 0;font-size:14px;line-height:1.7;color:#333333;\">本文</p>\n".repeat(10);
+
+    private final MailBodyTypeHandler handler = new MailBodyTypeHandler();
+
+    @Test
+    void readKeepsStoredValueAndDecodesOnFirstAccess() throws Exception {
+        String stored = MailBodyCodec.encode(TEXT);
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString("body")).thenReturn(stored);
+
+        MailBody body = handler.getNullableResult(rs, "body");
+
+        assertThat(body.stored()).isSameAs(stored);
+        assertThat(body.text()).isEqualTo(TEXT);
+        assertThat(handler.getNullableResult(mock(ResultSet.class), "body")).isNull();
+    }
+
+    @Test
+    void decoderIsCalledOnlyOnce() {
+        AtomicInteger decoded = new AtomicInteger();
+        MailBody body = MailBody.stored("保存値", stored -> {
+            decoded.incrementAndGet();
+            return "本文";
+        });
+        assertThat(decoded.get()).isZero();
+
+        assertThat(body.text()).isEqualTo("本文");
+        assertThat(body.text()).isEqualTo("本文");
+        assertThat(decoded.get()).isEqualTo(1);
+    }
+
+    @Test
+    void writeCompressesNewTextAndWritesBackUnchangedStoredValue() throws Exception {
+        PreparedStatement ps = mock(PreparedStatement.class);
+
+        handler.setNonNullParameter(ps, 1, MailBody.of(TEXT), JdbcType.VARCHAR);
+        verify(ps).setString(1, MailBodyCodec.encode(TEXT));
+
+        // 読込時の保存値(旧形式の未圧縮の値を含む)は再圧縮せずにそのまま書き戻す
+        String legacy = TEXT;
+        handler.setNonNullParameter(ps, 2, MailBody.stored(legacy, MailBodyCodec::decode), JdbcType.VARCHAR);
+        verify(ps).setString(2, legacy);
+    }
+}
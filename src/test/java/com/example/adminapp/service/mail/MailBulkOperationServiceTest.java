@@ -0,0 +1,179 @@
+package com.example.adminapp.service.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.adminapp.mapper.MailSearchMapper;
+import com.example.adminapp.mapper.MailSendMapper;
+import com.example.adminapp.service.mail.delivery.MailDeliveryEngine;
+import com.example.adminapp.service.mail.dto.MailBulkConflictDto;
+import com.example.adminapp.service.mail.dto.MailBulkOperationRequestDto;
+import com.example.adminapp.service.mail.dto.MailBulkOperationResponseDto;
+import com.example.adminapp.service.mail.dto.MailBulkTargetDto;
+import com.example.adminapp.service.mail.dto.MailSearchConditionDto;
+import com.example.adminapp.service.mail.dto.MailStatusChangeDto;
+import com.example.adminapp.service.mail.index.MailNgramIndex;
+import com.example.adminapp.service.mail.stats.MailStatistics;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MailBulkOperationServiceTest {
+
+    private MailSendMapper sendMapper;
+    private MailSearchMapper searchMapper;
+    private MailSearchService search;
+    private MailDeliveryEngine engine;
+    private MailLogVersion version;
+
+    @BeforeEach
+    void setUp() {
+        sendMapper = mock(MailSendMapper.class);
+        searchMapper = mock(MailSearchMapper.class);
+        search = mock(MailSearchService.class);
+        engine = mock(MailDeliveryEngine.class);
+        version = new MailLogVersion();
+        when(search.buildCondition(any())).thenReturn(new MailSearchConditionDto());
+    }
+
+    @Test
+    void itemsAreUpdatedInChunksAndRejectedRowsAreClassified() {
+        // ID 3 は削除済み、ID 4 は操作できないステータス、ID 5 は一覧取得後に更新された
+        Set<Long> accepted = Set.of(1L, 2L, 6L, 7L);
+        when(sendMapper.updateStatusAll(any(), any(), anyList(), any(), any(), anyBoolean(), any(), anyBoolean(), anyBoolean(), any()))
+                .thenAnswer(invocation -> changes(invocation.getArgument(0), accepted));
+        when(sendMapper.findStatesByIds(any())).thenReturn(List.of(
+                new MailBulkTargetDto(4L, 2, MailDeliveryEngine.STATUS_SUCCESS),
+                new MailBulkTargetDto(5L, 3, MailDeliveryEngine.STATUS_FAILED)));
+
+        MailBulkOperationResponseDto result = service(3, 100).execute(items("CANCEL", 1, 2, 3, 4, 5, 6, 7, 1));
+
+        verify(sendMapper, times(3)).updateStatusAll(any(), any(), anyList(),
+                eq(MailDeliveryEngine.STATUS_CANCELED), any(), anyBoolean(), any(), anyBoolean(), anyBoolean(), any());
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getRequested()).isEqualTo(7);
+        assertThat(result.getUpdated()).isEqualTo(4);
+        assertThat(result.getConflicted()).isEqualTo(3);
+        assertThat(result.getConflicts().stream()
+                .collect(Collectors.toMap(MailBulkConflictDto::getId, MailBulkConflictDto::getReason)))
+                .isEqualTo(Map.of(
+                        3L, MailBulkOperationService.NOT_FOUND,
+                        4L, MailBulkOperationService.INVALID_STATUS,
+                        5L, MailBulkOperationService.VERSION_CONFLICT));
+        assertThat(version.current()).isPositive();
+    }
+
+    @Test
+    void resendSubmitsUpdatedRowsWhenDeliveryIsEnabled() {
+        when(engine.isEnabled()).thenReturn(true);
+        when(sendMapper.updateStatusAll(any(), any(), anyList(), any(), any(), anyBoolean(), any(), anyBoolean(), anyBoolean(), any()))
+                .thenAnswer(invocation -> changes(invocation.getArgument(0), Set.of(1L, 2L)));
+
+        MailBulkOperationResponseDto result = service(10, 100).execute(items("RESEND", 1, 2));
+
+        assertThat(result.isSuccess()).isTrue();
+        verify(sendMapper).updateStatusAll(any(), any(), eq(MailBulkAction.RESEND.fromStatuses()),
+                eq(MailDeliveryEngine.STATUS_PENDING), eq(null), eq(true), any(), eq(true), eq(false), any());
+        verify(sendMapper).findByIds(new long[] {1L, 2L});
+    }
+
+    @Test
+    void markFailedStopsRetryAndLeavesClaimedRowsAlone() {
+        when(engine.isEnabled()).thenReturn(true);
+        when(sendMapper.updateStatusAll(any(), any(), anyList(), any(), any(), anyBoolean(), any(), anyBoolean(), anyBoolean(), any()))
+                .thenAnswer(invocation -> changes(invocation.getArgument(0), Set.of(1L)));
+        // ID 2 は配信中(確保済み)
+        when(sendMapper.findStatesByIds(any())).thenReturn(List.of(
+                new MailBulkTargetDto(2L, 2, MailDeliveryEngine.STATUS_SENDING)));
+
+        MailBulkOperationResponseDto result = service(10, 100).execute(items("MARK_FAILED", 1, 2));
+
+        verify(sendMapper).updateStatusAll(any(), any(), eq(List.of(MailDeliveryEngine.STATUS_PENDING)),
+                eq(MailDeliveryEngine.STATUS_FAILED), any(), eq(false), eq(null), eq(false), eq(true), any());
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.getConflicts()).singleElement().satisfies(conflict -> {
+            assertThat(conflict.getId()).isEqualTo(2L);
+            assertThat(conflict.getReason()).isEqualTo(MailBulkOperationService.INVALID_STATUS);
+        });
+    }
+
+    @Test
+    void noActionTargetsRowsBeingSent() {
+        for (MailBulkAction action : MailBulkAction.values()) {
+            assertThat(action.fromStatuses()).doesNotContain(MailDeliveryEngine.STATUS_SENDING);
+        }
+    }
+
+    @Test
+    void filterIsProcessedByKeysetChunksUpToMaxRows() {
+        when(searchMapper.findBulkTargets(any(), anyList(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(2);
+            int limit = invocation.getArgument(3);
+            List<MailBulkTargetDto> rows = new ArrayList<>();
+            LongStream.rangeClosed(afterId + 1, Math.min(afterId + limit, 12))
+                    .forEach(id -> rows.add(new MailBulkTargetDto(id, 0, MailDeliveryEngine.STATUS_PENDING)));
+            return rows;
+        });
+        when(sendMapper.updateStatusAll(any(), any(), anyList(), any(), any(), anyBoolean(), any(), anyBoolean(), anyBoolean(), any()))
+                .thenAnswer(invocation -> changes(invocation.getArgument(0), null));
+
+        MailBulkOperationRequestDto request = new MailBulkOperationRequestDto("MARK_FAILED", null, Map.of("status", "PENDING"));
+        MailBulkOperationResponseDto result = service(4, 10).execute(request);
+
+        assertThat(result.getUpdated()).isEqualTo(10);
+        assertThat(result.isTruncated()).isTrue();
+        verify(searchMapper).findBulkTargets(any(), anyList(), eq(8L), eq(2));
+        verify(searchMapper).findBulkTargets(any(), anyList(), eq(10L), eq(1));
+    }
+
+    @Test
+    void invalidRequestsAreRejectedWithoutUpdating() {
+        MailBulkOperationService service = service(10, 2);
+
+        assertThat(service.execute(items("DELETE", 1)).getGlobalErrors()).isNotEmpty();
+        assertThat(service.execute(items("CANCEL")).getGlobalErrors()).isNotEmpty();
+        assertThat(service.execute(items("CANCEL", 1, 2, 3)).getGlobalErrors()).isNotEmpty();
+        assertThat(service.execute(new MailBulkOperationRequestDto("CANCEL", null, null)).getGlobalErrors()).isNotEmpty();
+        verify(sendMapper, never()).updateStatusAll(any(), any(), anyList(), any(), any(), anyBoolean(), any(), anyBoolean(), anyBoolean(), any());
+    }
+
+    private MailBulkOperationService service(int chunkSize, int maxRows) {
+        return new MailBulkOperationService(sendMapper, searchMapper, search, mock(MailNgramIndex.class), engine,
+                new MailStatistics(mock(MailSearchMapper.class)), version, chunkSize, maxRows);
+    }
+
+    private static MailBulkOperationRequestDto items(String action, long... ids) {
+        List<MailBulkTargetDto> items = new ArrayList<>();
+        for (long id : ids) {
+            items.add(new MailBulkTargetDto(id, 1, null));
+        }
+        return new MailBulkOperationRequestDto(action, items, null);
+    }
+
+    private static List<MailStatusChangeDto> changes(long[] ids, Set<Long> accepted) {
+        List<MailStatusChangeDto> rows = new ArrayList<>();
+        for (long id : ids) {
+            if (accepted == null || accepted.contains(id)) {
+                rows.add(new MailStatusChangeDto(id, MailDeliveryEngine.STATUS_PENDING, LocalDateTime.now(), 2));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.adminapp.service.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.adminapp.mapper.MailSearchMapper;
+import com.example.adminapp.service.mail.dto.MailSearchConditionDto;
+import com.example.adminapp.service.mail.dto.MailSendListDto;
+import com.example.adminapp.service.mail.index.MailNgramIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class MailExportServiceTest {
+
+    // Spring Boot の既定と同じく日時を ISO 形式で出力する
+    private static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private MailSearchService search;
+    private MailSearchMapper mapper;
+    private MailNgramIndex ngramIndex;
+    private MailExportService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        search = mock(MailSearchService.class);
+        mapper = mock(MailSearchMapper.class);
+        ngramIndex = mock(MailNgramIndex.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(search.buildCondition(anyMap())).thenReturn(new MailSearchConditionDto());
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any(Consumer.class));
+        service = new MailExportService(search, mapper, ngramIndex, transactionTemplate, OBJECT_MAPPER);
+    }
+
+    @Test
+    void csvWritesHeaderAndQuotesOnlyWhenNeeded() throws Exception {
+        MailSendListDto row = row(1L, "a@example.com", "Hello, \"world\"\nbye");
+        row.setCcAddress("c@example.com");
+        row.setErrorMessage(null);
+        rows(row);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = service.export(Map.of(), MailExportFormat.CSV, out);
+
+        assertThat(count).isEqualTo(1);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,to_address,cc_address,bcc_address,subject,status,is_html,error_message,sent_at,created_at\r\n"
+                + "1,a@example.com,c@example.com,,\"Hello, \"\"world\"\"\nbye\",SENT,false,,"
+                + "2026-01-02 03:04:05,2026-01-02 03:00:00\r\n");
+    }
+
+    @Test
+    void csvPrefixesFormulaLeadingCells() throws Exception {
+        rows(row(1L, "=cmd|'/c calc'!A1", "+1"),
+             row(2L, "@SUM(A1)", "-2,3"),
+             row(3L, "a@example.com", "\tTAB"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export(Map.of(), MailExportFormat.CSV, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines.get(1)).startsWith("1,'=cmd|'/c calc'!A1,,,'+1,");
+        assertThat(lines.get(2)).startsWith("2,'@SUM(A1),,,\"'-2,3\",");
+        assertThat(lines.get(3)).startsWith("3,a@example.com,,,'\tTAB,");
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws Exception {
+        rows(row(1L, "a@example.com", "first"), row(2L, "b@example.com", "second\nline"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = service.export(Map.of(), MailExportFormat.NDJSON, out);
+
+        assertThat(count).isEqualTo(2);
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertThat(body).endsWith("\n");
+        List<String> lines = body.lines().toList();
+        assertThat(lines).hasSize(2);
+        JsonNode first = OBJECT_MAPPER.readTree(lines.get(0));
+        assertThat(first.get("id").asLong()).isEqualTo(1);
+        assertThat(first.get("toAddress").asText()).isEqualTo("a@example.com");
+        assertThat(first.get("sentAt").asText()).isEqualTo("2026-01-02T03:04:05");
+        assertThat(OBJECT_MAPPER.readTree(lines.get(1)).get("subject").asText()).isEqualTo("second\nline");
+    }
+
+    @Test
+    void noCandidateWritesHeaderOnly() throws Exception {
+        when(ngramIndex.candidates(any(), any())).thenReturn(new long[0]);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = service.export(Map.of("toAddress", "nobody"), MailExportFormat.CSV, out);
+
+        assertThat(count).isZero();
+        assertThat(out.toString(StandardCharsets.UTF_8)).hasLineCount(1);
+        verify(mapper, never()).exportByCondition(any(), any());
+    }
+
+    /**
+     * カーソル読込の代わりに指定の行を ResultHandler へ渡す
+     */
+    @SuppressWarnings("unchecked")
+    private void rows(MailSendListDto... rows) {
+        doAnswer(invocation -> {
+            ResultHandler<MailSendListDto> handler = invocation.getArgument(1);
+            for (MailSendListDto row : rows) {
+                ResultContext<MailSendListDto> context = mock(ResultContext.class);
+                when(context.getResultObject()).thenReturn(row);
+                handler.handleResult(context);
+            }
+            return null;
+        }).when(mapper).exportByCondition(any(), any());
+    }
+
+    private static MailSendListDto row(long id, String toAddress, String subject) {
+        return new MailSendListDto(id, toAddress, null, null, subject, "SENT", false, null,
+                LocalDateTime.of(2026, 1, 2, 3, 4, 5), LocalDateTime.of(2026, 1, 2, 3, 0), 0);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.adminapp.service.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+class MailMetricsTest {
+
+    @Test
+    void searchResultsAreRecordedAsDistributions() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MailMetrics metrics = new MailMetrics(registry);
+
+        metrics.searchResult(20, 1_000);
+        metrics.searchResult(5, 5);
+
+        DistributionSummary items = registry.get("mail.search.result.items").summary();
+        assertThat(items.count()).isEqualTo(2);
+        assertThat(items.totalAmount()).isEqualTo(25);
+        assertThat(items.max()).isEqualTo(20);
+        DistributionSummary matched = registry.get("mail.search.result.matched").summary();
+        assertThat(matched.count()).isEqualTo(2);
+        assertThat(matched.max()).isEqualTo(1_000);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.adminapp.service.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.adminapp.domain.MailLog;
+import com.example.adminapp.service.mail.dto.MailRecipientDto;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MailRecipientsTest {
+
+    @Test
+    void rowsOfSplitsNormalizesAndDeduplicatesPerRole() {
+        MailLog mailLog = new MailLog();
+        mailLog.setId(7L);
+        mailLog.setToAddress(" Alice@Example.com,bob@example.jp ,alice@example.com,");
+        mailLog.setCcAddress("alice@example.com");
+        mailLog.setBccAddress(null);
+
+        assertThat(MailRecipients.rowsOf(List.of(mailLog))).containsExactly(
+                new MailRecipientDto(7L, "TO", "alice@example.com", "example.com"),
+                new MailRecipientDto(7L, "TO", "bob@example.jp", "example.jp"),
+                new MailRecipientDto(7L, "CC", "alice@example.com", "example.com"));
+    }
+
+    @Test
+    void filterOfAcceptsFullAddressOrDomainOnly() {
+        assertThat(MailRecipients.filterOf(MailRecipientRole.TO, "Alice@Example.com"))
+                .isEqualTo(new MailRecipientDto(null, "TO", "alice@example.com", "example.com"));
+        assertThat(MailRecipients.filterOf(MailRecipientRole.BCC, "@Example.com"))
+                .isEqualTo(new MailRecipientDto(null, "BCC", null, "example.com"));
+
+        // 部分一致で検索する入力
+        assertThat(MailRecipients.filterOf(MailRecipientRole.CC, "alice")).isNull();
+        assertThat(MailRecipients.filterOf(MailRecipientRole.CC, "alice@")).isNull();
+        assertThat(MailRecipients.filterOf(MailRecipientRole.CC, "a@b@c")).isNull();
+        assertThat(MailRecipients.filterOf(MailRecipientRole.CC, "a@b.jp,c@d.jp")).isNull();
+        assertThat(MailRecipients.filterOf(MailRecipientRole.CC, null)).isNull();
+    }
+}
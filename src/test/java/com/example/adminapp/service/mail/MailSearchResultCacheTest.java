@@ -0,0 +1,83 @@
+package com.example.adminapp.service.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.adminapp.service.mail.dto.MailSearchConditionDto;
+import com.example.adminapp.service.mail.dto.MailSearchResponseDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MailSearchResultCacheTest {
+
+    private SimpleMeterRegistry registry;
+    private MailLogVersion version;
+    private MailSearchResultCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        version = new MailLogVersion();
+        cache = new MailSearchResultCache(version, new MailMetrics(registry), true, 60, 2);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void returnsCachedResultUntilWrite() {
+        MailSearchResponseDto first = cache.get(key("FAILED", 1), this::load);
+        assertThat(cache.get(key("FAILED", 1), this::load)).isSameAs(first);
+        assertThat(loads.get()).isEqualTo(1);
+
+        version.bump();
+        assertThat(cache.get(key("FAILED", 1), this::load)).isNotSameAs(first);
+        assertThat(loads.get()).isEqualTo(2);
+
+        assertThat(count("mail.search.cache.requests", "result", "hit")).isEqualTo(1);
+        assertThat(count("mail.search.cache.requests", "result", "miss")).isEqualTo(2);
+        assertThat(count("mail.search.cache.evictions", "cause", "stale")).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotStoreResultLoadedDuringWrite() {
+        cache.get(key(null, 1), () -> {
+            version.bump();
+            return load();
+        });
+        cache.get(key(null, 1), this::load);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedOverMaxEntries() {
+        cache.get(key(null, 1), this::load);
+        cache.get(key(null, 2), this::load);
+        cache.get(key(null, 1), this::load);
+        cache.get(key(null, 3), this::load);
+
+        cache.get(key(null, 1), this::load);
+        assertThat(loads.get()).isEqualTo(3);
+        cache.get(key(null, 2), this::load);
+        assertThat(loads.get()).isEqualTo(4);
+        assertThat(count("mail.search.cache.evictions", "cause", "size")).isEqualTo(2);
+    }
+
+    private MailSearchResultCache.Key key(String status, int page) {
+        MailSearchConditionDto condition = new MailSearchConditionDto();
+        condition.setStatus(status);
+        condition.setPage(page);
+        condition.setSize(20);
+        return MailSearchResultCache.key(condition, MailCountStrategy.EXACT, null);
+    }
+
+    private MailSearchResponseDto load() {
+        loads.incrementAndGet();
+        return new MailSearchResponseDto();
+    }
+
+    private double count(String name, String tag, String value) {
+        return registry.counter(name, tag, value).count();
+    }
+}
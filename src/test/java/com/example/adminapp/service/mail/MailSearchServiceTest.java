@@ -0,0 +1,289 @@
+package com.example.adminapp.service.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.adminapp.mapper.MailSearchMapper;
+import com.example.adminapp.service.mail.dto.MailSearchCursorDto;
+import com.example.adminapp.service.mail.dto.MailSearchResponseDto;
+import com.example.adminapp.service.mail.dto.MailSendListDto;
+import com.example.adminapp.service.mail.index.MailNgramIndex;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class MailSearchServiceTest {
+
+    private MailSearchMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        mapper = mock(MailSearchMapper.class);
+    }
+
+    @Test
+    void exactCountClampsPageBeyondLastPage() {
+        when(mapper.countByCondition(any())).thenReturn(25L);
+        when(mapper.findByCondition(any(), anyInt(), anyInt())).thenReturn(rows(1, 5));
+
+        MailSearchResponseDto response = service(false).search(Map.of("page", "10", "countStrategy", "EXACT"));
+
+        verify(mapper).findByCondition(any(), eq(20), eq(21));
+        assertThat(response.getPage()).isEqualTo(1);
+        assertThat(response.getTotalSize()).isEqualTo(25);
+        assertThat(response.isTotalSizeExact()).isTrue();
+    }
+
+    @Test
+    void estimatedCountDoesNotClampDeepPage() {
+        when(mapper.explainByCondition(any())).thenReturn(List.of("Seq Scan on mail_log  (cost=0.00..1.00 rows=5 width=8)"));
+        when(mapper.findByCondition(any(), anyInt(), anyInt())).thenReturn(rows(1, 21));
+
+        MailSearchResponseDto response = service(false).search(Map.of("page", "10", "countStrategy", "ESTIMATED"));
+
+        verify(mapper).findByCondition(any(), eq(180), eq(21));
+        verify(mapper, never()).countByCondition(any());
+        assertThat(response.getPage()).isEqualTo(9);
+        assertThat(response.getItems()).hasSize(20);
+        assertThat(response.isHasNext()).isTrue();
+        assertThat(response.isTotalSizeExact()).isFalse();
+        assertThat(response.getTotalSize()).isEqualTo(201);
+    }
+
+    @Test
+    void estimateFailureFallsBackToExactCount() {
+        when(mapper.explainByCondition(any())).thenThrow(new IllegalStateException("explain failed"));
+        when(mapper.countByCondition(any())).thenReturn(3L);
+        when(mapper.findByCondition(any(), anyInt(), anyInt())).thenReturn(rows(1, 3));
+
+        MailSearchResponseDto response = service(false).search(Map.of("countStrategy", "ESTIMATED"));
+
+        assertThat(response.getTotalSize()).isEqualTo(3);
+        assertThat(response.isTotalSizeExact()).isTrue();
+    }
+
+    @Test
+    void cursorPagingSkipsCountAndReusesFirstPageTotal() {
+        MailSearchService service = service(false);
+        when(mapper.countByCondition(any())).thenReturn(45L);
+        when(mapper.findByCondition(any(), anyInt(), anyInt())).thenReturn(rows(1, 21));
+        when(mapper.findByCursor(any(), any(), anyInt())).thenReturn(rows(21, 21));
+
+        MailSearchResponseDto first = service.search(Map.of());
+        assertThat(first.getNextCursor()).isNotNull();
+        assertThat(first.getPreviousCursor()).isNull();
+
+        MailSearchResponseDto second = service.search(Map.of("page", "2", "cursor", first.getNextCursor()));
+
+        MailSearchCursorDto cursor = capturedCursor();
+        assertThat(cursor.getId()).isEqualTo(20L);
+        assertThat(cursor.getSentAt()).isEqualTo(first.getItems().get(19).getSentAt());
+        assertThat(cursor.isBackward()).isFalse();
+        verify(mapper, times(1)).countByCondition(any());
+        assertThat(second.getPage()).isEqualTo(1);
+        assertThat(second.getItems()).extracting(MailSendListDto::getId).startsWith(21L);
+        assertThat(second.getTotalSize()).isEqualTo(45);
+        assertThat(second.isTotalSizeExact()).isFalse();
+        assertThat(second.isHasPrevious()).isTrue();
+        assertThat(second.getPreviousCursor()).isNotNull();
+    }
+
+    @Test
+    void backwardCursorReversesRowsAndReturnsToFirstPage() {
+        MailSearchService service = service(false);
+        when(mapper.countByCondition(any())).thenReturn(100L);
+        when(mapper.findByCondition(any(), anyInt(), anyInt())).thenReturn(rows(1, 21));
+        when(mapper.findByCursor(any(), any(), anyInt())).thenReturn(rows(41, 21));
+        MailSearchResponseDto third = service.search(Map.of("page", "3", "cursor", service.search(Map.of()).getNextCursor()));
+
+        // 前頁は基準行に近い順(昇順)で1件多く取得されるため、先頭20件を表示順(降順)に戻す
+        List<MailSendListDto> ascending = rows(20, 21).reversed();
+        when(mapper.findByCursor(any(), any(), anyInt())).thenReturn(ascending);
+        MailSearchResponseDto second = service.search(Map.of("page", "2", "cursor", third.getPreviousCursor()));
+
+        assertThat(capturedCursor().isBackward()).isTrue();
+        assertThat(second.getItems()).extracting(MailSendListDto::getId).startsWith(21L, 22L);
+        assertThat(second.isHasNext()).isTrue();
+        assertThat(second.isHasPrevious()).isTrue();
+
+        // 先頭頁まで戻った場合は先頭頁を取得し直す
+        when(mapper.findByCursor(any(), any(), anyInt())).thenReturn(rows(1, 20).reversed());
+        MailSearchResponseDto first = service.search(Map.of("page", "1", "cursor", second.getPreviousCursor()));
+
+        assertThat(first.getPage()).isZero();
+        assertThat(first.isHasPrevious()).isFalse();
+        assertThat(first.getItems()).extracting(MailSendListDto::getId).startsWith(1L);
+    }
+
+    @Test
+    void rowsWithoutSentAtAreReachableByCursor() {
+        MailSearchService service = service(false);
+        List<MailSendListDto> pending = rows(1, 21);
+        pending.forEach(row -> row.setSentAt(null));
+        when(mapper.countByCondition(any())).thenReturn(30L);
+        when(mapper.findByCondition(any(), anyInt(), anyInt())).thenReturn(pending);
+        when(mapper.findByCursor(any(), any(), anyInt())).thenReturn(rows(21, 10));
+
+        MailSearchResponseDto first = service.search(Map.of());
+        assertThat(first.getNextCursor()).isNotNull();
+        service.search(Map.of("page", "2", "cursor", first.getNextCursor()));
+
+        MailSearchCursorDto cursor = capturedCursor();
+        assertThat(cursor.getSentAt()).isNull();
+        assertThat(cursor.getId()).isEqualTo(20L);
+    }
+
+    @Test
+    void invalidCursorFallsBackToOffsetPaging() {
+        when(mapper.countByCondition(any())).thenReturn(45L);
+        when(mapper.findByCondition(any(), anyInt(), anyInt())).thenReturn(rows(21, 21));
+
+        MailSearchResponseDto response = service(false).search(Map.of("page", "2", "cursor", "not-a-cursor"));
+
+        verify(mapper, never()).findByCursor(any(), any(), anyInt());
+        verify(mapper).findByCondition(any(), eq(20), eq(21));
+        assertThat(response.isTotalSizeExact()).isTrue();
+    }
+
+    @Test
+    void noneStrategyReturnsLowerBoundWithoutCounting() {
+        when(mapper.findByCondition(any(), anyInt(), anyInt())).thenReturn(rows(1, 21));
+
+        MailSearchResponseDto response = service(false).search(Map.of("countStrategy", "NONE"));
+
+        verify(mapper, never()).countByCondition(any());
+        verify(mapper, never()).explainByCondition(any());
+        assertThat(response.getTotalSize()).isEqualTo(21);
+        assertThat(response.isTotalSizeExact()).isFalse();
+    }
+
+    @Test
+    void cachedStrategyCountsOncePerCondition() {
+        MailSearchService service = service(false);
+        when(mapper.countByCondition(any())).thenReturn(45L);
+        when(mapper.findByCondition(any(), anyInt(), anyInt())).thenReturn(rows(1, 21));
+
+        MailSearchResponseDto first = service.search(Map.of("countStrategy", "CACHED"));
+        MailSearchResponseDto second = service.search(Map.of("countStrategy", "CACHED", "page", "2"));
+
+        verify(mapper, times(1)).countByCondition(any());
+        assertThat(first.isTotalSizeExact()).isTrue();
+        assertThat(second.getTotalSize()).isEqualTo(45);
+        assertThat(second.isTotalSizeExact()).isFalse();
+    }
+
+    @Test
+    void concurrentCountRunsAlongsidePageQuery() {
+        CountDownLatch counting = new CountDownLatch(1);
+        CountDownLatch finding = new CountDownLatch(1);
+        when(mapper.countByCondition(any())).thenAnswer(invocation -> {
+            counting.countDown();
+            assertThat(finding.await(5, TimeUnit.SECONDS)).isTrue();
+            return 45L;
+        });
+        when(mapper.findByCondition(any(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            finding.countDown();
+            assertThat(counting.await(5, TimeUnit.SECONDS)).isTrue();
+            return rows(1, 21);
+        });
+
+        MailSearchResponseDto response = service(true).search(Map.of());
+
+        assertThat(response.getItems()).hasSize(20);
+        assertThat(response.getTotalSize()).isEqualTo(45);
+        assertThat(response.isTotalSizeExact()).isTrue();
+        assertThat(response.isHasNext()).isTrue();
+    }
+
+    @Test
+    void concurrentPagePastEndIsRefetchedAsLastPage() {
+        when(mapper.countByCondition(any())).thenReturn(25L);
+        when(mapper.findByCondition(any(), eq(180), anyInt())).thenReturn(List.of());
+        when(mapper.findByCondition(any(), eq(20), anyInt())).thenReturn(rows(21, 5));
+
+        MailSearchResponseDto response = service(true).search(Map.of("page", "10"));
+
+        verify(mapper).findByCondition(any(), eq(180), eq(21));
+        verify(mapper).findByCondition(any(), eq(20), eq(21));
+        assertThat(response.getPage()).isEqualTo(1);
+        assertThat(response.getItems()).extracting(MailSendListDto::getId).startsWith(21L).hasSize(5);
+        assertThat(response.isHasNext()).isFalse();
+    }
+
+    @Test
+    void concurrentPageFailureCancelsCount() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(mapper.countByCondition(any())).thenAnswer(invocation -> {
+            started.countDown();
+            try {
+                Thread.sleep(30_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return 45L;
+        });
+        when(mapper.findByCondition(any(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            throw new IllegalStateException("page query failed");
+        });
+
+        assertThatThrownBy(() -> service(true).search(Map.of()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("page query failed");
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void concurrentCountFailureIsPropagated() {
+        when(mapper.countByCondition(any())).thenThrow(new IllegalStateException("count failed"));
+        when(mapper.findByCondition(any(), anyInt(), anyInt())).thenReturn(rows(1, 21));
+
+        assertThatThrownBy(() -> service(true).search(Map.of()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("count failed");
+    }
+
+    private MailSearchCursorDto capturedCursor() {
+        ArgumentCaptor<MailSearchCursorDto> captor = ArgumentCaptor.forClass(MailSearchCursorDto.class);
+        verify(mapper, atLeastOnce()).findByCursor(any(), captor.capture(), eq(21));
+        return captor.getValue();
+    }
+
+    private MailSearchService service(boolean concurrentCount) {
+        MailMetrics metrics = new MailMetrics(new SimpleMeterRegistry());
+        return new MailSearchService(mapper, new MailSearchCountCache(60, 100),
+                new MailSearchResultCache(new MailLogVersion(), metrics, false, 60, 100),
+                mock(MailNgramIndex.class), metrics, "EXACT", concurrentCount, false);
+    }
+
+    private static List<MailSendListDto> rows(long firstId, int count) {
+        List<MailSendListDto> rtn = new ArrayList<>();
+        LocalDateTime sentAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < count; i++) {
+            MailSendListDto row = new MailSendListDto();
+            row.setId(firstId + i);
+            row.setSentAt(sentAt.minusMinutes(i));
+            rtn.add(row);
+        }
+        return rtn;
+    }
+}
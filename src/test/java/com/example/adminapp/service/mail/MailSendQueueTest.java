@@ -0,0 +1,62 @@
+package com.example.adminapp.service.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.adminapp.domain.MailLog;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class MailSendQueueTest {
+
+    @Test
+    void everyAcceptedMailIsPersistedWhenStoppedDuringSubmit() throws Exception {
+        MailLogBatchWriter writer = mock(MailLogBatchWriter.class);
+        when(writer.insertAll(anyList())).thenAnswer(invocation -> {
+            List<MailLog> rows = invocation.getArgument(0);
+            rows.forEach(row -> row.setId(1L));
+            return new BitSet();
+        });
+        MailSendQueue queue = new MailSendQueue(writer, true, 100_000, 2, 50, 100, 10_000, 100_000);
+        queue.start();
+
+        Queue<String> accepted = new ConcurrentLinkedQueue<>();
+        CountDownLatch started = new CountDownLatch(4);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int t = 0; t < 4; t++) {
+                executor.submit(() -> {
+                    started.countDown();
+                    for (int i = 0; i < 10_000; i++) {
+                        try {
+                            accepted.add(queue.submit(new MailLog()));
+                        } catch (MailQueueFullException e) {
+                            return;
+                        }
+                    }
+                });
+            }
+            started.await();
+            queue.stop();
+            executor.shutdown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(accepted).isNotEmpty();
+        for (String trackingId : accepted) {
+            assertThat(queue.status(trackingId).getStatus()).isEqualTo(MailSendQueue.STATUS_PERSISTED);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.adminapp.service.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.adminapp.domain.MailLog;
+import com.example.adminapp.mapper.MailSendMapper;
+import com.example.adminapp.service.mail.delivery.MailDeliveryEngine;
+import com.example.adminapp.service.mail.dto.MailBulkSendItemErrorDto;
+import com.example.adminapp.service.mail.dto.MailBulkSendResponseDto;
+import com.example.adminapp.service.mail.index.MailNgramIndex;
+import com.example.adminapp.service.mail.stats.MailStatistics;
+import com.example.adminapp.validation.FormValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MailSendServiceTest {
+
+    private FormValidator validator;
+    private MailLogBatchWriter batchWriter;
+    private List<Integer> insertedSizes;
+
+    @BeforeEach
+    void setUp() {
+        validator = mock(FormValidator.class);
+        batchWriter = mock(MailLogBatchWriter.class);
+        insertedSizes = new ArrayList<>();
+        // 件名 "bad" の行を入力エラーとする
+        when(validator.validate(any(), anyMap())).thenAnswer(invocation -> {
+            Map<String, String> params = invocation.getArgument(1);
+            return "bad".equals(params.get("subject")) ? Map.of("subject", "件名が不正です。") : Map.of();
+        });
+        when(batchWriter.insertAll(anyList())).thenAnswer(invocation -> {
+            List<MailLog> rows = invocation.getArgument(0);
+            insertedSizes.add(rows.size());
+            return new BitSet();
+        });
+    }
+
+    @Test
+    void chunkSizeIsCappedAtRowsPerInsert() {
+        MailBulkSendResponseDto result = service(100_000, 100_000).sendBulk(ndjson(3000, "ok"));
+
+        assertThat(insertedSizes).containsExactly(MailLogBatchWriter.MAX_ROWS_PER_INSERT,
+                3000 - MailLogBatchWriter.MAX_ROWS_PER_INSERT);
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getInserted()).isEqualTo(3000);
+    }
+
+    @Test
+    void itemsBeyondMaxItemsAreNotRead() {
+        MailBulkSendResponseDto result = service(2, 5).sendBulk(ndjson(8, "ok"));
+
+        assertThat(insertedSizes).containsExactly(2, 2, 1);
+        assertThat(result.getTotal()).isEqualTo(5);
+        assertThat(result.getInserted()).isEqualTo(5);
+        assertThat(result.isTruncated()).isTrue();
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getGlobalErrors()).hasSize(1);
+    }
+
+    @Test
+    void returnedErrorsAreCappedButAllAreCounted() {
+        MailBulkSendResponseDto result = service(500, 100_000).sendBulk(ndjson(1500, "bad"));
+
+        verify(batchWriter, never()).insertAll(anyList());
+        assertThat(result.getTotal()).isEqualTo(1500);
+        assertThat(result.getFailed()).isEqualTo(1500);
+        assertThat(result.getErrors()).hasSize(1000);
+        assertThat(result.getErrors().get(999).getIndex()).isEqualTo(999);
+        assertThat(result.isTruncated()).isFalse();
+        assertThat(result.isSuccess()).isFalse();
+    }
+
+    @Test
+    void failedInsertIsReportedByInputIndex() {
+        when(batchWriter.insertAll(anyList())).thenAnswer(invocation -> {
+            BitSet failed = new BitSet();
+            failed.set(1);
+            return failed;
+        });
+
+        MailBulkSendResponseDto result = service(500, 100_000).sendBulk(
+                body("{\"subject\":\"bad\"}\n{\"subject\":\"ok\"}\n{\"subject\":\"ok\"}\n"));
+
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(MailBulkSendItemErrorDto::getIndex).containsExactly(0L, 2L);
+    }
+
+    private MailSendService service(int chunkSize, int maxItems) {
+        MailDeliveryEngine engine = mock(MailDeliveryEngine.class);
+        return new MailSendService(validator, mock(MailSendMapper.class), mock(MailNgramIndex.class),
+                mock(MailSendQueue.class), batchWriter, engine, new MailMetrics(new SimpleMeterRegistry()),
+                mock(MailStatistics.class), new MailLogVersion(), mock(MailRecipientWriter.class),
+                new ObjectMapper(), chunkSize, maxItems);
+    }
+
+    private static InputStream ndjson(int count, String subject) {
+        return body(IntStream.range(0, count)
+                .mapToObj(i -> "{\"toAddress\":\"user" + i + "@example.com\",\"subject\":\"" + subject + "\"}")
+                .collect(Collectors.joining("\n")));
+    }
+
+    private static InputStream body(String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.adminapp.service.mail.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.adminapp.service.mail.MailMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class MailSendAdmissionTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void bucketAllowsBurstThenRefillsAtRate() {
+        TokenBucket bucket = new TokenBucket(10, 3, 0);
+
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isEqualTo(SECOND / 10);
+        assertThat(bucket.isFull(0)).isFalse();
+
+        assertThat(bucket.tryAcquire(SECOND / 10)).isZero();
+        assertThat(bucket.tryAcquire(SECOND / 10)).isPositive();
+        assertThat(bucket.isFull(SECOND)).isTrue();
+    }
+
+    @Test
+    void bucketAdmitsExactlyBurstUnderContention() throws Exception {
+        TokenBucket bucket = new TokenBucket(0.001, 100, System.nanoTime());
+        AtomicInteger acquired = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int i = 0; i < 8; i++) {
+                executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < 100; j++) {
+                        if (bucket.tryAcquire(System.nanoTime()) == 0) {
+                            acquired.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(acquired.get()).isEqualTo(100);
+    }
+
+    @Test
+    void rateLimitIsPerClient() {
+        MailSendAdmission admission = admission(1, 2, 10);
+
+        admission.acquire("a").close();
+        admission.acquire("a").close();
+        assertThatThrownBy(() -> admission.acquire("a"))
+                .isInstanceOfSatisfying(MailRateLimitException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(1));
+        admission.acquire("b").close();
+    }
+
+    @Test
+    void concurrencyLimitRejectsUntilReleased() {
+        MailSendAdmission admission = admission(1000, 1000, 2);
+
+        MailSendAdmission.Permit first = admission.acquire("a");
+        MailSendAdmission.Permit second = admission.acquire("b");
+        assertThatThrownBy(() -> admission.acquire("c")).isInstanceOf(MailRateLimitException.class);
+
+        first.close();
+        admission.acquire("c").close();
+        second.close();
+    }
+
+    @Test
+    void newClientsAreRejectedWhenMaxClientsReachedWithoutSharingABucket() {
+        MailSendAdmission admission = admission(0.001, 2, 10, 2);
+
+        admission.acquire("a").close();
+        admission.acquire("b").close();
+        assertThatThrownBy(() -> admission.acquire("c")).isInstanceOf(MailRateLimitException.class);
+
+        // 既存の送信元は自分のバケットで受付を続ける
+        admission.acquire("a").close();
+        admission.acquire("b").close();
+    }
+
+    @Test
+    void fullBucketsAreEvictedToMakeRoomForNewClients() {
+        MailSendAdmission admission = admission(1000, 1, 10, 1);
+
+        admission.acquire("a").close();
+        long refill = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+        while (System.nanoTime() < refill) {
+            Thread.onSpinWait();
+        }
+        admission.acquire("b").close();
+    }
+
+    private MailSendAdmission admission(double permitsPerSecond, int burst, int maxConcurrent) {
+        return admission(permitsPerSecond, burst, maxConcurrent, 100);
+    }
+
+    private MailSendAdmission admission(double permitsPerSecond, int burst, int maxConcurrent, int maxClients) {
+        MailMetrics metrics = new MailMetrics(new SimpleMeterRegistry());
+        return new MailSendAdmission(metrics, true, permitsPerSecond, burst, maxClients, maxConcurrent);
+    }
+}
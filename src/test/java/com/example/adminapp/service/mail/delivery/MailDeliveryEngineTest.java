@@ -0,0 +1,279 @@
+package com.example.adminapp.service.mail.delivery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.adminapp.domain.MailLog;
+import com.example.adminapp.mapper.MailSearchMapper;
+import com.example.adminapp.mapper.MailSendMapper;
+import com.example.adminapp.service.mail.MailLogVersion;
+import com.example.adminapp.service.mail.dto.MailStatusChangeDto;
+import com.example.adminapp.service.mail.stats.MailStatistics;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class MailDeliveryEngineTest {
+
+    private SmtpStub smtp;
+    private MailSendMapper mapper;
+    private Map<Long, MailLog> table; // mail_log の代わり(配信待ちの行のみ確保できる)
+
+    @BeforeEach
+    void setUp() throws IOException {
+        smtp = new SmtpStub();
+        mapper = mock(MailSendMapper.class);
+        table = new ConcurrentHashMap<>();
+        when(mapper.claimPending(any(), any(), any())).thenAnswer(invocation -> {
+            List<MailLog> claimed = new ArrayList<>();
+            for (long id : invocation.<long[]>getArgument(0)) {
+                MailLog row = table.get(id);
+                if (row != null && MailDeliveryEngine.STATUS_PENDING.equals(row.getStatus())) {
+                    row.setStatus(MailDeliveryEngine.STATUS_SENDING);
+                    row.setVersion(row.getVersion() + 1);
+                    claimed.add(row);
+                }
+            }
+            return claimed;
+        });
+        when(mapper.writeBackDelivery(any())).thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        smtp.close();
+    }
+
+    @Test
+    void deliversAllMessagesOverPooledConnections() {
+        MailDeliveryEngine engine = engine(2);
+        engine.start();
+
+        List<MailLog> logs = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String to = "user" + i + (i % 2 == 0 ? "@example.com" : "@example.org");
+            logs.add(mailLog(i, to, i % 3 == 0 ? "cc" + i + "@example.net" : null));
+        }
+        logs.forEach(engine::submit);
+        engine.stop();
+
+        assertThat(smtp.messages).hasSize(200);
+        assertThat(smtp.connections.get()).isBetween(1, 2);
+        assertThat(logs).allSatisfy(log -> {
+            assertThat(log.getStatus()).isEqualTo(MailDeliveryEngine.STATUS_SUCCESS);
+            assertThat(log.getVersion()).isEqualTo(2);
+        });
+        assertThat(engine.queuedDomains()).isZero();
+    }
+
+    @Test
+    void onlyClaimedRowsAreSentWithTheirCurrentContent() {
+        MailDeliveryEngine engine = engine(1);
+        engine.start();
+
+        MailLog canceled = mailLog(1, "a@example.com", null);
+        MailLog updated = mailLog(2, "b@example.com", null);
+        MailLog claimedElsewhere = mailLog(3, "c@example.com", null);
+        // 配信依頼後に取消・内容変更・他ノードの確保が行われた
+        table.put(1L, copy(canceled, MailDeliveryEngine.STATUS_CANCELED, "件名1"));
+        table.put(2L, copy(updated, MailDeliveryEngine.STATUS_PENDING, "変更後の件名"));
+        table.put(3L, copy(claimedElsewhere, MailDeliveryEngine.STATUS_SENDING, "件名3"));
+        engine.submit(canceled);
+        engine.submit(updated);
+        engine.submit(claimedElsewhere);
+        engine.stop();
+
+        assertThat(smtp.messages).hasSize(1);
+        assertThat(smtp.messages.peek()).contains("To: b@example.com");
+        ArgumentCaptor<MailLog> written = ArgumentCaptor.forClass(MailLog.class);
+        verify(mapper).writeBackDelivery(written.capture());
+        assertThat(written.getValue().getId()).isEqualTo(2L);
+        assertThat(written.getValue().getSubject()).isEqualTo("変更後の件名");
+        assertThat(written.getValue().getStatus()).isEqualTo(MailDeliveryEngine.STATUS_SUCCESS);
+    }
+
+    @Test
+    void rejectedRecipientFailsOnlyThatMessage() {
+        MailDeliveryEngine engine = engine(1);
+        engine.start();
+
+        MailLog ok1 = mailLog(1, "a@example.com", null);
+        MailLog rejected = mailLog(2, "reject@example.com", null);
+        MailLog ok2 = mailLog(3, "b@example.com", null);
+        engine.submit(ok1);
+        engine.submit(rejected);
+        engine.submit(ok2);
+        engine.stop();
+
+        assertThat(ok1.getStatus()).isEqualTo(MailDeliveryEngine.STATUS_SUCCESS);
+        assertThat(ok2.getStatus()).isEqualTo(MailDeliveryEngine.STATUS_SUCCESS);
+        assertThat(rejected.getStatus()).isEqualTo(MailDeliveryEngine.STATUS_FAILED);
+        assertThat(rejected.getErrorMessage()).isNotBlank();
+        assertThat(smtp.messages).hasSize(2);
+        assertThat(smtp.connections.get()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredLeasesAndStalePendingRowsAreMarkedFailed() {
+        LocalDateTime createdAt = LocalDateTime.now().minusHours(1);
+        when(mapper.failExpiredLeases(any(), any())).thenReturn(List.of(
+                new MailStatusChangeDto(3L, MailDeliveryEngine.STATUS_SENDING, createdAt, 2)));
+        when(mapper.failStalePending(any(), any(), any())).thenReturn(List.of(
+                new MailStatusChangeDto(1L, MailDeliveryEngine.STATUS_PENDING, createdAt, 1),
+                new MailStatusChangeDto(2L, MailDeliveryEngine.STATUS_PENDING, createdAt, 1)));
+        MailDeliveryEngine engine = engine(1);
+
+        LocalDateTime before = LocalDateTime.now();
+        assertThat(engine.recoverStalePending()).isEqualTo(3);
+
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(mapper).failExpiredLeases(now.capture(), any());
+        assertThat(now.getValue()).isAfterOrEqualTo(before);
+        ArgumentCaptor<LocalDateTime> threshold = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(mapper).failStalePending(threshold.capture(), any(), any());
+        assertThat(threshold.getValue()).isBetween(before.minusMinutes(30).minusSeconds(1), before.minusMinutes(29));
+    }
+
+    @Test
+    void leaseCoversTimeoutsOfWholeBatch() {
+        MailDeliveryEngine engine = engine(1);
+        engine.start();
+        MailLog mailLog = mailLog(1, "a@example.com", null);
+
+        LocalDateTime before = LocalDateTime.now();
+        engine.submit(mailLog);
+        engine.stop();
+
+        // batch-size 50 × timeout 5 秒 × 3 = 750 秒(lease-seconds 600 秒より長い)
+        ArgumentCaptor<LocalDateTime> leaseUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(mapper).claimPending(any(), leaseUntil.capture(), any());
+        assertThat(leaseUntil.getValue()).isAfterOrEqualTo(before.plusSeconds(750));
+    }
+
+    @Test
+    void domainOfUsesFirstRecipient() {
+        assertThat(MailDeliveryEngine.domainOf("a@Example.COM, b@example.org")).isEqualTo("example.com");
+        assertThat(MailDeliveryEngine.domainOf("invalid")).isEmpty();
+        assertThat(MailDeliveryEngine.domainOf(null)).isEmpty();
+    }
+
+    private MailDeliveryEngine engine(int poolSize) {
+        MailStatistics statistics = new MailStatistics(mock(MailSearchMapper.class));
+        return new MailDeliveryEngine(mapper, statistics, new MailLogVersion(), true, "127.0.0.1", smtp.port(),
+                "", "", false, "noreply@example.com", poolSize, 2, 50, 4, 5000, 10000, 30, 600);
+    }
+
+    private MailLog copy(MailLog source, String status, String subject) {
+        MailLog row = mailLog(source.getId(), source.getToAddress(), source.getCcAddress());
+        row.setStatus(status);
+        row.setSubject(subject);
+        return row;
+    }
+
+    private MailLog mailLog(long id, String to, String cc) {
+        MailLog log = new MailLog();
+        log.setId(id);
+        log.setToAddress(to);
+        log.setCcAddress(cc);
+        log.setSubject("件名" + id);
+        log.setBody("本文" + id);
+        log.setIsHtml(id % 2 == 0);
+        log.setStatus(MailDeliveryEngine.STATUS_PENDING);
+        log.setVersion(0);
+        table.put(id, log);
+        return log;
+    }
+
+    /**
+     * 受信内容を記録するだけの SMTP サーバー("reject" を含む宛先は 550 で拒否する)
+     */
+    private static final class SmtpStub implements AutoCloseable {
+        private final ServerSocket server;
+        private final Queue<String> messages = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger connections = new AtomicInteger();
+
+        SmtpStub() throws IOException {
+            server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread.ofPlatform().daemon().start(this::acceptLoop);
+        }
+
+        int port() {
+            return server.getLocalPort();
+        }
+
+        private void acceptLoop() {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    connections.incrementAndGet();
+                    Thread.ofPlatform().daemon().start(() -> handle(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void handle(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                 PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+                reply(out, "220 stub ESMTP");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.length() < 4 ? line.toUpperCase() : line.substring(0, 4).toUpperCase();
+                    switch (command) {
+                        case "EHLO", "HELO", "MAIL", "RSET", "NOOP" -> reply(out, "250 OK");
+                        case "RCPT" -> reply(out, line.contains("reject") ? "550 rejected" : "250 OK");
+                        case "DATA" -> {
+                            reply(out, "354 go ahead");
+                            StringBuilder data = new StringBuilder();
+                            while ((line = in.readLine()) != null && !line.equals(".")) {
+                                data.append(line).append('\n');
+                            }
+                            messages.add(data.toString());
+                            reply(out, "250 OK");
+                        }
+                        case "QUIT" -> {
+                            reply(out, "221 bye");
+                            return;
+                        }
+                        default -> reply(out, "500 unknown");
+                    }
+                }
+            } catch (IOException e) {
+                // 切断
+            }
+        }
+
+        private void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.adminapp.service.mail.delivery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.adminapp.domain.MailLog;
+import com.example.adminapp.mapper.MailRetryMapper;
+import com.example.adminapp.mapper.MailSearchMapper;
+import com.example.adminapp.service.mail.MailLogVersion;
+import com.example.adminapp.service.mail.MailMetrics;
+import com.example.adminapp.service.mail.stats.MailStatistics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class MailRetrySchedulerTest {
+
+    private MailRetryMapper mapper;
+    private MailDeliveryEngine engine;
+    private MailRetryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        mapper = mock(MailRetryMapper.class);
+        engine = mock(MailDeliveryEngine.class);
+        when(engine.isEnabled()).thenReturn(true);
+        scheduler = new MailRetryScheduler(mapper, engine, new MailStatistics(mock(MailSearchMapper.class)),
+                new MailLogVersion(), new MailMetrics(new SimpleMeterRegistry()),
+                true, 100, 1, 4, 2, 3, 60, 3600, 600, 72);
+        scheduler.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void claimedRowsAreRetriedAndWrittenBackInOneBatch() {
+        List<MailLog> claimed = List.of(
+                mailLog(1, "ok1@example.com", 1),
+                mailLog(2, "ng@example.com", 1),
+                mailLog(3, "ok2@example.org", 1),
+                mailLog(4, "ng@example.org", 3));
+        when(mapper.claim(any(), any(), any(), any(), anyInt())).thenReturn(claimed);
+        when(mapper.writeBack(anyList())).thenReturn(List.of(1L, 2L, 3L, 4L));
+        doAnswer(invocation -> {
+            List<MailLog> chunk = invocation.getArgument(0);
+            MailDeliveryEngine.DeliveryListener listener = invocation.getArgument(1);
+            chunk.forEach(log -> listener.delivered(log,
+                    log.getToAddress().startsWith("ok") ? MailDeliveryEngine.STATUS_SUCCESS : MailDeliveryEngine.STATUS_FAILED,
+                    log.getToAddress().startsWith("ok") ? null : "421 try again later"));
+            return null;
+        }).when(engine).deliverNow(anyList(), any());
+
+        LocalDateTime before = LocalDateTime.now();
+        assertThat(scheduler.retryBatch()).isEqualTo(4);
+
+        ArgumentCaptor<List<MailLog>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mapper).writeBack(captor.capture());
+        Map<Long, MailLog> written = captor.getValue().stream()
+                .collect(Collectors.toMap(MailLog::getId, Function.identity()));
+        assertThat(written).hasSize(4);
+
+        assertThat(written.get(1L).getStatus()).isEqualTo(MailDeliveryEngine.STATUS_SUCCESS);
+        assertThat(written.get(1L).getSentAt()).isNotNull();
+        assertThat(written.get(1L).getNextRetryAt()).isNull();
+
+        assertThat(written.get(2L).getStatus()).isEqualTo(MailDeliveryEngine.STATUS_FAILED);
+        assertThat(written.get(2L).getErrorMessage()).isEqualTo("421 try again later");
+        assertThat(written.get(2L).getNextRetryAt())
+                .isAfterOrEqualTo(before.plusSeconds(60))
+                .isBefore(before.plusSeconds(121 + 5));
+
+        // 最大再送回数に達した行は再送しない
+        assertThat(written.get(4L).getNextRetryAt()).isNull();
+    }
+
+    @Test
+    void nothingIsWrittenWhenNoRowsAreDue() {
+        when(mapper.claim(any(), any(), any(), any(), anyInt())).thenReturn(List.of());
+
+        assertThat(scheduler.retryBatch()).isZero();
+        verify(mapper, never()).writeBack(anyList());
+    }
+
+    @Test
+    void backoffDoublesUpToMaximum() {
+        assertThat(MailRetryScheduler.backoffSeconds(0, 60, 3600)).isEqualTo(60);
+        assertThat(MailRetryScheduler.backoffSeconds(1, 60, 3600)).isEqualTo(120);
+        assertThat(MailRetryScheduler.backoffSeconds(3, 60, 3600)).isEqualTo(480);
+        assertThat(MailRetryScheduler.backoffSeconds(6, 60, 3600)).isEqualTo(3600);
+        assertThat(MailRetryScheduler.backoffSeconds(Integer.MAX_VALUE, 60, 3600)).isEqualTo(3600);
+    }
+
+    private MailLog mailLog(long id, String to, int retryCount) {
+        MailLog log = new MailLog();
+        log.setId(id);
+        log.setToAddress(to);
+        log.setSubject("件名" + id);
+        log.setBody("本文" + id);
+        log.setStatus(MailDeliveryEngine.STATUS_FAILED);
+        log.setCreatedAt(LocalDateTime.now().minusHours(1));
+        log.setVersion(2);
+        log.setRetryCount(retryCount);
+        return log;
+    }
+}
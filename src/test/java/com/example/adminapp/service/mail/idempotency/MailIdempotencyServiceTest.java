@@ -0,0 +1,174 @@
+package com.example.adminapp.service.mail.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.adminapp.mapper.MailIdempotencyMapper;
+import com.example.adminapp.service.mail.dto.MailSendResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class MailIdempotencyServiceTest {
+
+    private static final String CLIENT = "192.0.2.1";
+
+    private final MailIdempotencyService service = new MailIdempotencyService(
+            mock(MailIdempotencyMapper.class), new ObjectMapper(), 60, 100, 5000, 60, 15000, false);
+
+    @Test
+    void concurrentRequestsWithSameKeySendOnce() throws Exception {
+        AtomicInteger sends = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Map<String, String> params = Map.of("to", "a@example.com", "subject", "件名");
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<MailIdempotencyService.Outcome>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> service.execute(CLIENT, "key-1", params, () -> {
+                    sends.incrementAndGet();
+                    await(release);
+                    return MailSendResponseDto.success("送信しました。");
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            int replayed = 0;
+            for (Future<MailIdempotencyService.Outcome> future : futures) {
+                MailIdempotencyService.Outcome outcome = future.get(5, TimeUnit.SECONDS);
+                assertThat(outcome.response().getMessage()).isEqualTo("送信しました。");
+                replayed += outcome.replayed() ? 1 : 0;
+            }
+            assertThat(sends.get()).isEqualTo(1);
+            assertThat(replayed).isEqualTo(7);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void completedKeyIsReplayedAndRejectsDifferentParams() {
+        Map<String, String> params = Map.of("to", "a@example.com");
+        service.execute(CLIENT, "key-2", params, () -> MailSendResponseDto.success("送信しました。"));
+
+        MailIdempotencyService.Outcome outcome = service.execute(CLIENT, "key-2", params, () -> {
+            throw new AssertionError("must not send twice");
+        });
+        assertThat(outcome.replayed()).isTrue();
+
+        assertThatThrownBy(() -> service.execute(CLIENT, "key-2", Map.of("to", "b@example.com"),
+                () -> MailSendResponseDto.success("送信しました。")))
+                .isInstanceOfSatisfying(MailIdempotencyException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(MailIdempotencyException.Reason.KEY_REUSED));
+    }
+
+    @Test
+    void failedSendCanBeRetriedWithSameKey() {
+        Map<String, String> params = Map.of("to", "invalid");
+        service.execute(CLIENT, "key-3", params,
+                () -> MailSendResponseDto.failure("入力内容に誤りがあります。", Collections.emptyMap(), null));
+
+        MailIdempotencyService.Outcome outcome = service.execute(CLIENT, "key-3", params,
+                () -> MailSendResponseDto.success("送信しました。"));
+        assertThat(outcome.replayed()).isFalse();
+        assertThat(outcome.response().isSuccess()).isTrue();
+    }
+
+    @Test
+    void invalidKeyIsRejected() {
+        assertThatThrownBy(() -> service.execute(CLIENT, " ", Map.of(), () -> MailSendResponseDto.success("")))
+                .isInstanceOfSatisfying(MailIdempotencyException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(MailIdempotencyException.Reason.INVALID_KEY));
+    }
+
+    @Test
+    void sameKeyFromAnotherClientIsNotReplayed() {
+        Map<String, String> params = Map.of("to", "a@example.com");
+        service.execute(CLIENT, "key-4", params, () -> MailSendResponseDto.accepted("受け付けました。", "tracking-1"));
+
+        MailIdempotencyService.Outcome outcome = service.execute("192.0.2.2", "key-4", params,
+                () -> MailSendResponseDto.accepted("受け付けました。", "tracking-2"));
+        assertThat(outcome.replayed()).isFalse();
+        assertThat(outcome.response().getTrackingId()).isEqualTo("tracking-2");
+    }
+
+    @Test
+    void executingRecordIsRenewedUntilCompleted() {
+        MailIdempotencyMapper mapper = mock(MailIdempotencyMapper.class);
+        when(mapper.claim(anyString(), anyString(), any())).thenReturn(1);
+        MailIdempotencyService dbService = new MailIdempotencyService(
+                mapper, new ObjectMapper(), 60, 100, 5000, 60, 15000, true);
+
+        dbService.execute(CLIENT, "key-5", Map.of(), () -> {
+            dbService.heartbeat();
+            return MailSendResponseDto.success("送信しました。");
+        });
+        verify(mapper).claim(eq(CLIENT + " key-5"), anyString(), any());
+        verify(mapper).renew(eq(Set.of(CLIENT + " key-5")), any());
+
+        dbService.heartbeat();
+        verify(mapper, times(1)).renew(anyCollection(), any());
+    }
+
+    @Test
+    void failedCompletionIsRetriedAndKeptFromTakeover() {
+        MailIdempotencyMapper mapper = mock(MailIdempotencyMapper.class);
+        when(mapper.claim(anyString(), anyString(), any())).thenReturn(1);
+        when(mapper.complete(anyString(), anyString(), any()))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(1);
+        MailIdempotencyService dbService = new MailIdempotencyService(
+                mapper, new ObjectMapper(), 60, 100, 5000, 60, 15000, true);
+
+        MailIdempotencyService.Outcome outcome = dbService.execute(CLIENT, "key-6", Map.of(),
+                () -> MailSendResponseDto.success("送信しました。"));
+        assertThat(outcome.response().isSuccess()).isTrue();
+
+        // 再記録に失敗した間は他ノードに引き継がれないよう延長する
+        dbService.heartbeat();
+        verify(mapper, times(2)).complete(eq(CLIENT + " key-6"), anyString(), any());
+        verify(mapper).renew(eq(Set.of(CLIENT + " key-6")), any());
+
+        dbService.heartbeat();
+        dbService.heartbeat();
+        verify(mapper, times(3)).complete(anyString(), anyString(), any());
+        verify(mapper, times(1)).renew(anyCollection(), any());
+    }
+
+    @Test
+    void hashDoesNotDependOnParameterOrder() {
+        assertThat(MailIdempotencyService.hash(Map.of("a", "1", "b", "2")))
+                .isEqualTo(MailIdempotencyService.hash(Map.of("b", "2", "a", "1")))
+                .isNotEqualTo(MailIdempotencyService.hash(Map.of("a", "1", "b", "3")));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.adminapp.service.mail.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+class LongPostingListTest {
+
+    @Test
+    void keepsIdsSortedAndUniqueInAnyInsertOrder() {
+        LongPostingList list = new LongPostingList();
+        for (long id : new long[] {5, 1, 9, 5, 3, 9, 10, 2}) {
+            list.add(id);
+        }
+        list.remove(3);
+        list.remove(4);
+
+        assertThat(list.toArray()).containsExactly(1, 2, 5, 9, 10);
+        assertThat(list.size()).isEqualTo(5);
+    }
+
+    @Test
+    void retainAllIsIntersection() {
+        LongPostingList list = new LongPostingList();
+        for (long id : new long[] {1, 3, 5, 7, 9}) {
+            list.add(id);
+        }
+
+        assertThat(list.retainAll(new long[] {0, 3, 4, 9, 11})).containsExactly(3, 9);
+        assertThat(list.retainAll(new long[] {2, 4})).isEmpty();
+        assertThat(list.retainAll(new long[0])).isEmpty();
+        assertThat(new LongPostingList().retainAll(new long[] {1})).isEmpty();
+    }
+
+    @Test
+    void matchesSortedSetUnderRandomOperations() {
+        Random random = new Random(7);
+        LongPostingList list = new LongPostingList();
+        TreeSet<Long> expected = new TreeSet<>();
+
+        for (int i = 0; i < 5000; i++) {
+            long id = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                list.remove(id);
+                expected.remove(id);
+            } else {
+                list.add(id);
+                expected.add(id);
+            }
+        }
+
+        long[] other = random.longs(300, 0, 500).sorted().distinct().toArray();
+        TreeSet<Long> intersection = new TreeSet<>(expected);
+        intersection.retainAll(Arrays.stream(other).boxed().toList());
+        assertThat(list.toArray()).containsExactly(expected.stream().mapToLong(Long::longValue).toArray());
+        assertThat(list.retainAll(other)).containsExactly(intersection.stream().mapToLong(Long::longValue).toArray());
+    }
+}
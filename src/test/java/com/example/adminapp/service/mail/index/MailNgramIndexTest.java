@@ -0,0 +1,223 @@
+package com.example.adminapp.service.mail.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.adminapp.domain.MailLog;
+import com.example.adminapp.mapper.MailSearchMapper;
+import com.example.adminapp.service.mail.dto.MailSendListDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class MailNgramIndexTest {
+
+    // 同じ trigram が多くの行に現れるよう、文字種を絞る(大文字小文字・全角を含む)
+    private static final String ALPHABET = "abcABC.@-請求書";
+
+    private final Random random = new Random(20260301L);
+    private final Map<Long, MailLog> table = new TreeMap<>();
+
+    private MailSearchMapper mapper;
+    private TransactionTemplate transactionTemplate;
+    private long nextId = 1;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mapper = mock(MailSearchMapper.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any(Consumer.class));
+        // カーソル読込の代わりに table の行を ResultHandler へ渡す
+        doAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            ResultHandler<MailSendListDto> handler = invocation.getArgument(1);
+            for (MailLog row : table.values()) {
+                if (row.getId() > afterId) {
+                    ResultContext<MailSendListDto> context = mock(ResultContext.class);
+                    when(context.getResultObject()).thenReturn(listRow(row));
+                    handler.handleResult(context);
+                }
+            }
+            return null;
+        }).when(mapper).scanForIndex(anyLong(), any());
+    }
+
+    @Test
+    void candidatesCoverLikeMatchesAcrossInsertUpdateDelete() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            insert(null);
+        }
+        MailNgramIndex index = built(100_000);
+        assertCoversLike(index);
+
+        for (int step = 1; step <= 600; step++) {
+            int op = random.nextInt(3);
+            if (op == 0 || table.isEmpty()) {
+                insert(index);
+            } else if (op == 1) {
+                MailLog before = pick();
+                MailLog after = copy(before);
+                if (random.nextBoolean()) {
+                    after.setToAddress(randomText());
+                }
+                if (random.nextBoolean()) {
+                    after.setSubject(randomText());
+                }
+                table.put(after.getId(), after);
+                index.replace(before, after);
+            } else {
+                MailLog before = pick();
+                table.remove(before.getId());
+                index.remove(before);
+            }
+            if (step % 50 == 0) {
+                assertCoversLike(index);
+            }
+        }
+    }
+
+    @Test
+    void keywordsShorterThanGramOrWithWildcardsFallBackToSql() throws Exception {
+        insert(null).setSubject("請求書のご案内");
+        MailNgramIndex index = built(100_000);
+
+        assertThat(index.candidates("ab", null)).isNull();
+        assertThat(index.candidates(null, "請求")).isNull();
+        assertThat(index.candidates("", "")).isNull();
+        assertThat(index.candidates("a%c", null)).isNull();
+        assertThat(index.candidates(null, "請求_")).isNull();
+        // 短い側の条件は SQL で評価し、索引は長い側の条件のみで絞り込む
+        assertThat(index.candidates("ab", "請求書")).containsExactly(1L);
+    }
+
+    @Test
+    void tooManyCandidatesFallBackToSql() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            insert(null).setSubject("hello " + i);
+        }
+        insert(null).setSubject("goodbye");
+        MailNgramIndex index = built(5);
+
+        assertThat(index.candidates(null, "hello")).isNull();
+        assertThat(index.candidates(null, "goodbye")).containsExactly(11L);
+        assertThat(index.candidates(null, "hello 3")).containsExactly(4L);
+    }
+
+    @Test
+    void nothingIsReturnedUntilBuilt() {
+        insert(null).setSubject("hello");
+        MailNgramIndex index = new MailNgramIndex(mapper, transactionTemplate, true, 100_000);
+
+        assertThat(index.candidates(null, "hello")).isNull();
+    }
+
+    /**
+     * 件名・宛先アドレスの LIKE 一致(大文字小文字を区別する)の行が候補に含まれることを検証する
+     */
+    private void assertCoversLike(MailNgramIndex index) {
+        List<String> keywords = new ArrayList<>(List.of("abc", "ABC", "請求書", "a.b", "zzz"));
+        for (int i = 0; i < 30 && !table.isEmpty(); i++) {
+            String value = random.nextBoolean() ? pick().getToAddress() : pick().getSubject();
+            if (value != null && value.length() >= 3) {
+                int start = random.nextInt(value.length() - 2);
+                String keyword = value.substring(start, Math.min(value.length(), start + 3 + random.nextInt(4)));
+                keywords.add(random.nextInt(4) == 0 ? keyword.toUpperCase() : keyword);
+            }
+        }
+        for (String keyword : keywords) {
+            assertCovers(index, keyword, null);
+            assertCovers(index, null, keyword);
+            assertCovers(index, keywords.get(random.nextInt(keywords.size())), keyword);
+        }
+    }
+
+    private void assertCovers(MailNgramIndex index, String toAddress, String subjectKeyword) {
+        long[] candidates = index.candidates(toAddress, subjectKeyword);
+        List<Long> matches = table.values().stream()
+                .filter(row -> contains(row.getToAddress(), toAddress) && contains(row.getSubject(), subjectKeyword))
+                .map(MailLog::getId)
+                .toList();
+        assertThat(candidates).as("to=%s subject=%s", toAddress, subjectKeyword).isNotNull().isSorted();
+        assertThat(Arrays.stream(candidates).boxed().toList()).as("to=%s subject=%s", toAddress, subjectKeyword)
+                .containsAll(matches);
+    }
+
+    private static boolean contains(String value, String keyword) {
+        return keyword == null || (value != null && value.contains(keyword));
+    }
+
+    private MailNgramIndex built(int maxCandidates) throws InterruptedException {
+        MailNgramIndex index = new MailNgramIndex(mapper, transactionTemplate, true, maxCandidates);
+        index.build();
+        // 構築は別スレッドで行われる(完了までは null を返す)
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (index.candidates(null, "zzz") == null) {
+            assertThat(System.nanoTime()).as("index build timed out").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+        return index;
+    }
+
+    private MailLog insert(MailNgramIndex index) {
+        MailLog row = new MailLog();
+        row.setId(nextId++);
+        row.setToAddress(randomText());
+        row.setSubject(randomText());
+        table.put(row.getId(), row);
+        if (index != null) {
+            index.add(row);
+        }
+        return row;
+    }
+
+    private MailLog pick() {
+        List<MailLog> rows = new ArrayList<>(table.values());
+        return rows.get(random.nextInt(rows.size()));
+    }
+
+    private String randomText() {
+        if (random.nextInt(10) == 0) {
+            return null;
+        }
+        StringBuilder rtn = new StringBuilder();
+        for (int i = random.nextInt(12); i > 0; i--) {
+            rtn.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return rtn.toString();
+    }
+
+    private static MailLog copy(MailLog row) {
+        MailLog rtn = new MailLog();
+        rtn.setId(row.getId());
+        rtn.setToAddress(row.getToAddress());
+        rtn.setSubject(row.getSubject());
+        return rtn;
+    }
+
+    private static MailSendListDto listRow(MailLog row) {
+        MailSendListDto rtn = new MailSendListDto();
+        rtn.setId(row.getId());
+        rtn.setToAddress(row.getToAddress());
+        rtn.setSubject(row.getSubject());
+        return rtn;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.adminapp.service.mail.partition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.adminapp.mapper.MailLogPartitionMapper;
+import com.example.adminapp.service.mail.MailLogVersion;
+
+import java.time.YearMonth;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MailLogPartitionManagerTest {
+
+    private MailLogPartitionMapper mapper;
+    private YearMonth current;
+
+    @BeforeEach
+    void setUp() {
+        mapper = mock(MailLogPartitionMapper.class);
+        when(mapper.isPartitioned()).thenReturn(true);
+        current = YearMonth.now();
+    }
+
+    @Test
+    void partitionNameRoundTrips() {
+        assertThat(MailLogPartitionManager.partitionName(YearMonth.of(2026, 3))).isEqualTo("mail_log_202603");
+        assertThat(MailLogPartitionManager.monthOf("mail_log_202603")).isEqualTo(YearMonth.of(2026, 3));
+        assertThat(MailLogPartitionManager.monthOf(MailLogPartitionManager.partitionName(YearMonth.of(1999, 12))))
+                .isEqualTo(YearMonth.of(1999, 12));
+    }
+
+    @Test
+    void monthOfRejectsOtherNames() {
+        assertThat(MailLogPartitionManager.monthOf("mail_log_202613")).isNull();
+        assertThat(MailLogPartitionManager.monthOf("mail_log_202600")).isNull();
+        assertThat(MailLogPartitionManager.monthOf("mail_log_unpartitioned")).isNull();
+        assertThat(MailLogPartitionManager.monthOf("mail_log_202603; DROP TABLE mail_log")).isNull();
+        assertThat(MailLogPartitionManager.monthOf("x_mail_log_202603")).isNull();
+    }
+
+    @Test
+    void partitionsAreCreatedFromCurrentMonthAhead() {
+        manager(0, "DROP").maintain();
+
+        for (int i = 0; i <= 2; i++) {
+            YearMonth month = current.plusMonths(i);
+            verify(mapper).createPartition(MailLogPartitionManager.partitionName(month),
+                    month.atDay(1), month.plusMonths(1).atDay(1));
+        }
+        verify(mapper, never()).createPartition(eq(MailLogPartitionManager.partitionName(current.plusMonths(3))), any(), any());
+        verify(mapper, never()).findPartitionNames();
+    }
+
+    @Test
+    void onlyMonthsBeforeRetentionCutoffAreDetachedAndDropped() {
+        // 保存期間 3 ヶ月: 3 ヶ月前の月は保存対象、4 ヶ月前の月から切り離す
+        String expired = MailLogPartitionManager.partitionName(current.minusMonths(4));
+        String retained = MailLogPartitionManager.partitionName(current.minusMonths(3));
+        when(mapper.findPartitionNames()).thenReturn(List.of(expired, retained,
+                MailLogPartitionManager.partitionName(current), "mail_log_archive"));
+
+        manager(3, "DROP").maintain();
+
+        verify(mapper).detachPartition(expired);
+        verify(mapper).dropPartition(expired);
+        verify(mapper, never()).detachPartition(retained);
+        verify(mapper, never()).detachPartition(MailLogPartitionManager.partitionName(current));
+        verify(mapper, never()).detachPartition("mail_log_archive");
+    }
+
+    @Test
+    void detachOnlyKeepsTheTable() {
+        String expired = MailLogPartitionManager.partitionName(current.minusMonths(13));
+        when(mapper.findPartitionNames()).thenReturn(List.of(expired));
+
+        manager(12, "DETACH").maintain();
+
+        verify(mapper).detachPartition(expired);
+        verify(mapper, never()).dropPartition(anyString());
+    }
+
+    @Test
+    void interruptedDetachIsFinalizedAndFailedDetachIsNotDropped() {
+        String pending = MailLogPartitionManager.partitionName(current.minusMonths(5));
+        String failing = MailLogPartitionManager.partitionName(current.minusMonths(6));
+        when(mapper.findDetachPendingNames()).thenReturn(List.of(pending, "unexpected name"));
+        when(mapper.findPartitionNames()).thenReturn(List.of(failing));
+        doThrow(new IllegalStateException("lock timeout")).when(mapper).detachPartition(failing);
+
+        manager(3, "DROP").maintain();
+
+        verify(mapper).finalizeDetach(pending);
+        verify(mapper).dropPartition(pending);
+        verify(mapper, never()).finalizeDetach("unexpected name");
+        verify(mapper, never()).dropPartition(failing);
+    }
+
+    @Test
+    void nothingIsDoneUntilTableIsPartitioned() {
+        when(mapper.isPartitioned()).thenReturn(false);
+
+        manager(3, "DROP").maintain();
+
+        verify(mapper, never()).createPartition(anyString(), any(), any());
+        verify(mapper, never()).findPartitionNames();
+    }
+
+    private MailLogPartitionManager manager(int retentionMonths, String retentionAction) {
+        return new MailLogPartitionManager(mapper, new MailLogVersion(), true, 2, retentionMonths, retentionAction);
+    }
+}
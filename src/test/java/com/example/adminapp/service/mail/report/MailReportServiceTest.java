@@ -0,0 +1,102 @@
+package com.example.adminapp.service.mail.report;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.adminapp.mapper.MailRollupMapper;
+import com.example.adminapp.service.mail.dto.MailReportDto;
+import com.example.adminapp.service.mail.dto.MailReportRowDto;
+import com.example.adminapp.service.mail.dto.MailRollupCountDto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MailReportServiceTest {
+
+    private MailRollupMapper mapper;
+    private MailReportService service;
+
+    @BeforeEach
+    void setUp() {
+        mapper = mock(MailRollupMapper.class);
+        when(mapper.findDaily(any(), any())).thenReturn(List.of());
+        when(mapper.findMonthly(any(), any())).thenReturn(List.of());
+        service = new MailReportService(mapper, 4, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void dailyRangeIsSplitPerMonth() {
+        MailReportDto report = service.report(Map.of("granularity", "daily", "from", "2024-01-20", "to", "2024-03-05"));
+
+        verify(mapper).findDaily(LocalDate.of(2024, 1, 20), LocalDate.of(2024, 2, 1));
+        verify(mapper).findDaily(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1));
+        verify(mapper).findDaily(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 6));
+        assertThat(report.getRows()).hasSize(46);
+        assertThat(report.getRows()).allSatisfy(row -> assertThat(row.getTotal()).isZero());
+    }
+
+    @Test
+    void monthlyRangeIsWidenedToWholeMonths() {
+        MailReportDto report = service.report(Map.of("granularity", "MONTHLY", "from", "2023-11-15", "to", "2024-02-10"));
+
+        assertThat(report.getFrom()).isEqualTo(LocalDate.of(2023, 11, 1));
+        assertThat(report.getTo()).isEqualTo(LocalDate.of(2024, 2, 29));
+        verify(mapper).findMonthly(LocalDate.of(2023, 11, 1), LocalDate.of(2023, 12, 1));
+        verify(mapper).findMonthly(LocalDate.of(2023, 12, 1), LocalDate.of(2024, 1, 1));
+        verify(mapper).findMonthly(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1));
+        verify(mapper).findMonthly(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1));
+        assertThat(report.getRows()).extracting(MailReportRowDto::getPeriod).containsExactly(
+                LocalDate.of(2023, 11, 1), LocalDate.of(2023, 12, 1), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1));
+    }
+
+    @Test
+    void bucketsAreMergedPerPeriodAndDomain() {
+        when(mapper.findDaily(LocalDate.of(2024, 1, 30), LocalDate.of(2024, 2, 1))).thenReturn(List.of(
+                row(LocalDate.of(2024, 1, 30), "SUCCESS", "a.example", 3),
+                row(LocalDate.of(2024, 1, 31), "FAILED", "b.example", 1)));
+        when(mapper.findDaily(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 3))).thenReturn(List.of(
+                row(LocalDate.of(2024, 2, 1), "SUCCESS", "a.example", 2),
+                row(LocalDate.of(2024, 2, 1), "CANCELED", "a.example", 1)));
+
+        MailReportDto report = service.report(Map.of("granularity", "DAILY", "from", "2024-01-30", "to", "2024-02-02"));
+
+        assertThat(report.getRows()).extracting(MailReportRowDto::getTotal).containsExactly(3L, 1L, 3L, 0L);
+        assertThat(report.getRows().get(2).getOther()).isEqualTo(1);
+        assertThat(report.getSummary().getSuccess()).isEqualTo(5);
+        assertThat(report.getSummary().getFailed()).isEqualTo(1);
+        assertThat(report.getSummary().getFailureRate()).isEqualTo(1.0 / 6);
+        assertThat(report.getRollupRows()).isEqualTo(4);
+        // 上位のドメインのみ(件数の多い順)
+        assertThat(report.getDomains()).singleElement().satisfies(domain -> {
+            assertThat(domain.getDomain()).isEqualTo("a.example");
+            assertThat(domain.getTotal()).isEqualTo(6);
+        });
+    }
+
+    @Test
+    void failureOfOneBucketFailsReport() {
+        when(mapper.findDaily(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 3)))
+                .thenThrow(new IllegalStateException("rollup unavailable"));
+
+        assertThatThrownBy(() -> service.report(Map.of("granularity", "DAILY", "from", "2024-01-30", "to", "2024-02-02")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("rollup unavailable");
+    }
+
+    private static MailRollupCountDto row(LocalDate period, String status, String domain, long count) {
+        return new MailRollupCountDto(period, status, domain, count);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.adminapp.service.mail.report;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.adminapp.mapper.MailRollupMapper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class MailRollupJobTest {
+
+    private MailRollupMapper mapper;
+    private MailRollupJob job;
+
+    @BeforeEach
+    void setUp() {
+        mapper = mock(MailRollupMapper.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        job = new MailRollupJob(mapper, transactionTemplate, true, 10, 300, 10);
+    }
+
+    @Test
+    void rollupAdvancesAtMostBatchSizeIds() {
+        LocalDateTime settledBefore = LocalDateTime.of(2024, 2, 1, 0, 0);
+        when(mapper.lockWatermark()).thenReturn(100L);
+        when(mapper.findSettledUpperId(100L, settledBefore)).thenReturn(1000L);
+
+        assertThat(job.rollupBatch(settledBefore)).isEqualTo(300);
+        verify(mapper).rollupDaily(100L, 400L);
+        verify(mapper).rollupMonthly(100L, 400L);
+        verify(mapper).updateWatermark(400L);
+    }
+
+    @Test
+    void changedDaysAndTheirMonthsAreReaggregated() {
+        LocalDateTime since = LocalDateTime.of(2024, 2, 20, 0, 0);
+        LocalDateTime until = since.plusMinutes(5);
+        when(mapper.lockWatermark()).thenReturn(500L);
+        when(mapper.lockReaggregatedUntil()).thenReturn(since);
+        when(mapper.findChangedDays(500L, since, until)).thenReturn(List.of(
+                LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 15)));
+
+        assertThat(job.reaggregateChanged(until)).isEqualTo(3);
+
+        for (LocalDate day : List.of(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 15))) {
+            verify(mapper).deleteDaily(day);
+            verify(mapper).rollupDay(day, 500L);
+        }
+        verify(mapper).deleteMonthly(LocalDate.of(2024, 1, 1));
+        verify(mapper).rollupMonthFromDaily(LocalDate.of(2024, 1, 1));
+        verify(mapper).deleteMonthly(LocalDate.of(2024, 2, 1));
+        verify(mapper).rollupMonthFromDaily(LocalDate.of(2024, 2, 1));
+        verify(mapper, times(2)).rollupMonthFromDaily(any());
+        verify(mapper).updateReaggregatedUntil(until);
+    }
+
+    @Test
+    void nothingIsReaggregatedBeforeMarkAdvances() {
+        LocalDateTime since = LocalDateTime.of(2024, 2, 20, 0, 0);
+        when(mapper.lockWatermark()).thenReturn(500L);
+        when(mapper.lockReaggregatedUntil()).thenReturn(since);
+
+        assertThat(job.reaggregateChanged(since)).isZero();
+        verify(mapper, never()).findChangedDays(anyLong(), any(), any());
+        verify(mapper, never()).updateReaggregatedUntil(any());
+    }
+}
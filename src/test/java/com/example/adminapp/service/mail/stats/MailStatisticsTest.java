@@ -0,0 +1,143 @@
+package com.example.adminapp.service.mail.stats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.adminapp.domain.MailLog;
+import com.example.adminapp.mapper.MailSearchMapper;
+import com.example.adminapp.service.mail.dto.MailStatisticsBucketDto;
+import com.example.adminapp.service.mail.dto.MailStatusCountDto;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MailStatisticsTest {
+
+    private MailSearchMapper mapper;
+    private MailStatistics statistics;
+    private LocalDateTime hour;
+
+    @BeforeEach
+    void setUp() {
+        mapper = mock(MailSearchMapper.class);
+        statistics = new MailStatistics(mapper);
+        // 時の切替を跨いでも同じ時間帯を参照するよう、2時間前の時間帯で検証する
+        hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(2);
+    }
+
+    @Test
+    void newerPeriodReplacesOlderPeriodInSameSlot() {
+        LocalDateTime twoDaysBefore = hour.minusHours(48);
+        statistics.inserted(mailLog(twoDaysBefore.plusMinutes(1), "SUCCESS"));
+        statistics.inserted(mailLog(hour.plusMinutes(1), "SUCCESS"));
+        // 新しい期間に置き換えられた位置には、古い期間の件数を加算しない
+        statistics.inserted(mailLog(twoDaysBefore.plusMinutes(2), "SUCCESS"));
+
+        assertThat(hourly(hour).getSuccess()).isEqualTo(1);
+        assertThat(hourly(hour).getTotal()).isEqualTo(1);
+    }
+
+    @Test
+    void statusChangeMovesCountWithinPeriod() {
+        statistics.inserted(mailLog(hour.plusMinutes(1), "PENDING"));
+        statistics.inserted(mailLog(hour.plusMinutes(2), "PENDING"));
+        statistics.statusChanged(hour.plusMinutes(1), "PENDING", "FAILED");
+        statistics.statusChanged(hour.plusMinutes(2), "PENDING", "SUCCESS");
+
+        MailStatisticsBucketDto bucket = hourly(hour);
+        assertThat(bucket.getPending()).isZero();
+        assertThat(bucket.getSuccess()).isEqualTo(1);
+        assertThat(bucket.getFailed()).isEqualTo(1);
+        assertThat(bucket.getFailureRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void concurrentUpdatesAcrossRolloverAreNotLost() throws Exception {
+        LocalDateTime older = hour.minusHours(48);
+        int threads = 8;
+        int perThread = 5_000;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                boolean writesOlder = t % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        statistics.inserted(mailLog(hour, "SUCCESS"));
+                        if (writesOlder) {
+                            statistics.inserted(mailLog(older, "SUCCESS"));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 同じ位置を奪い合っても、新しい期間の件数はすべて残る
+        assertThat(hourly(hour).getSuccess()).isEqualTo((long) threads * perThread);
+    }
+
+    @Test
+    void resyncCorrectsDriftAndKeepsUpdatesDuringQuery() {
+        statistics.inserted(mailLog(hour.plusMinutes(1), "SUCCESS"));
+        statistics.inserted(mailLog(hour.plusMinutes(2), "PENDING"));
+        when(mapper.countByHourAndStatus(any(), any())).thenAnswer(invocation -> {
+            // 集計中に登録された行は集計結果に含まれない
+            statistics.inserted(mailLog(hour.plusMinutes(3), "PENDING"));
+            return List.of(
+                    new MailStatusCountDto(hour, "SUCCESS", 5),
+                    new MailStatusCountDto(hour, "FAILED", 2));
+        });
+
+        statistics.resync();
+
+        MailStatisticsBucketDto bucket = hourly(hour);
+        assertThat(bucket.getSuccess()).isEqualTo(5);
+        assertThat(bucket.getFailed()).isEqualTo(2);
+        assertThat(bucket.getPending()).isEqualTo(1);
+        assertThat(statistics.snapshot().isLoaded()).isTrue();
+    }
+
+    @Test
+    void failedResyncKeepsInMemoryCounts() {
+        statistics.inserted(mailLog(hour.plusMinutes(1), "SUCCESS"));
+        when(mapper.countByHourAndStatus(any(), any())).thenThrow(new IllegalStateException("db down"));
+
+        statistics.resync();
+
+        assertThat(hourly(hour).getSuccess()).isEqualTo(1);
+        assertThat(statistics.snapshot().isLoaded()).isFalse();
+    }
+
+    private MailStatisticsBucketDto hourly(LocalDateTime start) {
+        return statistics.snapshot().getHourly().stream()
+                .filter(bucket -> bucket.getStart().equals(start))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static MailLog mailLog(LocalDateTime createdAt, String status) {
+        MailLog log = new MailLog();
+        log.setCreatedAt(createdAt);
+        log.setStatus(status);
+        return log;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.adminapp.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+class EmailListScannerTest {
+
+    // 従来の FormValidator が使用していた正規表現
+    private static final Pattern EMAIL_PATTERN =
+            Pattern.compile("^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+
+    private static final String ALPHABET = "aZ09._%+-@, \tあ.co.jpx";
+
+    @Test
+    void matchesLegacySplitAndRegexOnKnownCases() {
+        List<String> cases = List.of(
+                "a@example.com", "a@example.c", "a@example.c0m", "a@.com", "a@..com", "@example.com",
+                "a@@example.com", "a@example", "a@b.co, c@d.jp", "a@b.co,", "a@b.co,,", ",a@b.co",
+                "a@b.co,,c@d.jp", "a@b.co, ,c@d.jp", ",", ",,,", " , ", "a@b.co ,\tc@d.jp ",
+                "a.b+c%d_e-f@x-y.z.co", "a@b-.co", "a@b.co-", "a@b.c-o", "あ@b.co", "a@b.co　",
+                "a@b.COM", "a@1.23", "a b@c.de");
+        for (String value : cases) {
+            assertThat(EmailListScanner.isValid(value, 0, value.length()))
+                    .as(value)
+                    .isEqualTo(legacyIsValid(value));
+        }
+    }
+
+    @Test
+    void matchesLegacySplitAndRegexOnRandomInput() {
+        Random random = new Random(42);
+        for (int n = 0; n < 200_000; n++) {
+            int length = 1 + random.nextInt(20);
+            StringBuilder value = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                value.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            String trimmed = value.toString().trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            assertThat(EmailListScanner.isValid(trimmed, 0, trimmed.length()))
+                    .as(trimmed)
+                    .isEqualTo(legacyIsValid(trimmed));
+        }
+    }
+
+    @Test
+    void validatorReportsFirstFailingCheckPerField() {
+        FormValidator validator = new FormValidator();
+        Map<String, String> errors = validator.validate(MailSendField.class, Map.of(
+                "toAddress", " a@b.co, x ",
+                "replyTo", "r@b.co",
+                "ccAddress", "c".repeat(1001),
+                "subject", "  ",
+                "body", "本文"));
+
+        assertThat(errors).containsOnlyKeys("toAddress", "ccAddress", "subject");
+        assertThat(errors.get("toAddress")).isEqualTo("宛先(To)の形式が不正です");
+        assertThat(errors.get("ccAddress")).isEqualTo("CC は1000文字以内で入力してください");
+        assertThat(errors.get("subject")).isEqualTo("件名は必須です");
+    }
+
+    private static boolean legacyIsValid(String value) {
+        for (String candidate : value.split(",")) {
+            String email = candidate.trim();
+            if (email.isEmpty() || !EMAIL_PATTERN.matcher(email).matches()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}